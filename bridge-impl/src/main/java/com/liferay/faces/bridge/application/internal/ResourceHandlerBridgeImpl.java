@@ -185,6 +185,17 @@ public class ResourceHandlerBridgeImpl extends ResourceHandlerWrapperBase {
 		return bufferSize;
 	}
 
+	/**
+	 * Returns <code>null</code> so that the contents of resources are not placed in the server-side resource cache by
+	 * default. In a portlet environment, URLs that are found in the contents of a resource (such as those that are
+	 * expanded from #{resource[...]} expressions) are encoded with {@link ExternalContext#encodeResourceURL(String)},
+	 * which yields URLs that are specific to the portlet and to the portal page.
+	 */
+	@Override
+	protected String getResourceCacheKey(FacesContext facesContext, Resource resource) {
+		return null;
+	}
+
 	@Override
 	protected boolean isAbleToSetHttpStatusCode(FacesContext facesContext) {
 
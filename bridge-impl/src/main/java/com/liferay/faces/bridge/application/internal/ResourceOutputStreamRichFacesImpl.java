@@ -14,6 +14,7 @@
 package com.liferay.faces.bridge.application.internal;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +24,8 @@ import javax.faces.context.FacesContext;
 
 import com.liferay.faces.util.io.Filterable;
 import com.liferay.faces.util.io.ResourceOutputStream;
+import com.liferay.faces.util.io.TokenHandler;
+import com.liferay.faces.util.io.TokenRewriter;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
@@ -39,8 +42,13 @@ public class ResourceOutputStreamRichFacesImpl extends ResourceOutputStream impl
 
 	// Private Constants
 	private static final String EXTENSION_CSS = ".css";
+	private static final int MAX_LOOKAHEAD = 1024;
 	private static final String ORG_RICHFACES_IMAGES = "org.richfaces.images";
 	private static final String PACKED_JS = "packed.js";
+	private static final String[] PACKED_JS_TOKENS = new String[] {
+			"this.form.attr(\"action\", originalAction + delimiter + UID + \"=\" + this.loadableItem.uid);",
+			"if (jQuery.atmosphere.requests.length > 0) {", "jQuery.atmosphere.unsubscribe();"
+		};
 
 	// FACES-1214
 	protected enum RichFacesImageResource {
@@ -72,167 +80,165 @@ public class ResourceOutputStreamRichFacesImpl extends ResourceOutputStream impl
 		}
 	}
 
+	// Private Constants
+	private static final TokenRewriter IMAGE_URL_REWRITER;
+	private static final TokenRewriter PACKED_JS_REWRITER = new TokenRewriter(PACKED_JS_TOKENS, 1);
+
+	static {
+
+		RichFacesImageResource[] richFacesImageResources = RichFacesImageResource.values();
+		String[] pathPrefixes = new String[richFacesImageResources.length];
+
+		for (int i = 0; i < richFacesImageResources.length; i++) {
+			pathPrefixes[i] = richFacesImageResources[i].getPathPrefix();
+		}
+
+		IMAGE_URL_REWRITER = new TokenRewriter(pathPrefixes, MAX_LOOKAHEAD);
+	}
+
 	public ResourceOutputStreamRichFacesImpl(Resource resource, int size) {
 		super(resource, size);
 	}
 
 	public void filter() throws IOException {
 
-		String resourceName = getResource().getResourceName();
-
 		FacesContext facesContext = FacesContext.getCurrentInstance();
+		filter(facesContext.getApplication().getResourceHandler());
+	}
+
+	protected void filter(ResourceHandler resourceHandler) throws IOException {
+
+		String resourceName = getResource().getResourceName();
 
 		// If this is a RichFaces CSS resource like packed.css or skinning.css, then fix the URLs
 		// inside of the CSS text before sending it back as part of the response. For more info, see
 		// http://issues.liferay.com/browse/FACES-1214
 		if (resourceName.indexOf(EXTENSION_CSS) > 0) {
-
-			String textBefore = toString();
-			String textAfter = fixRichFacesImageURLs(facesContext, textBefore);
-			reset();
-			write(textAfter.getBytes());
+			rewrite(IMAGE_URL_REWRITER, new ImageURLTokenHandler(resourceHandler), StringPool.UTF8);
 		}
 
 		// Otherwise, if this is the packed.js JavaScript resource, then fix the JS code so that
 		// rich:fileUpload will work.
 		else if (resourceName.indexOf(PACKED_JS) >= 0) {
-
-			String textBefore = toString();
-			String textAfter = fixRichFacesPackedDotJs(facesContext, textBefore);
-			reset();
-			write(textAfter.getBytes());
+			rewrite(PACKED_JS_REWRITER, new PackedDotJsTokenHandler(), StringPool.UTF8);
 		}
 	}
 
 	/**
-	 * This method is part of a fix for FACES-1214. Some of the RichFacess CSS resources have relative URLs that must be
+	 * This class is part of a fix for FACES-1214. Some of the RichFacess CSS resources have relative URLs that must be
 	 * translated to ResourceURLs so that they work in a portlet environment.
 	 */
-	protected String fixRichFacesImageURLs(FacesContext facesContext, String cssText) {
+	protected static class ImageURLTokenHandler implements TokenHandler {
+
+		// Private Data Members
+		private ResourceHandler resourceHandler;
 
 		// Since the same image URL often appears more then once, maintain a cache of URLs for fast lookup.
-		Map<String, String> resourceURLCache = new HashMap<String, String>();
-		ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
-
-		// For each of the RichFaces image resource types:
-		for (RichFacesImageResource richFacesImageResource : RichFacesImageResource.values()) {
-
-			// Parse the specified CSS text, and replace each relative URL with a ResourceURL.
-			boolean doneProcessingURLs = false;
-
-			while (!doneProcessingURLs) {
-
-				String pathPrefix = richFacesImageResource.getPathPrefix();
-				int urlStartPos = cssText.indexOf(pathPrefix);
-
-				if (urlStartPos > 0) {
-
-					int fileNameStartPos = urlStartPos + pathPrefix.length();
-
-					int dotPos = cssText.indexOf(StringPool.PERIOD, fileNameStartPos);
-
-					if (dotPos > 0) {
-						boolean doneFindingExtension = false;
-						int extensionStartPos = dotPos + 1;
-						int extensionFinishPos = extensionStartPos;
-
-						while (!doneFindingExtension) {
-
-							if ((extensionFinishPos < cssText.length()) &&
-									Character.isLetterOrDigit(cssText.charAt(extensionFinishPos))) {
-								extensionFinishPos++;
-							}
-							else {
-								doneFindingExtension = true;
-							}
-						}
-
-						String relativePathKey = cssText.substring(urlStartPos, extensionFinishPos);
-						String imageResourceURL = resourceURLCache.get(relativePathKey);
-
-						if (imageResourceURL == null) {
-							String resourceName = cssText.substring(fileNameStartPos, extensionFinishPos);
-							String libraryName = richFacesImageResource.getLibraryName();
-							String substitutionToken = richFacesImageResource.getSubstitutionToken();
-							Resource imageResource = resourceHandler.createResource(resourceName, libraryName);
-							imageResourceURL = imageResource.getRequestPath();
-							imageResourceURL = imageResourceURL.replaceAll(libraryName, substitutionToken);
-							resourceURLCache.put(relativePathKey, imageResourceURL);
-						}
-
-						StringBuilder buf = new StringBuilder();
-						buf.append(cssText.substring(0, urlStartPos));
-						buf.append(imageResourceURL);
-						buf.append(cssText.substring(extensionFinishPos));
-						cssText = buf.toString();
-					}
-					else {
-						logger.error("Unable to find image filename in URL");
-					}
+		private Map<String, String> resourceURLCache = new HashMap<String, String>();
+
+		public ImageURLTokenHandler(ResourceHandler resourceHandler) {
+			this.resourceHandler = resourceHandler;
+		}
+
+		public int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException {
+
+			// The token is the path prefix, and the lookahead starts with the image filename.
+			int dotPos = -1;
+
+			for (int i = 0; i < lookahead.length(); i++) {
+
+				if (lookahead.charAt(i) == '.') {
+					dotPos = i;
+
+					break;
 				}
-				else {
-					doneProcessingURLs = true;
+			}
+
+			if (dotPos < 0) {
+				logger.error("Unable to find image filename in URL");
+
+				return -1;
+			}
+
+			int extensionFinishPos = dotPos + 1;
+
+			while ((extensionFinishPos < lookahead.length()) &&
+					Character.isLetterOrDigit(lookahead.charAt(extensionFinishPos))) {
+				extensionFinishPos++;
+			}
+
+			RichFacesImageResource richFacesImageResource = RichFacesImageResource.values()[tokenIndex];
+			String resourceName = lookahead.subSequence(0, extensionFinishPos).toString();
+			String relativePathKey = richFacesImageResource.getPathPrefix() + resourceName;
+			String imageResourceURL = resourceURLCache.get(relativePathKey);
+
+			if (imageResourceURL == null) {
+
+				String libraryName = richFacesImageResource.getLibraryName();
+				Resource imageResource = resourceHandler.createResource(resourceName, libraryName);
+
+				if (imageResource != null) {
+					imageResourceURL = imageResource.getRequestPath();
+				}
+
+				if (imageResourceURL == null) {
+					return -1;
 				}
+
+				resourceURLCache.put(relativePathKey, imageResourceURL);
 			}
-		}
 
-		for (RichFacesImageResource richFacesImageResource : RichFacesImageResource.values()) {
-			cssText = cssText.replace(richFacesImageResource.getSubstitutionToken(),
-					richFacesImageResource.getLibraryName());
-		}
+			writer.write(imageResourceURL);
 
-		return cssText;
+			return extensionFinishPos;
+		}
 	}
 
-	protected String fixRichFacesPackedDotJs(FacesContext facesContext, String javaScriptText) {
+	/**
+	 * This class fixes the first occurrence of each of the {@link #PACKED_JS_TOKENS} in the packed.js resource.
+	 */
+	protected static class PackedDotJsTokenHandler implements TokenHandler {
 
-		// Replace the URL used by rich:fileUpload for forum submission.
-		// http://issues.liferay.com/browse/FACES-1234
-		// https://issues.jboss.org/browse/RF-12273
-		String token = "this.form.attr(\"action\", originalAction + delimiter + UID + \"=\" + this.loadableItem.uid);";
-		int pos = javaScriptText.indexOf(token);
+		// Private Data Members
+		private boolean[] handled = new boolean[PACKED_JS_TOKENS.length];
 
-		if (pos > 0) {
-			logger.debug("Found first token in packed.js");
+		public int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException {
 
-			StringBuilder buf = new StringBuilder();
-			buf.append(javaScriptText.substring(0, pos));
-			buf.append(
-				"this.form.attr(\"action\", this.form.children(\"input[name='javax.faces.encodedURL']\").val() + delimiter + UID + \"=\" + this.loadableItem.uid);");
-			buf.append(javaScriptText.substring(pos + token.length() + 1));
-			javaScriptText = buf.toString();
-		}
+			if (handled[tokenIndex]) {
+				return -1;
+			}
 
-		// Fix JavaScript error "TypeError: jQuery.atmosphere is undefined" by inserting checks for undefined variable.
-		// http://issues.liferay.com/browse/FACES-1532
-		token = "if (jQuery.atmosphere.requests.length > 0) {";
-		pos = javaScriptText.indexOf(token);
+			handled[tokenIndex] = true;
 
-		if (pos > 0) {
-			logger.debug("Found second token in packed.js");
+			if (tokenIndex == 0) {
 
-			StringBuilder buf = new StringBuilder();
-			buf.append(javaScriptText.substring(0, pos));
-			buf.append("if (!jQuery.atmosphere) { return; }; ");
-			buf.append(javaScriptText.substring(pos));
-			javaScriptText = buf.toString();
-		}
+				// Replace the URL used by rich:fileUpload for forum submission. Note that the character that follows
+				// the token is removed as well.
+				// http://issues.liferay.com/browse/FACES-1234
+				// https://issues.jboss.org/browse/RF-12273
+				logger.debug("Found first token in packed.js");
+				writer.write(
+					"this.form.attr(\"action\", this.form.children(\"input[name='javax.faces.encodedURL']\").val() + delimiter + UID + \"=\" + this.loadableItem.uid);");
 
-		// jQuery.atmosphere.unsubscribe();
-		token = "jQuery.atmosphere.unsubscribe();";
-		pos = javaScriptText.indexOf(token);
+				return Math.min(1, lookahead.length());
+			}
+			else {
 
-		if (pos > 0) {
-			logger.debug("Found third token in packed.js");
+				// Fix JavaScript error "TypeError: jQuery.atmosphere is undefined" by inserting checks for undefined
+				// variable.
+				// http://issues.liferay.com/browse/FACES-1532
+				if (tokenIndex == 1) {
+					logger.debug("Found second token in packed.js");
+				}
+				else {
+					logger.debug("Found third token in packed.js");
+				}
 
-			StringBuilder buf = new StringBuilder();
-			buf.append(javaScriptText.substring(0, pos));
-			buf.append("if (!jQuery.atmosphere) { return; }; ");
-			buf.append(javaScriptText.substring(pos));
-			javaScriptText = buf.toString();
-		}
+				writer.write("if (!jQuery.atmosphere) { return; }; ");
+				writer.write(PACKED_JS_TOKENS[tokenIndex]);
 
-		return javaScriptText;
+				return 0;
+			}
+		}
 	}
-
 }
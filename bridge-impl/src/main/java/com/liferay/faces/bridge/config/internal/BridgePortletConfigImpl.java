@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.config.internal;
+
+import javax.portlet.PortletConfig;
+
+
+/**
+ * This class decorates the {@link PortletConfig} that is passed to the bridge when it is initialized with a snapshot of
+ * the typed values of the bridge's init-params.
+ *
+ * @author  Neil Griffin
+ */
+public class BridgePortletConfigImpl extends PortletConfigWrapper {
+
+	// Private Data Members
+	private final PortletConfigParamValues portletConfigParamValues;
+	private final PortletConfig wrappedPortletConfig;
+
+	public BridgePortletConfigImpl(PortletConfig portletConfig) {
+		this.wrappedPortletConfig = portletConfig;
+		this.portletConfigParamValues = new PortletConfigParamValues(portletConfig);
+	}
+
+	public PortletConfigParamValues getPortletConfigParamValues() {
+		return portletConfigParamValues;
+	}
+
+	@Override
+	public PortletConfig getWrapped() {
+		return wrappedPortletConfig;
+	}
+}
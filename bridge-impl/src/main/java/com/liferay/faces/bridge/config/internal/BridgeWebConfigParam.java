@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.config.internal;
+
+import javax.portlet.PortletContext;
+
+import com.liferay.faces.util.config.ConfigParam;
+
+
+/**
+ * This enumeration contains the bridge configuration parameters that are specified as context-param entries in the
+ * WEB-INF/web.xml descriptor. Unlike {@link PortletConfigParam}, these parameters configure objects that are shared by
+ * all of the portlets in the web application, and therefore cannot be specified as portlet init-param entries.
+ *
+ * @author  Neil Griffin
+ */
+public enum BridgeWebConfigParam implements ConfigParam<PortletContext> {
+
+	/**
+	 * Number of milliseconds that a bridge request scope can remain in the cache without being accessed before it is
+	 * evicted. Default value is 0 which indicates that bridge request scopes are only evicted when the value of the
+	 * javax.portlet.faces.MAX_MANAGED_REQUEST_SCOPES context-param is exceeded.
+	 */
+	BridgeRequestScopeIdleTimeout("com.liferay.faces.bridge.bridgeRequestScopeIdleTimeout", 0L),
+
+	/**
+	 * Maximum number of expired sessions that can be waiting for the background threads to invoke the @PreDestroy
+	 * methods of their managed-beans. If the limit is reached, then the methods are invoked by the thread that expires
+	 * the session. Default value is 1000.
+	 */
+	SessionDestroyedQueueSize("com.liferay.faces.bridge.sessionDestroyedQueueSize", 1000),
+
+	/**
+	 * Number of background threads that invoke the @PreDestroy methods of managed-beans upon session expiration.
+	 * Default value is 0, which indicates that the methods are invoked by the thread that expires the session.
+	 */
+	SessionDestroyedThreads("com.liferay.faces.bridge.sessionDestroyedThreads", 0),
+
+	/**
+	 * Number of milliseconds after which a per-session upload directory that has not been modified is deleted by a
+	 * background reaper. Default value is 0, which indicates that the reaper is disabled.
+	 */
+	UploadedFilesMaxAge("com.liferay.faces.bridge.uploadedFilesMaxAge", 0L),
+
+	/**
+	 * Maximum number of bytes that can be occupied by the uploaded files of a single session. Default value is 0, which
+	 * indicates that there is no limit.
+	 */
+	UploadedFilesSessionQuota("com.liferay.faces.bridge.uploadedFilesSessionQuota", 0L),
+
+	/**
+	 * Maximum number of bytes that can be occupied by the uploaded files of all sessions. Default value is 0, which
+	 * indicates that there is no limit.
+	 */
+	UploadedFilesTotalQuota("com.liferay.faces.bridge.uploadedFilesTotalQuota", 0L),
+
+	/**
+	 * Number of milliseconds after which the bridge checks again whether or not a view resource exists, rather than
+	 * relying on the cached answer. Default value is 0, which indicates that answers are cached until the application
+	 * is restarted. Answers are never cached when the JSF project stage is Development.
+	 */
+	ViewResourceCheckInterval("com.liferay.faces.bridge.viewResourceCheckInterval", 0L);
+
+	// Private Data Members
+	private boolean defaultBooleanValue;
+	private String defaultStringValue;
+	private int defaultIntegerValue;
+	private long defaultLongValue;
+	private String name;
+
+	private BridgeWebConfigParam(String name, int defaultIntegerValue) {
+		this.name = name;
+		this.defaultBooleanValue = (defaultIntegerValue != 0);
+		this.defaultIntegerValue = defaultIntegerValue;
+		this.defaultLongValue = defaultIntegerValue;
+		this.defaultStringValue = Integer.toString(defaultIntegerValue);
+	}
+
+	private BridgeWebConfigParam(String name, long defaultLongValue) {
+		this.name = name;
+		this.defaultBooleanValue = (defaultLongValue != 0);
+
+		if (defaultLongValue < Integer.MIN_VALUE) {
+			this.defaultIntegerValue = Integer.MIN_VALUE;
+		}
+		else if (defaultLongValue > Integer.MAX_VALUE) {
+			this.defaultIntegerValue = Integer.MAX_VALUE;
+		}
+		else {
+			this.defaultIntegerValue = (int) defaultLongValue;
+		}
+
+		this.defaultLongValue = defaultLongValue;
+		this.defaultStringValue = Long.toString(defaultLongValue);
+	}
+
+	public String getAlternateName() {
+		return null;
+	}
+
+	@Override
+	public boolean getBooleanValue(PortletContext portletContext) {
+		return BridgeWebConfigParamUtil.getBooleanValue(portletContext.getInitParameter(name), defaultBooleanValue);
+	}
+
+	@Override
+	public String getConfiguredValue(PortletContext portletContext) {
+		return portletContext.getInitParameter(name);
+	}
+
+	@Override
+	public boolean isConfigured(PortletContext portletContext) {
+		return (portletContext.getInitParameter(name) != null);
+	}
+
+	public boolean getDefaultBooleanValue() {
+		return defaultBooleanValue;
+	}
+
+	public int getDefaultIntegerValue() {
+		return defaultIntegerValue;
+	}
+
+	@Override
+	public long getDefaultLongValue() {
+		return defaultLongValue;
+	}
+
+	public String getDefaultStringValue() {
+		return defaultStringValue;
+	}
+
+	@Override
+	public int getIntegerValue(PortletContext portletContext) {
+		return BridgeWebConfigParamUtil.getIntegerValue(portletContext.getInitParameter(name), defaultIntegerValue);
+	}
+
+	@Override
+	public long getLongValue(PortletContext portletContext) {
+		return BridgeWebConfigParamUtil.getLongValue(portletContext.getInitParameter(name), defaultLongValue);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getStringValue(PortletContext portletContext) {
+		return BridgeWebConfigParamUtil.getStringValue(portletContext.getInitParameter(name), defaultStringValue);
+	}
+}
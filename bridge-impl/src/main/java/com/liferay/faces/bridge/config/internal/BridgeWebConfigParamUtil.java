@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.config.internal;
+
+import javax.portlet.PortletContext;
+import javax.servlet.ServletContext;
+
+import com.liferay.faces.util.helper.BooleanHelper;
+import com.liferay.faces.util.helper.IntegerHelper;
+import com.liferay.faces.util.helper.LongHelper;
+
+
+/**
+ * This is a utility class that provides static utility methods for converting the configured values of {@link
+ * BridgeWebConfigParam} context-param entries. The methods accept the raw configured value so that they can be used
+ * with both the {@link PortletContext} and the {@link ServletContext} of the web application.
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeWebConfigParamUtil {
+
+	public static boolean getBooleanValue(String configuredValue, boolean defaultBooleanValue) {
+
+		boolean booleanValue = defaultBooleanValue;
+
+		if (configuredValue != null) {
+			booleanValue = BooleanHelper.isTrueToken(configuredValue.trim());
+		}
+
+		return booleanValue;
+	}
+
+	public static int getIntegerValue(String configuredValue, int defaultIntegerValue) {
+
+		int integerValue = defaultIntegerValue;
+
+		if (configuredValue != null) {
+			integerValue = IntegerHelper.toInteger(configuredValue.trim(), defaultIntegerValue);
+		}
+
+		return integerValue;
+	}
+
+	public static long getLongValue(String configuredValue, long defaultLongValue) {
+
+		long longValue = defaultLongValue;
+
+		if (configuredValue != null) {
+			longValue = LongHelper.toLong(configuredValue.trim(), defaultLongValue);
+		}
+
+		return longValue;
+	}
+
+	public static String getStringValue(String configuredValue, String defaultStringValue) {
+
+		String stringValue = defaultStringValue;
+
+		if (configuredValue != null) {
+			stringValue = configuredValue;
+		}
+
+		return stringValue;
+	}
+}
@@ -100,6 +100,13 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 	UploadedFileMaxSize("com.liferay.faces.bridge.uploadedFileMaxSize", "javax.faces.UPLOADED_FILE_MAX_SIZE",
 		104857600L),
 
+	/**
+	 * Maximum number of bytes of an uploaded file that are kept in memory while the multipart request is being parsed.
+	 * Uploaded files that are larger than the threshold are streamed to a temporary file instead. Default is 10240
+	 * bytes (10KB).
+	 */
+	UploadedFileSizeThreshold("com.liferay.faces.bridge.uploadedFileSizeThreshold", null, 10240),
+
 	/** Name of the render parameter used to encode the viewId. Default value is "_facesViewIdRender". */
 	ViewIdRenderParameterName("com.liferay.faces.bridge.viewIdRenderParameterName", "_facesViewIdRender"),
 
@@ -116,6 +123,7 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 	private int defaultIntegerValue;
 	private long defaultLongValue;
 	private String name;
+	private Class<?> valueType;
 
 	private PortletConfigParam(String name, String defaultStringValue) {
 		this(name, null, defaultStringValue);
@@ -132,6 +140,7 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 		this.defaultIntegerValue = defaultIntegerValue;
 		this.defaultLongValue = defaultIntegerValue;
 		this.defaultStringValue = Integer.toString(defaultIntegerValue);
+		this.valueType = Integer.class;
 	}
 
 	private PortletConfigParam(String name, String alternateName, long defaultLongValue) {
@@ -151,6 +160,7 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 		this.defaultLongValue = defaultLongValue;
 		this.defaultStringValue = Long.toString(defaultLongValue);
+		this.valueType = Long.class;
 	}
 
 	private PortletConfigParam(String name, String alternateName, String defaultStringValue) {
@@ -169,6 +179,7 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 		}
 
 		this.defaultStringValue = defaultStringValue;
+		this.valueType = String.class;
 	}
 
 	private PortletConfigParam(String name, String alternateName, boolean defaultBooleanValue) {
@@ -186,6 +197,8 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 			this.defaultLongValue = 0L;
 			this.defaultStringValue = Boolean.FALSE.toString();
 		}
+
+		this.valueType = Boolean.class;
 	}
 
 	public String getAlternateName() {
@@ -194,17 +207,33 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public boolean getBooleanValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getBooleanValue(portletConfig, name, alternateName, defaultBooleanValue);
+
+		PortletConfigParamValues portletConfigParamValues = PortletConfigParamValues.getInstance(portletConfig);
+
+		if (portletConfigParamValues == null) {
+			return PortletConfigParamUtil.getBooleanValue(portletConfig, name, alternateName, defaultBooleanValue);
+		}
+		else {
+			return portletConfigParamValues.getBooleanValue(this);
+		}
 	}
 
 	@Override
 	public String getConfiguredValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getConfiguredValue(portletConfig, name, alternateName);
+
+		PortletConfigParamValues portletConfigParamValues = PortletConfigParamValues.getInstance(portletConfig);
+
+		if (portletConfigParamValues == null) {
+			return PortletConfigParamUtil.getConfiguredValue(portletConfig, name, alternateName);
+		}
+		else {
+			return portletConfigParamValues.getConfiguredValue(this);
+		}
 	}
 
 	@Override
 	public boolean isConfigured(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.isSpecified(portletConfig, name, alternateName);
+		return getConfiguredValue(portletConfig) != null;
 	}
 
 	public boolean getDefaultBooleanValue() {
@@ -226,12 +255,28 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public int getIntegerValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getIntegerValue(portletConfig, name, alternateName, defaultIntegerValue);
+
+		PortletConfigParamValues portletConfigParamValues = PortletConfigParamValues.getInstance(portletConfig);
+
+		if (portletConfigParamValues == null) {
+			return PortletConfigParamUtil.getIntegerValue(portletConfig, name, alternateName, defaultIntegerValue);
+		}
+		else {
+			return portletConfigParamValues.getIntegerValue(this);
+		}
 	}
 
 	@Override
 	public long getLongValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getLongValue(portletConfig, name, alternateName, defaultLongValue);
+
+		PortletConfigParamValues portletConfigParamValues = PortletConfigParamValues.getInstance(portletConfig);
+
+		if (portletConfigParamValues == null) {
+			return PortletConfigParamUtil.getLongValue(portletConfig, name, alternateName, defaultLongValue);
+		}
+		else {
+			return portletConfigParamValues.getLongValue(this);
+		}
 	}
 
 	public String getName() {
@@ -240,7 +285,23 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public String getStringValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getStringValue(portletConfig, name, alternateName, defaultStringValue);
+
+		PortletConfigParamValues portletConfigParamValues = PortletConfigParamValues.getInstance(portletConfig);
+
+		if (portletConfigParamValues == null) {
+			return PortletConfigParamUtil.getStringValue(portletConfig, name, alternateName, defaultStringValue);
+		}
+		else {
+			return portletConfigParamValues.getStringValue(this);
+		}
+	}
+
+	/**
+	 * Returns the type of value that the config param expects, which is one of {@link Boolean}, {@link Integer},
+	 * {@link Long}, or {@link String}.
+	 */
+	public Class<?> getValueType() {
+		return valueType;
 	}
 
 	protected static class Liferay {
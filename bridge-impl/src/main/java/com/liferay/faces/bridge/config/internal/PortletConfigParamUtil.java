@@ -13,9 +13,6 @@
  */
 package com.liferay.faces.bridge.config.internal;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import javax.portlet.PortletConfig;
 import javax.portlet.PortletContext;
 
@@ -26,48 +23,21 @@ import com.liferay.faces.util.helper.LongHelper;
 
 /**
  * This is a utility class that provides static utility methods for getting values from {@link PortletConfig} init-param
- * values.
+ * values. Note that the values are looked up and parsed every time, which is why {@link PortletConfigParam} prefers the
+ * snapshot provided by {@link PortletConfigParamValues} when one is associated with the {@link PortletConfig}.
  *
  * @author  Neil Griffin
  */
 public class PortletConfigParamUtil {
 
-	// Note: Performance is faster with a synchronized block around HashMap.put(String, Object) rather than using a
-	// ConcurrentHashMap.
-	private static final Map<String, Object> configParamCache = new HashMap<String, Object>();
-
 	public static boolean getBooleanValue(PortletConfig portletConfig, String name, String alternateName,
 		boolean defaultBooleanValue) {
 
 		boolean booleanValue = defaultBooleanValue;
+		String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
 
-		String portletName = portletConfig.getPortletName();
-
-		if (portletName == null) {
-			String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-			if (configuredValue != null) {
-				booleanValue = BooleanHelper.isTrueToken(configuredValue);
-			}
-		}
-		else {
-			String configParamName = portletName + name;
-			Object cachedValue = configParamCache.get(configParamName);
-
-			if ((cachedValue != null) && (cachedValue instanceof Boolean)) {
-				booleanValue = (Boolean) cachedValue;
-			}
-			else {
-				String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-				if (configuredValue != null) {
-					booleanValue = BooleanHelper.isTrueToken(configuredValue);
-				}
-
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, Boolean.valueOf(booleanValue));
-				}
-			}
+		if (configuredValue != null) {
+			booleanValue = BooleanHelper.isTrueToken(configuredValue);
 		}
 
 		return booleanValue;
@@ -103,34 +73,10 @@ public class PortletConfigParamUtil {
 		int defaultIntegerValue) {
 
 		int integerValue = defaultIntegerValue;
+		String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
 
-		String portletName = portletConfig.getPortletName();
-
-		if (portletName == null) {
-			String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-			if (configuredValue != null) {
-				integerValue = IntegerHelper.toInteger(configuredValue);
-			}
-		}
-		else {
-			String configParamName = portletName + name;
-			Object cachedValue = configParamCache.get(configParamName);
-
-			if ((cachedValue != null) && (cachedValue instanceof Integer)) {
-				integerValue = (Integer) cachedValue;
-			}
-			else {
-				String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-				if (configuredValue != null) {
-					integerValue = IntegerHelper.toInteger(configuredValue);
-				}
-
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, Integer.valueOf(integerValue));
-				}
-			}
+		if (configuredValue != null) {
+			integerValue = IntegerHelper.toInteger(configuredValue);
 		}
 
 		return integerValue;
@@ -140,34 +86,10 @@ public class PortletConfigParamUtil {
 		long defaultLongValue) {
 
 		long longValue = defaultLongValue;
+		String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
 
-		String portletName = portletConfig.getPortletName();
-
-		if (portletName == null) {
-			String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-			if (configuredValue != null) {
-				longValue = LongHelper.toLong(configuredValue);
-			}
-		}
-		else {
-			String configParamName = portletName + name;
-			Object cachedValue = configParamCache.get(configParamName);
-
-			if ((cachedValue != null) && (cachedValue instanceof Long)) {
-				longValue = (Long) cachedValue;
-			}
-			else {
-				String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-				if (configuredValue != null) {
-					longValue = LongHelper.toLong(configuredValue);
-				}
-
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, Long.valueOf(longValue));
-				}
-			}
+		if (configuredValue != null) {
+			longValue = LongHelper.toLong(configuredValue);
 		}
 
 		return longValue;
@@ -177,34 +99,10 @@ public class PortletConfigParamUtil {
 		String defaultStringValue) {
 
 		String stringValue = defaultStringValue;
+		String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
 
-		String portletName = portletConfig.getPortletName();
-
-		if (portletName == null) {
-			String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-			if (configuredValue != null) {
-				stringValue = configuredValue;
-			}
-		}
-		else {
-			String configParamName = portletName + name;
-			Object cachedValue = configParamCache.get(configParamName);
-
-			if ((cachedValue != null) && (cachedValue instanceof String)) {
-				stringValue = (String) cachedValue;
-			}
-			else {
-				String configuredValue = getConfiguredValue(portletConfig, name, alternateName);
-
-				if (configuredValue != null) {
-					stringValue = configuredValue;
-				}
-
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, stringValue);
-				}
-			}
+		if (configuredValue != null) {
+			stringValue = configuredValue;
 		}
 
 		return stringValue;
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.config.internal;
+
+import javax.portlet.PortletConfig;
+import javax.portlet.faces.BridgeException;
+
+import com.liferay.faces.util.helper.BooleanHelper;
+import com.liferay.faces.util.helper.IntegerHelper;
+import com.liferay.faces.util.helper.LongHelper;
+
+
+/**
+ * This class provides an immutable snapshot of the values of all of the {@link PortletConfigParam} init-params for a
+ * single portlet. The snapshot is created once when the bridge is initialized so that the values do not have to be
+ * looked up and parsed on every request. Values are kept in arrays that are indexed by the ordinal of the config param,
+ * and since all of the fields are final, the snapshot can safely be shared between threads.
+ *
+ * @author  Neil Griffin
+ */
+public final class PortletConfigParamValues {
+
+	// Private Data Members
+	private final boolean[] booleanValues;
+	private final String[] configuredValues;
+	private final int[] integerValues;
+	private final long[] longValues;
+	private final String[] stringValues;
+
+	/**
+	 * Creates a snapshot of the values of the init-params of the specified portlet.
+	 *
+	 * @throws  BridgeException  If the value of an init-param cannot be converted to the type expected by the
+	 *                           corresponding config param.
+	 */
+	public PortletConfigParamValues(PortletConfig portletConfig) throws BridgeException {
+
+		PortletConfigParam[] portletConfigParams = PortletConfigParam.values();
+		int length = portletConfigParams.length;
+		boolean[] booleanValues = new boolean[length];
+		String[] configuredValues = new String[length];
+		int[] integerValues = new int[length];
+		long[] longValues = new long[length];
+		String[] stringValues = new String[length];
+		StringBuilder invalidValues = null;
+
+		for (PortletConfigParam portletConfigParam : portletConfigParams) {
+
+			int index = portletConfigParam.ordinal();
+			String configuredValue = PortletConfigParamUtil.getConfiguredValue(portletConfig,
+					portletConfigParam.getName(), portletConfigParam.getAlternateName());
+
+			if (configuredValue == null) {
+				booleanValues[index] = portletConfigParam.getDefaultBooleanValue();
+				integerValues[index] = portletConfigParam.getDefaultIntegerValue();
+				longValues[index] = portletConfigParam.getDefaultLongValue();
+				stringValues[index] = portletConfigParam.getDefaultStringValue();
+			}
+			else if (isValid(portletConfigParam.getValueType(), configuredValue)) {
+
+				String trimmedValue = configuredValue.trim();
+				configuredValues[index] = configuredValue;
+				booleanValues[index] = BooleanHelper.isTrueToken(configuredValue);
+				integerValues[index] = IntegerHelper.toInteger(trimmedValue);
+				longValues[index] = LongHelper.toLong(trimmedValue);
+				stringValues[index] = configuredValue;
+			}
+			else {
+
+				if (invalidValues == null) {
+					invalidValues = new StringBuilder();
+				}
+				else {
+					invalidValues.append(", ");
+				}
+
+				invalidValues.append(portletConfigParam.getName());
+				invalidValues.append("=[");
+				invalidValues.append(configuredValue);
+				invalidValues.append("]");
+			}
+		}
+
+		if (invalidValues != null) {
+			throw new BridgeException("Invalid init-param value(s) for portletName=[" + portletConfig.getPortletName() +
+				"]: " + invalidValues);
+		}
+
+		this.booleanValues = booleanValues;
+		this.configuredValues = configuredValues;
+		this.integerValues = integerValues;
+		this.longValues = longValues;
+		this.stringValues = stringValues;
+	}
+
+	/**
+	 * Returns the snapshot that is associated with the specified {@link PortletConfig} (or one of the instances that it
+	 * wraps), or <code>null</code> if there is none.
+	 */
+	public static PortletConfigParamValues getInstance(PortletConfig portletConfig) {
+
+		while (portletConfig instanceof PortletConfigWrapper) {
+
+			if (portletConfig instanceof BridgePortletConfigImpl) {
+				return ((BridgePortletConfigImpl) portletConfig).getPortletConfigParamValues();
+			}
+
+			portletConfig = ((PortletConfigWrapper) portletConfig).getWrapped();
+		}
+
+		return null;
+	}
+
+	protected static boolean isValid(Class<?> valueType, String configuredValue) {
+
+		boolean valid = true;
+
+		if (valueType == Boolean.class) {
+			valid = BooleanHelper.isBooleanToken(configuredValue);
+		}
+		else if ((valueType == Integer.class) || (valueType == Long.class)) {
+
+			try {
+
+				if (valueType == Integer.class) {
+					Integer.parseInt(configuredValue.trim());
+				}
+				else {
+					Long.parseLong(configuredValue.trim());
+				}
+			}
+			catch (NumberFormatException e) {
+				valid = false;
+			}
+		}
+
+		return valid;
+	}
+
+	public boolean getBooleanValue(PortletConfigParam portletConfigParam) {
+		return booleanValues[portletConfigParam.ordinal()];
+	}
+
+	/**
+	 * Returns the value of the specified config param that was specified in the WEB-INF/portlet.xml or WEB-INF/web.xml
+	 * descriptor, or <code>null</code> if it was not specified.
+	 */
+	public String getConfiguredValue(PortletConfigParam portletConfigParam) {
+		return configuredValues[portletConfigParam.ordinal()];
+	}
+
+	public int getIntegerValue(PortletConfigParam portletConfigParam) {
+		return integerValues[portletConfigParam.ordinal()];
+	}
+
+	public long getLongValue(PortletConfigParam portletConfigParam) {
+		return longValues[portletConfigParam.ordinal()];
+	}
+
+	public String getStringValue(PortletConfigParam portletConfigParam) {
+		return stringValues[portletConfigParam.ordinal()];
+	}
+}
@@ -15,8 +15,9 @@ package com.liferay.faces.bridge.container.liferay.internal;
 
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.parsers.SAXParser;
 
@@ -34,9 +35,12 @@ import com.liferay.portal.kernel.util.WebKeys;
 
 
 /**
- * This class provides the ability to parse the {@link StringBundler} value of the LIFERAY_SHARED_PAGE_TOP request
- * attribute and remove duplicate CSS and/or JavaScript resources that are meant to be rendered in the <head>...</head>
- * section of the Liferay Portal page.
+ * This class provides an index of the CSS and/or JavaScript resources found in the {@link StringBundler} value of the
+ * LIFERAY_SHARED_PAGE_TOP request attribute that are meant to be rendered in the <head>...</head> section of the
+ * Liferay Portal page. Duplicate resources are discarded as they are indexed. Since the index is meant to be shared by
+ * all of the portlets on the page (for the duration of the request), the {@link #update(StringBundler)} method only
+ * parses the strings that were appended to the {@link StringBundler} since the previous call, and the {@link
+ * StringBundler} is only re-rendered if a duplicate resource was actually found.
  *
  * @author  Neil Griffin
  */
@@ -46,6 +50,8 @@ public class LiferaySharedPageTop {
 	private static final Logger logger = LoggerFactory.getLogger(LiferaySharedPageTop.class);
 
 	// Private Constants
+	private static final String KEY_PREFIX_FACES = "faces:";
+	private static final String KEY_PREFIX_URL = "url:";
 	private static final String XML_DOCUMENT_DECLARATION = "<?xml version=\"1.0\"?>";
 
 	// FACES-1442: The SAXParserFactory.newSAXParser() method that comes with the JRE suffers from a
@@ -54,73 +60,95 @@ public class LiferaySharedPageTop {
 		com.liferay.faces.util.xml.SAXParserFactory.newInstance();
 
 	// Private Data Members
+	private boolean duplicateFound;
 	private List<HeadResource> headResources;
+	private Set<String> headResourceKeys;
+	private StringBundler indexedStringBundler;
+	private int indexedStringCount;
+	private boolean parseable;
 
-	public LiferaySharedPageTop(StringBundler stringBundler) {
-
-		try {
-			headResources = new ArrayList<HeadResource>();
-
-			SharedPageTopHandler sharedPageTopHandler = new SharedPageTopHandler();
-			StringBundler xmlDocument = new StringBundler();
-			xmlDocument.append(XML_DOCUMENT_DECLARATION);
-			xmlDocument.append(StringPool.LESS_THAN);
-			xmlDocument.append(WebKeys.PAGE_TOP);
-			xmlDocument.append(StringPool.GREATER_THAN);
-			xmlDocument.append(stringBundler);
-			xmlDocument.append(StringPool.LESS_THAN);
-			xmlDocument.append(StringPool.FORWARD_SLASH);
-			xmlDocument.append(WebKeys.PAGE_TOP);
-			xmlDocument.append(StringPool.GREATER_THAN);
+	public LiferaySharedPageTop() {
+		reset();
+	}
 
-			String xmlDocumentAsString = xmlDocument.toString();
+	public LiferaySharedPageTop(StringBundler stringBundler) {
+		this();
+		update(stringBundler);
+	}
 
-			ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(xmlDocumentAsString.getBytes());
+	/**
+	 * Indexes the resources in the strings that were appended to the specified {@link StringBundler} since the
+	 * previous call to this method. If the specified {@link StringBundler} is not the one that was indexed previously
+	 * (because it was replaced by someone else), then the index is rebuilt.
+	 *
+	 * @return  The specified {@link StringBundler} if it does not contain any duplicate resources, otherwise a new
+	 *          {@link StringBundler} rendered from the index.
+	 */
+	public StringBundler update(StringBundler stringBundler) {
 
-			SAXParser saxParser = saxParserFactory.newSAXParser();
-			saxParser.parse(byteArrayInputStream, sharedPageTopHandler);
+		int stringCount = stringBundler.index();
 
-			byteArrayInputStream.close();
-		}
-		catch (Exception e) {
-			logger.error(e);
+		if ((stringBundler != indexedStringBundler) || (stringCount < indexedStringCount)) {
+			reset();
 		}
-	}
 
-	public void removeDuplicates() {
+		if (stringCount > indexedStringCount) {
 
-		int totalHeadResources = headResources.size();
+			if (parseable) {
 
-		for (int i = 0; i < totalHeadResources; i++) {
+				StringBundler xmlDocument = new StringBundler(stringCount - indexedStringCount + 7);
+				xmlDocument.append(XML_DOCUMENT_DECLARATION);
+				xmlDocument.append(StringPool.LESS_THAN);
+				xmlDocument.append(WebKeys.PAGE_TOP);
+				xmlDocument.append(StringPool.GREATER_THAN);
 
-			HeadResource headResource1 = headResources.get(i);
+				for (int i = indexedStringCount; i < stringCount; i++) {
+					xmlDocument.append(stringBundler.stringAt(i));
+				}
 
-			for (int j = i + 1; j < totalHeadResources; j++) {
-				HeadResource headResource2 = headResources.get(j);
+				xmlDocument.append(StringPool.LESS_THAN);
+				xmlDocument.append(StringPool.FORWARD_SLASH);
+				xmlDocument.append(WebKeys.PAGE_TOP);
+				xmlDocument.append(StringPool.GREATER_THAN);
 
-				if (!headResource2.isDuplicate() && headResource1.equals(headResource2)) {
+				try {
+					ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(xmlDocument.toString()
+							.getBytes());
 
-					headResource2.setDuplicate(true);
+					SAXParser saxParser = saxParserFactory.newSAXParser();
+					saxParser.parse(byteArrayInputStream, new SharedPageTopHandler());
 
-					break;
+					byteArrayInputStream.close();
+				}
+				catch (Exception e) {
+
+					// Since the resources in the unparseable markup are unknown, re-rendering the index would lose
+					// them. So stop removing duplicates for the remainder of the request.
+					logger.error(e);
+					parseable = false;
 				}
 			}
+
+			indexedStringBundler = stringBundler;
+			indexedStringCount = stringCount;
 		}
 
-		Iterator<HeadResource> itr = headResources.iterator();
+		if (duplicateFound && parseable) {
 
-		while (itr.hasNext()) {
-			HeadResource headResource = itr.next();
+			StringBundler renderedStringBundler = toStringBundler();
+			indexedStringBundler = renderedStringBundler;
+			indexedStringCount = renderedStringBundler.index();
+			duplicateFound = false;
 
-			if (headResource.isDuplicate()) {
-				itr.remove();
-			}
+			return renderedStringBundler;
+		}
+		else {
+			return stringBundler;
 		}
-
 	}
 
 	public StringBundler toStringBundler() {
-		StringBundler stringBundler = new StringBundler();
+		StringBundler stringBundler = new StringBundler(Math.max(headResources.size(), 1));
 
 		for (HeadResource headResource : headResources) {
 			String headResourceMarkup = headResource.toString();
@@ -137,6 +165,50 @@ public class LiferaySharedPageTop {
 		return stringBundler;
 	}
 
+	/**
+	 * Adds the specified resource to the index, unless it is a duplicate of a resource that has already been indexed.
+	 * Resources are identified by URL, and link/script resources are additionally identified by JSF resource library
+	 * and name, which is consistent with {@link HeadResource#equals(Object)}.
+	 */
+	protected void addHeadResource(HeadResource headResource) {
+
+		String urlKey = null;
+		String url = headResource.getURL();
+
+		if (url != null) {
+			urlKey = KEY_PREFIX_URL + url;
+		}
+
+		String facesKey = null;
+		String type = headResource.getType();
+
+		if ((StringPool.LINK.equals(type) || StringPool.SCRIPT.equals(type)) &&
+				(headResource.getFacesResource() != null) && (headResource.getFacesLibrary() != null)) {
+
+			facesKey = KEY_PREFIX_FACES + type + StringPool.COLON + headResource.getFacesLibrary() + StringPool.COLON +
+				headResource.getFacesResource();
+		}
+
+		if (((urlKey != null) && headResourceKeys.contains(urlKey)) ||
+				((facesKey != null) && headResourceKeys.contains(facesKey))) {
+
+			headResource.setDuplicate(true);
+			duplicateFound = true;
+		}
+		else {
+
+			if (urlKey != null) {
+				headResourceKeys.add(urlKey);
+			}
+
+			if (facesKey != null) {
+				headResourceKeys.add(facesKey);
+			}
+
+			headResources.add(headResource);
+		}
+	}
+
 	protected String encodeAmpersands(String value) {
 
 		String encodedValue = value;
@@ -168,6 +240,22 @@ public class LiferaySharedPageTop {
 		return encodedValue;
 	}
 
+	protected void reset() {
+		duplicateFound = false;
+		headResources = new ArrayList<HeadResource>();
+		headResourceKeys = new HashSet<String>();
+		indexedStringBundler = null;
+		indexedStringCount = 0;
+		parseable = true;
+	}
+
+	/**
+	 * Returns the list of unique resources that have been indexed, in the order in which they were found.
+	 */
+	public List<HeadResource> getHeadResources() {
+		return headResources;
+	}
+
 	protected class SharedPageTopHandler extends DefaultHandler {
 
 		// Private Data Members
@@ -201,7 +289,7 @@ public class LiferaySharedPageTop {
 
 			if (!WebKeys.PAGE_TOP.equals(qName)) {
 				headResource = new HeadResource(qName, attributes);
-				headResources.add(headResource);
+				addHeadResource(headResource);
 			}
 		}
 	}
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.faces.render.RenderKit;
 import javax.portlet.PortletMode;
@@ -66,11 +67,19 @@ public abstract class LiferayURLGeneratorBaseImpl implements LiferayURLGenerator
 	private static final Logger logger = LoggerFactory.getLogger(LiferayURLGeneratorBaseImpl.class);
 
 	// Private Constants
+	private static final String ADD_DEFAULT_RESOURCE = LiferayURLGeneratorBaseImpl.class.getName() +
+		".ADD_DEFAULT_RESOURCE_";
 	private static final int LIFERAY_BUILD_NUMBER = ProductMap.getInstance().get(ProductConstants.LIFERAY_PORTAL)
 		.getBuildId();
+	private static final String[] OPTIONAL_PARAMETER_NAMES = new String[] {
+			LiferayConstants.P_O_P_ID, LiferayConstants.DO_AS_USER_ID, LiferayConstants.DO_AS_USER_LANGUAGE_ID,
+			LiferayConstants.DO_AS_GROUP_ID, LiferayConstants.REFERER_GROUP_ID, LiferayConstants.REFERER_PLID,
+			LiferayConstants.CONTROL_PANEL_CATEGORY
+		};
 
 	// Private Data Members
 	private String baseURL;
+	private boolean friendlyURL;
 	private Map<String, String> parameterMap;
 	private PortletMode initialPortletMode;
 	private String prefix;
@@ -78,6 +87,7 @@ public abstract class LiferayURLGeneratorBaseImpl implements LiferayURLGenerator
 	private WindowState initialWindowState;
 	private List<URLParameter> wsrpParameters;
 	private String portletURLAnchor;
+	private URLTemplate urlTemplate;
 
 	/**
 	 * Constructs a new instance.
@@ -128,301 +138,301 @@ public abstract class LiferayURLGeneratorBaseImpl implements LiferayURLGenerator
 
 		String toStringValue = null;
 
-		if (baseURL.contains(Portal.FRIENDLY_URL_SEPARATOR)) {
+		if (friendlyURL) {
 			toStringValue = baseURL;
 		}
 		else {
 
-			StringBuilder url = new StringBuilder();
-
-			// Build up a new URL string based on the one returned by Liferay, but discard everything after the
-			// question mark because it's filled with all kinds of unnecessary stuff.
-			url.append(prefix);
+			// Since the generator is request-scoped, the parts of the URL that do not depend on the arguments of this
+			// method only need to be compiled into a template once, even if hundreds of URLs are generated (as is
+			// the case for a data table with a command link in each row).
+			if (urlTemplate == null) {
+				urlTemplate = compileURLTemplate();
+			}
 
-			// Possibly add the p_auth parameter.
-			boolean firstParameter = true;
-			String portalAuthToken = parameterMap.get(LiferayConstants.P_AUTH);
+			StringBuilder url = new StringBuilder(urlTemplate.length + 128);
+			url.append(urlTemplate.head);
 
-			if (portalAuthToken != null) {
+			// Add the p_p_state parameter, and possibly the p_p_state_rcv parameter.
+			String parameterValue = urlTemplate.windowState;
 
-				appendParameterToURL(firstParameter, LiferayConstants.P_AUTH, portalAuthToken, url);
-				firstParameter = false;
+			if (windowState != null) {
+				parameterValue = windowState.toString();
 			}
 
-			// Possibly add the p_l_id parameter.
-			String plid = parameterMap.get(LiferayConstants.P_L_ID);
+			appendParameterToURL(LiferayConstants.P_P_STATE, parameterValue, url);
+			url.append(urlTemplate.stateRestoreCurrentView);
 
-			if (plid != null) {
+			// Add the p_p_mode parameter.
+			parameterValue = urlTemplate.portletMode;
 
-				appendParameterToURL(firstParameter, LiferayConstants.P_L_ID, plid, url);
-				firstParameter = false;
+			if (portletMode != null) {
+				parameterValue = portletMode.toString();
 			}
 
-			// Possibly add the p_p_auth parameter.
-			String portletAuthToken = parameterMap.get(LiferayConstants.P_P_AUTH);
+			appendParameterToURL(LiferayConstants.P_P_MODE, parameterValue, url);
+			url.append(urlTemplate.middle);
+
+			// Add request parameters from the request parameter map.
+			Set<Map.Entry<String, String[]>> mapEntries = additionalParameterMap.entrySet();
+
+			if (mapEntries != null) {
 
-			if (portletAuthToken != null) {
+				for (Map.Entry<String, String[]> mapEntry : mapEntries) {
+					String[] parameterValues = mapEntry.getValue();
 
-				boolean addPortletAuthToken = true;
+					if (parameterValues != null) {
 
-				if ((LIFERAY_BUILD_NUMBER < 6102) || ((LIFERAY_BUILD_NUMBER > 6102) && (LIFERAY_BUILD_NUMBER < 6130))) {
+						String parameterName = mapEntry.getKey();
 
-					// Versions of Liferay Portal prior to 6.1.2-CE/6.1.30-EE suffered from LPS-36481 which caused
-					// PortletURLImpl.addPortletAuthToken(StringBundle, Key) method to add the p_p_auth parameter to
-					// URLs for portlets when add-default-resource=false. It is therefore necessary to check that
-					// add-default-resource=true before adding the p_p_auth parameter to the URL.
-					FacesContext facesContext = FacesContext.getCurrentInstance();
-					PortletRequest portletRequest = (PortletRequest) facesContext.getExternalContext().getRequest();
-					String portletId = (String) portletRequest.getAttribute(WebKeys.PORTLET_ID);
-					ThemeDisplay themeDisplay = (ThemeDisplay) portletRequest.getAttribute(WebKeys.THEME_DISPLAY);
+						for (String curParameterValue : parameterValues) {
 
-					try {
-						Portlet portlet = PortletLocalServiceUtil.getPortletById(themeDisplay.getCompanyId(),
-								portletId);
-						addPortletAuthToken = portlet.isAddDefaultResource();
-					}
-					catch (SystemException e) {
-						logger.error(e);
-					}
-				}
+							if (curParameterValue != null) {
 
-				if (addPortletAuthToken) {
-					appendParameterToURL(firstParameter, LiferayConstants.P_P_AUTH, portletAuthToken, url);
-					firstParameter = false;
+								String encodedParameterValue = encode(curParameterValue);
+								appendParameterToURL(false, urlTemplate.namespaced, parameterName,
+									encodedParameterValue, url);
+							}
+						}
+					}
 				}
 			}
 
-			// Always add the p_p_id parameter
-			String parameterValue = responseNamespace;
+			// Add WSRP URL parameters
+			url.append(urlTemplate.wsrpParameters);
 
-			if (parameterValue.startsWith(StringPool.UNDERLINE)) {
-				parameterValue = parameterValue.substring(1);
+			// Possibly add the p_p_resource_id parameter.
+			if (resourceId == null) {
+				url.append(urlTemplate.resourceId);
+			}
+			else {
+				appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, resourceId, url);
 			}
 
-			if (parameterValue.endsWith(StringPool.UNDERLINE)) {
-				parameterValue = parameterValue.substring(0, parameterValue.length() - 1);
+			// Possibly add a Portlet URL Anchor
+			if (portletURLAnchor != null) {
+				url.append(portletURLAnchor);
 			}
 
-			appendParameterToURL(firstParameter, LiferayConstants.P_P_ID, parameterValue, url);
+			toStringValue = url.toString();
+		}
 
-			firstParameter = false;
+		return toStringValue;
+	}
 
-			// Always add the p_p_lifecycle parameter.
-			String portletLifecycleId = getPortletLifecycleId();
-			appendParameterToURL(LiferayConstants.P_P_LIFECYCLE, portletLifecycleId, url);
+	protected void appendParameterToURL(String parameterName, String parameterValue, StringBuilder url) {
+		appendParameterToURL(false, false, parameterName, parameterValue, url);
+	}
+
+	protected void appendParameterToURL(boolean firstParameter, String parameterName, String parameterValue,
+		StringBuilder url) {
+		appendParameterToURL(firstParameter, false, parameterName, parameterValue, url);
+	}
 
-			// Add the p_p_state parameter.
-			FacesContext facesContext = FacesContext.getCurrentInstance();
-			Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+	protected void appendParameterToURL(boolean firstParameter, boolean namespaced, String parameterName,
+		String parameterValue, StringBuilder url) {
 
-			WindowState urlWindowState = initialWindowState;
+		if (!firstParameter) {
+			url.append(StringPool.AMPERSAND);
+		}
 
-			if (windowState != null) {
-				urlWindowState = windowState;
-			}
+		if (namespaced) {
+			url.append(responseNamespace);
+		}
 
-			if (urlWindowState == null) {
-				parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_STATE);
-			}
-			else {
-				parameterValue = urlWindowState.toString();
-			}
+		url.append(parameterName);
+		url.append(StringPool.EQUAL);
+		url.append(parameterValue);
 
-			appendParameterToURL(LiferayConstants.P_P_STATE, parameterValue, url);
+		logger.debug("Appended param to URL name=[{0}] parameterValue=[{1}]", parameterName, parameterValue);
+	}
 
-			// Possibly add the p_p_state_rcv parameter.
-			String stateRestoreCurrentView = parameterMap.get(LiferayConstants.P_P_STATE_RCV);
+	/**
+	 * Compiles the parts of the URL that do not depend on the arguments of the generateURL methods into a {@link
+	 * URLTemplate}.
+	 */
+	protected URLTemplate compileURLTemplate() {
 
-			if (stateRestoreCurrentView != null) {
-				appendParameterToURL(LiferayConstants.P_P_STATE_RCV, stateRestoreCurrentView, url);
-			}
+		URLTemplate urlTemplate = new URLTemplate();
+		StringBuilder url = new StringBuilder(baseURL.length());
 
-			// Add the p_p_mode parameter.
-			PortletMode urlPortletMode = initialPortletMode;
+		// Build up a new URL string based on the one returned by Liferay, but discard everything after the
+		// question mark because it's filled with all kinds of unnecessary stuff.
+		url.append(prefix);
 
-			if (portletMode != null) {
-				urlPortletMode = portletMode;
-			}
+		// Possibly add the p_auth parameter.
+		boolean firstParameter = true;
+		String portalAuthToken = parameterMap.get(LiferayConstants.P_AUTH);
 
-			if (urlPortletMode == null) {
-				parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_MODE);
-			}
-			else {
-				parameterValue = urlPortletMode.toString();
-			}
+		if (portalAuthToken != null) {
 
-			appendParameterToURL(LiferayConstants.P_P_MODE, parameterValue, url);
+			appendParameterToURL(firstParameter, LiferayConstants.P_AUTH, portalAuthToken, url);
+			firstParameter = false;
+		}
 
-			// Possibly add the p_p_cacheability parameter
-			if (LiferayConstants.LIFECYCLE_RESOURCE_PHASE_ID.equals(portletLifecycleId)) {
-				String cacheability = parameterMap.get(LiferayConstants.P_P_CACHEABILITY);
+		// Possibly add the p_l_id parameter.
+		String plid = parameterMap.get(LiferayConstants.P_L_ID);
 
-				if (cacheability != null) {
-					appendParameterToURL(LiferayConstants.P_P_CACHEABILITY, cacheability, url);
-				}
-			}
+		if (plid != null) {
 
-			// Always add the p_p_col_id parameter
-			parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_ID);
-			appendParameterToURL(LiferayConstants.P_P_COL_ID, parameterValue, url);
+			appendParameterToURL(firstParameter, LiferayConstants.P_L_ID, plid, url);
+			firstParameter = false;
+		}
 
-			// Possibly add the p_p_col_count parameter.
-			parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_COUNT);
-			appendParameterToURL(LiferayConstants.P_P_COL_COUNT, parameterValue, url);
+		// Possibly add the p_p_auth parameter.
+		String portletAuthToken = parameterMap.get(LiferayConstants.P_P_AUTH);
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+		ExternalContext externalContext = facesContext.getExternalContext();
 
-			// Add the p_p_col_pos parameter if it is greater than zero (same logic as Liferay's
-			// PortletURLImpl.toString())
-			parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_POS);
+		if (portletAuthToken != null) {
 
-			if ((parameterValue != null) && (parameterValue.length() > 0)) {
+			boolean addPortletAuthToken = true;
 
-				try {
-					int colPos = Integer.parseInt(parameterValue);
+			if ((LIFERAY_BUILD_NUMBER < 6102) || ((LIFERAY_BUILD_NUMBER > 6102) && (LIFERAY_BUILD_NUMBER < 6130))) {
 
-					if (colPos > 0) {
-						appendParameterToURL(LiferayConstants.P_P_COL_POS, parameterValue, url);
-					}
-				}
-				catch (NumberFormatException e) {
-					// ignore
-				}
+				// Versions of Liferay Portal prior to 6.1.2-CE/6.1.30-EE suffered from LPS-36481 which caused
+				// PortletURLImpl.addPortletAuthToken(StringBundle, Key) method to add the p_p_auth parameter to
+				// URLs for portlets when add-default-resource=false. It is therefore necessary to check that
+				// add-default-resource=true before adding the p_p_auth parameter to the URL.
+				PortletRequest portletRequest = (PortletRequest) externalContext.getRequest();
+				addPortletAuthToken = isAddDefaultResource(portletRequest);
 			}
 
-			// Possibly add the p_o_p_id parameter.
-			String outerPortletId = parameterMap.get(LiferayConstants.P_O_P_ID);
-
-			if (outerPortletId != null) {
-				appendParameterToURL(LiferayConstants.P_O_P_ID, outerPortletId, url);
+			if (addPortletAuthToken) {
+				appendParameterToURL(firstParameter, LiferayConstants.P_P_AUTH, portletAuthToken, url);
+				firstParameter = false;
 			}
+		}
 
-			// Possibly add the doAsUserId parameter.
-			String doAsUserId = parameterMap.get(LiferayConstants.DO_AS_USER_ID);
+		// Always add the p_p_id parameter
+		String parameterValue = responseNamespace;
 
-			if (doAsUserId != null) {
-				appendParameterToURL(LiferayConstants.DO_AS_USER_ID, doAsUserId, url);
-			}
+		if (parameterValue.startsWith(StringPool.UNDERLINE)) {
+			parameterValue = parameterValue.substring(1);
+		}
 
-			// Possibly add the doAsUserLanguageId parameter.
-			String doAsUserLanguageId = parameterMap.get(LiferayConstants.DO_AS_USER_LANGUAGE_ID);
+		if (parameterValue.endsWith(StringPool.UNDERLINE)) {
+			parameterValue = parameterValue.substring(0, parameterValue.length() - 1);
+		}
 
-			if (doAsUserLanguageId != null) {
-				appendParameterToURL(LiferayConstants.DO_AS_USER_LANGUAGE_ID, doAsUserLanguageId, url);
-			}
+		appendParameterToURL(firstParameter, LiferayConstants.P_P_ID, parameterValue, url);
 
-			// Possibly add the doAsGroupId parameter.
-			String doAsGroupId = parameterMap.get(LiferayConstants.DO_AS_GROUP_ID);
+		// Always add the p_p_lifecycle parameter.
+		String portletLifecycleId = getPortletLifecycleId();
+		appendParameterToURL(LiferayConstants.P_P_LIFECYCLE, portletLifecycleId, url);
+		urlTemplate.head = url.toString();
 
-			if (doAsGroupId != null) {
-				appendParameterToURL(LiferayConstants.DO_AS_GROUP_ID, doAsGroupId, url);
-			}
+		// Determine the default value of the p_p_state parameter.
+		Map<String, Object> applicationMap = externalContext.getApplicationMap();
 
-			// Possibly add the refererGroupId parameter.
-			String refererGroupId = parameterMap.get(LiferayConstants.REFERER_GROUP_ID);
+		if (initialWindowState == null) {
+			urlTemplate.windowState = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_STATE);
+		}
+		else {
+			urlTemplate.windowState = initialWindowState.toString();
+		}
 
-			if (refererGroupId != null) {
-				appendParameterToURL(LiferayConstants.REFERER_GROUP_ID, refererGroupId, url);
-			}
+		// Possibly add the p_p_state_rcv parameter.
+		url.setLength(0);
 
-			// Possibly add the refererPlid parameter.
-			String refererPlid = parameterMap.get(LiferayConstants.REFERER_PLID);
+		String stateRestoreCurrentView = parameterMap.get(LiferayConstants.P_P_STATE_RCV);
 
-			if (refererPlid != null) {
-				appendParameterToURL(LiferayConstants.REFERER_PLID, refererPlid, url);
-			}
+		if (stateRestoreCurrentView != null) {
+			appendParameterToURL(LiferayConstants.P_P_STATE_RCV, stateRestoreCurrentView, url);
+		}
 
-			// Possibly add the controlPanelCategory parameter.
-			String controlPanelCategory = parameterMap.get(LiferayConstants.CONTROL_PANEL_CATEGORY);
+		urlTemplate.stateRestoreCurrentView = url.toString();
 
-			if (controlPanelCategory != null) {
-				appendParameterToURL(LiferayConstants.CONTROL_PANEL_CATEGORY, controlPanelCategory, url);
-			}
+		// Determine the default value of the p_p_mode parameter.
+		if (initialPortletMode == null) {
+			urlTemplate.portletMode = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_MODE);
+		}
+		else {
+			urlTemplate.portletMode = initialPortletMode.toString();
+		}
 
-			// Add request parameters from the request parameter map.
-			boolean namespaced = !responseNamespace.startsWith(BridgeConstants.WSRP);
+		// Possibly add the p_p_cacheability parameter
+		url.setLength(0);
 
-			Set<Map.Entry<String, String[]>> mapEntries = additionalParameterMap.entrySet();
+		if (LiferayConstants.LIFECYCLE_RESOURCE_PHASE_ID.equals(portletLifecycleId)) {
+			String cacheability = parameterMap.get(LiferayConstants.P_P_CACHEABILITY);
 
-			if (mapEntries != null) {
+			if (cacheability != null) {
+				appendParameterToURL(LiferayConstants.P_P_CACHEABILITY, cacheability, url);
+			}
+		}
 
-				for (Map.Entry<String, String[]> mapEntry : mapEntries) {
-					String[] parameterValues = mapEntry.getValue();
+		// Always add the p_p_col_id parameter
+		parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_ID);
+		appendParameterToURL(LiferayConstants.P_P_COL_ID, parameterValue, url);
 
-					if (parameterValues != null) {
+		// Possibly add the p_p_col_count parameter.
+		parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_COUNT);
+		appendParameterToURL(LiferayConstants.P_P_COL_COUNT, parameterValue, url);
 
-						String parameterName = mapEntry.getKey();
+		// Add the p_p_col_pos parameter if it is greater than zero (same logic as Liferay's
+		// PortletURLImpl.toString())
+		parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_POS);
 
-						for (String curParameterValue : parameterValues) {
+		if ((parameterValue != null) && (parameterValue.length() > 0)) {
 
-							if (curParameterValue != null) {
+			try {
+				int colPos = Integer.parseInt(parameterValue);
 
-								String encodedParameterValue = encode(curParameterValue);
-								appendParameterToURL(firstParameter, namespaced, parameterName, encodedParameterValue,
-									url);
-							}
-						}
-					}
+				if (colPos > 0) {
+					appendParameterToURL(LiferayConstants.P_P_COL_POS, parameterValue, url);
 				}
 			}
-
-			// Add WSRP URL parameters
-			for (URLParameter wsrpParameter : wsrpParameters) {
-
-				appendParameterToURL(wsrpParameter.getName(), wsrpParameter.getValue(), url);
+			catch (NumberFormatException e) {
+				// ignore
 			}
+		}
 
-			// Possibly add the p_p_resource_id parameter.
-			String urlResourceId = parameterMap.get(LiferayConstants.P_O_P_ID);
+		// Possibly add the p_o_p_id, doAsUserId, doAsUserLanguageId, doAsGroupId, refererGroupId, refererPlid, and
+		// controlPanelCategory parameters.
+		for (String parameterName : OPTIONAL_PARAMETER_NAMES) {
 
-			if (resourceId != null) {
-				urlResourceId = resourceId;
+			parameterValue = parameterMap.get(parameterName);
+
+			if (parameterValue != null) {
+				appendParameterToURL(parameterName, parameterValue, url);
 			}
+		}
 
-			if (urlResourceId == null) {
+		urlTemplate.middle = url.toString();
+		urlTemplate.namespaced = !responseNamespace.startsWith(BridgeConstants.WSRP);
 
-				if (prefix.startsWith(BridgeConstants.WSRP)) {
-					appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, BridgeConstants.WSRP, url);
-				}
-			}
-			else {
-				appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, urlResourceId, url);
-			}
+		// Add WSRP URL parameters
+		url.setLength(0);
 
-			// Possibly add a Portlet URL Anchor
-			if (portletURLAnchor != null) {
-				url.append(portletURLAnchor);
-			}
+		for (URLParameter wsrpParameter : wsrpParameters) {
 
-			toStringValue = url.toString();
+			appendParameterToURL(wsrpParameter.getName(), wsrpParameter.getValue(), url);
 		}
 
-		return toStringValue;
-	}
+		urlTemplate.wsrpParameters = url.toString();
 
-	protected void appendParameterToURL(String parameterName, String parameterValue, StringBuilder url) {
-		appendParameterToURL(false, false, parameterName, parameterValue, url);
-	}
+		// Determine the default p_p_resource_id parameter.
+		url.setLength(0);
 
-	protected void appendParameterToURL(boolean firstParameter, String parameterName, String parameterValue,
-		StringBuilder url) {
-		appendParameterToURL(firstParameter, false, parameterName, parameterValue, url);
-	}
+		String urlResourceId = parameterMap.get(LiferayConstants.P_O_P_ID);
 
-	protected void appendParameterToURL(boolean firstParameter, boolean namespaced, String parameterName,
-		String parameterValue, StringBuilder url) {
+		if (urlResourceId == null) {
 
-		if (!firstParameter) {
-			url.append(StringPool.AMPERSAND);
+			if (prefix.startsWith(BridgeConstants.WSRP)) {
+				appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, BridgeConstants.WSRP, url);
+			}
 		}
-
-		if (namespaced) {
-			url.append(responseNamespace);
+		else {
+			appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, urlResourceId, url);
 		}
 
-		url.append(parameterName);
-		url.append(StringPool.EQUAL);
-		url.append(parameterValue);
+		urlTemplate.resourceId = url.toString();
 
-		logger.debug("Appended param to URL name=[{0}] parameterValue=[{1}]", parameterName, parameterValue);
+		urlTemplate.length = urlTemplate.head.length() + urlTemplate.stateRestoreCurrentView.length() +
+			urlTemplate.middle.length() + urlTemplate.wsrpParameters.length() + urlTemplate.resourceId.length();
+
+		return urlTemplate;
 	}
 
 	protected String encode(String value) {
@@ -449,8 +459,40 @@ public abstract class LiferayURLGeneratorBaseImpl implements LiferayURLGenerator
 		return encodedValue;
 	}
 
+	/**
+	 * Determines whether or not add-default-resource=true for the current portlet. Since the answer requires a
+	 * database-backed service call, it is cached as a request attribute per portlet id so that it is shared by all of
+	 * the URL generators of the request.
+	 */
+	protected boolean isAddDefaultResource(PortletRequest portletRequest) {
+
+		String portletId = (String) portletRequest.getAttribute(WebKeys.PORTLET_ID);
+		String attributeName = ADD_DEFAULT_RESOURCE + portletId;
+		Boolean addDefaultResource = (Boolean) portletRequest.getAttribute(attributeName);
+
+		if (addDefaultResource == null) {
+
+			addDefaultResource = Boolean.TRUE;
+
+			ThemeDisplay themeDisplay = (ThemeDisplay) portletRequest.getAttribute(WebKeys.THEME_DISPLAY);
+
+			try {
+				Portlet portlet = PortletLocalServiceUtil.getPortletById(themeDisplay.getCompanyId(), portletId);
+				addDefaultResource = portlet.isAddDefaultResource();
+			}
+			catch (SystemException e) {
+				logger.error(e);
+			}
+
+			portletRequest.setAttribute(attributeName, addDefaultResource);
+		}
+
+		return addDefaultResource;
+	}
+
 	protected void parse() {
 
+		friendlyURL = baseURL.contains(Portal.FRIENDLY_URL_SEPARATOR);
 		parameterMap = new HashMap<String, String>();
 		wsrpParameters = new ArrayList<URLParameter>();
 
@@ -493,4 +535,23 @@ public abstract class LiferayURLGeneratorBaseImpl implements LiferayURLGenerator
 		}
 
 	}
+
+	/**
+	 * This class contains the parts of a URL that do not depend on the arguments of the generateURL methods. The fixed
+	 * segments are concatenated with the values of the parameter slots (p_p_state, p_p_mode, the additional
+	 * parameters, and p_p_resource_id) in a single pass.
+	 */
+	protected static class URLTemplate {
+
+		// Private Data Members
+		private String head;
+		private int length;
+		private String middle;
+		private boolean namespaced;
+		private String portletMode;
+		private String resourceId;
+		private String stateRestoreCurrentView;
+		private String windowState;
+		private String wsrpParameters;
+	}
 }
@@ -21,6 +21,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import com.liferay.faces.bridge.container.internal.PortletContainerImpl;
 import com.liferay.faces.bridge.context.BridgeContext;
+import com.liferay.faces.util.lang.StringPool;
 
 import com.liferay.portal.kernel.servlet.taglib.util.OutputData;
 import com.liferay.portal.kernel.util.StringBundler;
@@ -38,6 +39,13 @@ public class PortletContainerLiferayCompatImpl extends PortletContainerImpl impl
 	// serialVersionUID
 	private static final long serialVersionUID = 8713570232856573935L;
 
+	// Private Constants
+
+	// Since each portlet WAR has its own copy of the LiferaySharedPageTop class, the name of the request attribute
+	// is qualified by the identity of the class in order to prevent a ClassCastException.
+	private static final String ATTR_LIFERAY_SHARED_PAGE_TOP = LiferaySharedPageTop.class.getName() +
+		StringPool.AT + System.identityHashCode(LiferaySharedPageTop.class);
+
 	// Private Data Members
 	private int liferaySharedPageTopLength;
 
@@ -58,11 +66,15 @@ public class PortletContainerLiferayCompatImpl extends PortletContainerImpl impl
 
 			if (pageTop != null) {
 
-				LiferaySharedPageTop liferaySharedPageTop = new LiferaySharedPageTop(pageTop);
-				liferaySharedPageTop.removeDuplicates();
-				pageTop = liferaySharedPageTop.toStringBundler();
+				// The index of resources is shared by all of the portlets on the page so that only the resources that
+				// were contributed by this portlet need to be parsed, and so that the value of the attribute only needs
+				// to be replaced when this portlet actually contributed a duplicate resource.
+				LiferaySharedPageTop liferaySharedPageTop = getLiferaySharedPageTop(portletRequest);
+				StringBundler updatedPageTop = liferaySharedPageTop.update(pageTop);
 
-				setPageTop(portletRequest, pageTop);
+				if (updatedPageTop != pageTop) {
+					setPageTop(portletRequest, updatedPageTop);
+				}
 			}
 		}
 	}
@@ -85,6 +97,21 @@ public class PortletContainerLiferayCompatImpl extends PortletContainerImpl impl
 		}
 	}
 
+	protected LiferaySharedPageTop getLiferaySharedPageTop(PortletRequest portletRequest) {
+
+		HttpServletRequest httpServletRequest = PortalUtil.getOriginalServletRequest(PortalUtil.getHttpServletRequest(
+					portletRequest));
+		LiferaySharedPageTop liferaySharedPageTop = (LiferaySharedPageTop) httpServletRequest.getAttribute(
+				ATTR_LIFERAY_SHARED_PAGE_TOP);
+
+		if (liferaySharedPageTop == null) {
+			liferaySharedPageTop = new LiferaySharedPageTop();
+			httpServletRequest.setAttribute(ATTR_LIFERAY_SHARED_PAGE_TOP, liferaySharedPageTop);
+		}
+
+		return liferaySharedPageTop;
+	}
+
 	protected StringBundler getPageTop(PortletRequest portletRequest) {
 
 		StringBundler pageTop = null;
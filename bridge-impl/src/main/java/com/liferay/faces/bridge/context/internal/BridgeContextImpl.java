@@ -16,8 +16,6 @@ package com.liferay.faces.bridge.context.internal;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.net.URLDecoder;
 import java.util.Collections;
 import java.util.HashMap;
@@ -65,6 +63,7 @@ import com.liferay.faces.bridge.context.url.BridgeResourceURL;
 import com.liferay.faces.bridge.context.url.BridgeURLFactory;
 import com.liferay.faces.bridge.internal.BridgeExt;
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
+import com.liferay.faces.bridge.util.internal.ViewResourceCache;
 import com.liferay.faces.util.config.ConfiguredServletMapping;
 import com.liferay.faces.util.helper.BooleanHelper;
 import com.liferay.faces.util.lang.StringPool;
@@ -117,6 +116,7 @@ public class BridgeContextImpl extends BridgeContextCompatImpl {
 	private Writer responseOutputWriter;
 	private String savedViewState;
 	private String viewIdAndQueryString;
+	private ViewResourceCache viewResourceCache;
 
 	@SuppressWarnings("unchecked")
 	public BridgeContextImpl(BridgeConfig bridgeConfig, BridgeRequestScope bridgeRequestScope,
@@ -137,6 +137,7 @@ public class BridgeContextImpl extends BridgeContextCompatImpl {
 		this.portletPhase = portletPhase;
 		this.portletContainer = portletContainer;
 		this.incongruityContext = incongruityContext;
+		this.viewResourceCache = ViewResourceCache.getInstance(portletConfig);
 
 		// Get the BridgeURLFactory instance.
 		this.bridgeURLFactory = (BridgeURLFactory) BridgeFactoryFinder.getFactory(BridgeURLFactory.class);
@@ -586,6 +587,7 @@ public class BridgeContextImpl extends BridgeContextCompatImpl {
 		this.responseOutputWriter = null;
 		this.savedViewState = null;
 		this.viewIdAndQueryString = null;
+		this.viewResourceCache = null;
 		setCurrentInstance(null);
 	}
 
@@ -836,19 +838,11 @@ public class BridgeContextImpl extends BridgeContextCompatImpl {
 							if (mustExist) {
 								String resourcePath = viewPath.substring(0, pos) + defaultSuffix;
 
-								try {
-									URL resourceURL = getPortletContext().getResource(resourcePath);
+								// If the file exists, then we've determined the viewId from the viewPath.
+								if (viewResourceCache.isResourcePresent(resourcePath)) {
+									facesViewId = viewPath;
 
-									// If the file exists, then we've determined the viewId from the viewPath.
-									if (resourceURL != null) {
-										facesViewId = viewPath;
-
-										break;
-									}
-
-								}
-								catch (MalformedURLException e) {
-									logger.error(e);
+									break;
 								}
 							}
 							else {
@@ -19,12 +19,15 @@ import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.Principal;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import javax.faces.component.UIViewRoot;
 import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
 import javax.portlet.ClientDataRequest;
 import javax.portlet.MimeResponse;
 import javax.portlet.PortletContext;
@@ -33,6 +36,7 @@ import javax.portlet.PortletResponse;
 import javax.portlet.PortletSession;
 import javax.portlet.ResourceResponse;
 import javax.portlet.StateAwareResponse;
+import javax.portlet.faces.Bridge;
 import javax.portlet.faces.BridgeWriteBehindResponse;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
@@ -62,6 +66,7 @@ public class ExternalContextImpl extends ExternalContextCompat_2_2_Impl {
 	private static final boolean RICHFACES_DETECTED = ProductMap.getInstance().get(ProductConstants.RICHFACES)
 		.isDetected();
 	private static final String ORG_RICHFACES_EXTENSION = "org.richfaces.extension";
+	private static final int MAX_ENCODED_RESOURCE_URLS = 256;
 
 	// Pre-initialized Data Members
 	private Map<String, Object> applicationMap;
@@ -73,6 +78,8 @@ public class ExternalContextImpl extends ExternalContextCompat_2_2_Impl {
 	private String authType;
 	private BridgeAfterViewContentRequest bridgeAfterViewContentRequest;
 	private BridgeAfterViewContentResponse bridgeAfterViewContentResponse;
+	private Map<String, String> encodedResourceURLMap;
+	private String encodedResourceURLViewId;
 	private Map<String, String> initParameterMap;
 	private String remoteUser;
 	private Map<String, Object> requestCookieMap;
@@ -134,7 +141,48 @@ public class ExternalContextImpl extends ExternalContextCompat_2_2_Impl {
 	 */
 	@Override
 	public String encodeResourceURL(String url) {
-		return bridgeContext.encodeResourceURL(url).toString();
+
+		// URLs that represent navigation to a different view are not memoized since the BackLink parameter refers to
+		// the current view.
+		if ((url == null) || url.contains(Bridge.VIEW_LINK)) {
+			return bridgeContext.encodeResourceURL(url).toString();
+		}
+
+		// Since a page often encodes the same resource URL many times (for example, the URL of jsf.js or of an image),
+		// the encoded URLs are memoized for the current request, response, and view.
+		String viewId = null;
+		UIViewRoot uiViewRoot = FacesContext.getCurrentInstance().getViewRoot();
+
+		if (uiViewRoot != null) {
+			viewId = uiViewRoot.getViewId();
+		}
+
+		boolean viewChanged;
+
+		if (viewId == null) {
+			viewChanged = (encodedResourceURLViewId != null);
+		}
+		else {
+			viewChanged = !viewId.equals(encodedResourceURLViewId);
+		}
+
+		if ((encodedResourceURLMap == null) || (encodedResourceURLMap.size() >= MAX_ENCODED_RESOURCE_URLS) ||
+				viewChanged) {
+			encodedResourceURLMap = new HashMap<String, String>();
+			encodedResourceURLViewId = viewId;
+		}
+
+		String encodedResourceURL = encodedResourceURLMap.get(url);
+
+		if (encodedResourceURL == null) {
+			encodedResourceURL = bridgeContext.encodeResourceURL(url).toString();
+
+			if (encodedResourceURL != null) {
+				encodedResourceURLMap.put(url, encodedResourceURL);
+			}
+		}
+
+		return encodedResourceURL;
 	}
 
 	@Override
@@ -265,6 +313,7 @@ public class ExternalContextImpl extends ExternalContextCompat_2_2_Impl {
 	@Override
 	public void setRequest(Object request) {
 		this.portletRequest = (PortletRequest) request;
+		this.encodedResourceURLMap = null;
 
 		try {
 			boolean requestChanged = true;
@@ -510,6 +559,8 @@ public class ExternalContextImpl extends ExternalContextCompat_2_2_Impl {
 	@Override
 	public void setResponse(Object response) {
 
+		encodedResourceURLMap = null;
+
 		// Assume that the JSP_AFTER_VIEW_CONTENT feature is deactivated.
 		facesImplementationServletResponse = null;
 
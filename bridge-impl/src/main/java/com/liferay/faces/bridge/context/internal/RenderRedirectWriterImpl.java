@@ -17,47 +17,87 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
- * This class supports the render-redirect feature by queuing up a list of all write operations. Calling the {@link
- * #render()} method causes the queued operations to be invoked. Conversely, not calling the method will prevent the
- * queued operations from being invoked. This is necessary because in the case of a render-redirect, any markup written
- * to the response in the initially rendered view must be discarded.
+ * This class supports the render-redirect feature by buffering all of the characters that are written. Calling the
+ * {@link #render()} method causes the buffered characters to be written to the wrapped {@link Writer}. Conversely, not
+ * calling the method will prevent the buffered characters from being written. This is necessary because in the case of
+ * a render-redirect, any markup written to the response in the initially rendered view must be discarded.
+ *
+ * <p>Rather than recording each write operation, characters are copied into fixed-size chunks that are borrowed from a
+ * shared pool. This keeps the number of objects that are allocated for a large page to a minimum, and makes it cheap
+ * to discard the buffered markup.</p>
  *
  * @author  Neil Griffin
  */
 public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 
+	// Protected Constants
+	protected static final int CHUNK_SIZE = 8192;
+	protected static final int MAX_POOLED_CHUNKS = 64;
+
+	// Private Constants
+	private static final ChunkPool CHUNK_POOL = new ChunkPool(MAX_POOLED_CHUNKS);
+
 	// Private Data Members
+	private boolean closed;
+	private List<char[]> chunks;
+	private char[] currentChunk;
+	private int currentChunkPos;
+	private boolean flushed;
 	private Writer wrappedWriter;
-	private List<OutputOperation> outputOperationList;
 
 	public RenderRedirectWriterImpl(Writer writer) {
 		this.wrappedWriter = writer;
-		this.outputOperationList = new ArrayList<OutputOperation>();
+		this.chunks = new ArrayList<char[]>();
 	}
 
 	@Override
 	public void close() throws IOException {
-		outputOperationList.add(new CloseOperation());
+		closed = true;
 	}
 
 	@Override
 	public void discard() {
-		this.outputOperationList = new ArrayList<OutputOperation>();
+		releaseChunks();
+		flushed = false;
+		closed = false;
 	}
 
 	@Override
 	public void flush() throws IOException {
-		outputOperationList.add(new FlushOperation());
+		flushed = true;
 	}
 
 	@Override
 	public void render() throws IOException {
 
-		for (OutputOperation outputOperation : outputOperationList) {
-			outputOperation.invoke();
+		try {
+			int lastChunkIndex = chunks.size() - 1;
+
+			for (int i = 0; i < lastChunkIndex; i++) {
+				wrappedWriter.write(chunks.get(i), 0, CHUNK_SIZE);
+			}
+
+			if (currentChunk != null) {
+				wrappedWriter.write(currentChunk, 0, currentChunkPos);
+			}
+
+			if (closed) {
+				wrappedWriter.close();
+			}
+			else if (flushed) {
+				wrappedWriter.flush();
+			}
+		}
+		finally {
+			releaseChunks();
+			flushed = false;
+			closed = false;
 		}
 	}
 
@@ -65,20 +105,25 @@ public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 	public void write(char[] cbuf) throws IOException {
 
 		if (cbuf != null) {
-			outputOperationList.add(new CbufWriteOperation(cbuf));
+			write(cbuf, 0, cbuf.length);
 		}
 	}
 
 	@Override
 	public void write(int c) throws IOException {
-		outputOperationList.add(new IntWriteOperation(c));
+
+		if ((currentChunk == null) || (currentChunkPos == CHUNK_SIZE)) {
+			addChunk();
+		}
+
+		currentChunk[currentChunkPos++] = (char) c;
 	}
 
 	@Override
 	public void write(String str) throws IOException {
 
 		if (str != null) {
-			outputOperationList.add(new StrWriteOperation(str));
+			write(str, 0, str.length());
 		}
 	}
 
@@ -86,7 +131,23 @@ public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 	public void write(char[] cbuf, int off, int len) throws IOException {
 
 		if (cbuf != null) {
-			outputOperationList.add(new CBufOffLenOutputOperation(cbuf, off, len));
+
+			if ((off < 0) || (len < 0) || (off > (cbuf.length - len))) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			while (len > 0) {
+
+				if ((currentChunk == null) || (currentChunkPos == CHUNK_SIZE)) {
+					addChunk();
+				}
+
+				int count = Math.min(len, CHUNK_SIZE - currentChunkPos);
+				System.arraycopy(cbuf, off, currentChunk, currentChunkPos, count);
+				currentChunkPos += count;
+				off += count;
+				len -= count;
+			}
 		}
 	}
 
@@ -94,100 +155,107 @@ public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 	public void write(String str, int off, int len) throws IOException {
 
 		if (str != null) {
-			outputOperationList.add(new StrOffLenWriteOperation(str, off, len));
-		}
-	}
-
-	public Writer getWrapped() {
-		return wrappedWriter;
-	}
 
-	protected interface OutputOperation {
-		void invoke() throws IOException;
-	}
+			if ((off < 0) || (len < 0) || (off > (str.length() - len))) {
+				throw new IndexOutOfBoundsException();
+			}
 
-	protected class CBufOffLenOutputOperation implements OutputOperation {
+			while (len > 0) {
 
-		private char[] cbuf;
-		private int off;
-		private int len;
+				if ((currentChunk == null) || (currentChunkPos == CHUNK_SIZE)) {
+					addChunk();
+				}
 
-		public CBufOffLenOutputOperation(char[] cbuf, int off, int len) {
-			this.cbuf = cbuf.clone();
-			this.off = off;
-			this.len = len;
+				int count = Math.min(len, CHUNK_SIZE - currentChunkPos);
+				str.getChars(off, off + count, currentChunk, currentChunkPos);
+				currentChunkPos += count;
+				off += count;
+				len -= count;
+			}
 		}
+	}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(cbuf, off, len);
-		}
+	protected static int getPooledChunkCount() {
+		return CHUNK_POOL.getPooledChunkCount();
 	}
 
-	protected class CbufWriteOperation implements OutputOperation {
+	protected void addChunk() {
+		currentChunk = CHUNK_POOL.acquire();
+		currentChunkPos = 0;
+		chunks.add(currentChunk);
+	}
 
-		private char[] cbuf;
+	protected void releaseChunks() {
 
-		public CbufWriteOperation(char[] cbuf) {
-			this.cbuf = cbuf.clone();
+		for (char[] chunk : chunks) {
+			CHUNK_POOL.release(chunk);
 		}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(cbuf);
-		}
+		chunks.clear();
+		currentChunk = null;
+		currentChunkPos = 0;
 	}
 
-	protected class CloseOperation implements OutputOperation {
-		public void invoke() throws IOException {
-			wrappedWriter.close();
-		}
-	}
+	/**
+	 * Returns the number of characters that are currently buffered.
+	 */
+	public int getBufferedLength() {
 
-	protected class FlushOperation implements OutputOperation {
-		public void invoke() throws IOException {
-			wrappedWriter.flush();
+		if (currentChunk == null) {
+			return 0;
+		}
+		else {
+			return ((chunks.size() - 1) * CHUNK_SIZE) + currentChunkPos;
 		}
 	}
 
-	protected class IntWriteOperation implements OutputOperation {
-
-		private int c;
+	public Writer getWrapped() {
+		return wrappedWriter;
+	}
 
-		public IntWriteOperation(int c) {
-			this.c = c;
+	/**
+	 * This class provides a thread-safe pool of chunks so that the chunks used to buffer the markup of one request can
+	 * be reused by subsequent requests.
+	 */
+	protected static class ChunkPool {
+
+		// Private Data Members
+		private int maxPooledChunks;
+		private AtomicInteger pooledChunkCount;
+		private Queue<char[]> pooledChunks;
+
+		public ChunkPool(int maxPooledChunks) {
+			this.maxPooledChunks = maxPooledChunks;
+			this.pooledChunkCount = new AtomicInteger();
+			this.pooledChunks = new ConcurrentLinkedQueue<char[]>();
 		}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(c);
-		}
-	}
+		public char[] acquire() {
 
-	protected class StrOffLenWriteOperation implements OutputOperation {
+			char[] chunk = pooledChunks.poll();
 
-		private String str;
-		private int off;
-		private int len;
+			if (chunk == null) {
+				chunk = new char[CHUNK_SIZE];
+			}
+			else {
+				pooledChunkCount.decrementAndGet();
+			}
 
-		public StrOffLenWriteOperation(String str, int off, int len) {
-			this.str = str;
-			this.off = off;
-			this.len = len;
+			return chunk;
 		}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(str, off, len);
-		}
-	}
-
-	protected class StrWriteOperation implements OutputOperation {
-
-		private String str;
+		public void release(char[] chunk) {
 
-		public StrWriteOperation(String str) {
-			this.str = str;
+			if (pooledChunkCount.incrementAndGet() <= maxPooledChunks) {
+				pooledChunks.offer(chunk);
+			}
+			else {
+				pooledChunkCount.decrementAndGet();
+			}
 		}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(str);
+		public int getPooledChunkCount() {
+			return pooledChunkCount.get();
 		}
 	}
 }
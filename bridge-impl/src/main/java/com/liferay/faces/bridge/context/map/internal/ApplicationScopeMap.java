@@ -81,6 +81,15 @@ public class ApplicationScopeMap extends AbstractPropertyMap<Object> {
 		super.clear();
 	}
 
+	/**
+	 * Since context attributes cannot have a null value, this method determines whether or not the specified attribute
+	 * exists without iterating over the attribute names.
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return (key != null) && (portletContext.getAttribute(key.toString()) != null);
+	}
+
 	/**
 	 * According to the JSF 2.0 JavaDocs for {@link ExternalContext#getApplicationMap}, before a managed-bean is removed
 	 * from the map, any public no-argument void return methods annotated with javax.annotation.PreDestroy must be
@@ -44,7 +44,19 @@ public class CaseInsensitiveHashMap<V> extends HashMap<String, V> {
 		String lowerCaseKey = null;
 
 		if (key != null) {
-			lowerCaseKey = key.toString().toLowerCase();
+			lowerCaseKey = key.toString();
+
+			// Avoid creating a copy of keys that are already lower case.
+			for (int i = 0; i < lowerCaseKey.length(); i++) {
+
+				char ch = lowerCaseKey.charAt(i);
+
+				if (Character.toLowerCase(ch) != ch) {
+					lowerCaseKey = lowerCaseKey.toLowerCase();
+
+					break;
+				}
+			}
 		}
 
 		return lowerCaseKey;
@@ -14,6 +14,7 @@
 package com.liferay.faces.bridge.context.map.internal;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +22,7 @@ import javax.portlet.ClientDataRequest;
 import javax.portlet.PortletContext;
 import javax.portlet.PortletRequest;
 import javax.portlet.PortletResponse;
+import javax.portlet.PortletSession;
 import javax.servlet.ServletContext;
 import javax.servlet.http.Cookie;
 
@@ -35,22 +37,79 @@ import com.liferay.faces.util.product.ProductMap;
 
 
 /**
+ * This class creates the maps that are exposed by the {@link javax.faces.context.ExternalContext}. Since the maps are
+ * backed by the underlying portlet request, session, and context, the instances are reused for as long as the {@link
+ * BridgeContext} (and therefore the FacesContext) refers to the same portlet request and response.
+ *
  * @author  Neil Griffin
  */
 public class ContextMapFactoryImpl extends ContextMapFactory {
 
 	// Private Constants
+	private static final String APPLICATION_SCOPE_MAP = "applicationScopeMap";
+	private static final String APPLICATION_SESSION_SCOPE_MAP = "applicationSessionScopeMap";
+	private static final String ATTR_CONTEXT_MAPS = ContextMapFactoryImpl.class.getName() + ".contextMaps";
+	private static final String FACES_REQUEST_PARAMETER_MAP = "facesRequestParameterMap";
 	private static final boolean ICEFACES_DETECTED = ProductMap.getInstance().get(ProductConstants.ICEFACES)
 		.isDetected();
 	private static final String MULTIPART_FORM_DATA_FQCN = MultiPartFormData.class.getName();
+	private static final String PORTLET_SESSION_SCOPE_MAP = "portletSessionScopeMap";
+	private static final String REQUEST_SCOPE_MAP = "requestScopeMap";
 
 	@Override
 	public Map<String, Object> getApplicationScopeMap(BridgeContext bridgeContext) {
-		return new ApplicationScopeMap(bridgeContext);
+
+		ContextMaps contextMaps = getContextMaps(bridgeContext);
+		ApplicationScopeMap applicationScopeMap = (ApplicationScopeMap) contextMaps.get(APPLICATION_SCOPE_MAP);
+
+		if (applicationScopeMap == null) {
+			applicationScopeMap = new ApplicationScopeMap(bridgeContext);
+			contextMaps.put(APPLICATION_SCOPE_MAP, applicationScopeMap);
+		}
+
+		return applicationScopeMap;
+	}
+
+	/**
+	 * Returns the maps that were created for the portlet request and response of the specified bridge context. If the
+	 * portlet request or response has changed (for example, because a wrapper was set on the ExternalContext) then the
+	 * maps that were created previously are discarded.
+	 */
+	protected ContextMaps getContextMaps(BridgeContext bridgeContext) {
+
+		Map<String, Object> attributes = bridgeContext.getAttributes();
+		ContextMaps contextMaps = (ContextMaps) attributes.get(ATTR_CONTEXT_MAPS);
+		PortletRequest portletRequest = bridgeContext.getPortletRequest();
+		PortletResponse portletResponse = bridgeContext.getPortletResponse();
+
+		if ((contextMaps == null) || (contextMaps.getPortletRequest() != portletRequest) ||
+				(contextMaps.getPortletResponse() != portletResponse)) {
+
+			contextMaps = new ContextMaps(portletRequest, portletResponse);
+			attributes.put(ATTR_CONTEXT_MAPS, contextMaps);
+		}
+
+		return contextMaps;
 	}
 
 	protected FacesRequestParameterMap getFacesRequestParameterMap(BridgeContext bridgeContext) {
 
+		// Since the request parameter map and the request parameter values map are views of the same parameters,
+		// they share the same instance so that the parameters are only indexed once per request.
+		ContextMaps contextMaps = getContextMaps(bridgeContext);
+		FacesRequestParameterMap facesRequestParameterMap = (FacesRequestParameterMap) contextMaps.get(
+				FACES_REQUEST_PARAMETER_MAP);
+
+		if (facesRequestParameterMap == null) {
+			facesRequestParameterMap = newFacesRequestParameterMap(bridgeContext);
+			contextMaps.put(FACES_REQUEST_PARAMETER_MAP, facesRequestParameterMap);
+		}
+
+		return facesRequestParameterMap;
+	}
+
+	protected FacesRequestParameterMap newFacesRequestParameterMap(BridgeContext bridgeContext) {
+
 		FacesRequestParameterMap facesRequestParameterMap = null;
 		PortletRequest portletRequest = bridgeContext.getPortletRequest();
 		PortletResponse portletResponse = bridgeContext.getPortletResponse();
@@ -149,7 +208,16 @@ public class ContextMapFactoryImpl extends ContextMapFactory {
 
 	@Override
 	public Map<String, Object> getRequestScopeMap(BridgeContext bridgeContext) {
-		return new RequestScopeMap(bridgeContext);
+
+		ContextMaps contextMaps = getContextMaps(bridgeContext);
+		RequestScopeMap requestScopeMap = (RequestScopeMap) contextMaps.get(REQUEST_SCOPE_MAP);
+
+		if (requestScopeMap == null) {
+			requestScopeMap = new RequestScopeMap(bridgeContext);
+			contextMaps.put(REQUEST_SCOPE_MAP, requestScopeMap);
+		}
+
+		return requestScopeMap;
 	}
 
 	@Override
@@ -159,7 +227,25 @@ public class ContextMapFactoryImpl extends ContextMapFactory {
 
 	@Override
 	public Map<String, Object> getSessionScopeMap(BridgeContext bridgeContext, int scope) {
-		return new SessionScopeMap(bridgeContext, scope);
+
+		ContextMaps contextMaps = getContextMaps(bridgeContext);
+		String key = PORTLET_SESSION_SCOPE_MAP;
+
+		if (scope == PortletSession.APPLICATION_SCOPE) {
+			key = APPLICATION_SESSION_SCOPE_MAP;
+		}
+
+		SessionScopeMap sessionScopeMap = (SessionScopeMap) contextMaps.get(key);
+
+		// If the session was invalidated since the map was created, then the map must be created for the new session.
+		if ((sessionScopeMap == null) ||
+				(sessionScopeMap.getPortletSession() != contextMaps.getPortletRequest().getPortletSession(false))) {
+
+			sessionScopeMap = new SessionScopeMap(bridgeContext, scope);
+			contextMaps.put(key, sessionScopeMap);
+		}
+
+		return sessionScopeMap;
 	}
 
 	@Override
@@ -177,4 +263,27 @@ public class ContextMapFactoryImpl extends ContextMapFactory {
 		// Since this is the factory instance provided by the bridge, it will never wrap another factory.
 		return null;
 	}
+
+	protected static class ContextMaps extends HashMap<String, Object> {
+
+		// serialVersionUID
+		private static final long serialVersionUID = 3126482764416498162L;
+
+		// Private Data Members
+		private transient PortletRequest portletRequest;
+		private transient PortletResponse portletResponse;
+
+		public ContextMaps(PortletRequest portletRequest, PortletResponse portletResponse) {
+			this.portletRequest = portletRequest;
+			this.portletResponse = portletResponse;
+		}
+
+		public PortletRequest getPortletRequest() {
+			return portletRequest;
+		}
+
+		public PortletResponse getPortletResponse() {
+			return portletResponse;
+		}
+	}
 }
@@ -13,12 +13,11 @@
  */
 package com.liferay.faces.bridge.context.map.internal;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +31,11 @@ import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
+ * This class provides a view of the request parameters in which the portlet namespace is optional. Since JSF decodes
+ * every component by looking up its request parameters, the parameters are indexed by both their actual (possibly
+ * namespaced) name and their namespace-stripped name the first time they are accessed, so that subsequent lookups do
+ * not need to concatenate the namespace or iterate over the parameter names.
+ *
  * @author  Neil Griffin
  */
 public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
@@ -48,6 +52,8 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 	private BridgeRequestScope bridgeRequestScope;
 	private String defaultRenderKitId;
 	private Map<String, String> facesViewParameterMap;
+	private Map<String, String[]> index;
+	private Set<String> keySet;
 	private String namespace;
 	private Map<String, String[]> wrappedParameterMap;
 
@@ -80,16 +86,17 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 		}
 
 		if (namespacedKey) {
-			wrappedParameterMap.put(key, values);
+			put(key, values);
 		}
 		else {
-			wrappedParameterMap.put(namespace + key, values);
+			put(namespace + key, values);
 		}
 	}
 
 	@Override
 	public void clear() {
 		wrappedParameterMap.clear();
+		invalidate();
 	}
 
 	/**
@@ -103,13 +110,9 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 		// If the specified key has a valid value, then
 		if (key != null) {
 
-			// Determine whether or not the key is present in the parameter-map within the PortletRequest. This should
-			// be a quick lookup (minimal performance impact).
-			found = wrappedParameterMap.containsKey(key);
-
-			if (!found) {
-				found = wrappedParameterMap.containsKey(namespace + key);
-			}
+			// Determine whether or not the key (with or without the namespace) is present in the index of the
+			// parameter-map within the PortletRequest.
+			found = getIndex().containsKey(key);
 
 			if (!found) {
 
@@ -170,18 +173,18 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 						// nothing to do -- just here for comments readability.
 					}
 
-					// Otherwise, iterate through the parameter names to see if the name is present. This is done as a
-					// last resort since getting the parameter names is an expensive operation.
+					// Otherwise, determine whether or not the name is one of the additional names that are present in
+					// the value returned by keySet() without iterating over it.
 					else {
 
-						Set<String> parameterNames = keySet();
-
-						for (String parameterName : parameterNames) {
-							found = parameterName.equals(keyAsString);
+						if (bridgeRequestScope != null) {
+							Map<String, String> preservedActionParamMap =
+								bridgeRequestScope.getPreservedActionParameterMap();
+							found = (preservedActionParamMap != null) && preservedActionParamMap.containsKey(key);
+						}
 
-							if (found) {
-								break;
-							}
+						if (!found) {
+							found = facesViewParameterMap.containsKey(key);
 						}
 					}
 				}
@@ -204,11 +207,7 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 	@Override
 	public String[] get(Object key) {
 
-		String[] values = wrappedParameterMap.get(key);
-
-		if (values == null) {
-			values = wrappedParameterMap.get(namespace + key);
-		}
+		String[] values = getIndex().get(key);
 
 		if (values == null) {
 
@@ -225,72 +224,100 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 	@Override
 	public Set<String> keySet() {
 
-		// Note: This can't be cached because the caller basically wants a new enumeration to iterate over each time.
-		Set<String> keyNames = new HashSet<String>();
+		// Note: Since the caller basically wants to iterate over the names, the set is unmodifiable and is only
+		// recomputed after this map has been modified.
+		if (keySet == null) {
 
-		String renderKitIdParam = getFirst(ResponseStateManager.RENDER_KIT_ID_PARAM);
+			Set<String> keyNames = new HashSet<String>(wrappedParameterMap.keySet());
 
-		if (renderKitIdParam == null) {
-			renderKitIdParam = defaultRenderKitId;
-		}
-
-		List<String> requestParamerNameList = new ArrayList<String>();
-		requestParamerNameList.addAll(wrappedParameterMap.keySet());
+			String renderKitIdParam = getFirst(ResponseStateManager.RENDER_KIT_ID_PARAM);
 
-		// Section 6.9 of the Bridge spec requires that a parameter name be added to the return value of
-		// ExternalContext.getRequestParameterNames() for ResponseStateManager.RENDER_KIT_ID_PARAM.
-		if (renderKitIdParam != null) {
-			requestParamerNameList.add(ResponseStateManager.RENDER_KIT_ID_PARAM);
-		}
+			if (renderKitIdParam == null) {
+				renderKitIdParam = defaultRenderKitId;
+			}
 
-		// If the "javax.faces.ViewState" parameter was preserved in the BridgeRequestScope, then add it to the return
-		// value list of names.
-		String viewStateParam = getFirst(ResponseStateManager.VIEW_STATE_PARAM);
+			// Section 6.9 of the Bridge spec requires that a parameter name be added to the return value of
+			// ExternalContext.getRequestParameterNames() for ResponseStateManager.RENDER_KIT_ID_PARAM.
+			if (renderKitIdParam != null) {
+				keyNames.add(ResponseStateManager.RENDER_KIT_ID_PARAM);
+			}
 
-		if ((viewStateParam == null) && (bridgeRequestScope != null)) {
-			viewStateParam = bridgeRequestScope.getPreservedViewStateParam();
-		}
+			// If the "javax.faces.ViewState" parameter was preserved in the BridgeRequestScope, then add it to the
+			// return value list of names.
+			String viewStateParam = getFirst(ResponseStateManager.VIEW_STATE_PARAM);
 
-		if (viewStateParam != null) {
-			requestParamerNameList.add(ResponseStateManager.VIEW_STATE_PARAM);
-		}
+			if ((viewStateParam == null) && (bridgeRequestScope != null)) {
+				viewStateParam = bridgeRequestScope.getPreservedViewStateParam();
+			}
 
-		if (bridgeRequestScope != null) {
-			Map<String, String> preservedActionParamMap = bridgeRequestScope.getPreservedActionParameterMap();
+			if (viewStateParam != null) {
+				keyNames.add(ResponseStateManager.VIEW_STATE_PARAM);
+			}
 
-			if (preservedActionParamMap != null) {
-				Set<String> keySet = preservedActionParamMap.keySet();
+			if (bridgeRequestScope != null) {
+				Map<String, String> preservedActionParamMap = bridgeRequestScope.getPreservedActionParameterMap();
 
-				for (String key : keySet) {
-					requestParamerNameList.add(key);
+				if (preservedActionParamMap != null) {
+					keyNames.addAll(preservedActionParamMap.keySet());
 				}
 			}
-		}
-
-		Set<String> keySet = facesViewParameterMap.keySet();
 
-		for (String key : keySet) {
-			requestParamerNameList.add(key);
+			keyNames.addAll(facesViewParameterMap.keySet());
+			keySet = Collections.unmodifiableSet(keyNames);
 		}
 
-		keyNames.addAll(requestParamerNameList);
-
-		return keyNames;
+		return keySet;
 	}
 
 	@Override
 	public String[] put(String key, String[] value) {
-		return wrappedParameterMap.put(key, value);
+
+		String[] oldValue = wrappedParameterMap.put(key, value);
+		keySet = null;
+
+		if (index != null) {
+			indexParameter(index, key, value);
+		}
+
+		return oldValue;
 	}
 
 	@Override
 	public void putAll(Map<? extends String, ? extends String[]> m) {
 		wrappedParameterMap.putAll(m);
+		invalidate();
 	}
 
 	@Override
 	public String[] remove(Object key) {
-		return wrappedParameterMap.remove(key);
+
+		String[] oldValue = wrappedParameterMap.remove(key);
+		invalidate();
+
+		return oldValue;
+	}
+
+	/**
+	 * Adds the specified parameter to the specified index under its actual name, and also under its namespace-stripped
+	 * name unless the wrapped map contains a parameter with that name (which takes precedence).
+	 */
+	protected void indexParameter(Map<String, String[]> index, String name, String[] values) {
+
+		index.put(name, values);
+
+		if ((name != null) && name.startsWith(namespace)) {
+
+			String strippedName = name.substring(namespace.length());
+
+			if (!wrappedParameterMap.containsKey(strippedName)) {
+				index.put(strippedName, values);
+			}
+		}
+	}
+
+	protected void invalidate() {
+		index = null;
+		keySet = null;
 	}
 
 	@Override
@@ -312,10 +339,6 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 
 			String[] values = get(key);
 
-			if (values == null) {
-				values = get(namespace + key);
-			}
-
 			if ((values != null) && (values.length > 0)) {
 				firstValue = values[0];
 			}
@@ -330,6 +353,22 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 		return firstValue;
 	}
 
+	protected Map<String, String[]> getIndex() {
+
+		if (index == null) {
+
+			Map<String, String[]> newIndex = new HashMap<String, String[]>(wrappedParameterMap.size() * 2);
+
+			for (Map.Entry<String, String[]> mapEntry : wrappedParameterMap.entrySet()) {
+				indexParameter(newIndex, mapEntry.getKey(), mapEntry.getValue());
+			}
+
+			index = newIndex;
+		}
+
+		return index;
+	}
+
 	@Override
 	public String getNamespace() {
 		return namespace;
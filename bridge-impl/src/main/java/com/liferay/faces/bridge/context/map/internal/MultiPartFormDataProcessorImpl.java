@@ -15,6 +15,7 @@ package com.liferay.faces.bridge.context.map.internal;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -32,6 +33,7 @@ import javax.portlet.ActionRequest;
 import javax.portlet.ClientDataRequest;
 import javax.portlet.PortalContext;
 import javax.portlet.PortletConfig;
+import javax.portlet.PortletContext;
 import javax.portlet.PortletMode;
 import javax.portlet.PortletPreferences;
 import javax.portlet.PortletSession;
@@ -42,14 +44,17 @@ import javax.servlet.http.Cookie;
 import org.apache.commons.fileupload.FileItemHeaders;
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase.FileSizeLimitExceededException;
+import org.apache.commons.fileupload.FileUploadBase.FileUploadIOException;
 import org.apache.commons.fileupload.InvalidFileNameException;
+import org.apache.commons.fileupload.ParameterParser;
 import org.apache.commons.fileupload.disk.DiskFileItem;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.portlet.PortletFileUpload;
 import org.apache.commons.fileupload.util.Streams;
-import org.apache.commons.io.FileUtils;
 
 import com.liferay.faces.bridge.BridgeFactoryFinder;
+import com.liferay.faces.bridge.config.internal.BridgeWebConfigParam;
 import com.liferay.faces.bridge.config.internal.PortletConfigParam;
 import com.liferay.faces.util.context.map.FacesRequestParameterMap;
 import com.liferay.faces.util.logging.Logger;
@@ -65,6 +70,9 @@ import com.liferay.portal.kernel.util.StringPool;
  */
 public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcessor {
 
+	// Public Constants
+	public static final String ATTR_UPLOADED_FILE_TRACKER_PREFIX = UploadedFileTracker.class.getName() + ":";
+
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(MultiPartFormDataProcessorImpl.class);
 
@@ -87,10 +95,22 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 
 		File uploadedFilesPath = new File(uploadedFilesDir, sessionId);
 
+		// Keep track of the number of bytes that are occupied by uploaded files so that quotas can be enforced. Note
+		// that the upload must begin before the folder is created so that the folder cannot be reaped in the meantime.
+		UploadedFileTracker uploadedFileTracker = getUploadedFileTracker(portletConfig, new File(uploadedFilesDir));
+		uploadedFileTracker.beginUpload(sessionId);
+
 		if (!uploadedFilesPath.exists()) {
 			uploadedFilesPath.mkdirs();
 		}
 
+		try {
+			uploadedFileTracker.setUploadDirectory(uploadedFilesPath);
+		}
+		catch (IOException e) {
+			logger.error(e);
+		}
+
 		// Initialize commons-fileupload with the file upload path.
 		DiskFileItemFactory diskFileItemFactory = new DiskFileItemFactory();
 		diskFileItemFactory.setRepository(uploadedFilesPath);
@@ -98,9 +118,10 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		// Initialize commons-fileupload so that uploaded temporary files are not automatically deleted.
 		diskFileItemFactory.setFileCleaningTracker(null);
 
-		// Initialize the commons-fileupload size threshold to zero, so that all files will be dumped to disk
-		// instead of staying in memory.
-		diskFileItemFactory.setSizeThreshold(0);
+		// Initialize the commons-fileupload size threshold so that small files stay in memory until they are written
+		// to their final location, and only larger files are streamed to a temporary file.
+		int uploadedFileSizeThreshold = PortletConfigParam.UploadedFileSizeThreshold.getIntegerValue(portletConfig);
+		diskFileItemFactory.setSizeThreshold(uploadedFileSizeThreshold);
 
 		// Determine the max file upload size threshold (in bytes).
 		long uploadedFileMaxSize = PortletConfigParam.UploadedFileMaxSize.getLongValue(portletConfig);
@@ -129,6 +150,9 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		UploadedFileFactory uploadedFileFactory = (UploadedFileFactory) BridgeFactoryFinder.getFactory(
 				UploadedFileFactory.class);
 
+		long startTime = System.currentTimeMillis();
+		int totalFiles = 0;
+
 		// Begin parsing the request for file parts:
 		try {
 			FileItemIterator fileItemIterator = null;
@@ -146,7 +170,6 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 
 			if (fileItemIterator != null) {
 
-				int totalFiles = 0;
 				String namespace = facesRequestParameterMap.getNamespace();
 
 				// For each field found in the request:
@@ -184,49 +207,62 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 							fileName = e.getName();
 						}
 
-						// Copy the stream of file data to a temporary file. NOTE: This is necessary even if the
-						// current field is a simple form-field because the call below to diskFileItem.getString()
-						// will fail otherwise.
-						DiskFileItem diskFileItem = (DiskFileItem) diskFileItemFactory.createItem(fieldName,
-								contentType, formField, fileName);
-						Streams.copy(fieldStream.openStream(), diskFileItem.getOutputStream(), true);
-
-						// If the current field is a simple form-field, then save the form field value in the map.
-						if (diskFileItem.isFormField()) {
+						// If the current field is a simple form-field, then decode the value directly from the stream
+						// of field data and save it in the map.
+						if (formField) {
 							String characterEncoding = clientDataRequest.getCharacterEncoding();
-							String requestParameterValue = null;
 
 							if (characterEncoding == null) {
-								requestParameterValue = diskFileItem.getString();
-							}
-							else {
-								requestParameterValue = diskFileItem.getString(characterEncoding);
+								characterEncoding = getCharSet(contentType);
 							}
 
+							String requestParameterValue = Streams.asString(fieldStream.openStream(),
+									characterEncoding);
 							facesRequestParameterMap.addValue(fieldName, requestParameterValue);
 						}
 						else {
 
-							File tempFile = diskFileItem.getStoreLocation();
+							// Copy the stream of file data to the file item, which keeps the data in memory unless it
+							// exceeds the size threshold, in which case it is written to a temporary file.
+							// Note that the quotas are checked while the data is being copied so that an upload that
+							// would exceed a quota is aborted before it is entirely written.
+							DiskFileItem diskFileItem = (DiskFileItem) diskFileItemFactory.createItem(fieldName,
+									contentType, formField, fileName);
+							QuotaInputStream quotaInputStream = new QuotaInputStream(fieldStream.openStream(),
+									uploadedFileTracker, sessionId);
+
+							try {
+								Streams.copy(quotaInputStream, diskFileItem.getOutputStream(), true);
+							}
+							catch (IOException e) {
+								uploadedFileTracker.release(sessionId, quotaInputStream.getCount());
+								diskFileItem.delete();
 
-							// If the copy was successful, then
-							if (tempFile.exists()) {
+								throw e;
+							}
 
-								// Copy the commons-fileupload temporary file to a file in the same temporary
-								// location, but with the filename provided by the user in the upload. This has two
-								// benefits: 1) The temporary file will have a nice meaningful name. 2) By copying
-								// the file, the developer can have access to a semi-permanent file, because the
-								// commmons-fileupload DiskFileItem.finalize() method automatically deletes the
-								// temporary one.
-								String tempFileName = tempFile.getName();
-								String tempFileAbsolutePath = tempFile.getAbsolutePath();
+							long fileSize = diskFileItem.getSize();
 
+							// If the copy was successful, then
+							if (fileSize > 0L) {
+
+								// Move the file data to a file in the uploaded files directory, but with the filename
+								// provided by the user in the upload. This has two benefits: 1) The file will have a
+								// nice meaningful name. 2) The developer can have access to a semi-permanent file,
+								// because the commmons-fileupload DiskFileItem.finalize() method automatically
+								// deletes the temporary one. Since the temporary file is in the same directory, it is
+								// renamed rather than copied (and data that is in memory is written only once).
 								String copiedFileName = stripIllegalCharacters(fileName);
+								File copiedFile = new File(uploadedFilesPath, copiedFileName);
+								String copiedFileAbsolutePath = copiedFile.getAbsolutePath();
 
-								String copiedFileAbsolutePath = tempFileAbsolutePath.replace(tempFileName,
-										copiedFileName);
-								File copiedFile = new File(copiedFileAbsolutePath);
-								FileUtils.copyFile(tempFile, copiedFile);
+								// If a file with the same name was previously uploaded, then it is about to be
+								// replaced.
+								if (copiedFile.exists()) {
+									uploadedFileTracker.release(sessionId, copiedFile.length());
+								}
+
+								diskFileItem.write(copiedFile);
 
 								// If present, build up a map of headers.
 								Map<String, List<String>> headersMap = new HashMap<String, List<String>>();
@@ -262,8 +298,9 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 								String message = null;
 								UploadedFile uploadedFile = uploadedFileFactory.getUploadedFile(copiedFileAbsolutePath,
 										attributeMap, diskFileItem.getCharSet(), diskFileItem.getContentType(),
-										headersMap, id, message, fileName, diskFileItem.getSize(),
+										headersMap, id, message, fileName, fileSize,
 										UploadedFile.Status.FILE_SAVED);
+								uploadedFile = new TrackedUploadedFile(uploadedFile, uploadedFileTracker, sessionId);
 
 								facesRequestParameterMap.addValue(fieldName, copiedFileAbsolutePath);
 								addUploadedFile(uploadedFileMap, fieldName, uploadedFile);
@@ -300,6 +337,16 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 			UploadedFile uploadedFile = uploadedFileFactory.getUploadedFile(e);
 			addUploadedFile(uploadedFileMap, "unknown", uploadedFile);
 		}
+		finally {
+			uploadedFileTracker.endUpload(sessionId);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Processed multipart request with contentLength=[{0}] totalFiles=[{1}] in [{2}]ms",
+				new Object[] {
+					clientDataRequest.getContentLength(), totalFiles, (System.currentTimeMillis() - startTime)
+				});
+		}
 
 		return uploadedFileMap;
 	}
@@ -316,6 +363,62 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		uploadedFiles.add(uploadedFile);
 	}
 
+	/**
+	 * Returns the value of the charset parameter of the specified Content-Type header of a form-field. If there is no
+	 * charset parameter, then ISO-8859-1 is returned, which is the default for multipart form-fields.
+	 */
+	protected String getCharSet(String contentType) {
+
+		String charSet = null;
+
+		if (contentType != null) {
+
+			ParameterParser parameterParser = new ParameterParser();
+			parameterParser.setLowerCaseNames(true);
+
+			Map<String, String> parameters = parameterParser.parse(contentType, ';');
+			charSet = parameters.get("charset");
+		}
+
+		if (charSet == null) {
+			charSet = DiskFileItem.DEFAULT_CHARSET;
+		}
+
+		return charSet;
+	}
+
+	/**
+	 * Returns the application-scoped {@link UploadedFileTracker} for the specified root directory, creating it (and
+	 * starting its reaper) if necessary. Since the tracker is shared by all of the portlets in the web application, it
+	 * is configured with {@link BridgeWebConfigParam} context-param entries rather than portlet init-param entries.
+	 */
+	protected UploadedFileTracker getUploadedFileTracker(PortletConfig portletConfig, File rootDirectory) {
+
+		PortletContext portletContext = portletConfig.getPortletContext();
+		String attributeName = ATTR_UPLOADED_FILE_TRACKER_PREFIX + rootDirectory.getAbsolutePath();
+		UploadedFileTracker uploadedFileTracker = (UploadedFileTracker) portletContext.getAttribute(attributeName);
+
+		if (uploadedFileTracker == null) {
+
+			synchronized (UploadedFileTracker.class) {
+
+				uploadedFileTracker = (UploadedFileTracker) portletContext.getAttribute(attributeName);
+
+				if (uploadedFileTracker == null) {
+
+					long sessionQuota = BridgeWebConfigParam.UploadedFilesSessionQuota.getLongValue(portletContext);
+					long totalQuota = BridgeWebConfigParam.UploadedFilesTotalQuota.getLongValue(portletContext);
+					long maxAge = BridgeWebConfigParam.UploadedFilesMaxAge.getLongValue(portletContext);
+					uploadedFileTracker = new UploadedFileTracker(rootDirectory, sessionQuota, totalQuota, maxAge);
+					uploadedFileTracker.startReaper();
+					portletContext.setAttribute(attributeName, uploadedFileTracker);
+				}
+			}
+		}
+
+		return uploadedFileTracker;
+	}
+
 	protected String stripIllegalCharacters(String fileName) {
 
 		// FACES-64: Need to strip out invalid characters.
@@ -336,6 +439,73 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		return strippedFileName;
 	}
 
+	/**
+	 * This class reserves the bytes that are read from the stream of file data with the {@link UploadedFileTracker}, and
+	 * aborts the upload as soon as a quota would be exceeded.
+	 */
+	protected static class QuotaInputStream extends FilterInputStream {
+
+		// Private Data Members
+		private long count;
+		private String directoryName;
+		private UploadedFileTracker uploadedFileTracker;
+
+		public QuotaInputStream(InputStream inputStream, UploadedFileTracker uploadedFileTracker,
+			String directoryName) {
+			super(inputStream);
+			this.uploadedFileTracker = uploadedFileTracker;
+			this.directoryName = directoryName;
+		}
+
+		@Override
+		public int read() throws IOException {
+
+			int value = super.read();
+
+			if (value != -1) {
+				reserve(1);
+			}
+
+			return value;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+
+			int bytesRead = super.read(bytes, offset, length);
+
+			if (bytesRead > 0) {
+				reserve(bytesRead);
+			}
+
+			return bytesRead;
+		}
+
+		protected void reserve(int bytes) throws IOException {
+
+			if (uploadedFileTracker.reserve(directoryName, bytes)) {
+				count += bytes;
+			}
+			else {
+				String message = "Upload quota exceeded after " + count + " bytes (sessionQuota=" +
+					uploadedFileTracker.getSessionQuota() + ", totalQuota=" + uploadedFileTracker.getTotalQuota() +
+					")";
+				long quota = uploadedFileTracker.getSessionQuota();
+
+				if ((quota == 0L) || ((uploadedFileTracker.getTotalQuota() > 0L) &&
+							(uploadedFileTracker.getTotalQuota() < quota))) {
+					quota = uploadedFileTracker.getTotalQuota();
+				}
+
+				throw new FileUploadIOException(new FileSizeLimitExceededException(message, count + bytes, quota));
+			}
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+
 	/**
 	 * Since {@link PortletFileUpload#parseRequest(ActionRequest)} only works with {@link ActionRequest}, this adapter
 	 * class is necessary to force commons-fileupload to work with ResourceRequest (Ajax file upload).
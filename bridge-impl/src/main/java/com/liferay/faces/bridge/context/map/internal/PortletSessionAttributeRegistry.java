@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.portlet.PortletSession;
+import javax.servlet.http.HttpSession;
+
+
+/**
+ * This class keeps track of the names of the PORTLET_SCOPE session attributes that are set by way of the {@link
+ * SessionScopeMap}, so that the attributes can be cleaned up upon session expiration without iterating over all of the
+ * attributes in the session. The registry itself is stored as an APPLICATION_SCOPE session attribute. Since the
+ * registry is mutated in place, it must be stored again (see {@link #store(PortletSession)}) whenever {@link
+ * #register(String, String)} or {@link #unregister(String, String)} returns <code>true</code> so that session
+ * replication and passivation take the change into account.
+ *
+ * @author  Neil Griffin
+ */
+public class PortletSessionAttributeRegistry implements Serializable {
+
+	// Public Constants
+	public static final String ATTR_NAME = PortletSessionAttributeRegistry.class.getName();
+
+	// serialVersionUID
+	private static final long serialVersionUID = 2650781738574466153L;
+
+	// Private Constants
+	private static final String PORTLET_SCOPE_NAMESPACE = "javax.portlet.p.";
+
+	// Private Data Members
+	private ConcurrentMap<String, Set<String>> attributeNamesByWindowId = new ConcurrentHashMap<String, Set<String>>();
+
+	/**
+	 * Returns the registry that is associated with the specified portlet session, creating it if necessary.
+	 */
+	public static PortletSessionAttributeRegistry getInstance(PortletSession portletSession) {
+
+		PortletSessionAttributeRegistry portletSessionAttributeRegistry = (PortletSessionAttributeRegistry)
+			portletSession.getAttribute(ATTR_NAME, PortletSession.APPLICATION_SCOPE);
+
+		if (portletSessionAttributeRegistry == null) {
+
+			// Since each portlet on a page might be rendered concurrently, guard against replacing a registry that
+			// was just created by another thread.
+			synchronized (PortletSessionAttributeRegistry.class) {
+
+				portletSessionAttributeRegistry = (PortletSessionAttributeRegistry) portletSession.getAttribute(
+						ATTR_NAME, PortletSession.APPLICATION_SCOPE);
+
+				if (portletSessionAttributeRegistry == null) {
+					portletSessionAttributeRegistry = new PortletSessionAttributeRegistry();
+					portletSessionAttributeRegistry.store(portletSession);
+				}
+			}
+		}
+
+		return portletSessionAttributeRegistry;
+	}
+
+	/**
+	 * Returns the registry that is associated with the specified session, or <code>null</code> if no PORTLET_SCOPE
+	 * attributes were registered.
+	 */
+	public static PortletSessionAttributeRegistry getInstance(HttpSession httpSession) {
+		return (PortletSessionAttributeRegistry) httpSession.getAttribute(ATTR_NAME);
+	}
+
+	/**
+	 * Registers the specified PORTLET_SCOPE attribute name.
+	 *
+	 * @param  windowId  The portlet window ID, which is used by the portlet container to namespace the PORTLET_SCOPE
+	 *                   attributes in the session.
+	 * @param  name      The name of the attribute.
+	 *
+	 * @return  <code>true</code> if the name was not already registered, otherwise <code>false</code>.
+	 */
+	public boolean register(String windowId, String name) {
+
+		Set<String> attributeNames = attributeNamesByWindowId.get(windowId);
+
+		if (attributeNames == null) {
+
+			Set<String> newAttributeNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+			attributeNames = attributeNamesByWindowId.putIfAbsent(windowId, newAttributeNames);
+
+			if (attributeNames == null) {
+				attributeNames = newAttributeNames;
+			}
+		}
+
+		return attributeNames.add(name);
+	}
+
+	/**
+	 * Stores the registry as an APPLICATION_SCOPE attribute of the specified portlet session. Setting the attribute
+	 * again after the registry has changed marks it as dirty, so that the change is replicated (or passivated) along
+	 * with the session.
+	 */
+	public void store(PortletSession portletSession) {
+		portletSession.setAttribute(ATTR_NAME, this, PortletSession.APPLICATION_SCOPE);
+	}
+
+	/**
+	 * Unregisters the specified PORTLET_SCOPE attribute name.
+	 *
+	 * @return  <code>true</code> if the name was registered, otherwise <code>false</code>.
+	 */
+	public boolean unregister(String windowId, String name) {
+
+		Set<String> attributeNames = attributeNamesByWindowId.get(windowId);
+
+		return (attributeNames != null) && attributeNames.remove(name);
+	}
+
+	/**
+	 * Returns the names of the registered attributes as they are stored in the session. According to Section PLT.15.3
+	 * of the Portlet 2.0 specification, they have the form "javax.portlet.p.&lt;ID&gt;?&lt;ATTRIBUTE_NAME&gt;".
+	 */
+	public List<String> getSessionAttributeNames() {
+
+		List<String> sessionAttributeNames = new ArrayList<String>();
+
+		for (Map.Entry<String, Set<String>> mapEntry : attributeNamesByWindowId.entrySet()) {
+
+			String prefix = PORTLET_SCOPE_NAMESPACE + mapEntry.getKey() + "?";
+
+			for (String attributeName : mapEntry.getValue()) {
+				sessionAttributeNames.add(prefix + attributeName);
+			}
+		}
+
+		return sessionAttributeNames;
+	}
+}
@@ -13,6 +13,7 @@
  */
 package com.liferay.faces.bridge.context.map.internal;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,6 +22,9 @@ import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
+ * This class provides a read-through view of the first value of each header in the underlying request header values
+ * map. Values are only copied the first time they are requested, or when the map is iterated.
+ *
  * @author  Neil Griffin
  */
 public class RequestHeaderMap extends CaseInsensitiveHashMap<String> {
@@ -31,25 +35,123 @@ public class RequestHeaderMap extends CaseInsensitiveHashMap<String> {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(RequestHeaderMap.class);
 
+	// Private Data Members
+	private boolean loaded;
+	private transient Map<String, String[]> requestHeaderValuesMap;
+
 	public RequestHeaderMap(Map<String, String[]> requestHeaderValuesMap) {
-		Set<Map.Entry<String, String[]>> entrySet = requestHeaderValuesMap.entrySet();
+		this.requestHeaderValuesMap = requestHeaderValuesMap;
+	}
 
-		if (entrySet != null) {
+	@Override
+	public boolean containsKey(Object key) {
 
-			for (Map.Entry<String, String[]> mapEntry : entrySet) {
-				String key = mapEntry.getKey();
-				String[] value = mapEntry.getValue();
+		boolean found = super.containsKey(key);
 
-				if ((value != null) && (value.length > 0)) {
-					put(key, value[0]);
-					logger.debug("Adding {0}=[{1}] to header map", key, value);
-				}
-				else {
-					put(key, null);
-					logger.debug("Adding {0}=[null] to header map", key);
-				}
+		if (!found && !loaded) {
+			found = requestHeaderValuesMap.containsKey(key);
+		}
+
+		return found;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+
+		loadHeaders();
+
+		return super.containsValue(value);
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+
+		loadHeaders();
+
+		return super.entrySet();
+	}
+
+	@Override
+	public String get(Object key) {
+
+		String value = super.get(key);
+
+		if ((value == null) && !loaded && (key != null) && !super.containsKey(key)) {
+
+			String[] values = requestHeaderValuesMap.get(key);
+
+			if ((values != null) || requestHeaderValuesMap.containsKey(key)) {
+				value = addHeader(key.toString(), values);
 			}
 		}
+
+		return value;
+	}
+
+	@Override
+	public Set<String> keySet() {
+
+		loadHeaders();
+
+		return super.keySet();
 	}
 
+	@Override
+	public int size() {
+
+		loadHeaders();
+
+		return super.size();
+	}
+
+	@Override
+	public Collection<String> values() {
+
+		loadHeaders();
+
+		return super.values();
+	}
+
+	protected String addHeader(String key, String[] values) {
+
+		String value = null;
+
+		if ((values != null) && (values.length > 0)) {
+			value = values[0];
+			logger.debug("Adding {0}=[{1}] to header map", key, values);
+		}
+		else {
+			logger.debug("Adding {0}=[null] to header map", key);
+		}
+
+		put(key, value);
+
+		return value;
+	}
+
+	/**
+	 * Copies the first value of all of the headers in the underlying request header values map, so that the map can be
+	 * iterated.
+	 */
+	protected void loadHeaders() {
+
+		if (!loaded) {
+
+			loaded = true;
+
+			Set<Map.Entry<String, String[]>> entrySet = requestHeaderValuesMap.entrySet();
+
+			if (entrySet != null) {
+
+				for (Map.Entry<String, String[]> mapEntry : entrySet) {
+
+					String key = mapEntry.getKey();
+
+					if (!super.containsKey(key)) {
+						addHeader(key, mapEntry.getValue());
+					}
+				}
+			}
+		}
+	}
 }
@@ -13,8 +13,12 @@
  */
 package com.liferay.faces.bridge.context.map.internal;
 
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import javax.portlet.ClientDataRequest;
 import javax.portlet.PortletRequest;
@@ -30,6 +34,10 @@ import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
+ * This class provides a read-through view of the request headers. Since most requests only ask for a few headers
+ * (such as "Faces-Request" or "User-Agent"), a header is only copied from the {@link PortletRequest} the first time it
+ * is requested. All of the headers are copied only if the map is iterated.
+ *
  * @author  Neil Griffin
  */
 public class RequestHeaderValuesMap extends RequestHeaderValuesMapCompat {
@@ -50,132 +58,89 @@ public class RequestHeaderValuesMap extends RequestHeaderValuesMapCompat {
 	private static final String HEADER_CONTENT_TYPE = "Content-Type";
 	private static final String HEADER_FACES_REQUEST = "Faces-Request";
 	private static final String HEADER_USER_AGENT = "User-Agent";
+	private static final String[] HEADER_NAMES = new String[] {
+			HEADER_ACCEPT, HEADER_ACCEPT_LANGUAGE, HEADER_CONTENT_TYPE, HEADER_FACES_REQUEST, HEADER_USER_AGENT
+		};
+	private static final String[] LOWER_CASE_HEADER_NAMES = new String[] {
+			HEADER_ACCEPT.toLowerCase(), HEADER_ACCEPT_LANGUAGE.toLowerCase(), HEADER_CONTENT_TYPE.toLowerCase(),
+			HEADER_FACES_REQUEST.toLowerCase(), HEADER_USER_AGENT.toLowerCase()
+		};
+
+	// Private Data Members
+	private transient BridgeContext bridgeContext;
+	private boolean loaded;
+	private Set<String> missingHeaderNames;
+	private transient PortletRequest portletRequest;
 
 	public RequestHeaderValuesMap(BridgeContext bridgeContext) {
 
-		PortletRequest portletRequest = bridgeContext.getPortletRequest();
-		Enumeration<String> propertyNames = portletRequest.getPropertyNames();
-		boolean foundAccept = false;
-		boolean foundContentType = false;
-		boolean foundFacesRequest = false;
-		boolean foundUserAgent = false;
-
-		if (propertyNames != null) {
-
-			while (propertyNames.hasMoreElements()) {
-
-				boolean addHeader = true;
-				String name = propertyNames.nextElement();
-
-				if (name.equalsIgnoreCase(HEADER_ACCEPT_LANGUAGE)) {
-					Enumeration<Locale> locales = portletRequest.getLocales();
-
-					if (locales != null) {
-						addHeader = false;
-
-						StringBuilder buf = new StringBuilder();
-
-						for (int i = 0; locales.hasMoreElements(); i++) {
-
-							if (i > 0) {
-								buf.append(StringPool.COMMA);
-							}
-
-							Locale locale = locales.nextElement();
-							buf.append(locale.getLanguage());
-
-							String country = locale.getCountry();
-
-							if ((country != null) && (country.length() > 0)) {
-								buf.append(StringPool.DASH);
-								buf.append(country);
-							}
-						}
+		this.bridgeContext = bridgeContext;
+		this.portletRequest = bridgeContext.getPortletRequest();
+		addJSF1Headers(bridgeContext.getPortletContainer());
+	}
 
-						super.put(name, new String[] { buf.toString() });
-					}
-				}
+	@Override
+	public boolean containsKey(Object key) {
 
-				if (addHeader) {
-					Enumeration<String> properties = portletRequest.getProperties(name);
+		boolean found = super.containsKey(key);
 
-					StringBuilder buf = new StringBuilder();
+		if (!found && !loaded && (key != null)) {
+			found = loadHeader(key.toString());
+		}
 
-					if (properties != null) {
+		return found;
+	}
 
-						for (int i = 0; properties.hasMoreElements(); i++) {
+	@Override
+	public boolean containsValue(Object value) {
 
-							if (i > 0) {
-								buf.append(StringPool.COMMA);
-							}
+		loadHeaders();
 
-							buf.append(properties.nextElement());
-						}
-					}
+		return super.containsValue(value);
+	}
 
-					String values = buf.toString();
-					super.put(name, new String[] { values });
+	@Override
+	public Set<Map.Entry<String, String[]>> entrySet() {
 
-					// NOTE: Need to check that the portlet container actually provided a value before the bridge can
-					// claim that it has detected "Accept", "Content-Type", or "Faces-Request".
-					// http://issues.liferay.com/browse/FACES-34
-					if ((values != null) && (values.length() > 0)) {
+		loadHeaders();
 
-						if (!foundAccept) {
-							foundAccept = name.equalsIgnoreCase(HEADER_ACCEPT);
-						}
+		return super.entrySet();
+	}
 
-						if (!foundContentType) {
-							foundContentType = name.equalsIgnoreCase(HEADER_CONTENT_TYPE);
-						}
+	@Override
+	public String[] get(Object key) {
 
-						if (!foundFacesRequest) {
-							foundFacesRequest = name.equalsIgnoreCase(HEADER_FACES_REQUEST);
-						}
+		String[] values = super.get(key);
 
-						if (!foundUserAgent) {
-							foundUserAgent = name.equalsIgnoreCase(HEADER_USER_AGENT);
-						}
-					}
-				}
-			}
+		if ((values == null) && !loaded && (key != null) && !super.containsKey(key) && loadHeader(key.toString())) {
+			values = super.get(key);
 		}
 
-		if (!foundAccept) {
-			addAcceptHeader(portletRequest);
-		}
+		return values;
+	}
 
-		if (!foundContentType) {
-			addContentTypeHeader(portletRequest);
-		}
+	@Override
+	public Set<String> keySet() {
 
-		if (!foundFacesRequest) {
+		loadHeaders();
 
-			// If this is a ResourceRequest, and the resource handler chain doesn't consider this to be a resource, then
-			// we assume that it's Ajax and add the "Faces-Request" header with value "partial/ajax". Note that this is
-			// normally done by the jsf.js JavaScript library, but in a portlet environment, the original XmlHttpRequest
-			// is not made available to the portlet bridge.
-			if (portletRequest instanceof ResourceRequest) {
+		return super.keySet();
+	}
 
-				// If the BridgeExt.FACES_AJAX_PARAMETER request parameter is "true" then set the "partial/ajax" header
-				// so that the Ajax-based PartialResponseWriter renders XML. Otherwise, since the URL was probably setup
-				// with "portlet:resource" don't setup the header because it needs to fully run the JSF lifecycle with a
-				// real (non-parital) ResponseWriter that renders HTML.
-				String facesAjaxParam = bridgeContext.getRequestParameterMap().get(BridgeExt.FACES_AJAX_PARAMETER);
+	@Override
+	public int size() {
 
-				if ((facesAjaxParam != null) && BooleanHelper.isTrueToken(facesAjaxParam)) {
-					put(HEADER_FACES_REQUEST, new String[] { PARTIAL_AJAX });
-				}
-			}
-		}
+		loadHeaders();
 
-		PortletContainer portletContainer = bridgeContext.getPortletContainer();
+		return super.size();
+	}
 
-		if (!foundUserAgent) {
-			put(HEADER_USER_AGENT, portletContainer.getHeader(HEADER_USER_AGENT));
-		}
+	@Override
+	public Collection<String[]> values() {
 
-		addJSF1Headers(portletContainer);
+		loadHeaders();
+
+		return super.values();
 	}
 
 	/**
@@ -252,4 +217,171 @@ public class RequestHeaderValuesMap extends RequestHeaderValuesMapCompat {
 		// TODO: This method was stubbed-out but was never implemented?
 	}
 
+	/**
+	 * Copies the specified header from the portlet request into this map, or synthesizes it if the portlet container
+	 * did not provide a value.
+	 *
+	 * @param   name  The case-insensitive name of the header.
+	 *
+	 * @return  <code>true</code> if the header was found, otherwise <code>false</code>.
+	 */
+	protected boolean loadHeader(String name) {
+
+		String lowerCaseName = getLowerCaseKey(name);
+
+		if ((missingHeaderNames != null) && missingHeaderNames.contains(lowerCaseName)) {
+			return false;
+		}
+
+		String values = null;
+		Enumeration<String> properties = portletRequest.getProperties(name);
+
+		if ((properties != null) && properties.hasMoreElements()) {
+
+			Enumeration<Locale> locales = null;
+
+			if (HEADER_ACCEPT_LANGUAGE.equalsIgnoreCase(name)) {
+				locales = portletRequest.getLocales();
+			}
+
+			StringBuilder buf = new StringBuilder();
+
+			if (locales != null) {
+
+				for (int i = 0; locales.hasMoreElements(); i++) {
+
+					if (i > 0) {
+						buf.append(StringPool.COMMA);
+					}
+
+					Locale locale = locales.nextElement();
+					buf.append(locale.getLanguage());
+
+					String country = locale.getCountry();
+
+					if ((country != null) && (country.length() > 0)) {
+						buf.append(StringPool.DASH);
+						buf.append(country);
+					}
+				}
+			}
+			else {
+
+				for (int i = 0; properties.hasMoreElements(); i++) {
+
+					if (i > 0) {
+						buf.append(StringPool.COMMA);
+					}
+
+					buf.append(properties.nextElement());
+				}
+			}
+
+			values = buf.toString();
+			super.put(name, new String[] { values });
+		}
+
+		// NOTE: Need to check that the portlet container actually provided a value before the bridge can claim that it
+		// has detected "Accept", "Content-Type", "Faces-Request", or "User-Agent".
+		// http://issues.liferay.com/browse/FACES-34
+		if ((values == null) || (values.length() == 0)) {
+
+			if (HEADER_ACCEPT.equalsIgnoreCase(name)) {
+				addAcceptHeader(portletRequest);
+			}
+			else if (HEADER_CONTENT_TYPE.equalsIgnoreCase(name)) {
+				addContentTypeHeader(portletRequest);
+			}
+			else if (HEADER_FACES_REQUEST.equalsIgnoreCase(name)) {
+
+				// If this is a ResourceRequest, and the resource handler chain doesn't consider this to be a resource,
+				// then we assume that it's Ajax and add the "Faces-Request" header with value "partial/ajax". Note that
+				// this is normally done by the jsf.js JavaScript library, but in a portlet environment, the original
+				// XmlHttpRequest is not made available to the portlet bridge.
+				if (portletRequest instanceof ResourceRequest) {
+
+					// If the BridgeExt.FACES_AJAX_PARAMETER request parameter is "true" then set the "partial/ajax"
+					// header so that the Ajax-based PartialResponseWriter renders XML. Otherwise, since the URL was
+					// probably setup with "portlet:resource" don't setup the header because it needs to fully run the
+					// JSF lifecycle with a real (non-parital) ResponseWriter that renders HTML.
+					String facesAjaxParam = bridgeContext.getRequestParameterMap().get(BridgeExt.FACES_AJAX_PARAMETER);
+
+					if ((facesAjaxParam != null) && BooleanHelper.isTrueToken(facesAjaxParam)) {
+						put(HEADER_FACES_REQUEST, new String[] { PARTIAL_AJAX });
+					}
+				}
+			}
+			else if (HEADER_USER_AGENT.equalsIgnoreCase(name)) {
+				PortletContainer portletContainer = bridgeContext.getPortletContainer();
+				put(HEADER_USER_AGENT, portletContainer.getHeader(HEADER_USER_AGENT));
+			}
+		}
+
+		boolean found = super.containsKey(lowerCaseName);
+
+		if (!found) {
+
+			if (missingHeaderNames == null) {
+				missingHeaderNames = new HashSet<String>();
+			}
+
+			missingHeaderNames.add(lowerCaseName);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Copies all of the headers from the portlet request into this map, so that the map can be iterated.
+	 */
+	protected void loadHeaders() {
+
+		if (!loaded) {
+
+			loaded = true;
+			missingHeaderNames = null;
+
+			Enumeration<String> propertyNames = portletRequest.getPropertyNames();
+
+			if (propertyNames != null) {
+
+				while (propertyNames.hasMoreElements()) {
+
+					String name = propertyNames.nextElement();
+
+					if (!super.containsKey(name)) {
+						loadHeader(name);
+					}
+				}
+			}
+
+			for (String name : HEADER_NAMES) {
+
+				if (!super.containsKey(name)) {
+					loadHeader(name);
+				}
+			}
+
+			missingHeaderNames = null;
+		}
+	}
+
+	@Override
+	protected String getLowerCaseKey(Object key) {
+
+		// Avoid creating a lower case copy of the names of the headers that are requested by JSF.
+		if (key instanceof String) {
+
+			String name = (String) key;
+
+			for (int i = 0; i < HEADER_NAMES.length; i++) {
+
+				if (HEADER_NAMES[i].equalsIgnoreCase(name)) {
+					return LOWER_CASE_HEADER_NAMES[i];
+				}
+			}
+		}
+
+		return super.getLowerCaseKey(key);
+	}
 }
@@ -110,6 +110,24 @@ public class RequestScopeMap extends AbstractPropertyMap<Object> {
 		}
 	}
 
+	/**
+	 * Since request attributes cannot have a null value, this method determines whether or not the specified attribute
+	 * exists without iterating over the attribute names.
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+
+		boolean found = false;
+
+		if (key != null) {
+
+			String keyAsString = key.toString();
+			found = !removedAttributeNames.contains(keyAsString) && (portletRequest.getAttribute(keyAsString) != null);
+		}
+
+		return found;
+	}
+
 	/**
 	 * According to the JSF 2.0 JavaDocs for {@link ExternalContext#getRequestMap}, before a managed-bean is removed
 	 * from the map, any public no-argument void return methods annotated with javax.annotation.PreDestroy must be
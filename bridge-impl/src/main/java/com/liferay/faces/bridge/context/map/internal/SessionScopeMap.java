@@ -41,8 +41,10 @@ public class SessionScopeMap extends AbstractPropertyMap<Object> {
 	// Private Data Members
 	private BeanManager beanManager;
 	private PortletSession portletSession;
+	private PortletSessionAttributeRegistry portletSessionAttributeRegistry;
 	private boolean preferPreDestroy;
 	private int scope;
+	private String windowId;
 
 	/**
 	 * Constructs a new SessionMap object instance.
@@ -62,6 +64,7 @@ public class SessionScopeMap extends AbstractPropertyMap<Object> {
 
 		PortletRequest portletRequest = bridgeContext.getPortletRequest();
 		this.portletSession = portletRequest.getPortletSession();
+		this.windowId = portletRequest.getWindowID();
 
 		// Determines whether or not methods annotated with the @PreDestroy annotation are preferably invoked
 		// over the @BridgePreDestroy annotation.
@@ -97,6 +100,15 @@ public class SessionScopeMap extends AbstractPropertyMap<Object> {
 		super.clear();
 	}
 
+	/**
+	 * Since session attributes cannot have a null value, this method determines whether or not the specified attribute
+	 * exists without iterating over the attribute names.
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return (key != null) && (portletSession.getAttribute(key.toString(), scope) != null);
+	}
+
 	/**
 	 * According to the JSF 2.0 JavaDocs for {@link ExternalContext#getSessionMap}, before a managed-bean is removed
 	 * from the map, any public no-argument void return methods annotated with javax.annotation.PreDestroy must be
@@ -122,7 +134,17 @@ public class SessionScopeMap extends AbstractPropertyMap<Object> {
 
 	@Override
 	protected void removeProperty(String name) {
+
 		portletSession.removeAttribute(name, scope);
+
+		if (scope == PortletSession.PORTLET_SCOPE) {
+
+			PortletSessionAttributeRegistry portletSessionAttributeRegistry = getPortletSessionAttributeRegistry();
+
+			if (portletSessionAttributeRegistry.unregister(windowId, name)) {
+				portletSessionAttributeRegistry.store(portletSession);
+			}
+		}
 	}
 
 	@Override
@@ -132,11 +154,37 @@ public class SessionScopeMap extends AbstractPropertyMap<Object> {
 
 	@Override
 	protected void setProperty(String name, Object value) {
+
 		portletSession.setAttribute(name, value, scope);
+
+		// Register the name of the attribute so that it can be cleaned up upon session expiration by the
+		// BridgeSessionListener without iterating over all of the attributes in the session. Since the registry is
+		// mutated in place, it must be stored again in order for the change to be replicated along with the session.
+		if (scope == PortletSession.PORTLET_SCOPE) {
+
+			PortletSessionAttributeRegistry portletSessionAttributeRegistry = getPortletSessionAttributeRegistry();
+
+			if (portletSessionAttributeRegistry.register(windowId, name)) {
+				portletSessionAttributeRegistry.store(portletSession);
+			}
+		}
 	}
 
 	@Override
 	protected Enumeration<String> getPropertyNames() {
 		return portletSession.getAttributeNames(scope);
 	}
+
+	public PortletSession getPortletSession() {
+		return portletSession;
+	}
+
+	protected PortletSessionAttributeRegistry getPortletSessionAttributeRegistry() {
+
+		if (portletSessionAttributeRegistry == null) {
+			portletSessionAttributeRegistry = PortletSessionAttributeRegistry.getInstance(portletSession);
+		}
+
+		return portletSessionAttributeRegistry;
+	}
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+
+import com.liferay.faces.util.model.UploadedFile;
+import com.liferay.faces.util.model.UploadedFileWrapper;
+
+
+/**
+ * This class decorates an {@link UploadedFile} so that the bytes that it occupies are released from the {@link
+ * UploadedFileTracker} when the file is deleted. Since the tracker is application-scoped, it is not serialized along
+ * with the uploaded file. If the uploaded file is deserialized, then the usage of its directory is instead reconciled
+ * with the files on disk when the next upload begins or the session is destroyed.
+ *
+ * @author  Neil Griffin
+ */
+public class TrackedUploadedFile extends UploadedFileWrapper implements Serializable {
+
+	// serialVersionUID
+	private static final long serialVersionUID = 6291837406617385214L;
+
+	// Private Data Members
+	private String directoryName;
+	private transient UploadedFileTracker uploadedFileTracker;
+	private UploadedFile wrappedUploadedFile;
+
+	public TrackedUploadedFile(UploadedFile uploadedFile, UploadedFileTracker uploadedFileTracker,
+		String directoryName) {
+		this.wrappedUploadedFile = uploadedFile;
+		this.uploadedFileTracker = uploadedFileTracker;
+		this.directoryName = directoryName;
+	}
+
+	@Override
+	public void delete() throws IOException {
+
+		File file = new File(getAbsolutePath());
+		long fileLength = file.length();
+
+		super.delete();
+
+		if ((uploadedFileTracker != null) && (fileLength > 0L) && !file.exists()) {
+			uploadedFileTracker.release(directoryName, fileLength);
+		}
+	}
+
+	@Override
+	public UploadedFile getWrapped() {
+		return wrappedUploadedFile;
+	}
+}
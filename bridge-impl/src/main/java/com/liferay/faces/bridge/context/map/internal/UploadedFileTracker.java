@@ -0,0 +1,454 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class keeps track of the number of bytes occupied by uploaded files in each of the per-session upload
+ * directories beneath a root directory, enforces optional per-session and total quotas, and optionally runs a
+ * background reaper that deletes upload directories that have not been modified for a configurable amount of time.
+ * Only directories that contain the {@link #MARKER_FILE_NAME} file are considered to be upload directories, since the
+ * root directory (which defaults to the value of the "java.io.tmpdir" system property) is usually shared with other
+ * applications. Directories that have an upload in progress (see {@link #beginUpload(String)}) are never reaped, and
+ * the usage of a directory is recomputed from the files on disk whenever a new upload begins or the session that owns
+ * it is destroyed (see {@link #reconcile(String)}), so that files that were deleted by other means are not counted
+ * forever.
+ *
+ * @author  Neil Griffin
+ */
+public class UploadedFileTracker {
+
+	// Public Constants
+	public static final String MARKER_FILE_NAME = ".liferay-faces-bridge-uploads";
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(UploadedFileTracker.class);
+
+	// Private Constants
+	private static final long MIN_REAPER_INTERVAL = 1000L;
+
+	// Private Data Members
+	private Map<String, Integer> activeUploadMap;
+	private ConcurrentMap<String, AtomicLong> directoryUsageMap;
+	private long maxAge;
+	private ScheduledExecutorService reaperExecutorService;
+	private File rootDirectory;
+	private long sessionQuota;
+	private long totalQuota;
+	private AtomicLong totalUsage;
+
+	/**
+	 * @param  rootDirectory  The directory that contains the per-session upload directories.
+	 * @param  sessionQuota   The maximum number of bytes that can be occupied by a per-session upload directory, or 0
+	 *                        for no limit.
+	 * @param  totalQuota     The maximum number of bytes that can be occupied by all of the per-session upload
+	 *                        directories, or 0 for no limit.
+	 * @param  maxAge         The number of milliseconds after which a per-session upload directory that has not been
+	 *                        modified is deleted by the reaper, or 0 if the reaper is disabled.
+	 */
+	public UploadedFileTracker(File rootDirectory, long sessionQuota, long totalQuota, long maxAge) {
+
+		this.rootDirectory = rootDirectory;
+		this.sessionQuota = sessionQuota;
+		this.totalQuota = totalQuota;
+		this.maxAge = maxAge;
+		this.activeUploadMap = new HashMap<String, Integer>();
+		this.directoryUsageMap = new ConcurrentHashMap<String, AtomicLong>();
+		this.totalUsage = new AtomicLong();
+
+		// Account for the files that were uploaded before the application was (re)started.
+		File[] directories = rootDirectory.listFiles();
+
+		if (directories != null) {
+
+			for (File directory : directories) {
+
+				if (isUploadDirectory(directory)) {
+
+					long directoryUsage = getDirectoryUsage(directory);
+					directoryUsageMap.put(directory.getName(), new AtomicLong(directoryUsage));
+					totalUsage.addAndGet(directoryUsage);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indicates that an upload into the specified upload directory has begun, which prevents the directory from being
+	 * reaped until {@link #endUpload(String)} is called. If no other upload into the directory is in progress, then the
+	 * usage of the directory is reconciled with the files on disk.
+	 */
+	public void beginUpload(String directoryName) {
+
+		boolean firstUpload;
+
+		synchronized (activeUploadMap) {
+
+			Integer activeUploads = activeUploadMap.get(directoryName);
+			firstUpload = (activeUploads == null);
+
+			if (firstUpload) {
+				activeUploadMap.put(directoryName, 1);
+			}
+			else {
+				activeUploadMap.put(directoryName, activeUploads + 1);
+			}
+		}
+
+		if (firstUpload) {
+			reconcileDirectoryUsage(directoryName);
+		}
+	}
+
+	/**
+	 * Indicates that an upload into the specified upload directory that was begun with {@link #beginUpload(String)} has
+	 * ended.
+	 */
+	public void endUpload(String directoryName) {
+
+		synchronized (activeUploadMap) {
+
+			Integer activeUploads = activeUploadMap.get(directoryName);
+
+			if ((activeUploads == null) || (activeUploads <= 1)) {
+				activeUploadMap.remove(directoryName);
+			}
+			else {
+				activeUploadMap.put(directoryName, activeUploads - 1);
+			}
+		}
+	}
+
+	/**
+	 * Recomputes the usage of the specified upload directory from the files that are on disk, typically because the
+	 * session that owns the directory was destroyed or because files in the directory might have been deleted without
+	 * calling {@link #release(String, long)}. Directories that have an upload in progress are not reconciled, since the
+	 * bytes that are reserved by the upload might not have been written to disk yet.
+	 */
+	public void reconcile(String directoryName) {
+
+		synchronized (activeUploadMap) {
+
+			if (activeUploadMap.containsKey(directoryName)) {
+				return;
+			}
+		}
+
+		reconcileDirectoryUsage(directoryName);
+	}
+
+	private void reconcileDirectoryUsage(String directoryName) {
+
+		File directory = new File(rootDirectory, directoryName);
+
+		if (isUploadDirectory(directory)) {
+
+			AtomicLong directoryUsage = getDirectoryUsageCounter(directoryName);
+
+			synchronized (directoryUsage) {
+
+				long diskUsage = getDirectoryUsage(directory);
+				long previousUsage = directoryUsage.getAndSet(diskUsage);
+				totalUsage.addAndGet(diskUsage - previousUsage);
+			}
+		}
+		else {
+
+			AtomicLong directoryUsage = directoryUsageMap.remove(directoryName);
+
+			if (directoryUsage != null) {
+				totalUsage.addAndGet(-directoryUsage.get());
+			}
+		}
+	}
+
+	/**
+	 * Releases the specified number of bytes from the usage of the specified upload directory, typically because a
+	 * file was deleted or an upload failed.
+	 */
+	public void release(String directoryName, long bytes) {
+
+		AtomicLong directoryUsage = directoryUsageMap.get(directoryName);
+
+		if (directoryUsage != null) {
+			directoryUsage.addAndGet(-bytes);
+			totalUsage.addAndGet(-bytes);
+		}
+	}
+
+	/**
+	 * Deletes the upload directories that have not been modified within the maximum age, except for the directories
+	 * that have an upload in progress.
+	 *
+	 * @return  The number of bytes that were freed.
+	 */
+	public long reap() {
+
+		long bytesFreed = 0L;
+		File[] directories = rootDirectory.listFiles();
+
+		if ((maxAge > 0L) && (directories != null)) {
+
+			long expirationTime = System.currentTimeMillis() - maxAge;
+
+			for (File directory : directories) {
+
+				if (isUploadDirectory(directory) && (getLastModified(directory) < expirationTime)) {
+
+					String directoryName = directory.getName();
+
+					// Hold the lock while deleting so that an upload into the directory cannot begin in the meantime.
+					synchronized (activeUploadMap) {
+
+						if (activeUploadMap.containsKey(directoryName)) {
+							logger.debug("Skipped reaping upload directory=[{0}] with an active upload", directory);
+
+							continue;
+						}
+
+						bytesFreed += reap(directory);
+					}
+				}
+			}
+		}
+
+		return bytesFreed;
+	}
+
+	private long reap(File directory) {
+
+		long bytesFreed = 0L;
+		String directoryName = directory.getName();
+		File[] files = directory.listFiles();
+
+		if (files != null) {
+
+			for (File file : files) {
+
+				long fileLength = file.length();
+
+				if (file.delete() && !MARKER_FILE_NAME.equals(file.getName())) {
+					bytesFreed += fileLength;
+					release(directoryName, fileLength);
+				}
+			}
+		}
+
+		if (directory.delete()) {
+
+			AtomicLong directoryUsage = directoryUsageMap.remove(directoryName);
+
+			// Bytes that were reserved after the files were listed belong to files that no longer exist.
+			if (directoryUsage != null) {
+				totalUsage.addAndGet(-directoryUsage.get());
+			}
+		}
+
+		logger.debug("Reaped expired upload directory=[{0}]", directory);
+
+		return bytesFreed;
+	}
+
+	/**
+	 * Reserves the specified number of bytes for the specified upload directory.
+	 *
+	 * @return  <code>true</code> if the bytes were reserved, or <code>false</code> if doing so would exceed either the
+	 *          per-session quota or the total quota.
+	 */
+	public boolean reserve(String directoryName, long bytes) {
+
+		AtomicLong directoryUsage = getDirectoryUsageCounter(directoryName);
+		long newDirectoryUsage = directoryUsage.addAndGet(bytes);
+		long newTotalUsage = totalUsage.addAndGet(bytes);
+
+		if (((sessionQuota > 0L) && (newDirectoryUsage > sessionQuota)) ||
+				((totalQuota > 0L) && (newTotalUsage > totalQuota))) {
+
+			directoryUsage.addAndGet(-bytes);
+			totalUsage.addAndGet(-bytes);
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Starts the background reaper, unless the maximum age is 0 or the reaper is already running.
+	 */
+	public synchronized void startReaper() {
+
+		if ((maxAge > 0L) && (reaperExecutorService == null)) {
+
+			reaperExecutorService = Executors.newSingleThreadScheduledExecutor(new ReaperThreadFactory());
+
+			long interval = Math.max(MIN_REAPER_INTERVAL, maxAge / 4L);
+			reaperExecutorService.scheduleWithFixedDelay(new Runnable() {
+
+					public void run() {
+
+						try {
+							reap();
+						}
+						catch (Throwable t) {
+							logger.error(t);
+						}
+					}
+				}, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stops the background reaper if it is running.
+	 */
+	public synchronized void stopReaper() {
+
+		if (reaperExecutorService != null) {
+			reaperExecutorService.shutdownNow();
+			reaperExecutorService = null;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes occupied by the specified upload directory.
+	 */
+	public long getDirectoryUsage(String directoryName) {
+
+		AtomicLong directoryUsage = directoryUsageMap.get(directoryName);
+
+		if (directoryUsage == null) {
+			return 0L;
+		}
+		else {
+			return directoryUsage.get();
+		}
+	}
+
+	private long getDirectoryUsage(File directory) {
+
+		long directoryUsage = 0L;
+		File[] files = directory.listFiles();
+
+		if (files != null) {
+
+			for (File file : files) {
+
+				if (file.isFile() && !MARKER_FILE_NAME.equals(file.getName())) {
+					directoryUsage += file.length();
+				}
+			}
+		}
+
+		return directoryUsage;
+	}
+
+	private AtomicLong getDirectoryUsageCounter(String directoryName) {
+
+		AtomicLong directoryUsage = directoryUsageMap.get(directoryName);
+
+		if (directoryUsage == null) {
+
+			AtomicLong newDirectoryUsage = new AtomicLong();
+			directoryUsage = directoryUsageMap.putIfAbsent(directoryName, newDirectoryUsage);
+
+			if (directoryUsage == null) {
+				directoryUsage = newDirectoryUsage;
+			}
+		}
+
+		return directoryUsage;
+	}
+
+	private long getLastModified(File directory) {
+
+		long lastModified = directory.lastModified();
+		File[] files = directory.listFiles();
+
+		if (files != null) {
+
+			for (File file : files) {
+				lastModified = Math.max(lastModified, file.lastModified());
+			}
+		}
+
+		return lastModified;
+	}
+
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	public File getRootDirectory() {
+		return rootDirectory;
+	}
+
+	public long getSessionQuota() {
+		return sessionQuota;
+	}
+
+	public long getTotalQuota() {
+		return totalQuota;
+	}
+
+	/**
+	 * Returns the number of bytes occupied by all of the upload directories.
+	 */
+	public long getTotalUsage() {
+		return totalUsage.get();
+	}
+
+	/**
+	 * Marks the specified directory as an upload directory so that it is taken into account by the reaper.
+	 */
+	public void setUploadDirectory(File directory) throws IOException {
+
+		File markerFile = new File(directory, MARKER_FILE_NAME);
+
+		if (!markerFile.exists()) {
+			markerFile.createNewFile();
+		}
+
+		getDirectoryUsageCounter(directory.getName());
+	}
+
+	private boolean isUploadDirectory(File directory) {
+		return directory.isDirectory() && new File(directory, MARKER_FILE_NAME).exists();
+	}
+
+	private static class ReaperThreadFactory implements ThreadFactory {
+
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, UploadedFileTracker.class.getSimpleName() + "-reaper");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
+}
@@ -220,7 +220,7 @@ public class BridgeResourceURLImpl extends BridgeURLBaseImpl implements BridgeRe
 				// TCK TestPage107: encodeActionURLNonJSFViewWithWindowStateResourceTest
 				// TCK TestPage108: encodeActionURLNonJSFViewWithInvalidWindowStateResourceTest
 				baseURL = new PortletURLNonFacesTargetRenderImpl(bridgeContext, urlWithModifiedParameters, portletMode,
-						windowState, secure, getURI().getPath());
+						windowState, secure, getPath());
 			}
 		}
 
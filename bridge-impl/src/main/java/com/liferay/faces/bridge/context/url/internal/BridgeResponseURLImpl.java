@@ -25,6 +25,8 @@ import javax.portlet.faces.Bridge;
 
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.url.BridgeResponseURL;
+import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
+import com.liferay.faces.bridge.helper.internal.WindowStateHelper;
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
 
 
@@ -50,7 +52,7 @@ public abstract class BridgeResponseURLImpl extends BridgeURLBaseImpl implements
 			// If the URL contains the "javax.portlet.faces.PortletMode" parameter, then set the
 			// PortletMode on the ActionResponse.
 			if (Bridge.PORTLET_MODE_PARAMETER.equals(urlParameterName)) {
-				PortletMode portletMode = new PortletMode(parameterValue);
+				PortletMode portletMode = PortletModeHelper.getPortletMode(parameterValue);
 				BridgeRequestScope bridgeRequestScope = bridgeContext.getBridgeRequestScope();
 
 				if (bridgeRequestScope != null) {
@@ -68,7 +70,7 @@ public abstract class BridgeResponseURLImpl extends BridgeURLBaseImpl implements
 			// set the WindowState on the ActionResponse.
 			else if (Bridge.PORTLET_WINDOWSTATE_PARAMETER.equals(urlParameterName)) {
 
-				WindowState windowState = new WindowState(parameterValue);
+				WindowState windowState = WindowStateHelper.getWindowState(parameterValue);
 				PortletRequest portletRequest = bridgeContext.getPortletRequest();
 
 				if (portletRequest.isWindowStateAllowed(windowState)) {
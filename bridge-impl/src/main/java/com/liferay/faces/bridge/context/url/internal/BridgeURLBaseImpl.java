@@ -16,8 +16,6 @@ package com.liferay.faces.bridge.context.url.internal;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -38,7 +36,9 @@ import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.internal.ExternalContextImpl;
 import com.liferay.faces.bridge.context.url.BridgeURL;
+import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
 import com.liferay.faces.bridge.helper.internal.WindowStateHelper;
+import com.liferay.faces.bridge.util.internal.URLTokenizer;
 import com.liferay.faces.bridge.util.internal.URLUtil;
 import com.liferay.faces.util.helper.BooleanHelper;
 import com.liferay.faces.util.lang.StringPool;
@@ -76,7 +76,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 	private Boolean portletScheme;
 	private Bridge.PortletPhase portletPhase;
 	private boolean secure;
-	private URI uri;
+	private URLTokenizer urlTokenizer;
 	private String viewId;
 	String viewIdRenderParameterName;
 	String viewIdResourceParameterName;
@@ -203,8 +203,8 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 
 				// Only add the "javax.portlet.faces.PortletMode" parameter if it has a valid value.
 				if (parameterValue != null) {
-					addParameter = bridgeContext.getPortletRequest().isPortletModeAllowed(new PortletMode(
-								parameterValue));
+					addParameter = bridgeContext.getPortletRequest().isPortletModeAllowed(
+							PortletModeHelper.getPortletMode(parameterValue));
 				}
 			}
 			else if (Bridge.PORTLET_SECURE_PARAMETER.equals(parameterName)) {
@@ -329,7 +329,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 
 			// Otherwise,
 			else {
-				String path = getURI().getPath();
+				String path = getPath();
 
 				if ((path != null) && (path.length() > 0)) {
 
@@ -368,9 +368,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 
 				while (ampersandPos > questionMarkPos) {
 
-					String subURL = url.substring(ampersandPos);
-
-					if (subURL.startsWith(StringPool.AMPERSAND_ENCODED)) {
+					if (url.startsWith(StringPool.AMPERSAND_ENCODED, ampersandPos)) {
 						escaped = Boolean.TRUE;
 						ampersandPos = url.indexOf(StringPool.AMPERSAND, ampersandPos + 1);
 					}
@@ -393,11 +391,11 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 	 * @return  Returns true if the URL is absolute, otherwise returns false.
 	 */
 	public boolean isAbsolute() {
-		return getURI().isAbsolute();
+		return getURLTokenizer().isAbsolute();
 	}
 
 	public boolean isOpaque() {
-		return getURI().isOpaque();
+		return getURLTokenizer().isOpaque();
 	}
 
 	public boolean isPathRelative() {
@@ -406,7 +404,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 
 			pathRelative = Boolean.FALSE;
 
-			String path = getURI().getPath();
+			String path = getPath();
 
 			if ((path != null) && (path.length() > 0) &&
 					(!path.startsWith(StringPool.FORWARD_SLASH) || path.startsWith(RELATIVE_PATH_PREFIX))) {
@@ -421,7 +419,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 	public boolean isPortletScheme() {
 
 		if (portletScheme == null) {
-			portletScheme = "portlet".equals(getURI().getScheme());
+			portletScheme = getURLTokenizer().isScheme("portlet");
 		}
 
 		return portletScheme;
@@ -528,7 +526,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 		if (portletMode != null) {
 
 			try {
-				PortletMode candidatePortletMode = new PortletMode(portletMode);
+				PortletMode candidatePortletMode = PortletModeHelper.getPortletMode(portletMode);
 
 				if (bridgeContext.getPortletRequest().isPortletModeAllowed(candidatePortletMode)) {
 					portletURL.setPortletMode(candidatePortletMode);
@@ -626,7 +624,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 	 * return "//www.liferay.com/foo/bar.png".
 	 */
 	protected String getSchemeSpecificPart() {
-		return getURI().getSchemeSpecificPart();
+		return getURLTokenizer().getSchemeSpecificPart();
 	}
 
 	public void setSecure(boolean secure) {
@@ -694,26 +692,20 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 		return facesViewTarget;
 	}
 
-	protected URI getURI() {
+	/**
+	 * Returns the decoded path of the URL, or <code>null</code> if the URL is opaque.
+	 */
+	protected String getPath() {
+		return getURLTokenizer().getPath();
+	}
 
-		if (uri == null) {
+	protected URLTokenizer getURLTokenizer() {
 
-			try {
-				uri = new URI(url);
-			}
-			catch (URISyntaxException e1) {
-				logger.error(e1.getMessage());
-
-				try {
-					uri = new URI(StringPool.BLANK);
-				}
-				catch (URISyntaxException e2) {
-					// ignore -- will never happen
-				}
-			}
+		if (urlTokenizer == null) {
+			urlTokenizer = new URLTokenizer(url);
 		}
 
-		return uri;
+		return urlTokenizer;
 	}
 
 	protected String getViewIdParameterName() {
@@ -731,7 +723,7 @@ public abstract class BridgeURLBaseImpl implements BridgeURL {
 		if (windowState != null) {
 
 			try {
-				WindowState candidateWindowState = new WindowState(windowState);
+				WindowState candidateWindowState = WindowStateHelper.getWindowState(windowState);
 
 				if (bridgeContext.getPortletRequest().isWindowStateAllowed(candidateWindowState)) {
 					portletURL.setWindowState(candidateWindowState);
@@ -15,15 +15,15 @@ package com.liferay.faces.bridge.context.url.internal;
 
 import java.net.MalformedURLException;
 
-import javax.portlet.PortletMode;
 import javax.portlet.PortletModeException;
 import javax.portlet.PortletSecurityException;
 import javax.portlet.PortletURL;
-import javax.portlet.WindowState;
 import javax.portlet.WindowStateException;
 
 import com.liferay.faces.bridge.container.internal.PortletURLWrapper;
 import com.liferay.faces.bridge.context.BridgeContext;
+import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
+import com.liferay.faces.bridge.helper.internal.WindowStateHelper;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -47,7 +47,7 @@ public abstract class PortletURLFacesTarget extends PortletURLWrapper {
 		if (portletMode != null) {
 
 			try {
-				this.wrappedPortletURL.setPortletMode(new PortletMode(portletMode));
+				this.wrappedPortletURL.setPortletMode(PortletModeHelper.getPortletMode(portletMode));
 			}
 			catch (PortletModeException e) {
 				logger.error(e.getMessage());
@@ -57,7 +57,7 @@ public abstract class PortletURLFacesTarget extends PortletURLWrapper {
 		if (windowState != null) {
 
 			try {
-				this.wrappedPortletURL.setWindowState(new WindowState(windowState));
+				this.wrappedPortletURL.setWindowState(WindowStateHelper.getWindowState(windowState));
 			}
 			catch (WindowStateException e) {
 				logger.error(e.getMessage());
@@ -13,8 +13,12 @@
  */
 package com.liferay.faces.bridge.event.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.faces.context.FacesContext;
 import javax.faces.event.PhaseEvent;
@@ -48,6 +52,9 @@ public class IPCPhaseListener implements PhaseListener {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(IPCPhaseListener.class);
 
+	// Private Data Members
+	private transient volatile ConcurrentMap<String, List<PublicRenderParameter>> publicRenderParameterMap;
+
 	public void afterPhase(PhaseEvent phaseEvent) {
 
 		BridgeContext bridgeContext = BridgeContext.getCurrentInstance();
@@ -105,81 +112,34 @@ public class IPCPhaseListener implements PhaseListener {
 				// Model concern of the MVC design pattern (as in JSF model managed-beans) after RESTORE_VIEW
 				// phase completes. This is accomplished below by evaluating the EL expressions found in the
 				// <model-el>...</model-el> section of the WEB-INF/faces-config.xml file.
-				BridgeConfig bridgeConfig = bridgeContext.getBridgeConfig();
-				Map<String, String[]> publicParameterMappings = bridgeConfig.getPublicParameterMappings();
+				String portletName = bridgeContext.getPortletConfig().getPortletName();
+				List<PublicRenderParameter> publicRenderParameters = getPublicRenderParameters(bridgeContext,
+						portletName);
 
-				if (publicParameterMappings != null) {
+				if (!publicRenderParameters.isEmpty()) {
 
 					boolean invokeHandler = false;
-					String portletName = bridgeContext.getPortletConfig().getPortletName();
 					Map<String, String[]> publicParameterMap = bridgeContext.getPortletRequest()
 						.getPublicParameterMap();
-					Set<String> publicRenderParameterNames = publicParameterMappings.keySet();
-
-					// For each of the public render parameters found in the WEB-INF/faces-config.xml file:
-					for (String prefixedParameterName : publicRenderParameterNames) {
 
-						String[] modelExpressions = publicParameterMappings.get(prefixedParameterName);
+					// For each of the public render parameters found in the WEB-INF/faces-config.xml file that are
+					// for this portlet:
+					for (PublicRenderParameter publicRenderParameter : publicRenderParameters) {
 
-						if (modelExpressions != null) {
+						String parameterName = publicRenderParameter.getName();
 
-							String parameterPrefix;
-							String nonPrefixedParameterName;
+						if (publicParameterMap.containsKey(parameterName)) {
 
-							int colonPos = prefixedParameterName.indexOf(StringPool.COLON);
-
-							if (colonPos > 0) {
-								parameterPrefix = prefixedParameterName.substring(0, colonPos);
-								nonPrefixedParameterName = prefixedParameterName.substring(colonPos + 1);
-							}
-							else {
-								parameterPrefix = null;
-								nonPrefixedParameterName = prefixedParameterName;
-							}
+							String parameterValue = getParameterValue(publicParameterMap, parameterName);
 
-							if (publicParameterMap.containsKey(nonPrefixedParameterName)) {
-
-								for (String originalModelEL : modelExpressions) {
-
-									String[] parameterValues = publicParameterMap.get(nonPrefixedParameterName);
-									String parameterValue = null;
-
-									if ((parameterValues != null) && (parameterValues.length > 0)) {
-										parameterValue = parameterValues[0];
-									}
-
-									PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(
-											parameterPrefix, parameterValue, originalModelEL, portletName);
-
-									if (logger.isTraceEnabled()) {
-										logger.trace(
-											"portletName=[{0}] public render parameter=[{1}] originalModelEL=[{2}] modifiedModelEL=[{3}] isForThisPortlet=[{4}]",
-											portletName, nonPrefixedParameterName, originalModelEL,
-											publicRenderParameter.getModifiedModelEL(),
-											publicRenderParameter.isForThisPortlet());
-									}
-
-									if (publicRenderParameter.isForThisPortlet()) {
-
-										logger.debug(
-											"Injecting render parameter=[{0}] value=[{1}] into expression=[{2}]",
-											nonPrefixedParameterName, parameterValue,
-											publicRenderParameter.getModifiedModelEL());
-										invokeHandler = publicRenderParameter.injectIntoModel(facesContext);
-									}
-									else {
-										logger.debug(
-											"NOT injecting render parameter=[{0}] value=[{1}] into expression=[{2}] because it is NOT for this portletName=[{3}]",
-											nonPrefixedParameterName, parameterValue,
-											publicRenderParameter.getModifiedModelEL(), portletName);
-									}
-								}
-							}
-							else {
-								logger.debug(
-									"NOT injecting render parameter=[{0}] because it is not found in the public parameter map",
-									nonPrefixedParameterName);
-							}
+							logger.debug("Injecting render parameter=[{0}] value=[{1}] into expression=[{2}]",
+								parameterName, parameterValue, publicRenderParameter.getModifiedModelEL());
+							invokeHandler = publicRenderParameter.injectIntoModel(facesContext, parameterValue);
+						}
+						else {
+							logger.debug(
+								"NOT injecting render parameter=[{0}] because it is not found in the public parameter map",
+								parameterName);
 						}
 					}
 
@@ -232,79 +192,47 @@ public class IPCPhaseListener implements PhaseListener {
 				// that has been changed in the model, its new value must be set in the response, so that when the
 				// RENDER_PHASE of the Portlet 2.0 lifecycle executes, this phase listener will be able to inject the
 				// new value into the model of other portlets that are participating in the IPC.
-				BridgeConfig bridgeConfig = bridgeContext.getBridgeConfig();
-				Map<String, String[]> publicParameterMappings = bridgeConfig.getPublicParameterMappings();
+				String portletName = bridgeContext.getPortletConfig().getPortletName();
+				List<PublicRenderParameter> publicRenderParameters = getPublicRenderParameters(bridgeContext,
+						portletName);
 
-				if (publicParameterMappings != null) {
+				if (!publicRenderParameters.isEmpty()) {
 
-					String portletName = bridgeContext.getPortletConfig().getPortletName();
 					Map<String, String[]> publicParameterMap = bridgeContext.getPortletRequest()
 						.getPublicParameterMap();
-					Set<String> publicRenderParameterNames = publicParameterMappings.keySet();
-
-					// For each of the public render parameters found in the WEB-INF/faces-config.xml file:
-					for (String prefixedParameterName : publicRenderParameterNames) {
-						String[] modelExpressions = publicParameterMappings.get(prefixedParameterName);
 
-						if (modelExpressions != null) {
+					// For each of the public render parameters found in the WEB-INF/faces-config.xml file that are
+					// for this portlet:
+					for (PublicRenderParameter publicRenderParameter : publicRenderParameters) {
 
-							String parameterPrefix;
-							String nonPrefixedParameterName;
+						String parameterName = publicRenderParameter.getName();
+						String parameterValue = getParameterValue(publicParameterMap, parameterName);
+						String modelValue = publicRenderParameter.getModelValue(facesContext);
+						boolean modelValueHasChanged;
 
-							int colonPos = prefixedParameterName.indexOf(StringPool.COLON);
+						if (modelValue == null) {
+							modelValueHasChanged = (parameterValue != null);
+						}
+						else {
+							modelValueHasChanged = !modelValue.equals(parameterValue);
+						}
 
-							if (colonPos > 0) {
-								parameterPrefix = prefixedParameterName.substring(0, colonPos);
-								nonPrefixedParameterName = prefixedParameterName.substring(colonPos + 1);
-							}
-							else {
-								parameterPrefix = null;
-								nonPrefixedParameterName = prefixedParameterName;
-							}
+						if (logger.isTraceEnabled()) {
+							logger.trace(
+								"portletName=[{0}] public render parameter=[{1}] parameterValue=[{2}] modelValue=[{3}] modelValueHasChanged=[{4}]",
+								portletName, parameterName, parameterValue, modelValue, modelValueHasChanged);
+						}
 
-							for (String originalModelEL : modelExpressions) {
-
-								String[] parameterValues = publicParameterMap.get(nonPrefixedParameterName);
-								String parameterValue = null;
-
-								if ((parameterValues != null) && (parameterValues.length > 0)) {
-									parameterValue = parameterValues[0];
-								}
-
-								PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(
-										parameterPrefix, parameterValue, originalModelEL, portletName);
-
-								if (publicRenderParameter.isForThisPortlet()) {
-
-									String modelValue = publicRenderParameter.getModelValue(facesContext);
-									boolean modelValueHasChanged = publicRenderParameter.isModelValueChanged(
-											facesContext);
-
-									if (logger.isTraceEnabled()) {
-										logger.trace(
-											"portletName=[{0}] public render parameter=[{1}] parameterValue=[{2}] modelValue=[{3}] modelValueHasChanged=[{4}]",
-											portletName, nonPrefixedParameterName, parameterValue, modelValue,
-											modelValueHasChanged);
-									}
-
-									if (modelValueHasChanged) {
-										logger.debug(
-											"Setting render parameter=[{0}] in response because modelValue=[{1}] has changed",
-											nonPrefixedParameterName, modelValue);
-										stateAwareResponse.setRenderParameter(nonPrefixedParameterName, modelValue);
-									}
-									else {
-										logger.debug(
-											"NOT setting render parameter=[{0}] in response because modelValue=[{1}] has NOT changed",
-											nonPrefixedParameterName, modelValue);
-									}
-								}
-								else {
-									logger.debug(
-										"NOT setting render parameter=[{0}] in response because it is NOT for this portletName=[{1}]",
-										nonPrefixedParameterName, portletName);
-								}
-							}
+						if (modelValueHasChanged) {
+							logger.debug(
+								"Setting render parameter=[{0}] in response because modelValue=[{1}] has changed",
+								parameterName, modelValue);
+							stateAwareResponse.setRenderParameter(parameterName, modelValue);
+						}
+						else {
+							logger.debug(
+								"NOT setting render parameter=[{0}] in response because modelValue=[{1}] has NOT changed",
+								parameterName, modelValue);
 						}
 					}
 				}
@@ -318,6 +246,100 @@ public class IPCPhaseListener implements PhaseListener {
 		}
 	}
 
+	protected String getParameterValue(Map<String, String[]> publicParameterMap, String parameterName) {
+
+		String parameterValue = null;
+		String[] parameterValues = publicParameterMap.get(parameterName);
+
+		if ((parameterValues != null) && (parameterValues.length > 0)) {
+			parameterValue = parameterValues[0];
+		}
+
+		return parameterValue;
+	}
+
+	/**
+	 * Returns the compiled list of public render parameters that are mapped to model EL expressions for the specified
+	 * portlet. The mappings found in the WEB-INF/faces-config.xml descriptor are only parsed once per portlet, and
+	 * mappings with a prefix that refers to a different portlet are omitted from the list.
+	 */
+	protected List<PublicRenderParameter> getPublicRenderParameters(BridgeContext bridgeContext, String portletName) {
+
+		ConcurrentMap<String, List<PublicRenderParameter>> publicRenderParameterMap = this.publicRenderParameterMap;
+
+		if (publicRenderParameterMap == null) {
+			publicRenderParameterMap = new ConcurrentHashMap<String, List<PublicRenderParameter>>();
+			this.publicRenderParameterMap = publicRenderParameterMap;
+		}
+
+		List<PublicRenderParameter> publicRenderParameters = publicRenderParameterMap.get(portletName);
+
+		if (publicRenderParameters == null) {
+
+			publicRenderParameters = new ArrayList<PublicRenderParameter>();
+
+			BridgeConfig bridgeConfig = bridgeContext.getBridgeConfig();
+			Map<String, String[]> publicParameterMappings = bridgeConfig.getPublicParameterMappings();
+
+			if (publicParameterMappings != null) {
+
+				for (Map.Entry<String, String[]> mapEntry : publicParameterMappings.entrySet()) {
+
+					String[] modelExpressions = mapEntry.getValue();
+
+					if (modelExpressions != null) {
+
+						String prefixedParameterName = mapEntry.getKey();
+						String parameterPrefix;
+						String nonPrefixedParameterName;
+
+						int colonPos = prefixedParameterName.indexOf(StringPool.COLON);
+
+						if (colonPos > 0) {
+							parameterPrefix = prefixedParameterName.substring(0, colonPos);
+							nonPrefixedParameterName = prefixedParameterName.substring(colonPos + 1);
+						}
+						else {
+							parameterPrefix = null;
+							nonPrefixedParameterName = prefixedParameterName;
+						}
+
+						for (String originalModelEL : modelExpressions) {
+
+							PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(
+									parameterPrefix, nonPrefixedParameterName, originalModelEL, portletName);
+
+							logger.trace(
+								"portletName=[{0}] public render parameter=[{1}] originalModelEL=[{2}] modifiedModelEL=[{3}] isForThisPortlet=[{4}]",
+								portletName, nonPrefixedParameterName, originalModelEL,
+								publicRenderParameter.getModifiedModelEL(), publicRenderParameter.isForThisPortlet());
+
+							if (publicRenderParameter.isForThisPortlet()) {
+								publicRenderParameters.add(publicRenderParameter);
+							}
+							else {
+								logger.debug(
+									"Ignoring render parameter=[{0}] with expression=[{1}] because it is NOT for this portletName=[{2}]",
+									nonPrefixedParameterName, originalModelEL, portletName);
+							}
+						}
+					}
+				}
+			}
+
+			publicRenderParameters = Collections.unmodifiableList(publicRenderParameters);
+
+			List<PublicRenderParameter> existingPublicRenderParameters = publicRenderParameterMap.putIfAbsent(
+					portletName, publicRenderParameters);
+
+			if (existingPublicRenderParameters != null) {
+				publicRenderParameters = existingPublicRenderParameters;
+			}
+		}
+
+		return publicRenderParameters;
+	}
+
 	public PhaseId getPhaseId() {
 		return PhaseId.ANY_PHASE;
 	}
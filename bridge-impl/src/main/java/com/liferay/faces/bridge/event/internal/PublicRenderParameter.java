@@ -17,17 +17,21 @@ import javax.faces.context.FacesContext;
 
 
 /**
+ * This interface represents the compiled form of a single public render parameter mapping found in the
+ * WEB-INF/faces-config.xml descriptor, which associates a (possibly prefixed) public render parameter name with a
+ * model EL expression. Since instances do not hold any request-specific state, they can be shared by all requests.
+ *
  * @author  Neil Griffin
  */
 public interface PublicRenderParameter {
 
-	public boolean injectIntoModel(FacesContext facesContext);
-
-	public boolean isModelValueChanged(FacesContext facesContext);
+	public boolean injectIntoModel(FacesContext facesContext, String parameterValue);
 
 	public String getModelValue(FacesContext facesContext);
 
 	public String getModifiedModelEL();
 
+	public String getName();
+
 	public boolean isForThisPortlet();
 }
@@ -13,6 +13,11 @@
  */
 package com.liferay.faces.bridge.event.internal;
 
+import javax.el.ELContext;
+import javax.el.ValueExpression;
+import javax.faces.context.FacesContext;
+
+
 /**
  * @author  Neil Griffin
  */
@@ -21,12 +26,12 @@ public abstract class PublicRenderParameterBaseImpl implements PublicRenderParam
 	// Protected Data Members
 	protected boolean forThisPortlet;
 	protected String modelEL;
-	protected String originalRequestValue;
+	protected String name;
+	protected volatile ValueExpression valueExpression;
 
-	public PublicRenderParameterBaseImpl(String prefix, String originalRequestValue, String originalModelEL,
-		String portletName) {
+	public PublicRenderParameterBaseImpl(String prefix, String name, String originalModelEL, String portletName) {
 
-		this.originalRequestValue = originalRequestValue;
+		this.name = name;
 		this.modelEL = originalModelEL;
 
 		if (prefix == null) {
@@ -36,4 +41,23 @@ public abstract class PublicRenderParameterBaseImpl implements PublicRenderParam
 			this.forThisPortlet = prefix.equals(portletName);
 		}
 	}
+
+	/**
+	 * Returns the value expression for the model EL, which is only parsed the first time it is needed. Since parsed
+	 * value expressions are immutable, the same instance can be used by all subsequent requests.
+	 */
+	protected ValueExpression getValueExpression(FacesContext facesContext) {
+
+		ValueExpression valueExpression = this.valueExpression;
+
+		if (valueExpression == null) {
+
+			ELContext elContext = facesContext.getELContext();
+			valueExpression = facesContext.getApplication().getExpressionFactory().createValueExpression(elContext,
+					modelEL, String.class);
+			this.valueExpression = valueExpression;
+		}
+
+		return valueExpression;
+	}
 }
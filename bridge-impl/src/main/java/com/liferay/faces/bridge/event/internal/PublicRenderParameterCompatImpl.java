@@ -13,9 +13,7 @@
  */
 package com.liferay.faces.bridge.event.internal;
 
-import javax.el.ELContext;
 import javax.el.PropertyNotFoundException;
-import javax.el.ValueExpression;
 import javax.faces.context.FacesContext;
 
 import com.liferay.faces.util.logging.Logger;
@@ -32,19 +30,15 @@ public abstract class PublicRenderParameterCompatImpl extends PublicRenderParame
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(PublicRenderParameterCompatImpl.class);
 
-	public PublicRenderParameterCompatImpl(String prefix, String originalRequestValue, String originalModelEL,
-		String portletName) {
-		super(prefix, originalRequestValue, originalModelEL, portletName);
+	public PublicRenderParameterCompatImpl(String prefix, String name, String originalModelEL, String portletName) {
+		super(prefix, name, originalModelEL, portletName);
 	}
 
-	public boolean injectIntoModel(FacesContext facesContext) {
+	public boolean injectIntoModel(FacesContext facesContext, String parameterValue) {
 
 		try {
 
-			ELContext elContext = facesContext.getELContext();
-			ValueExpression valueExpression = facesContext.getApplication().getExpressionFactory()
-				.createValueExpression(elContext, modelEL, String.class);
-			valueExpression.setValue(elContext, originalRequestValue);
+			getValueExpression(facesContext).setValue(facesContext.getELContext(), parameterValue);
 
 			return true;
 		}
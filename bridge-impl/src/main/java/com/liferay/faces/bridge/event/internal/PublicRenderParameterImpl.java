@@ -13,9 +13,7 @@
  */
 package com.liferay.faces.bridge.event.internal;
 
-import javax.el.ELContext;
 import javax.el.PropertyNotFoundException;
-import javax.el.ValueExpression;
 import javax.faces.context.FacesContext;
 
 import com.liferay.faces.util.logging.Logger;
@@ -30,62 +28,26 @@ public class PublicRenderParameterImpl extends PublicRenderParameterCompatImpl {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(PublicRenderParameter.class);
 
-	// Private Data Members
-	protected String modelValue;
-	protected Boolean modelValueChanged;
-	protected boolean modelValueRetrieved;
-
-	public PublicRenderParameterImpl(String prefix, String originalRequestValue, String originalModelEL,
-		String portletName) {
-		super(prefix, originalRequestValue, originalModelEL, portletName);
-	}
-
-	public boolean isModelValueChanged(FacesContext facesContext) {
-
-		if (modelValueChanged == null) {
-
-			String retrievedModelValue = getModelValue(facesContext);
-
-			if ((retrievedModelValue != null) && (originalRequestValue != null)) {
-				modelValueChanged = !retrievedModelValue.equals(originalRequestValue);
-			}
-			else if (retrievedModelValue == null) {
-				modelValueChanged = (originalRequestValue != null);
-			}
-			else if (originalRequestValue == null) {
-				modelValueChanged = (retrievedModelValue != null);
-			}
-			else {
-				modelValueChanged = Boolean.FALSE;
-			}
-		}
-
-		return modelValueChanged;
+	public PublicRenderParameterImpl(String prefix, String name, String originalModelEL, String portletName) {
+		super(prefix, name, originalModelEL, portletName);
 	}
 
 	public String getModelValue(FacesContext facesContext) {
 
-		if (!modelValueRetrieved) {
+		String modelValue = null;
 
-			try {
+		try {
+			modelValue = (String) getValueExpression(facesContext).getValue(facesContext.getELContext());
+		}
+		catch (PropertyNotFoundException e) {
+			String exceptionMessage = e.getMessage();
 
-				ELContext elContext = facesContext.getELContext();
-				ValueExpression valueExpression = facesContext.getApplication().getExpressionFactory()
-					.createValueExpression(elContext, modelEL, String.class);
-				modelValue = (String) valueExpression.getValue(elContext);
+			if (exceptionMessage == null) {
+				logger.error("javax.el.PropertyNotFoundException: model-el=[{0}]", modelEL);
 			}
-			catch (PropertyNotFoundException e) {
-				String exceptionMessage = e.getMessage();
-
-				if (exceptionMessage == null) {
-					logger.error("javax.el.PropertyNotFoundException: model-el=[{0}]", modelEL);
-				}
-				else {
-					logger.error("javax.el.PropertyNotFoundException: {0}: model-el=[{1}]", exceptionMessage, modelEL);
-				}
+			else {
+				logger.error("javax.el.PropertyNotFoundException: {0}: model-el=[{1}]", exceptionMessage, modelEL);
 			}
-
-			modelValueRetrieved = true;
 		}
 
 		return modelValue;
@@ -95,6 +57,10 @@ public class PublicRenderParameterImpl extends PublicRenderParameterCompatImpl {
 		return modelEL;
 	}
 
+	public String getName() {
+		return name;
+	}
+
 	public boolean isForThisPortlet() {
 		return forThisPortlet;
 	}
@@ -13,6 +13,9 @@
  */
 package com.liferay.faces.bridge.helper.internal;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import javax.portlet.PortletMode;
 
 
@@ -29,4 +32,53 @@ public class PortletModeHelper {
 			PORTLET_MODE_VIEW, PORTLET_MODE_EDIT, PORTLET_MODE_HELP
 		};
 
+	// Private Constants
+	private static final int MAX_CUSTOM_PORTLET_MODES = 64;
+
+	// Private Data Members
+	private static ConcurrentMap<String, PortletMode> customPortletModes =
+		new ConcurrentHashMap<String, PortletMode>();
+
+	/**
+	 * Returns the {@link PortletMode} with the specified name. The standard portlet modes are returned as the constants
+	 * defined by {@link PortletMode}, and (a bounded number of) custom portlet modes are interned, so that a new
+	 * instance is not created every time a URL is encoded.
+	 *
+	 * @throws  IllegalArgumentException  If the specified name is <code>null</code>.
+	 */
+	public static PortletMode getPortletMode(String name) {
+
+		if (PORTLET_MODE_VIEW.equals(name)) {
+			return PortletMode.VIEW;
+		}
+		else if (PORTLET_MODE_EDIT.equals(name)) {
+			return PortletMode.EDIT;
+		}
+		else if (PORTLET_MODE_HELP.equals(name)) {
+			return PortletMode.HELP;
+		}
+		else if (name == null) {
+			return new PortletMode(name);
+		}
+		else {
+
+			PortletMode portletMode = customPortletModes.get(name);
+
+			if (portletMode == null) {
+
+				portletMode = new PortletMode(name);
+
+				if (customPortletModes.size() < MAX_CUSTOM_PORTLET_MODES) {
+
+					PortletMode existingPortletMode = customPortletModes.putIfAbsent(name, portletMode);
+
+					if (existingPortletMode != null) {
+						portletMode = existingPortletMode;
+					}
+				}
+			}
+
+			return portletMode;
+		}
+	}
 }
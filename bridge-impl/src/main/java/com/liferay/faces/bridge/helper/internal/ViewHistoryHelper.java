@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.helper.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.portlet.PortletSession;
+import javax.portlet.faces.Bridge;
+
+import com.liferay.faces.util.lang.StringPool;
+
+
+/**
+ * This class provides methods for maintaining the "javax.portlet.faces.viewIdHistory.<code>portletMode</code>" session
+ * attributes that are required by Section 5.4.3 of the Bridge Spec. Since the Spec requires one attribute per portlet
+ * mode (so that the values can be retrieved by developers via EL), the attributes cannot be combined into one. Instead,
+ * an attribute is only written when its value actually changes, which prevents a session delta from being replicated
+ * on every render.
+ *
+ * @author  Neil Griffin
+ */
+public class ViewHistoryHelper {
+
+	// Private Constants
+	private static final Map<String, String> ATTRIBUTE_NAMES;
+
+	static {
+		Map<String, String> attributeNames = new HashMap<String, String>();
+
+		for (String portletMode : PortletModeHelper.PORTLET_MODE_NAMES) {
+			attributeNames.put(portletMode, Bridge.VIEWID_HISTORY + StringPool.PERIOD + portletMode);
+		}
+
+		ATTRIBUTE_NAMES = attributeNames;
+	}
+
+	/**
+	 * Sets the view history attribute of each of the standard portlet modes to the corresponding default viewId,
+	 * unless it was set by a previous request or there is no default viewId.
+	 *
+	 * @return  The number of attributes that were written to the session.
+	 */
+	public static int initViewHistory(PortletSession portletSession, Map<String, String> defaultViewIdMap) {
+
+		int attributesWritten = 0;
+
+		for (String portletMode : PortletModeHelper.PORTLET_MODE_NAMES) {
+
+			String defaultViewId = defaultViewIdMap.get(portletMode);
+
+			if (defaultViewId != null) {
+
+				String attributeName = getAttributeName(portletMode);
+
+				if (portletSession.getAttribute(attributeName) == null) {
+					portletSession.setAttribute(attributeName, defaultViewId);
+					attributesWritten++;
+				}
+			}
+		}
+
+		return attributesWritten;
+	}
+
+	/**
+	 * Returns the name of the view history session attribute for the specified portlet mode.
+	 */
+	public static String getAttributeName(String portletMode) {
+
+		String attributeName = ATTRIBUTE_NAMES.get(portletMode);
+
+		if (attributeName == null) {
+			attributeName = Bridge.VIEWID_HISTORY + StringPool.PERIOD + portletMode;
+		}
+
+		return attributeName;
+	}
+
+	/**
+	 * Sets the view history attribute of the specified portlet mode to the specified viewId, unless it already has
+	 * that value.
+	 *
+	 * @return  <code>true</code> if the attribute was written to the session, otherwise <code>false</code>.
+	 */
+	public static boolean setViewHistory(PortletSession portletSession, String portletMode, String viewId) {
+
+		String attributeName = getAttributeName(portletMode);
+		Object currentViewId = portletSession.getAttribute(attributeName);
+
+		boolean changed;
+
+		if (viewId == null) {
+			changed = (currentViewId != null);
+		}
+		else {
+			changed = !viewId.equals(currentViewId);
+		}
+
+		if (changed) {
+			portletSession.setAttribute(attributeName, viewId);
+		}
+
+		return changed;
+	}
+}
@@ -13,6 +13,9 @@
  */
 package com.liferay.faces.bridge.helper.internal;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import javax.portlet.WindowState;
 
 
@@ -29,6 +32,13 @@ public class WindowStateHelper {
 			WINDOW_STATE_MAXIMIZED, WINDOW_STATE_MAXIMIZED, WINDOW_STATE_NORMAL
 		};
 
+	// Private Constants
+	private static final int MAX_CUSTOM_WINDOW_STATES = 64;
+
+	// Private Data Members
+	private static ConcurrentMap<String, WindowState> customWindowStates =
+		new ConcurrentHashMap<String, WindowState>();
+
 	public static boolean isValid(String windowState) {
 
 		boolean valid = false;
@@ -44,4 +54,47 @@ public class WindowStateHelper {
 
 		return valid;
 	}
+
+	/**
+	 * Returns the {@link WindowState} with the specified name. The standard window states are returned as the
+	 * constants defined by {@link WindowState}, and (a bounded number of) custom window states are interned, so that a
+	 * new instance is not created every time a URL is encoded.
+	 *
+	 * @throws  IllegalArgumentException  If the specified name is <code>null</code>.
+	 */
+	public static WindowState getWindowState(String name) {
+
+		if (WINDOW_STATE_NORMAL.equals(name)) {
+			return WindowState.NORMAL;
+		}
+		else if (WINDOW_STATE_MAXIMIZED.equals(name)) {
+			return WindowState.MAXIMIZED;
+		}
+		else if (WINDOW_STATE_MINIMIZED.equals(name)) {
+			return WindowState.MINIMIZED;
+		}
+		else if (name == null) {
+			return new WindowState(name);
+		}
+		else {
+
+			WindowState windowState = customWindowStates.get(name);
+
+			if (windowState == null) {
+
+				windowState = new WindowState(name);
+
+				if (customWindowStates.size() < MAX_CUSTOM_WINDOW_STATES) {
+
+					WindowState existingWindowState = customWindowStates.putIfAbsent(name, windowState);
+
+					if (existingWindowState != null) {
+						windowState = existingWindowState;
+					}
+				}
+			}
+
+			return windowState;
+		}
+	}
 }
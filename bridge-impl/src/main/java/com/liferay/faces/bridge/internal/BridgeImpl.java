@@ -39,6 +39,7 @@ import com.liferay.faces.bridge.BridgePhase;
 import com.liferay.faces.bridge.BridgePhaseFactory;
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.config.BridgeConfigFactory;
+import com.liferay.faces.bridge.config.internal.BridgePortletConfigImpl;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManager;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManagerFactory;
 import com.liferay.faces.util.lang.StringPool;
@@ -164,6 +165,11 @@ public class BridgeImpl implements Bridge {
 	}
 
 	public void init(PortletConfig portletConfig) throws BridgeException {
+
+		// Take a snapshot of the typed values of the bridge's init-params so that they do not have to be looked up and
+		// parsed on every request. Note that this also causes malformed values to be rejected at startup.
+		BridgePortletConfigImpl bridgePortletConfig = new BridgePortletConfigImpl(portletConfig);
+
 		StringBuilder logMessage = new StringBuilder();
 		DateFormat dateFormat = new SimpleDateFormat("HH:mm:ss,SSS");
 		Calendar calendar = new GregorianCalendar();
@@ -180,7 +186,7 @@ public class BridgeImpl implements Bridge {
 		logMessage.append(getVersion());
 		System.out.println(logMessage.toString());
 		this.initialized = true;
-		this.portletConfig = portletConfig;
+		this.portletConfig = bridgePortletConfig;
 	}
 
 	protected void checkNull(PortletRequest portletRequest, PortletResponse portletResponse) {
@@ -16,7 +16,6 @@ package com.liferay.faces.bridge.internal;
 import javax.portlet.ActionRequest;
 import javax.portlet.ActionResponse;
 import javax.portlet.PortletConfig;
-import javax.portlet.PortletMode;
 import javax.portlet.PortletModeException;
 import javax.portlet.faces.Bridge;
 import javax.portlet.faces.BridgeDefaultViewNotSpecifiedException;
@@ -26,6 +25,7 @@ import com.liferay.faces.bridge.BridgeFactoryFinder;
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.filter.BridgePortletRequestFactory;
 import com.liferay.faces.bridge.filter.BridgePortletResponseFactory;
+import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
 import com.liferay.faces.util.factory.FactoryExtensionFinder;
 import com.liferay.faces.util.logging.Logger;
@@ -78,7 +78,7 @@ public class BridgePhaseActionImpl extends BridgePhaseCompat_2_2_Impl {
 			if (portletModeParam != null) {
 
 				try {
-					actionResponse.setPortletMode(new PortletMode(portletModeParam));
+					actionResponse.setPortletMode(PortletModeHelper.getPortletMode(portletModeParam));
 				}
 				catch (PortletModeException e) {
 					logger.error("Invalid parameter value {0}=[{1}]}", Bridge.PORTLET_MODE_PARAMETER, portletModeParam);
@@ -41,13 +41,12 @@ import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.BridgeContextFactory;
 import com.liferay.faces.bridge.context.IncongruityContext;
 import com.liferay.faces.bridge.context.IncongruityContextFactory;
-import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
+import com.liferay.faces.bridge.helper.internal.ViewHistoryHelper;
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCacheFactory;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeFactory;
 import com.liferay.faces.util.factory.FactoryExtensionFinder;
-import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -198,15 +197,7 @@ public abstract class BridgePhaseBaseImpl implements BridgePhase {
 		portletRequest.removeAttribute(BridgeConstants.REQ_ATTR_SERVLET_PATH);
 
 		// If not set by a previous request, then set the default viewIdHistory for the portlet modes.
-		for (String portletMode : PortletModeHelper.PORTLET_MODE_NAMES) {
-
-			String attributeName = Bridge.VIEWID_HISTORY + StringPool.PERIOD + portletMode;
-			PortletSession portletSession = portletRequest.getPortletSession();
-
-			if (portletSession.getAttribute(attributeName) == null) {
-				portletSession.setAttribute(attributeName, bridgeContext.getDefaultViewIdMap().get(portletMode));
-			}
-		}
+		ViewHistoryHelper.initViewHistory(portletRequest.getPortletSession(), bridgeContext.getDefaultViewIdMap());
 	}
 
 	protected void initBridgeRequestScope(PortletRequest portletRequest, PortletResponse portletResponse,
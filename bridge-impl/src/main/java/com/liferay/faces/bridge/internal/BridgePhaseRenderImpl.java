@@ -49,8 +49,8 @@ import com.liferay.faces.bridge.context.url.BridgeRedirectURL;
 import com.liferay.faces.bridge.event.internal.IPCPhaseListener;
 import com.liferay.faces.bridge.filter.BridgePortletRequestFactory;
 import com.liferay.faces.bridge.filter.BridgePortletResponseFactory;
+import com.liferay.faces.bridge.helper.internal.ViewHistoryHelper;
 import com.liferay.faces.util.factory.FactoryExtensionFinder;
-import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -329,14 +329,11 @@ public class BridgePhaseRenderImpl extends BridgePhaseCompat_2_2_Impl {
 	 * @param  viewId  The current Faces viewId.
 	 */
 	protected void setViewHistory(String viewId) {
-		StringBuilder buf = new StringBuilder();
-		buf.append(Bridge.VIEWID_HISTORY);
-		buf.append(StringPool.PERIOD);
-		buf.append(renderRequest.getPortletMode());
 
-		String attributeName = buf.toString();
+		// Since the viewId typically does not change from one render to the next, the attribute is only written when
+		// the value has changed. This prevents a session delta from being replicated on every render.
 		PortletSession portletSession = renderRequest.getPortletSession();
-		portletSession.setAttribute(attributeName, viewId);
+		ViewHistoryHelper.setViewHistory(portletSession, renderRequest.getPortletMode().toString(), viewId);
 	}
 
 }
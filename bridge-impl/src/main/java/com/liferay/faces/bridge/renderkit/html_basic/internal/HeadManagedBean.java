@@ -15,11 +15,13 @@ package com.liferay.faces.bridge.renderkit.html_basic.internal;
 
 import java.io.Serializable;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.el.ELResolver;
 import javax.faces.bean.ManagedBean;
 import javax.faces.bean.ViewScoped;
+import javax.faces.component.UIViewRoot;
 import javax.faces.context.FacesContext;
 
 
@@ -39,14 +41,35 @@ public class HeadManagedBean implements Serializable {
 	// serialVersionUID
 	private static final long serialVersionUID = 3829127137783852729L;
 
+	// Private Constants
+	private static final String MANAGED_BEAN_NAME = "headManagedBean";
+
 	// Private Data Members
 	private Set<String> headResourceIds = new HashSet<String>();
 
 	public static HeadManagedBean getInstance(FacesContext facesContext) {
-		String elExpression = "headManagedBean";
+
+		// Since this method is called for every resource that is rendered, avoid resolving the bean through the entire
+		// ELResolver chain if it has already been created for the current view.
+		UIViewRoot uiViewRoot = facesContext.getViewRoot();
+
+		if (uiViewRoot != null) {
+
+			Map<String, Object> viewMap = uiViewRoot.getViewMap(false);
+
+			if (viewMap != null) {
+
+				Object headManagedBean = viewMap.get(MANAGED_BEAN_NAME);
+
+				if (headManagedBean instanceof HeadManagedBean) {
+					return (HeadManagedBean) headManagedBean;
+				}
+			}
+		}
+
 		ELResolver elResolver = facesContext.getApplication().getELResolver();
 
-		return (HeadManagedBean) elResolver.getValue(facesContext.getELContext(), null, elExpression);
+		return (HeadManagedBean) elResolver.getValue(facesContext.getELContext(), null, MANAGED_BEAN_NAME);
 	}
 
 	public Set<String> getHeadResourceIds() {
@@ -17,10 +17,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.faces.component.UIComponent;
 import javax.faces.component.UIComponentBase;
+import javax.faces.component.UIViewRoot;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.faces.context.ResponseWriter;
@@ -56,8 +60,8 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 
 	// Private Constants
 	private static final String ADDED = UIComponentBase.class.getName() + ".ADDED";
-	private static final String EXTENSION_CSS = "css";
 	private static final String FIRST_FACET = "first";
+	private static final String HEAD_RESOURCE_PLANS = HeadResourcePlan.class.getName();
 	private static final String MIDDLE_FACET = "middle";
 	private static final String LAST_FACET = "last";
 	private static final String RENDERER_TYPE_RICHFACES_RESOURCE_LIBRARY =
@@ -70,71 +74,25 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 	@Override
 	public void encodeBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException {
 
-		// Build up a list of components that are intended for the <head> section of the portal page.
+		// Build up a list of components that are intended for the <head> section of the portal page. Since the order
+		// of the components only changes when resources are added to (or removed from) the view, the plan that was
+		// computed during a previous request for the same view is reused whenever possible.
 		PortletNamingContainerUIViewRoot uiViewRoot = (PortletNamingContainerUIViewRoot) facesContext.getViewRoot();
-		List<UIComponent> uiComponentResources = new ArrayList<UIComponent>();
-
-		// Add the list of components that are to appear first.
 		List<UIComponent> firstResources = getFirstResources(facesContext, uiComponent);
-
-		if (firstResources != null) {
-			uiComponentResources.addAll(firstResources);
-		}
-
-		// Sort the components that are in the view root into stylesheets and scripts.
 		List<UIComponent> uiViewRootComponentResources = uiViewRoot.getComponentResources(facesContext,
 				StringPool.HEAD);
-		List<UIComponent> uiViewRootStyleSheetResources = null;
-		List<UIComponent> uiViewRootScriptResources = null;
-
-		for (UIComponent curComponent : uiViewRootComponentResources) {
-			String resourceName = (String) curComponent.getAttributes().get(StringPool.NAME);
-
-			if ((resourceName != null) && resourceName.endsWith(EXTENSION_CSS)) {
-
-				if (uiViewRootStyleSheetResources == null) {
-					uiViewRootStyleSheetResources = new ArrayList<UIComponent>();
-				}
-
-				uiViewRootStyleSheetResources.add(curComponent);
-			}
-			else {
-
-				if (uiViewRootScriptResources == null) {
-					uiViewRootScriptResources = new ArrayList<UIComponent>();
-				}
-
-				uiViewRootScriptResources.add(curComponent);
-			}
-		}
-
-		// Add the list of stylesheet components that are in the view root.
-		if (uiViewRootStyleSheetResources != null) {
-			uiComponentResources.addAll(uiViewRootStyleSheetResources);
-		}
-
-		// Add the list of components that are to appear in the middle.
 		List<UIComponent> middleResources = getMiddleResources(facesContext, uiComponent);
-
-		if (middleResources != null) {
-			uiComponentResources.addAll(middleResources);
-		}
-
-		// Add the list of script components that are in the view root.
-		if (uiViewRootScriptResources != null) {
-			uiComponentResources.addAll(uiViewRootScriptResources);
-		}
-
-		// Add the list of components that are to appear last.
 		List<UIComponent> lastResources = getLastResources(facesContext, uiComponent);
-
-		if (lastResources != null) {
-			uiComponentResources.addAll(lastResources);
-		}
+		ComponentResourceFactory componentResourceFactory = (ComponentResourceFactory) FactoryExtensionFinder
+			.getFactory(ComponentResourceFactory.class);
+		HeadResourcePlan headResourcePlan = getHeadResourcePlan(facesContext, firstResources,
+				uiViewRootComponentResources, middleResources, lastResources, componentResourceFactory);
+		UIComponent[] resources = headResourcePlan.getResources(firstResources, uiViewRootComponentResources,
+				middleResources, lastResources);
 
 		// Initializations
 		boolean ajaxRequest = facesContext.getPartialViewContext().isAjaxRequest();
-		List<UIComponent> resourcesForAddingToHead = new ArrayList<UIComponent>();
+		List<Integer> resourcesForAddingToHead = new ArrayList<Integer>(headResourcePlan.getResourceCount());
 		List<UIComponent> resourcesForRelocatingToBody = new ArrayList<UIComponent>();
 		ExternalContext externalContext = facesContext.getExternalContext();
 		PortletRequest portletRequest = (PortletRequest) externalContext.getRequest();
@@ -166,13 +124,12 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 			headResourceIdsFromManagedBean = headManagedBean.getHeadResourceIds();
 		}
 
-		ComponentResourceFactory componentResourceFactory = (ComponentResourceFactory) FactoryExtensionFinder
-			.getFactory(ComponentResourceFactory.class);
-
 		// For each resource in the ViewRoot: Determine if it should added to the <head> section of the portal page,
 		// or if it should be relocated to the body (which is actually not a <body> element, but a <div> element
 		// rendered by the bridge's BodyRenderer).
-		for (UIComponent uiComponentResource : uiComponentResources) {
+		for (int i = 0; i < resources.length; i++) {
+
+			UIComponent uiComponentResource = resources[i];
 
 			// If this is taking place during an Ajax request or this is a Liferay runtime portlet, then
 			if (ajaxRequest || liferayRuntimePortlet) {
@@ -181,8 +138,7 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 				// Note that this can happen in one of two ways: 1) If this is NON-Liferay-Runtime portlet (currently
 				// doing Ajax) but has already added the resource during initial page HTTP-GET render, or 2) By another
 				// NON-Liferay-Runtime portlet that has already added the same JavaScript resource.
-				ComponentResource componentResource = componentResourceFactory.getComponentResource(
-						uiComponentResource);
+				ComponentResource componentResource = headResourcePlan.getComponentResource(i);
 				boolean alreadyPresentInPortalPageHead = headResourceIdsFromManagedBean.contains(
 						componentResource.getId());
 
@@ -222,7 +178,7 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 			// Otherwise, if the portlet container has the ability to add resources to the <head> section of the
 			// portal page, then add it to the list of resources that are to be added to the <head> section.
 			else if (portletContainerAbleToAddScriptResourceToHead) {
-				resourcesForAddingToHead.add(uiComponentResource);
+				resourcesForAddingToHead.add(i);
 			}
 
 			// Otherwise, we have no choice but to add it to the list of resources that are to be relocated to
@@ -254,10 +210,10 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 			facesContext.setResponseWriter(headResponseWriter);
 
 			// For each resource:
-			for (UIComponent uiComponentResource : resourcesForAddingToHead) {
+			for (int i : resourcesForAddingToHead) {
 
-				ComponentResource componentResource = componentResourceFactory.getComponentResource(
-						uiComponentResource);
+				UIComponent uiComponentResource = resources[i];
+				ComponentResource componentResource = headResourcePlan.getComponentResource(i);
 
 				// Command the resource to render itself to the HeadResponseWriter
 				if (componentResource.isRenderable()) {
@@ -337,6 +293,56 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 		return resources;
 	}
 
+	/**
+	 * Returns the plan for rendering the specified resources. Since the components of a view are typically created
+	 * again for each request, the plans are cached in application scope by view id, and the plan of a view is reused as
+	 * long as the view contains resources with the same library and name (in the same order) as when the plan was
+	 * computed. Otherwise, a new plan is computed and replaces the cached one.
+	 */
+	protected HeadResourcePlan getHeadResourcePlan(FacesContext facesContext, List<UIComponent> firstResources,
+		List<UIComponent> viewRootResources, List<UIComponent> middleResources, List<UIComponent> lastResources,
+		ComponentResourceFactory componentResourceFactory) {
+
+		Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+		@SuppressWarnings("unchecked")
+		ConcurrentMap<String, HeadResourcePlan> headResourcePlans = (ConcurrentMap<String, HeadResourcePlan>)
+			applicationMap.get(HEAD_RESOURCE_PLANS);
+
+		if (headResourcePlans == null) {
+
+			synchronized (HeadRendererBridgeImpl.class) {
+
+				headResourcePlans = (ConcurrentMap<String, HeadResourcePlan>) applicationMap.get(HEAD_RESOURCE_PLANS);
+
+				if (headResourcePlans == null) {
+					headResourcePlans = new ConcurrentHashMap<String, HeadResourcePlan>();
+					applicationMap.put(HEAD_RESOURCE_PLANS, headResourcePlans);
+				}
+			}
+		}
+
+		UIViewRoot uiViewRoot = facesContext.getViewRoot();
+		String viewId = (uiViewRoot == null) ? null : uiViewRoot.getViewId();
+		HeadResourcePlan headResourcePlan = null;
+
+		if (viewId != null) {
+			headResourcePlan = headResourcePlans.get(viewId);
+		}
+
+		if ((headResourcePlan == null) ||
+				!headResourcePlan.isValid(firstResources, viewRootResources, middleResources, lastResources)) {
+
+			headResourcePlan = new HeadResourcePlan(firstResources, viewRootResources, middleResources, lastResources,
+					componentResourceFactory);
+
+			if (viewId != null) {
+				headResourcePlans.put(viewId, headResourcePlan);
+			}
+		}
+
+		return headResourcePlan;
+	}
+
 	protected List<UIComponent> getLastResources(FacesContext facesContext, UIComponent uiComponent) {
 
 		List<UIComponent> resources = null;
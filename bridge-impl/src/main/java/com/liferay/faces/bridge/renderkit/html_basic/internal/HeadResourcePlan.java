@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.renderkit.html_basic.internal;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.faces.component.UIComponent;
+
+import com.liferay.faces.util.application.ComponentResource;
+import com.liferay.faces.util.application.ComponentResourceFactory;
+import com.liferay.faces.util.lang.StringPool;
+
+
+/**
+ * This class represents the order in which the resources of a view are to be rendered by the {@link
+ * HeadRendererBridgeImpl}, along with the {@link ComponentResource} of each resource. Since the components of a view
+ * are typically created again for each request, the plan does not refer to any component. Instead, it records the
+ * library and name of each resource so that it can be shared by subsequent requests (and threads) as long as {@link
+ * #isValid(List, List, List, List)} returns <code>true</code>, which assumes that the {@link ComponentResource} of a
+ * resource only depends on its library and name.
+ *
+ * @author  Neil Griffin
+ */
+public class HeadResourcePlan {
+
+	// Private Constants
+	private static final String EXTENSION_CSS = "css";
+
+	// Private Data Members
+	private final ComponentResource[] componentResources;
+	private final int firstResourceCount;
+	private final int lastResourceCount;
+	private final String[] libraries;
+	private final int middleResourceCount;
+	private final String[] names;
+	private final int[] order;
+	private final int viewRootResourceCount;
+
+	public HeadResourcePlan(List<UIComponent> firstResources, List<UIComponent> viewRootResources,
+		List<UIComponent> middleResources, List<UIComponent> lastResources,
+		ComponentResourceFactory componentResourceFactory) {
+
+		this.firstResourceCount = size(firstResources);
+		this.viewRootResourceCount = size(viewRootResources);
+		this.middleResourceCount = size(middleResources);
+		this.lastResourceCount = size(lastResources);
+
+		UIComponent[] resources = toArray(firstResources, viewRootResources, middleResources, lastResources);
+		int totalResources = resources.length;
+		this.libraries = new String[totalResources];
+		this.names = new String[totalResources];
+
+		for (int i = 0; i < totalResources; i++) {
+
+			Map<String, Object> attributes = resources[i].getAttributes();
+			libraries[i] = (String) attributes.get(StringPool.LIBRARY);
+			names[i] = (String) attributes.get(StringPool.NAME);
+		}
+
+		// The resources that are to appear first are followed by the stylesheets in the view root, the resources that
+		// are to appear in the middle, the scripts in the view root, and finally the resources that are to appear last.
+		this.order = new int[totalResources];
+
+		int viewRootBegin = firstResourceCount;
+		int viewRootEnd = viewRootBegin + viewRootResourceCount;
+		int middleEnd = viewRootEnd + middleResourceCount;
+		int index = 0;
+
+		for (int i = 0; i < viewRootBegin; i++) {
+			order[index++] = i;
+		}
+
+		for (int i = viewRootBegin; i < viewRootEnd; i++) {
+
+			if (isStyleSheet(names[i])) {
+				order[index++] = i;
+			}
+		}
+
+		for (int i = viewRootEnd; i < middleEnd; i++) {
+			order[index++] = i;
+		}
+
+		for (int i = viewRootBegin; i < viewRootEnd; i++) {
+
+			if (!isStyleSheet(names[i])) {
+				order[index++] = i;
+			}
+		}
+
+		for (int i = middleEnd; i < totalResources; i++) {
+			order[index++] = i;
+		}
+
+		this.componentResources = new ComponentResource[totalResources];
+
+		for (int i = 0; i < totalResources; i++) {
+			componentResources[i] = componentResourceFactory.getComponentResource(resources[order[i]]);
+		}
+	}
+
+	protected static int append(List<UIComponent> uiComponents, UIComponent[] resources, int index) {
+
+		if (uiComponents != null) {
+
+			for (UIComponent uiComponent : uiComponents) {
+				resources[index++] = uiComponent;
+			}
+		}
+
+		return index;
+	}
+
+	protected static boolean isEqual(String value1, String value2) {
+		return (value1 == null) ? (value2 == null) : value1.equals(value2);
+	}
+
+	protected static boolean isStyleSheet(String resourceName) {
+		return (resourceName != null) && resourceName.endsWith(EXTENSION_CSS);
+	}
+
+	protected static int size(List<UIComponent> uiComponents) {
+		return (uiComponents == null) ? 0 : uiComponents.size();
+	}
+
+	protected static UIComponent[] toArray(List<UIComponent> firstResources, List<UIComponent> viewRootResources,
+		List<UIComponent> middleResources, List<UIComponent> lastResources) {
+
+		UIComponent[] resources = new UIComponent[size(firstResources) + size(viewRootResources) +
+				size(middleResources) + size(lastResources)];
+		int index = append(firstResources, resources, 0);
+		index = append(viewRootResources, resources, index);
+		index = append(middleResources, resources, index);
+		append(lastResources, resources, index);
+
+		return resources;
+	}
+
+	/**
+	 * Returns the {@link ComponentResource} of the resource at the specified position in the plan.
+	 */
+	public ComponentResource getComponentResource(int index) {
+		return componentResources[index];
+	}
+
+	/**
+	 * Returns the total number of resources in the plan.
+	 */
+	public int getResourceCount() {
+		return componentResources.length;
+	}
+
+	/**
+	 * Returns the specified resources of the current request in the order of the plan. The lists must be valid for
+	 * the plan according to {@link #isValid(List, List, List, List)}.
+	 */
+	public UIComponent[] getResources(List<UIComponent> firstResources, List<UIComponent> viewRootResources,
+		List<UIComponent> middleResources, List<UIComponent> lastResources) {
+
+		UIComponent[] resources = toArray(firstResources, viewRootResources, middleResources, lastResources);
+		UIComponent[] orderedResources = new UIComponent[resources.length];
+
+		for (int i = 0; i < resources.length; i++) {
+			orderedResources[i] = resources[order[i]];
+		}
+
+		return orderedResources;
+	}
+
+	/**
+	 * Determines whether or not the plan applies to the specified lists of resources, which is the case when each list
+	 * contains resources with the same library and name (in the same order) as when the plan was computed.
+	 */
+	public boolean isValid(List<UIComponent> firstResources, List<UIComponent> viewRootResources,
+		List<UIComponent> middleResources, List<UIComponent> lastResources) {
+
+		if ((size(firstResources) != firstResourceCount) || (size(viewRootResources) != viewRootResourceCount) ||
+				(size(middleResources) != middleResourceCount) || (size(lastResources) != lastResourceCount)) {
+			return false;
+		}
+
+		UIComponent[] resources = toArray(firstResources, viewRootResources, middleResources, lastResources);
+
+		for (int i = 0; i < resources.length; i++) {
+
+			Map<String, Object> attributes = resources[i].getAttributes();
+
+			if (!isEqual(libraries[i], (String) attributes.get(StringPool.LIBRARY)) ||
+					!isEqual(names[i], (String) attributes.get(StringPool.NAME))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -18,13 +18,13 @@ import java.util.Map;
 
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
-import javax.portlet.PortletMode;
 import javax.portlet.PortletRequest;
 import javax.portlet.PortletURL;
-import javax.portlet.WindowState;
 
 import com.liferay.faces.bridge.component.PortletActionURL;
 import com.liferay.faces.bridge.component.PortletRenderURL;
+import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
+import com.liferay.faces.bridge.helper.internal.WindowStateHelper;
 
 
 /**
@@ -46,11 +46,11 @@ public abstract class PortletURLRenderer extends BaseURLRenderer {
 		try {
 
 			if (windowState != null) {
-				portletURL.setWindowState(new WindowState(windowState));
+				portletURL.setWindowState(WindowStateHelper.getWindowState(windowState));
 			}
 
 			if (portletMode != null) {
-				portletURL.setPortletMode(new PortletMode(portletMode));
+				portletURL.setPortletMode(PortletModeHelper.getPortletMode(portletMode));
 			}
 
 			if ((copyCurrentRenderParameters != null) && copyCurrentRenderParameters) {
@@ -31,6 +31,14 @@ public abstract class BridgeRequestScopeBaseImpl implements BridgeRequestScope {
 		this.attributeMap = new HashMap<String, Object>();
 	}
 
+	/**
+	 * Releases the scoped data that was preserved by the bridge request scope so that it can be garbage collected. This
+	 * method is called by {@link BridgeRequestScopeCacheImpl} when the bridge request scope is evicted from the cache.
+	 */
+	public void release() {
+		attributeMap.clear();
+	}
+
 	public Object getAttribute(String key) {
 		return attributeMap.get(key);
 	}
@@ -16,6 +16,7 @@ package com.liferay.faces.bridge.scope.internal;
 import javax.portlet.PortletContext;
 import javax.portlet.faces.Bridge;
 
+import com.liferay.faces.bridge.config.internal.BridgeWebConfigParam;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCacheFactory;
 import com.liferay.faces.util.logging.Logger;
@@ -27,9 +28,11 @@ import com.liferay.faces.util.logging.LoggerFactory;
  */
 public class BridgeRequestScopeCacheFactoryImpl extends BridgeRequestScopeCacheFactory {
 
+	// Protected Constants
+	protected static final String ATTR_BRIDGE_REQUEST_SCOPE_CACHE = "com.liferay.faces.bridge.bridgeRequestScopeCache";
+
 	// Private Constants
 	private static final int DEFAULT_MAX_MANAGED_REQUEST_SCOPES = -1; // Unlimited
-	private static final String ATTR_BRIDGE_REQUEST_SCOPE_CACHE = "com.liferay.faces.bridge.bridgeRequestScopeCache";
 
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeCacheFactoryImpl.class);
@@ -60,7 +63,9 @@ public class BridgeRequestScopeCacheFactoryImpl extends BridgeRequestScopeCacheF
 					}
 				}
 
-				bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(maxSize);
+				long idleTimeout = BridgeWebConfigParam.BridgeRequestScopeIdleTimeout.getLongValue(portletContext);
+
+				bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(maxSize, idleTimeout);
 
 				portletContext.setAttribute(ATTR_BRIDGE_REQUEST_SCOPE_CACHE, bridgeRequestScopeCache);
 			}
@@ -13,6 +13,13 @@
  */
 package com.liferay.faces.bridge.scope.internal;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,67 +28,455 @@ import javax.portlet.faces.Bridge;
 
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
+import com.liferay.faces.bridge.scope.BridgeRequestScopeWrapper;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
- * This class provides a {@link java.util.Map} style interface for managing cache of {@link BridgeRequestScope}.
+ * This class provides a {@link java.util.Map} style interface for managing cache of {@link BridgeRequestScope}. When a
+ * maximum size is specified, the cache evicts the least recently accessed entry by maintaining a doubly-linked list of
+ * entries in access order alongside a {@link ConcurrentHashMap}. Lookups are performed without the lock, and {@link
+ * #get(Object)} then moves the entry to the tail of the list under the lock, so that the eldest entry is always found
+ * at the head of the list in constant time. When an idle timeout is specified, entries that have not been accessed
+ * within the timeout are evicted as well. If neither a maximum size nor an idle timeout is specified, then the order of
+ * the list is irrelevant and reads do not acquire the lock at all. Evicted entries are released by calling {@link
+ * BridgeRequestScopeBaseImpl#release()} via the {@link #evicted(String, BridgeRequestScope)} callback. In addition, the
+ * portlet name and session id are parsed from each bridge request scope id when the entry is put into the cache so that
+ * secondary indexes can be maintained. This makes the cost of removing entries by portlet name or by session id
+ * proportional to the number of entries removed rather than the size of the cache.
  *
  * @author  Neil Griffin
  */
-public class BridgeRequestScopeCacheImpl extends ConcurrentHashMap<String, BridgeRequestScope>
-	implements BridgeRequestScopeCache {
-
-	// serialVersionUID
-	private static final long serialVersionUID = 4546189667853367660L;
+public class BridgeRequestScopeCacheImpl extends AbstractMap<String, BridgeRequestScope>
+	implements IndexedBridgeRequestScopeCache {
 
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeCacheImpl.class);
 
+	// Private Constants
+	private static final String ID_SEPARATOR = ":::";
+
 	// Private Data Members
+	private Set<Map.Entry<String, BridgeRequestScope>> entrySet;
+	private Node head;
+	private long idleTimeout;
+	private final Object lock = new Object();
 	private int maxSize;
+	private ConcurrentHashMap<String, Node> nodeMap;
+	private Map<String, Set<Node>> portletNameIndex;
+	private Map<String, Set<Node>> sessionIdIndex;
 
 	public BridgeRequestScopeCacheImpl(int maxSize) {
-		super();
+		this(maxSize, 0L);
+	}
+
+	/**
+	 * @param  maxSize      The maximum number of entries in the cache, or a value less than one for unlimited.
+	 * @param  idleTimeout  The number of milliseconds that an entry can remain in the cache without being accessed, or
+	 *                      a value less than one for no timeout.
+	 */
+	public BridgeRequestScopeCacheImpl(int maxSize, long idleTimeout) {
 		this.maxSize = maxSize;
+		this.idleTimeout = idleTimeout;
+		this.nodeMap = new ConcurrentHashMap<String, Node>();
+		this.portletNameIndex = new HashMap<String, Set<Node>>();
+		this.sessionIdIndex = new HashMap<String, Set<Node>>();
+		this.head = new Node(null, null, 0L);
+		this.head.prev = this.head;
+		this.head.next = this.head;
+	}
+
+	@Override
+	public void clear() {
+
+		synchronized (lock) {
+			nodeMap.clear();
+			portletNameIndex.clear();
+			sessionIdIndex.clear();
+			head.prev = head;
+			head.next = head;
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Set<Map.Entry<String, BridgeRequestScope>> entrySet() {
+
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+
+		return entrySet;
+	}
+
+	@Override
+	public BridgeRequestScope get(Object key) {
+
+		BridgeRequestScope bridgeRequestScope = null;
+
+		if (key != null) {
+
+			Node node = nodeMap.get(key);
+
+			if (node != null) {
+
+				long now = currentTimeMillis();
+
+				if (isExpired(node, now)) {
+					evict(node);
+				}
+				else {
+					node.lastAccessed = now;
+
+					// Move the node to the tail of the list, unless it has been removed in the meantime.
+					if (isBounded()) {
+
+						synchronized (lock) {
+
+							if (node.next != null) {
+								unlink(node);
+								linkLast(node);
+							}
+						}
+					}
+
+					bridgeRequestScope = node.value;
+				}
+			}
+		}
+
+		return bridgeRequestScope;
 	}
 
 	@Override
 	public BridgeRequestScope put(String bridgeRequestScopeId, BridgeRequestScope bridgeRequestScope) {
 
-		// If there is a maximum size threshold for the cache, then
-		if (maxSize != -1) {
+		if ((bridgeRequestScopeId == null) || (bridgeRequestScope == null)) {
+			throw new NullPointerException();
+		}
+
+		Node node = new Node(bridgeRequestScopeId, bridgeRequestScope, currentTimeMillis());
+		Node oldNode;
+		List<Node> evictedNodes = null;
+
+		synchronized (lock) {
+
+			oldNode = nodeMap.put(bridgeRequestScopeId, node);
+
+			if (oldNode != null) {
+				detach(oldNode);
+			}
+
+			attach(node);
 
-			// If the threshold has been exceeded, then remove the eldest entry.
-			if (super.size() > maxSize) {
+			// Since the list is in access order, the eldest entry (and thus the first to expire) is at the head of the
+			// list. Each iteration evicts an entry, so the cost is constant per entry put into the cache.
+			Node eldest = head.next;
 
-				// Note: Iterating through the entire map is not the most performant algorithm for determining the
-				// eldest entry, but there don't seem to be any good options for implementing an LRU feature for
-				// ConcurrentHashMap without an external dependency. See:
-				// http://stackoverflow.com/questions/221525/how-would-you-implement-an-lru-cache-in-java-6
-				BridgeRequestScope eldestBridgeRequestScope = null;
-				long oldestDate = bridgeRequestScope.getDateCreated();
-				Set<Map.Entry<String, BridgeRequestScope>> entrySet = super.entrySet();
+			while ((eldest != head) && (eldest != node)) {
 
-				for (Map.Entry<String, BridgeRequestScope> mapEntry : entrySet) {
-					BridgeRequestScope currentBridgeRequestScope = mapEntry.getValue();
+				if (((maxSize > 0) && (nodeMap.size() > maxSize)) || isExpired(eldest, node.lastAccessed)) {
 
-					if (currentBridgeRequestScope.getDateCreated() < oldestDate) {
-						eldestBridgeRequestScope = currentBridgeRequestScope;
+					nodeMap.remove(eldest.key);
+					detach(eldest);
+
+					if (evictedNodes == null) {
+						evictedNodes = new ArrayList<Node>();
 					}
+
+					evictedNodes.add(eldest);
+				}
+				else {
+					break;
 				}
 
-				if (eldestBridgeRequestScope != null) {
-					String eldestBridgeRequestScopeId = eldestBridgeRequestScope.getId();
-					super.remove(eldestBridgeRequestScopeId);
-					logger.debug("Exceeded threshold of [{0}] for [{1}], removed eldest bridgeRequestScope id=[{2}]",
-						maxSize, Bridge.MAX_MANAGED_REQUEST_SCOPES, eldestBridgeRequestScopeId);
+				eldest = head.next;
+			}
+		}
+
+		if (evictedNodes != null) {
+
+			for (Node evictedNode : evictedNodes) {
+				evicted(evictedNode.key, evictedNode.value);
+			}
+		}
+
+		BridgeRequestScope oldBridgeRequestScope = null;
+
+		if (oldNode != null) {
+			oldBridgeRequestScope = oldNode.value;
+		}
+
+		return oldBridgeRequestScope;
+	}
+
+	@Override
+	public BridgeRequestScope remove(Object key) {
+
+		BridgeRequestScope bridgeRequestScope = null;
+
+		if (key != null) {
+
+			synchronized (lock) {
+
+				Node node = nodeMap.remove(key);
+
+				if (node != null) {
+					detach(node);
+					bridgeRequestScope = node.value;
 				}
 			}
+		}
 
+		return bridgeRequestScope;
+	}
+
+	public List<BridgeRequestScope> removeByPortletName(String portletName) {
+		return removeIndexed(portletNameIndex, portletName);
+	}
+
+	public List<BridgeRequestScope> removeBySessionId(String sessionId) {
+		return removeIndexed(sessionIdIndex, sessionId);
+	}
+
+	@Override
+	public int size() {
+		return nodeMap.size();
+	}
+
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Callback method that is invoked after the specified bridge request scope has been evicted from the cache because
+	 * either the maximum size was exceeded or the idle timeout expired. The default implementation calls {@link
+	 * BridgeRequestScopeBaseImpl#release()} if the bridge request scope (or the scope that it wraps) extends {@link
+	 * BridgeRequestScopeBaseImpl}. Note that this method is invoked outside of the lock that guards the cache.
+	 */
+	protected void evicted(String bridgeRequestScopeId, BridgeRequestScope bridgeRequestScope) {
+
+		logger.debug("Evicted bridgeRequestScope id=[{0}] maxSize=[{1}] ({2}) idleTimeout=[{3}]", bridgeRequestScopeId,
+			maxSize, Bridge.MAX_MANAGED_REQUEST_SCOPES, idleTimeout);
+
+		BridgeRequestScope wrappedBridgeRequestScope = bridgeRequestScope;
+
+		while (wrappedBridgeRequestScope instanceof BridgeRequestScopeWrapper) {
+			wrappedBridgeRequestScope = ((BridgeRequestScopeWrapper) wrappedBridgeRequestScope).getWrapped();
 		}
 
-		return super.put(bridgeRequestScopeId, bridgeRequestScope);
+		if (wrappedBridgeRequestScope instanceof BridgeRequestScopeBaseImpl) {
+			((BridgeRequestScopeBaseImpl) wrappedBridgeRequestScope).release();
+		}
+	}
+
+	private void evict(Node node) {
+
+		boolean removed;
+
+		synchronized (lock) {
+			removed = nodeMap.remove(node.key, node);
+
+			if (removed) {
+				detach(node);
+			}
+		}
+
+		if (removed) {
+			evicted(node.key, node.value);
+		}
+	}
+
+	private void attach(Node node) {
+		linkLast(node);
+		index(portletNameIndex, node.portletName, node);
+		index(sessionIdIndex, node.sessionId, node);
+	}
+
+	private void detach(Node node) {
+		unlink(node);
+		unindex(portletNameIndex, node.portletName, node);
+		unindex(sessionIdIndex, node.sessionId, node);
+	}
+
+	private void index(Map<String, Set<Node>> index, String indexKey, Node node) {
+
+		if (indexKey != null) {
+
+			Set<Node> nodes = index.get(indexKey);
+
+			if (nodes == null) {
+				nodes = new HashSet<Node>();
+				index.put(indexKey, nodes);
+			}
+
+			nodes.add(node);
+		}
+	}
+
+	private void linkLast(Node node) {
+		node.prev = head.prev;
+		node.next = head;
+		head.prev.next = node;
+		head.prev = node;
+	}
+
+	private List<BridgeRequestScope> removeIndexed(Map<String, Set<Node>> index, String indexKey) {
+
+		List<BridgeRequestScope> bridgeRequestScopes = new ArrayList<BridgeRequestScope>();
+
+		if (indexKey != null) {
+
+			synchronized (lock) {
+
+				Set<Node> nodes = index.get(indexKey);
+
+				if (nodes != null) {
+
+					for (Node node : new ArrayList<Node>(nodes)) {
+						nodeMap.remove(node.key, node);
+						detach(node);
+						bridgeRequestScopes.add(node.value);
+					}
+				}
+			}
+		}
+
+		return bridgeRequestScopes;
+	}
+
+	private void unindex(Map<String, Set<Node>> index, String indexKey, Node node) {
+
+		if (indexKey != null) {
+
+			Set<Node> nodes = index.get(indexKey);
+
+			if (nodes != null) {
+				nodes.remove(node);
+
+				if (nodes.isEmpty()) {
+					index.remove(indexKey);
+				}
+			}
+		}
+	}
+
+	private void unlink(Node node) {
+
+		if (node.next != null) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+		}
+	}
+
+	private boolean isBounded() {
+		return (maxSize > 0) || (idleTimeout > 0L);
+	}
+
+	private boolean isExpired(Node node, long now) {
+		return (idleTimeout > 0L) && ((now - node.lastAccessed) > idleTimeout);
+	}
+
+	/**
+	 * This class provides a view of the entries in the cache. Removals are routed through {@link
+	 * BridgeRequestScopeCacheImpl#remove(Object)} so that the access order list is kept consistent.
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<String, BridgeRequestScope>> {
+
+		@Override
+		public void clear() {
+			BridgeRequestScopeCacheImpl.this.clear();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, BridgeRequestScope>> iterator() {
+			return new EntryIterator(nodeMap.values().iterator());
+		}
+
+		@Override
+		public int size() {
+			return nodeMap.size();
+		}
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<String, BridgeRequestScope>> {
+
+		// Private Data Members
+		private Node current;
+		private Iterator<Node> iterator;
+
+		public EntryIterator(Iterator<Node> iterator) {
+			this.iterator = iterator;
+		}
+
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		public Map.Entry<String, BridgeRequestScope> next() {
+
+			current = iterator.next();
+
+			return new SimpleImmutableEntry<String, BridgeRequestScope>(current.key, current.value);
+		}
+
+		public void remove() {
+
+			if (current == null) {
+				throw new IllegalStateException();
+			}
+
+			BridgeRequestScopeCacheImpl.this.remove(current.key);
+			current = null;
+		}
+	}
+
+	private static final class Node {
+
+		// Private Data Members
+		private final String key;
+		private volatile long lastAccessed;
+		private Node next;
+		private final String portletName;
+		private Node prev;
+		private final String sessionId;
+		private final BridgeRequestScope value;
+
+		public Node(String key, BridgeRequestScope value, long lastAccessed) {
+
+			this.key = key;
+			this.value = value;
+			this.lastAccessed = lastAccessed;
+
+			// Parse the portlet name and session id from a key that has the format portletName:::sessionId:::suffix
+			String portletName = null;
+			String sessionId = null;
+
+			if (key != null) {
+
+				int pos1 = key.indexOf(ID_SEPARATOR);
+
+				if (pos1 > 0) {
+
+					portletName = key.substring(0, pos1);
+
+					int pos2 = key.indexOf(ID_SEPARATOR, pos1 + ID_SEPARATOR.length());
+
+					if (pos2 > 0) {
+						sessionId = key.substring(pos1 + ID_SEPARATOR.length(), pos2);
+					}
+				}
+			}
+
+			this.portletName = portletName;
+			this.sessionId = sessionId;
+		}
 	}
 }
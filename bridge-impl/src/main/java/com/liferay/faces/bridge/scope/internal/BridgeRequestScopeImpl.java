@@ -54,6 +54,7 @@ import javax.servlet.http.HttpSession;
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.IncongruityContext;
+import com.liferay.faces.bridge.util.internal.ExcludedAttributeMatcher;
 import com.liferay.faces.bridge.util.internal.FacesMessageWrapper;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
@@ -79,6 +80,8 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 		"com.liferay.faces.bridge.incongruitycontext.attributes";
 	private static final String BRIDGE_REQ_SCOPE_ATTR_REQUEST_ATTRIBUTES =
 		"com.liferay.faces.bridge.faces.request.attributes";
+	private static final String BRIDGE_REQ_SCOPE_EXCLUDED_ATTR_MATCHER =
+		"com.liferay.faces.bridge.excludedAttributeMatcher";
 
 	// Protected Constants
 	protected static final String BRIDGE_REQ_SCOPE_NON_EXCLUDED_ATTR_NAMES =
@@ -97,7 +100,7 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 	// Private Data Members
 	private Bridge.PortletPhase beganInPhase;
 	private long dateCreated;
-	private List<String> excludedAttributeNames;
+	private ExcludedAttributeMatcher excludedAttributeMatcher;
 	private boolean facesLifecycleExecuted;
 	private String idPrefix;
 	private String idSuffix;
@@ -123,25 +126,38 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 		this.idPrefix = portletName + ":::" + sessionId + ":::";
 		this.idSuffix = Long.toString(this.dateCreated);
 
-		this.excludedAttributeNames = new ArrayList<String>();
-
-		// Get the list of excluded BridgeRequestScope attributes from the WEB-INF/portlet.xml descriptor.
+		// Get the compiled form of the excluded BridgeRequestScope attributes from the WEB-INF/portlet.xml and
+		// WEB-INF/faces-config.xml descriptors, which is only built once per portlet.
 		PortletContext portletContext = portletConfig.getPortletContext();
-		@SuppressWarnings("unchecked")
-		List<String> portletContextExcludedAttributeNames = (List<String>) portletContext.getAttribute(
-				Bridge.BRIDGE_PACKAGE_PREFIX + portletName + StringPool.PERIOD + Bridge.EXCLUDED_REQUEST_ATTRIBUTES);
+		String matcherAttributeName = BRIDGE_REQ_SCOPE_EXCLUDED_ATTR_MATCHER + StringPool.PERIOD + portletName;
+		ExcludedAttributeMatcher matcher = (ExcludedAttributeMatcher) portletContext.getAttribute(
+				matcherAttributeName);
 
-		// Combine the two lists into a single list of excluded BridgeRequestScope attributes.
-		Set<String> facesConfigExcludedAttributeNames = bridgeConfig.getExcludedRequestAttributes();
+		if (matcher == null) {
 
-		if (facesConfigExcludedAttributeNames != null) {
-			this.excludedAttributeNames.addAll(facesConfigExcludedAttributeNames);
-		}
+			// Get the list of excluded BridgeRequestScope attributes from the WEB-INF/portlet.xml descriptor.
+			@SuppressWarnings("unchecked")
+			List<String> portletContextExcludedAttributeNames = (List<String>) portletContext.getAttribute(
+					Bridge.BRIDGE_PACKAGE_PREFIX + portletName + StringPool.PERIOD +
+					Bridge.EXCLUDED_REQUEST_ATTRIBUTES);
 
-		if (portletContextExcludedAttributeNames != null) {
-			this.excludedAttributeNames.addAll(portletContextExcludedAttributeNames);
+			// Combine the two lists into a single list of excluded BridgeRequestScope attributes.
+			List<String> excludedAttributeNames = new ArrayList<String>();
+			Set<String> facesConfigExcludedAttributeNames = bridgeConfig.getExcludedRequestAttributes();
+
+			if (facesConfigExcludedAttributeNames != null) {
+				excludedAttributeNames.addAll(facesConfigExcludedAttributeNames);
+			}
+
+			if (portletContextExcludedAttributeNames != null) {
+				excludedAttributeNames.addAll(portletContextExcludedAttributeNames);
+			}
+
+			matcher = new ExcludedAttributeMatcher(excludedAttributeNames);
+			portletContext.setAttribute(matcherAttributeName, matcher);
 		}
 
+		this.excludedAttributeMatcher = matcher;
 		this.portletMode = PortletMode.VIEW;
 		this.preExistingAttributeNames = getPreExistingRequestAttributeNames(portletRequest);
 
@@ -624,37 +640,7 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 	}
 
 	protected boolean isExcludedRequestAttributeByConfig(String attributeName, Object attributeValue) {
-
-		boolean excluded = false;
-
-		if (excludedAttributeNames != null) {
-
-			for (String excludedAttribute : excludedAttributeNames) {
-
-				if (attributeName.equals(excludedAttribute)) {
-					excluded = true;
-
-					break;
-				}
-				else if (excludedAttribute.endsWith(StringPool.STAR)) {
-
-					String wildcardNamespace = excludedAttribute;
-					int dotPos = wildcardNamespace.lastIndexOf(StringPool.PERIOD);
-
-					if (dotPos > 0) {
-						wildcardNamespace = wildcardNamespace.substring(0, dotPos);
-					}
-
-					if (isNamespaceMatch(attributeName, wildcardNamespace)) {
-						excluded = true;
-
-						break;
-					}
-				}
-			}
-		}
-
-		return excluded;
+		return excludedAttributeMatcher.isExcluded(attributeName);
 	}
 
 	protected boolean isExcludedRequestAttributeByPreExisting(String attributeName) {
@@ -662,21 +648,7 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 	}
 
 	protected boolean isNamespaceMatch(String attributeName, String namespace) {
-
-		boolean match = false;
-
-		String attributeNamespace = attributeName;
-		int dotPos = attributeNamespace.lastIndexOf(StringPool.PERIOD);
-
-		if (dotPos > 0) {
-			attributeNamespace = attributeNamespace.substring(0, dotPos);
-		}
-
-		if (namespace.equals(attributeNamespace)) {
-			match = true;
-		}
-
-		return match;
+		return ExcludedAttributeMatcher.isNamespaceMatch(attributeName, namespace);
 	}
 
 	public String getId() {
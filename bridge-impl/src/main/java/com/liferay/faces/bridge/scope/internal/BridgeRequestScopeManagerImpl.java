@@ -49,24 +49,31 @@ public class BridgeRequestScopeManagerImpl implements BridgeRequestScopeManager
 		PortletContext portletContext = portletConfig.getPortletContext();
 		BridgeRequestScopeCache bridgeRequestScopeCache = bridgeRequestScopeCacheFactory.getBridgeRequestScopeCache(
 				portletContext);
-		Set<Map.Entry<String, BridgeRequestScope>> mapEntries = bridgeRequestScopeCache.entrySet();
 
-		if (mapEntries != null) {
+		if (bridgeRequestScopeCache instanceof IndexedBridgeRequestScopeCache) {
+			((IndexedBridgeRequestScopeCache) bridgeRequestScopeCache).removeByPortletName(portletNameToRemove);
+		}
+		else {
+
+			Set<Map.Entry<String, BridgeRequestScope>> mapEntries = bridgeRequestScopeCache.entrySet();
 
-			List<String> keysToRemove = new ArrayList<String>();
+			if (mapEntries != null) {
 
-			for (Map.Entry<String, BridgeRequestScope> mapEntry : mapEntries) {
-				BridgeRequestScope bridgeRequestScope = mapEntry.getValue();
-				String bridgeRequestScopeId = bridgeRequestScope.getId();
-				String portletName = bridgeRequestScopeId.split("[:][:][:]")[0];
+				List<String> keysToRemove = new ArrayList<String>();
 
-				if (portletNameToRemove.equals(portletName)) {
-					keysToRemove.add(mapEntry.getKey());
+				for (Map.Entry<String, BridgeRequestScope> mapEntry : mapEntries) {
+					BridgeRequestScope bridgeRequestScope = mapEntry.getValue();
+					String bridgeRequestScopeId = bridgeRequestScope.getId();
+					String portletName = bridgeRequestScopeId.split("[:][:][:]")[0];
+
+					if (portletNameToRemove.equals(portletName)) {
+						keysToRemove.add(mapEntry.getKey());
+					}
 				}
-			}
 
-			for (String key : keysToRemove) {
-				bridgeRequestScopeCache.remove(key);
+				for (String key : keysToRemove) {
+					bridgeRequestScopeCache.remove(key);
+				}
 			}
 		}
 	}
@@ -76,14 +83,36 @@ public class BridgeRequestScopeManagerImpl implements BridgeRequestScopeManager
 	 * BridgeSessionListener} when a session timeout/expiration occurs. The logic in this method is a little awkward
 	 * because we have to try and remove BridgeRequestScope instances from {@link Map} instances in the {@link
 	 * ServletContext} rather than the {@link PortletContext} because we only have access to the Servlet-API when
-	 * sessions expire.
+	 * sessions expire. Normally the {@link BridgeRequestScopeCache} can be found as a {@link ServletContext} attribute,
+	 * in which case its session id index is used if it implements {@link IndexedBridgeRequestScopeCache}. Otherwise,
+	 * all of the {@link Map} instances in the {@link ServletContext} are searched.
 	 */
 	public void removeBridgeRequestScopesBySession(HttpSession httpSession) {
 
-		// For each ServletContext attribute name:
 		String httpSessionId = httpSession.getId();
 		ServletContext servletContext = httpSession.getServletContext();
+		Object bridgeRequestScopeCache = servletContext.getAttribute(
+				BridgeRequestScopeCacheFactoryImpl.ATTR_BRIDGE_REQUEST_SCOPE_CACHE);
+
+		if (bridgeRequestScopeCache instanceof IndexedBridgeRequestScopeCache) {
 
+			List<BridgeRequestScope> bridgeRequestScopes = ((IndexedBridgeRequestScopeCache) bridgeRequestScopeCache)
+				.removeBySessionId(httpSessionId);
+
+			for (BridgeRequestScope bridgeRequestScope : bridgeRequestScopes) {
+				logger.debug(
+					"Removed bridgeRequestScopeId=[{0}] bridgeRequestScope=[{1}] from cache due to session timeout",
+					bridgeRequestScope.getId(), bridgeRequestScope);
+			}
+		}
+		else {
+			removeBridgeRequestScopesBySession(servletContext, httpSessionId);
+		}
+	}
+
+	protected void removeBridgeRequestScopesBySession(ServletContext servletContext, String httpSessionId) {
+
+		// For each ServletContext attribute name:
 		Enumeration<String> attributeNames = servletContext.getAttributeNames();
 
 		if (attributeNames != null) {
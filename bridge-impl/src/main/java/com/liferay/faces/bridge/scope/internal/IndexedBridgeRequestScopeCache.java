@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.util.List;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScope;
+import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
+
+
+/**
+ * This interface defines a {@link BridgeRequestScopeCache} that indexes its entries by portlet name and session id, so
+ * that entries can be removed without iterating over the entire cache. Since implementations of the public {@link
+ * BridgeRequestScopeCache} interface are not required to maintain such indexes, callers must fall back to iterating
+ * over the cache when an instance does not implement this interface.
+ *
+ * @author  Neil Griffin
+ */
+public interface IndexedBridgeRequestScopeCache extends BridgeRequestScopeCache {
+
+	/**
+	 * Removes all of the {@link BridgeRequestScope} instances that are associated with the specified portlet name.
+	 *
+	 * @param   portletName  The name of the portlet.
+	 *
+	 * @return  The list of {@link BridgeRequestScope} instances that were removed.
+	 */
+	List<BridgeRequestScope> removeByPortletName(String portletName);
+
+	/**
+	 * Removes all of the {@link BridgeRequestScope} instances that are associated with the specified session id.
+	 *
+	 * @param   sessionId  The session id.
+	 *
+	 * @return  The list of {@link BridgeRequestScope} instances that were removed.
+	 */
+	List<BridgeRequestScope> removeBySessionId(String sessionId);
+}
@@ -13,7 +13,16 @@
  */
 package com.liferay.faces.bridge.servlet;
 
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.faces.FactoryFinder;
 import javax.faces.context.FacesContext;
@@ -31,8 +40,14 @@ import javax.servlet.http.HttpSessionListener;
 import com.liferay.faces.bridge.BridgeFactoryFinder;
 import com.liferay.faces.bridge.bean.internal.BeanManager;
 import com.liferay.faces.bridge.bean.internal.BeanManagerFactory;
+import com.liferay.faces.bridge.config.internal.BridgeWebConfigParam;
+import com.liferay.faces.bridge.config.internal.BridgeWebConfigParamUtil;
+import com.liferay.faces.bridge.context.map.internal.MultiPartFormDataProcessorImpl;
+import com.liferay.faces.bridge.context.map.internal.PortletSessionAttributeRegistry;
+import com.liferay.faces.bridge.context.map.internal.UploadedFileTracker;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManager;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManagerFactory;
+import com.liferay.faces.bridge.servlet.internal.SessionDestroyedMetrics;
 import com.liferay.faces.util.config.ApplicationConfig;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
@@ -43,6 +58,10 @@ import com.liferay.faces.util.product.ProductMap;
 
 /**
  * This class provides the ability to cleanup session-scoped and view-scoped managed-beans upon session expiration.
+ * The names of the PORTLET_SCOPE session attributes are determined by iterating over the attributes in the session, and
+ * are supplemented by the names in the {@link PortletSessionAttributeRegistry} (which is maintained when the attributes
+ * are set). If the "com.liferay.faces.bridge.sessionDestroyedThreads" context-param is greater than zero, then the
+ * @PreDestroy methods of managed-beans are invoked by a bounded pool of background threads.
  *
  * @author  Neil Griffin
  */
@@ -55,13 +74,51 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 	private static final String MOJARRA_ACTIVE_VIEW_MAPS = "com.sun.faces.application.view.activeViewMaps";
 	private static final String MOJARRA_PACKAGE_PREFIX = "com.sun.faces";
 	private static final String MOJARRA_VIEW_SCOPE_MANAGER = "com.sun.faces.application.view.viewScopeManager";
+	private static final String PORTLET_SCOPE_NAMESPACE = "javax.portlet.p.";
+	private static final long SHUTDOWN_TIMEOUT = 10000L;
 
 	// Private Data Members
 	private boolean firstInstance;
+	private ThreadPoolExecutor preDestroyExecutor;
+	private SessionDestroyedMetrics sessionDestroyedMetrics;
 
+	/**
+	 * This method stops the background reapers of uploaded files and the background threads that invoke @PreDestroy
+	 * methods.
+	 */
 	@Override
 	public void contextDestroyed(ServletContextEvent servletContextEvent) {
-		// no-op
+
+		if (firstInstance) {
+
+			ServletContext servletContext = servletContextEvent.getServletContext();
+
+			for (UploadedFileTracker uploadedFileTracker : getUploadedFileTrackers(servletContext)) {
+				uploadedFileTracker.stopReaper();
+			}
+
+			if (preDestroyExecutor != null) {
+
+				preDestroyExecutor.shutdown();
+
+				try {
+
+					if (!preDestroyExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+						logger.warn("Unable to invoke @PreDestroy methods for [{0}] expired sessions",
+							preDestroyExecutor.shutdownNow().size());
+					}
+				}
+				catch (InterruptedException e) {
+					preDestroyExecutor.shutdownNow();
+					Thread.currentThread().interrupt();
+				}
+
+				preDestroyExecutor = null;
+			}
+
+			logger.info("Session cleanup for contextPath=[{0}] {1}", servletContext.getContextPath(),
+				sessionDestroyedMetrics);
+		}
 	}
 
 	/**
@@ -79,6 +136,19 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 			servletContext.setAttribute(BridgeSessionListener.class.getName(), Boolean.TRUE);
 			firstInstance = true;
 
+			sessionDestroyedMetrics = new SessionDestroyedMetrics();
+			servletContext.setAttribute(SessionDestroyedMetrics.ATTR_NAME, sessionDestroyedMetrics);
+
+			int threads = getIntegerInitParameter(servletContext, BridgeWebConfigParam.SessionDestroyedThreads);
+
+			if (threads > 0) {
+
+				int queueSize = Math.max(1,
+						getIntegerInitParameter(servletContext, BridgeWebConfigParam.SessionDestroyedQueueSize));
+				preDestroyExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+						new ArrayBlockingQueue<Runnable>(queueSize), new PreDestroyThreadFactory());
+				preDestroyExecutor.allowCoreThreadTimeOut(true);
+			}
 		}
 		else {
 			logger.debug("Preventing multiple instantiation for contextPath=[{0}]", servletContext.getContextPath());
@@ -93,6 +163,8 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 
 		if (firstInstance) {
 
+			long startTime = System.nanoTime();
+
 			// Determine which JSF implementation is being used (Mojarra/MyFaces).
 			ProductMap productMap = ProductMap.getInstance();
 			Product jsf = productMap.get(ProductConstants.JSF);
@@ -153,105 +225,88 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 				ApplicationConfig applicationConfig = (ApplicationConfig) servletContext.getAttribute(
 						appConfigAttrName);
 				BeanManager beanManager = beanManagerFactory.getBeanManager(applicationConfig.getFacesConfig());
+				List<Object> managedBeans = null;
 
 				try {
 
-					Enumeration<String> attributeNames = (Enumeration<String>) httpSession.getAttributeNames();
-
-					while (attributeNames.hasMoreElements()) {
-
-						String attributeName = attributeNames.nextElement();
+					for (String attributeName : getPortletScopeAttributeNames(httpSession)) {
 
 						// If the current session attribute name is namespaced with the standard portlet prefix, then it
 						// is an attribute that was set using PortletSession.setAttribute(String, Object).
-						if ((attributeName != null) && attributeName.startsWith("javax.portlet.p.")) {
-							int pos = attributeName.indexOf("?");
-
-							if (pos > 0) {
-								Object attributeValue = httpSession.getAttribute(attributeName);
-								httpSession.removeAttribute(attributeName);
-
-								if (attributeValue != null) {
-
-									// If the current session attribute value is a JSF managed-bean, then cleanup the
-									// bean by invoking methods annotated with {@link PreDestroy}. Note that in a
-									// webapp/servlet environment, the cleanup is handled by the Mojarra
-									// WebappLifecycleListener.sessionDestroyed(HttpSessionEvent) method. But in a
-									// portlet environment, Mojarra fails to recognize the session attribute as
-									// managed-bean because the attribute name contains the standard portlet prefix. An
-									// alternative approach would be to have the bridge rename the attribute (by
-									// stripping off the standard portlet prefix) so that Mojarra could find it. But
-									// this would not a good solution, because multiple instances of the same portlet
-									// would have the same session attribute names for managed-beans, and only the last
-									// one would get cleaned-up by Mojarra.
-									if (beanManager.isManagedBean(attributeName, attributeValue)) {
-
-										// NOTE: The BeanManager implementation utilizes FacesContext in order to
-										// determine the Mojarra injection provider. For this reason it is necessary to
-										// create a special FacesContext instance (that can function during session
-										// expiration) before invoking any methods on the BeanManager.
-										LifecycleFactory lifecycleFactory = (LifecycleFactory) FactoryFinder.getFactory(
-												FactoryFinder.LIFECYCLE_FACTORY);
-										Lifecycle lifecycle = lifecycleFactory.getLifecycle(
-												LifecycleFactory.DEFAULT_LIFECYCLE);
-										FacesContextFactory facesContextFactory = (FacesContextFactory) FactoryFinder
-											.getFactory(FactoryFinder.FACES_CONTEXT_FACTORY);
-
-										FacesContext facesContext = facesContextFactory.getFacesContext(servletContext,
-												null, null, lifecycle);
-
-										beanManager.invokePreDestroyMethods(attributeValue, true);
-										facesContext.release();
+						int pos = attributeName.indexOf("?");
+
+						if (pos > 0) {
+							Object attributeValue = httpSession.getAttribute(attributeName);
+							httpSession.removeAttribute(attributeName);
+
+							if (attributeValue != null) {
+
+								// If the current session attribute value is a JSF managed-bean, then cleanup the bean
+								// by invoking methods annotated with {@link PreDestroy}. Note that in a webapp/servlet
+								// environment, the cleanup is handled by the Mojarra
+								// WebappLifecycleListener.sessionDestroyed(HttpSessionEvent) method. But in a portlet
+								// environment, Mojarra fails to recognize the session attribute as managed-bean
+								// because the attribute name contains the standard portlet prefix. An alternative
+								// approach would be to have the bridge rename the attribute (by stripping off the
+								// standard portlet prefix) so that Mojarra could find it. But this would not a good
+								// solution, because multiple instances of the same portlet would have the same session
+								// attribute names for managed-beans, and only the last one would get cleaned-up by
+								// Mojarra.
+								if (beanManager.isManagedBean(attributeName, attributeValue)) {
+
+									if (managedBeans == null) {
+										managedBeans = new ArrayList<Object>();
 									}
 
-									// Otherwise,
-									else {
-
-										// If the current session attribute is Mojarra-vendor-specific, then
-										String fqcn = attributeValue.getClass().getName();
-
-										if ((fqcn != null) && (fqcn.contains(MOJARRA_PACKAGE_PREFIX))) {
-
-											// Rename the namespaced attribute by stripping off the standard portlet
-											// prefix. This will enable Mojarra's session expiration features to find
-											// attributes that it is expecting.
-											String nonPrefixedName = attributeName.substring(pos + 1);
-											logger.debug("Renaming Mojarra session attributeName=[{0}] -> [{1}]",
-												attributeName, nonPrefixedName);
-											httpSession.setAttribute(nonPrefixedName, attributeValue);
-
-											// If this is the attribute that contains all of the active view maps, then
-											if (MOJARRA_ACTIVE_VIEW_MAPS.equals(nonPrefixedName)) {
-
-												if (mojarraAbleToCleanup) {
-
-													// Invoke the Mojarra
-													// ViewScopeManager.sessionDestroyed(HttpSessionEvent) method in
-													// order to cleanup the active view maps. Rather than waiting for
-													// the servlet container to call the method during session
-													// expiration, it is important to call it directly within this
-													// while-loop for two reasons: 1) If the developer did not
-													// explicitly specify the order of the Mojarra ConfigureListener and
-													// this BridgeSessionListener in WEB-IN/web.xml descriptor
-													// (FACES-1483) then there is no guarantee that the method would get
-													// called. 2) In the case of multiple portlet instances, each
-													// instance has its own namespaced attribute in the session.
-													// Renaming each namespaced attribute to
-													// "com.sun.faces.application.view.activeViewMaps" would only enable
-													// Mojarra to cleanup the last one.
-													HttpSessionListener viewScopeManager = (HttpSessionListener)
-														servletContext.getAttribute(MOJARRA_VIEW_SCOPE_MANAGER);
-
-													if (viewScopeManager != null) {
-
-														try {
-															logger.debug(
-																"Asking Mojarra ViewScopeManager to cleanup @ViewScoped managed-beans");
-															viewScopeManager.sessionDestroyed(httpSessionEvent);
-														}
-														catch (Exception e) {
-															logger.error(e);
-														}
+									managedBeans.add(attributeValue);
+								}
+
+								// Otherwise,
+								else {
+
+									// If the current session attribute is Mojarra-vendor-specific, then
+									String fqcn = attributeValue.getClass().getName();
+
+									if ((fqcn != null) && (fqcn.contains(MOJARRA_PACKAGE_PREFIX))) {
+
+										// Rename the namespaced attribute by stripping off the standard portlet
+										// prefix. This will enable Mojarra's session expiration features to find
+										// attributes that it is expecting.
+										String nonPrefixedName = attributeName.substring(pos + 1);
+										logger.debug("Renaming Mojarra session attributeName=[{0}] -> [{1}]",
+											attributeName, nonPrefixedName);
+										httpSession.setAttribute(nonPrefixedName, attributeValue);
+
+										// If this is the attribute that contains all of the active view maps, then
+										if (MOJARRA_ACTIVE_VIEW_MAPS.equals(nonPrefixedName)) {
+
+											if (mojarraAbleToCleanup) {
+
+												// Invoke the Mojarra
+												// ViewScopeManager.sessionDestroyed(HttpSessionEvent) method in order
+												// to cleanup the active view maps. Rather than waiting for the servlet
+												// container to call the method during session expiration, it is
+												// important to call it directly within this loop for two reasons: 1) If
+												// the developer did not explicitly specify the order of the Mojarra
+												// ConfigureListener and this BridgeSessionListener in WEB-IN/web.xml
+												// descriptor (FACES-1483) then there is no guarantee that the method
+												// would get called. 2) In the case of multiple portlet instances, each
+												// instance has its own namespaced attribute in the session. Renaming
+												// each namespaced attribute to
+												// "com.sun.faces.application.view.activeViewMaps" would only enable
+												// Mojarra to cleanup the last one.
+												HttpSessionListener viewScopeManager = (HttpSessionListener)
+													servletContext.getAttribute(MOJARRA_VIEW_SCOPE_MANAGER);
+
+												if (viewScopeManager != null) {
+
+													try {
+														logger.debug(
+															"Asking Mojarra ViewScopeManager to cleanup @ViewScoped managed-beans");
+														viewScopeManager.sessionDestroyed(httpSessionEvent);
+													}
+													catch (Exception e) {
+														logger.error(e);
 													}
 												}
 											}
@@ -265,8 +320,184 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 				catch (IllegalStateException e) {
 					logger.warn("Server does not permit cleanup of Mojarra managed-beans during session expiration");
 				}
+
+				if (managedBeans != null) {
+					runPreDestroyTask(new PreDestroyTask(beanManager, servletContext, managedBeans));
+				}
+			}
+
+			// Recompute the number of bytes that are occupied by the uploaded files of the expiring session, since the
+			// files might have been deleted without notifying the tracker.
+			HttpSession httpSession = httpSessionEvent.getSession();
+
+			// FACES-1452: The upload folder is named after the sessionId without the non-alpha-numeric characters.
+			String uploadDirectoryName = httpSession.getId().replaceAll("[^A-Za-z0-9]", "");
+
+			for (UploadedFileTracker uploadedFileTracker : getUploadedFileTrackers(httpSession.getServletContext())) {
+				uploadedFileTracker.reconcile(uploadDirectoryName);
+			}
+
+			sessionDestroyedMetrics.addDestroyedSession(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Runs the specified task that invokes @PreDestroy methods, either with the background threads (if any) or with the
+	 * thread that expires the session. If the background threads cannot keep up, then the task is also run by the
+	 * thread that expires the session.
+	 */
+	protected void runPreDestroyTask(Runnable preDestroyTask) {
+
+		if (preDestroyExecutor == null) {
+			preDestroyTask.run();
+		}
+		else {
+
+			// Since the values of the attributes have already been retrieved from the session, the @PreDestroy methods
+			// can be invoked after the session has been invalidated.
+			try {
+				preDestroyExecutor.execute(preDestroyTask);
+			}
+			catch (RejectedExecutionException e) {
+				sessionDestroyedMetrics.incrementRejectedTaskCount();
+				preDestroyTask.run();
 			}
 		}
 	}
 
+	protected int getIntegerInitParameter(ServletContext servletContext, BridgeWebConfigParam bridgeWebConfigParam) {
+
+		String configuredValue = servletContext.getInitParameter(bridgeWebConfigParam.getName());
+
+		return BridgeWebConfigParamUtil.getIntegerValue(configuredValue, bridgeWebConfigParam.getDefaultIntegerValue());
+	}
+
+	/**
+	 * Returns the application-scoped {@link UploadedFileTracker} instances of the specified servlet context (one per
+	 * uploaded files root directory).
+	 */
+	protected List<UploadedFileTracker> getUploadedFileTrackers(ServletContext servletContext) {
+
+		List<UploadedFileTracker> uploadedFileTrackers = new ArrayList<UploadedFileTracker>();
+		Enumeration<String> attributeNames = (Enumeration<String>) servletContext.getAttributeNames();
+
+		while (attributeNames.hasMoreElements()) {
+
+			String attributeName = attributeNames.nextElement();
+
+			if (attributeName.startsWith(MultiPartFormDataProcessorImpl.ATTR_UPLOADED_FILE_TRACKER_PREFIX)) {
+
+				Object attributeValue = servletContext.getAttribute(attributeName);
+
+				if (attributeValue instanceof UploadedFileTracker) {
+					uploadedFileTrackers.add((UploadedFileTracker) attributeValue);
+				}
+			}
+		}
+
+		return uploadedFileTrackers;
+	}
+
+	/**
+	 * Returns the names of the PORTLET_SCOPE attributes of the specified session. The names are determined by iterating
+	 * over all of the attributes in the session, since attributes that were set directly via {@link
+	 * javax.portlet.PortletSession#setAttribute(String, Object)} (or before the {@link PortletSessionAttributeRegistry}
+	 * existed) are not registered. The names in the registry are added to the list in case they are not enumerated by
+	 * the session.
+	 */
+	protected List<String> getPortletScopeAttributeNames(HttpSession httpSession) {
+
+		Set<String> portletScopeAttributeNames = new LinkedHashSet<String>();
+		Enumeration<String> attributeNames = (Enumeration<String>) httpSession.getAttributeNames();
+
+		while (attributeNames.hasMoreElements()) {
+
+			String attributeName = attributeNames.nextElement();
+
+			if ((attributeName != null) && attributeName.startsWith(PORTLET_SCOPE_NAMESPACE)) {
+				portletScopeAttributeNames.add(attributeName);
+			}
+		}
+
+		PortletSessionAttributeRegistry portletSessionAttributeRegistry = PortletSessionAttributeRegistry.getInstance(
+				httpSession);
+
+		if (portletSessionAttributeRegistry != null) {
+			portletScopeAttributeNames.addAll(portletSessionAttributeRegistry.getSessionAttributeNames());
+		}
+
+		return new ArrayList<String>(portletScopeAttributeNames);
+	}
+
+	/**
+	 * This class invokes the @PreDestroy methods of the managed-beans of an expired session.
+	 */
+	protected class PreDestroyTask implements Runnable {
+
+		// Private Data Members
+		private BeanManager beanManager;
+		private ClassLoader classLoader;
+		private List<Object> managedBeans;
+		private ServletContext servletContext;
+
+		public PreDestroyTask(BeanManager beanManager, ServletContext servletContext, List<Object> managedBeans) {
+			this.beanManager = beanManager;
+			this.classLoader = Thread.currentThread().getContextClassLoader();
+			this.managedBeans = managedBeans;
+			this.servletContext = servletContext;
+		}
+
+		public void run() {
+
+			long startTime = System.nanoTime();
+			Thread currentThread = Thread.currentThread();
+			ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+			FacesContext facesContext = null;
+
+			try {
+
+				// Since the JSF factories are associated with the classloader of the webapp, it must be the context
+				// classloader when running in a background thread.
+				currentThread.setContextClassLoader(classLoader);
+
+				// NOTE: The BeanManager implementation utilizes FacesContext in order to determine the Mojarra
+				// injection provider. For this reason it is necessary to create a special FacesContext instance (that
+				// can function during session expiration) before invoking any methods on the BeanManager. A single
+				// instance is used for all of the managed-beans of the session.
+				LifecycleFactory lifecycleFactory = (LifecycleFactory) FactoryFinder.getFactory(
+						FactoryFinder.LIFECYCLE_FACTORY);
+				Lifecycle lifecycle = lifecycleFactory.getLifecycle(LifecycleFactory.DEFAULT_LIFECYCLE);
+				FacesContextFactory facesContextFactory = (FacesContextFactory) FactoryFinder.getFactory(
+						FactoryFinder.FACES_CONTEXT_FACTORY);
+				facesContext = facesContextFactory.getFacesContext(servletContext, null, null, lifecycle);
+
+				for (Object managedBean : managedBeans) {
+					beanManager.invokePreDestroyMethods(managedBean, true);
+				}
+			}
+			catch (RuntimeException e) {
+				logger.error(e);
+			}
+			finally {
+
+				if (facesContext != null) {
+					facesContext.release();
+				}
+
+				currentThread.setContextClassLoader(originalClassLoader);
+				sessionDestroyedMetrics.addPreDestroyedManagedBeans(managedBeans.size(), System.nanoTime() - startTime);
+			}
+		}
+	}
+
+	protected static class PreDestroyThreadFactory implements ThreadFactory {
+
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, BridgeSessionListener.class.getSimpleName() + "-preDestroy");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
 }
@@ -13,8 +13,13 @@
  */
 package com.liferay.faces.bridge.servlet.internal;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import javax.portlet.faces.Bridge;
 import javax.portlet.faces.Bridge.PortletPhase;
@@ -25,6 +30,7 @@ import javax.servlet.ServletRequestAttributeListener;
 
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.context.BridgeContext;
+import com.liferay.faces.bridge.util.internal.ExcludedAttributeMatcher;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -48,6 +54,17 @@ public class BridgeRequestAttributeListener implements ServletRequestAttributeLi
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestAttributeListener.class);
 
+	// Private Constants
+	private static final int ANNOTATED_METHOD_MAP_STRIPES = 16;
+	private static final Method[] NO_ANNOTATED_METHODS = new Method[] {};
+	private static final SoftReference<Method[]> NO_ANNOTATED_METHODS_REFERENCE = new SoftReference<Method[]>(
+			NO_ANNOTATED_METHODS);
+
+	// Private Data Members
+	private List<Map<Class<?>, SoftReference<Method[]>>> annotatedMethodMaps = newAnnotatedMethodMaps();
+	private volatile ExcludedAttributeMatcher excludedAttributeMatcher;
+	private volatile Set<String> excludedAttributeNames;
+
 	/**
 	 * This method is called after an attribute is added to the ServletRequest. Note that this should only get called
 	 * for remote WSRP portlets. For more info, see: http://issues.liferay.com/browse/FACES-146
@@ -70,32 +87,25 @@ public class BridgeRequestAttributeListener implements ServletRequestAttributeLi
 			String attributeName = servletRequestAttributeEvent.getName();
 			BridgeContext bridgeContext = BridgeContext.getCurrentInstance();
 			BridgeConfig bridgeConfig = bridgeContext.getBridgeConfig();
-			Set<String> excludedRequestScopeAttributes = bridgeConfig.getExcludedRequestAttributes();
+			ExcludedAttributeMatcher excludedAttributeMatcher = getExcludedAttributeMatcher(
+					bridgeConfig.getExcludedRequestAttributes());
 
-			if (!excludedRequestScopeAttributes.contains(attributeName)) {
+			if (!excludedAttributeMatcher.isExcluded(attributeName)) {
 
 				Object attributeValue = servletRequestAttributeEvent.getValue();
 				logger.trace("Attribute added name=[{0}] value=[{1}]", attributeName, attributeValue);
 
 				if (attributeValue != null) {
-					Method[] methods = attributeValue.getClass().getMethods();
-
-					if (methods != null) {
 
-						for (Method method : methods) {
+					Method[] annotatedMethods = getAnnotatedMethods(attributeValue.getClass());
 
-							if (method != null) {
+					for (Method annotatedMethod : annotatedMethods) {
 
-								if (method.isAnnotationPresent(BridgeRequestScopeAttributeAdded.class)) {
-
-									try {
-										method.invoke(attributeValue, new Object[] {});
-									}
-									catch (Exception e) {
-										logger.error(e);
-									}
-								}
-							}
+						try {
+							annotatedMethod.invoke(attributeValue, new Object[] {});
+						}
+						catch (Exception e) {
+							logger.error(e);
 						}
 					}
 				}
@@ -127,4 +137,92 @@ public class BridgeRequestAttributeListener implements ServletRequestAttributeLi
 		logger.trace("Attribute replaced name=[{0}] value=[{1}]", attributeName, attributeValue);
 	}
 
+	/**
+	 * Returns the public methods of the specified class that are annotated with {@link
+	 * BridgeRequestScopeAttributeAdded}. Since reflection is expensive and the same classes are added as request
+	 * attributes over and over again, the methods are only looked up once per class. Classes without any annotated
+	 * methods (which is the common case) are cached as well, so that they are dismissed with a single map lookup. Note
+	 * that the classes are weakly referenced so that the classloader of a redeployed webapp is not pinned. Since the
+	 * methods refer to their declaring class, they are softly referenced, which means that they remain cached unless
+	 * the JVM runs low on memory. In order to avoid a single lock on every attribute that is added, the classes are
+	 * distributed across several separately synchronized maps.
+	 */
+	protected Method[] getAnnotatedMethods(Class<?> clazz) {
+
+		Method[] annotatedMethods = null;
+		Map<Class<?>, SoftReference<Method[]>> annotatedMethodMap = annotatedMethodMaps.get(
+				(clazz.hashCode() & 0x7FFFFFFF) % ANNOTATED_METHOD_MAP_STRIPES);
+		SoftReference<Method[]> annotatedMethodsReference;
+
+		synchronized (annotatedMethodMap) {
+			annotatedMethodsReference = annotatedMethodMap.get(clazz);
+		}
+
+		if (annotatedMethodsReference != null) {
+			annotatedMethods = annotatedMethodsReference.get();
+		}
+
+		if (annotatedMethods == null) {
+
+			List<Method> annotatedMethodList = null;
+			Method[] methods = clazz.getMethods();
+
+			for (Method method : methods) {
+
+				if (method.isAnnotationPresent(BridgeRequestScopeAttributeAdded.class)) {
+
+					if (annotatedMethodList == null) {
+						annotatedMethodList = new ArrayList<Method>();
+					}
+
+					annotatedMethodList.add(method);
+				}
+			}
+
+			if (annotatedMethodList == null) {
+				annotatedMethods = NO_ANNOTATED_METHODS;
+				annotatedMethodsReference = NO_ANNOTATED_METHODS_REFERENCE;
+			}
+			else {
+				annotatedMethods = annotatedMethodList.toArray(new Method[annotatedMethodList.size()]);
+				annotatedMethodsReference = new SoftReference<Method[]>(annotatedMethods);
+			}
+
+			synchronized (annotatedMethodMap) {
+				annotatedMethodMap.put(clazz, annotatedMethodsReference);
+			}
+		}
+
+		return annotatedMethods;
+	}
+
+	/**
+	 * Returns the compiled form of the specified excluded attribute names. The matcher is rebuilt only if the specified
+	 * set is not the one that the current matcher was built from.
+	 */
+	protected ExcludedAttributeMatcher getExcludedAttributeMatcher(Set<String> excludedAttributeNames) {
+
+		ExcludedAttributeMatcher excludedAttributeMatcher = this.excludedAttributeMatcher;
+
+		if ((excludedAttributeMatcher == null) || (excludedAttributeNames != this.excludedAttributeNames)) {
+
+			excludedAttributeMatcher = new ExcludedAttributeMatcher(excludedAttributeNames);
+			this.excludedAttributeMatcher = excludedAttributeMatcher;
+			this.excludedAttributeNames = excludedAttributeNames;
+		}
+
+		return excludedAttributeMatcher;
+	}
+
+	private static List<Map<Class<?>, SoftReference<Method[]>>> newAnnotatedMethodMaps() {
+
+		List<Map<Class<?>, SoftReference<Method[]>>> annotatedMethodMaps =
+			new ArrayList<Map<Class<?>, SoftReference<Method[]>>>(ANNOTATED_METHOD_MAP_STRIPES);
+
+		for (int i = 0; i < ANNOTATED_METHOD_MAP_STRIPES; i++) {
+			annotatedMethodMaps.add(new WeakHashMap<Class<?>, SoftReference<Method[]>>());
+		}
+
+		return annotatedMethodMaps;
+	}
 }
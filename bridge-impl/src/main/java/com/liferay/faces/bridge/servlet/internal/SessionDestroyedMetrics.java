@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.servlet.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * This class keeps track of the amount of work that was performed in order to cleanup expired sessions. The instance
+ * that is used by the {@link com.liferay.faces.bridge.servlet.BridgeSessionListener} is available as a ServletContext
+ * attribute named by {@link #ATTR_NAME}.
+ *
+ * @author  Neil Griffin
+ */
+public class SessionDestroyedMetrics {
+
+	// Public Constants
+	public static final String ATTR_NAME = SessionDestroyedMetrics.class.getName();
+
+	// Private Data Members
+	private AtomicLong destroyedSessionCount = new AtomicLong();
+	private AtomicLong destroyedSessionNanos = new AtomicLong();
+	private AtomicLong preDestroyedManagedBeanCount = new AtomicLong();
+	private AtomicLong preDestroyNanos = new AtomicLong();
+	private AtomicLong rejectedTaskCount = new AtomicLong();
+
+	/**
+	 * Records that a session was cleaned up in the specified number of nanoseconds.
+	 */
+	public void addDestroyedSession(long nanos) {
+		destroyedSessionCount.incrementAndGet();
+		destroyedSessionNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Records that the @PreDestroy methods of the specified number of managed-beans were invoked in the specified
+	 * number of nanoseconds.
+	 */
+	public void addPreDestroyedManagedBeans(int count, long nanos) {
+		preDestroyedManagedBeanCount.addAndGet(count);
+		preDestroyNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Records that the @PreDestroy methods had to be invoked by the thread that expired the session because the
+	 * background queue was full.
+	 */
+	public void incrementRejectedTaskCount() {
+		rejectedTaskCount.incrementAndGet();
+	}
+
+	@Override
+	public String toString() {
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("destroyedSessions=[");
+		buf.append(getDestroyedSessionCount());
+		buf.append("] destroyedSessionMillis=[");
+		buf.append(getDestroyedSessionMillis());
+		buf.append("] preDestroyedManagedBeans=[");
+		buf.append(getPreDestroyedManagedBeanCount());
+		buf.append("] preDestroyMillis=[");
+		buf.append(getPreDestroyMillis());
+		buf.append("] rejectedTasks=[");
+		buf.append(getRejectedTaskCount());
+		buf.append("]");
+
+		return buf.toString();
+	}
+
+	public long getDestroyedSessionCount() {
+		return destroyedSessionCount.get();
+	}
+
+	/**
+	 * Returns the total number of milliseconds that were spent cleaning up sessions by the threads that expired them.
+	 */
+	public long getDestroyedSessionMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(destroyedSessionNanos.get());
+	}
+
+	public long getPreDestroyedManagedBeanCount() {
+		return preDestroyedManagedBeanCount.get();
+	}
+
+	/**
+	 * Returns the total number of milliseconds that were spent invoking @PreDestroy methods, either by the threads that
+	 * expired the sessions or by the background threads.
+	 */
+	public long getPreDestroyMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(preDestroyNanos.get());
+	}
+
+	public long getRejectedTaskCount() {
+		return rejectedTaskCount.get();
+	}
+}
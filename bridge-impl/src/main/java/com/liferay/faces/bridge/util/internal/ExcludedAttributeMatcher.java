@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.util.internal;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.liferay.faces.util.lang.StringPool;
+
+
+/**
+ * This class provides a compiled form of a list of excluded request attribute names, as specified by the
+ * &lt;excluded-attributes&gt; element of the WEB-INF/faces-config.xml descriptor and the
+ * "javax.portlet.faces.excludedRequestAttributes" init-param of the WEB-INF/portlet.xml descriptor. Exact names are
+ * kept in a hash set, and wildcard names like "com.foo.*" are kept in a character trie of namespaces so that an
+ * attribute name can be classified without allocating substrings.
+ *
+ * @author  Neil Griffin
+ */
+public class ExcludedAttributeMatcher implements Serializable {
+
+	// serialVersionUID
+	private static final long serialVersionUID = 3866475386521474826L;
+
+	// Private Data Members
+	private Set<String> exactNames;
+	private TrieNode namespaceTrie;
+
+	public ExcludedAttributeMatcher(Collection<String> excludedAttributeNames) {
+
+		this.exactNames = new HashSet<String>();
+		this.namespaceTrie = new TrieNode();
+
+		if (excludedAttributeNames != null) {
+
+			for (String excludedAttributeName : excludedAttributeNames) {
+
+				if (excludedAttributeName != null) {
+
+					exactNames.add(excludedAttributeName);
+
+					if (excludedAttributeName.endsWith(StringPool.STAR)) {
+
+						String wildcardNamespace = excludedAttributeName;
+						int dotPos = wildcardNamespace.lastIndexOf(StringPool.PERIOD);
+
+						if (dotPos > 0) {
+							wildcardNamespace = wildcardNamespace.substring(0, dotPos);
+						}
+
+						namespaceTrie.add(wildcardNamespace);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines whether or not the namespace of the specified attribute name is equal to the specified namespace. The
+	 * namespace of an attribute name is the part that precedes the last period, or the entire attribute name if it
+	 * does not contain a period.
+	 */
+	public static boolean isNamespaceMatch(String attributeName, String namespace) {
+
+		int namespaceLength = getNamespaceLength(attributeName);
+
+		return (namespaceLength == namespace.length()) && attributeName.regionMatches(0, namespace, 0, namespaceLength);
+	}
+
+	/**
+	 * Determines whether or not the specified attribute name is excluded, either because it is equal to one of the
+	 * excluded attribute names or because its namespace matches one of the wildcard namespaces.
+	 */
+	public boolean isExcluded(String attributeName) {
+
+		if (attributeName == null) {
+			return false;
+		}
+		else if (exactNames.contains(attributeName)) {
+			return true;
+		}
+		else {
+			return namespaceTrie.contains(attributeName, getNamespaceLength(attributeName));
+		}
+	}
+
+	public boolean isEmpty() {
+		return exactNames.isEmpty();
+	}
+
+	private static int getNamespaceLength(String attributeName) {
+
+		int dotPos = attributeName.lastIndexOf('.');
+
+		if (dotPos > 0) {
+			return dotPos;
+		}
+		else {
+			return attributeName.length();
+		}
+	}
+
+	/**
+	 * This class represents a node in a character trie. The children of each node are kept in a sorted array so that
+	 * they can be found with a binary search that does not box characters.
+	 */
+	private static final class TrieNode implements Serializable {
+
+		// serialVersionUID
+		private static final long serialVersionUID = 2184916409876312745L;
+
+		// Private Data Members
+		private char[] childKeys = new char[0];
+		private TrieNode[] children = new TrieNode[0];
+		private boolean terminal;
+
+		public void add(String value) {
+
+			TrieNode node = this;
+
+			for (int i = 0; i < value.length(); i++) {
+				node = node.getOrAddChild(value.charAt(i));
+			}
+
+			node.terminal = true;
+		}
+
+		public boolean contains(String value, int length) {
+
+			TrieNode node = this;
+
+			for (int i = 0; (i < length) && (node != null); i++) {
+				node = node.getChild(value.charAt(i));
+			}
+
+			return (node != null) && node.terminal;
+		}
+
+		private TrieNode getChild(char key) {
+
+			int index = Arrays.binarySearch(childKeys, key);
+
+			if (index >= 0) {
+				return children[index];
+			}
+			else {
+				return null;
+			}
+		}
+
+		private TrieNode getOrAddChild(char key) {
+
+			int index = Arrays.binarySearch(childKeys, key);
+
+			if (index >= 0) {
+				return children[index];
+			}
+			else {
+
+				int insertionPoint = -(index + 1);
+				char[] newChildKeys = new char[childKeys.length + 1];
+				TrieNode[] newChildren = new TrieNode[children.length + 1];
+				System.arraycopy(childKeys, 0, newChildKeys, 0, insertionPoint);
+				System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+				System.arraycopy(childKeys, insertionPoint, newChildKeys, insertionPoint + 1,
+					childKeys.length - insertionPoint);
+				System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1,
+					children.length - insertionPoint);
+
+				TrieNode child = new TrieNode();
+				newChildKeys[insertionPoint] = key;
+				newChildren[insertionPoint] = child;
+				childKeys = newChildKeys;
+				children = newChildren;
+
+				return child;
+			}
+		}
+	}
+}
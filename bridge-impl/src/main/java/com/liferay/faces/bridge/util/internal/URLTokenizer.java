@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.util.internal;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class splits a URL into the components that are defined by RFC 2396 (scheme, authority, path, query, and
+ * fragment) in a single pass without regular expressions and without copying the URL. Each component is represented by
+ * offsets into the original string, so that substrings are only created when a component is actually requested. The
+ * methods of this class return the same values as the corresponding methods of {@link URI}, including the case in
+ * which the URL contains a character that is illegal in a URI, such as a square bracket that does not enclose an IPv6
+ * host (which is treated like an empty URI).
+ *
+ * @author  Neil Griffin
+ */
+public class URLTokenizer {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(URLTokenizer.class);
+
+	// Private Constants
+	private static final String ILLEGAL_CHARACTERS = " \"<>\\^`{|}";
+
+	// Private Data Members
+	private int fragmentPos;
+	private boolean opaque;
+	private int pathEnd;
+	private int pathStart;
+	private int queryPos;
+	private int schemeEnd;
+	private String url;
+
+	public URLTokenizer(String url) {
+
+		if ((url == null) || !isLegal(url)) {
+			logger.error("Illegal character in URL=[{0}]", url);
+			url = "";
+		}
+
+		this.url = url;
+
+		int length = url.length();
+		this.fragmentPos = url.indexOf('#');
+
+		int end = (fragmentPos < 0) ? length : fragmentPos;
+		this.schemeEnd = -1;
+
+		// The scheme is an alphabetic character followed by any number of alphanumeric, "+", "-", or "." characters
+		// that are terminated by a colon.
+		if ((end > 0) && isAlpha(url.charAt(0))) {
+
+			for (int i = 1; i < end; i++) {
+
+				char ch = url.charAt(i);
+
+				if (ch == ':') {
+					schemeEnd = i;
+
+					break;
+				}
+				else if (!isAlpha(ch) && !isDigit(ch) && (ch != '+') && (ch != '-') && (ch != '.')) {
+					break;
+				}
+			}
+		}
+
+		int pos = schemeEnd + 1;
+		this.opaque = (schemeEnd > 0) && ((pos == end) || (url.charAt(pos) != '/'));
+		this.queryPos = -1;
+
+		if (opaque) {
+			this.pathStart = pos;
+			this.pathEnd = pos;
+		}
+		else {
+
+			// Skip over the authority component, if any.
+			if (url.startsWith("//", pos)) {
+
+				pos += 2;
+
+				while ((pos < end) && (url.charAt(pos) != '/') && (url.charAt(pos) != '?')) {
+					pos++;
+				}
+			}
+
+			this.pathStart = pos;
+
+			while ((pos < end) && (url.charAt(pos) != '?')) {
+				pos++;
+			}
+
+			this.pathEnd = pos;
+
+			if (pos < end) {
+				this.queryPos = pos;
+			}
+		}
+	}
+
+	protected static boolean isAlpha(char ch) {
+		return ((ch >= 'a') && (ch <= 'z')) || ((ch >= 'A') && (ch <= 'Z'));
+	}
+
+	protected static boolean isDigit(char ch) {
+		return (ch >= '0') && (ch <= '9');
+	}
+
+	protected static boolean isHexDigit(char ch) {
+		return isDigit(ch) || ((ch >= 'a') && (ch <= 'f')) || ((ch >= 'A') && (ch <= 'F'));
+	}
+
+	protected static boolean isLegal(String url) {
+
+		boolean squareBracket = false;
+		int length = url.length();
+
+		for (int i = 0; i < length; i++) {
+
+			char ch = url.charAt(i);
+
+			if ((ch < ' ') || (ch == 0x7F) || (ILLEGAL_CHARACTERS.indexOf(ch) >= 0)) {
+				return false;
+			}
+			else if ((ch == '%') &&
+					(((i + 2) >= length) || !isHexDigit(url.charAt(i + 1)) || !isHexDigit(url.charAt(i + 2)))) {
+				return false;
+			}
+			else if ((ch == '#') && (url.indexOf('#', i + 1) >= 0)) {
+				return false;
+			}
+			else if ((ch == '[') || (ch == ']')) {
+				squareBracket = true;
+			}
+		}
+
+		// Since square brackets are only legal when they enclose an IPv6 host (which is rare), delegate the validation
+		// of them to the URI class.
+		if (squareBracket) {
+
+			try {
+				new URI(url);
+			}
+			catch (URISyntaxException e) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the position of the "#" character that precedes the fragment, or -1 if there is no fragment.
+	 */
+	public int getFragmentPos() {
+		return fragmentPos;
+	}
+
+	/**
+	 * Returns the decoded path, or <code>null</code> if the URL is opaque.
+	 */
+	public String getPath() {
+
+		String path = null;
+
+		if (!opaque) {
+
+			path = url.substring(pathStart, pathEnd);
+
+			// Since escaped octets are rare, delegate the decoding of them to the URI class.
+			if (path.indexOf('%') >= 0) {
+
+				try {
+					path = new URI(url).getPath();
+				}
+				catch (URISyntaxException e) {
+					logger.error(e.getMessage());
+				}
+			}
+		}
+
+		return path;
+	}
+
+	/**
+	 * Returns the position at which the path ends (exclusive).
+	 */
+	public int getPathEnd() {
+		return pathEnd;
+	}
+
+	/**
+	 * Returns the position at which the path starts.
+	 */
+	public int getPathStart() {
+		return pathStart;
+	}
+
+	/**
+	 * Returns the position of the "?" character that precedes the query, or -1 if there is no query (which is always
+	 * the case for opaque URLs).
+	 */
+	public int getQueryPos() {
+		return queryPos;
+	}
+
+	/**
+	 * Returns the scheme, or <code>null</code> if the URL is relative.
+	 */
+	public String getScheme() {
+
+		if (schemeEnd > 0) {
+			return url.substring(0, schemeEnd);
+		}
+		else {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the position of the ":" character that terminates the scheme, or -1 if the URL is relative.
+	 */
+	public int getSchemeEnd() {
+		return schemeEnd;
+	}
+
+	/**
+	 * Determines whether or not the scheme of the URL is equal to the specified scheme, without creating a substring.
+	 */
+	public boolean isScheme(String scheme) {
+		return (schemeEnd == scheme.length()) && url.startsWith(scheme);
+	}
+
+	/**
+	 * Returns the undecoded scheme-specific part, which is everything between the scheme and the fragment.
+	 */
+	public String getSchemeSpecificPart() {
+
+		int end = (fragmentPos < 0) ? url.length() : fragmentPos;
+
+		return url.substring(schemeEnd + 1, end);
+	}
+
+	public boolean isAbsolute() {
+		return schemeEnd > 0;
+	}
+
+	public boolean isOpaque() {
+		return opaque;
+	}
+
+	public String getURL() {
+		return url;
+	}
+}
@@ -21,7 +21,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
-import com.liferay.faces.bridge.internal.BridgeConstants;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
@@ -35,6 +34,9 @@ public class URLUtil {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(URLUtil.class);
 
+	// Private Constants
+	private static final String AMP_SEMICOLON = "amp;";
+
 	public static Map<String, String[]> parseParameterMapValuesArray(String url) {
 		Map<String, String[]> parameterMapValuesArray = new LinkedHashMap<String, String[]>();
 
@@ -42,57 +44,33 @@ public class URLUtil {
 			int pos = url.indexOf(StringPool.QUESTION);
 
 			if (pos > 0) {
-				String queryString = url.substring(pos + 1);
-				queryString = queryString.replaceAll(StringPool.AMPERSAND_ENCODED, StringPool.AMPERSAND);
 
-				if ((queryString != null) && (queryString.length() > 0)) {
+				// Scan the name=value pairs of the query string (which ends at the fragment, if any) by position rather
+				// than by splitting it with regular expressions. Note that "&amp;" is treated as a delimiter too.
+				int end = url.indexOf(StringPool.POUND, pos + 1);
+
+				if (end < 0) {
+					end = url.length();
+				}
+
+				int start = pos + 1;
+
+				while (start < end) {
+
+					int delimiterPos = url.indexOf(StringPool.AMPERSAND, start);
 
-					pos = queryString.indexOf(StringPool.POUND);
+					if ((delimiterPos < 0) || (delimiterPos > end)) {
+						delimiterPos = end;
+					}
 
-					if (pos > 0) {
-						queryString = queryString.substring(0, pos);
+					if (delimiterPos > start) {
+						addParameter(parameterMapValuesArray, url, start, delimiterPos);
 					}
 
-					String[] queryParameters = queryString.split(BridgeConstants.REGEX_AMPERSAND_DELIMITER);
-
-					for (String queryParameter : queryParameters) {
-						String[] nameValueArray = queryParameter.split("[=]");
-
-						if (nameValueArray != null) {
-
-							String name = nameValueArray[0];
-							String[] existingValues = parameterMapValuesArray.get(name);
-
-							if (nameValueArray.length == 1) {
-								String[] newValues = null;
-
-								if (existingValues == null) {
-									newValues = new String[] { StringPool.BLANK };
-								}
-								else {
-									newValues = Arrays.copyOf(existingValues, existingValues.length + 1);
-									newValues[existingValues.length] = StringPool.BLANK;
-								}
-
-								parameterMapValuesArray.put(name, newValues);
-							}
-							else if (nameValueArray.length == 2) {
-								String[] newValues = null;
-
-								if (existingValues == null) {
-									newValues = new String[] { nameValueArray[1] };
-								}
-								else {
-									newValues = Arrays.copyOf(existingValues, existingValues.length + 1);
-									newValues[existingValues.length] = nameValueArray[1];
-								}
-
-								parameterMapValuesArray.put(name, newValues);
-							}
-							else {
-								logger.error("Invalid name=value pair=[{0}] in URL=[{1}]", nameValueArray, url);
-							}
-						}
+					start = delimiterPos + 1;
+
+					if (url.startsWith(AMP_SEMICOLON, start)) {
+						start += AMP_SEMICOLON.length();
 					}
 				}
 			}
@@ -120,4 +98,38 @@ public class URLUtil {
 
 		return parameterMapValuesList;
 	}
+
+	protected static void addParameter(Map<String, String[]> parameterMapValuesArray, String url, int start, int end) {
+
+		int equalsPos = url.indexOf(StringPool.EQUAL, start);
+
+		if ((equalsPos < 0) || (equalsPos >= end)) {
+			equalsPos = end;
+		}
+		else if (url.lastIndexOf(StringPool.EQUAL, end - 1) != equalsPos) {
+			logger.error("Invalid name=value pair=[{0}] in URL=[{1}]", url.substring(start, end), url);
+
+			return;
+		}
+
+		String name = url.substring(start, equalsPos);
+		String value = StringPool.BLANK;
+
+		if (equalsPos < end) {
+			value = url.substring(equalsPos + 1, end);
+		}
+
+		String[] existingValues = parameterMapValuesArray.get(name);
+		String[] newValues = null;
+
+		if (existingValues == null) {
+			newValues = new String[] { value };
+		}
+		else {
+			newValues = Arrays.copyOf(existingValues, existingValues.length + 1);
+			newValues[existingValues.length] = value;
+		}
+
+		parameterMapValuesArray.put(name, newValues);
+	}
 }
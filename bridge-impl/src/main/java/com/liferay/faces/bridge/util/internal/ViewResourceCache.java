@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.util.internal;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.faces.FactoryFinder;
+import javax.faces.application.ApplicationFactory;
+import javax.faces.application.ProjectStage;
+import javax.portlet.PortletConfig;
+import javax.portlet.PortletContext;
+
+import com.liferay.faces.bridge.config.internal.BridgeWebConfigParam;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class caches the answer to the question of whether or not a view resource (such as a Facelet or a JSP) exists
+ * within the {@link PortletContext}. Since {@link PortletContext#getResource(String)} typically results in a lookup
+ * in the filesystem or in a JAR, the answer (including a negative answer) is only determined once per path. Caching is
+ * disabled when the JSF project stage is Development, and cached answers expire according to the {@link
+ * BridgeWebConfigParam#ViewResourceCheckInterval} context-param. Since paths can be derived from request parameters,
+ * the number of cached answers is bounded, and the least recently used answer is evicted when the bound is reached.
+ *
+ * @author  Neil Griffin
+ */
+public class ViewResourceCache {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(ViewResourceCache.class);
+
+	// Private Constants
+	private static final String ATTR_VIEW_RESOURCE_CACHE = ViewResourceCache.class.getName();
+	private static final int MAX_ENTRIES = 4096;
+
+	// Private Data Members
+	private long checkInterval;
+	private boolean enabled;
+	private PortletContext portletContext;
+	private Map<String, Entry> resourceMap;
+
+	/**
+	 * @param  portletContext  The portlet context in which view resources are to be found.
+	 * @param  enabled         Flag indicating whether or not answers are cached.
+	 * @param  checkInterval   The number of milliseconds after which a cached answer expires, or 0 if answers never
+	 *                         expire.
+	 */
+	public ViewResourceCache(PortletContext portletContext, boolean enabled, long checkInterval) {
+		this.portletContext = portletContext;
+		this.enabled = enabled;
+		this.checkInterval = checkInterval;
+		this.resourceMap = Collections.synchronizedMap(new ResourceMap(MAX_ENTRIES));
+	}
+
+	/**
+	 * Returns the instance of the cache that is shared by all of the portlets within the {@link PortletContext} of the
+	 * specified {@link PortletConfig}.
+	 */
+	public static ViewResourceCache getInstance(PortletConfig portletConfig) {
+
+		PortletContext portletContext = portletConfig.getPortletContext();
+		ViewResourceCache viewResourceCache = (ViewResourceCache) portletContext.getAttribute(
+				ATTR_VIEW_RESOURCE_CACHE);
+
+		if (viewResourceCache == null) {
+
+			synchronized (ViewResourceCache.class) {
+
+				viewResourceCache = (ViewResourceCache) portletContext.getAttribute(ATTR_VIEW_RESOURCE_CACHE);
+
+				if (viewResourceCache == null) {
+
+					ApplicationFactory applicationFactory = (ApplicationFactory) FactoryFinder.getFactory(
+							FactoryFinder.APPLICATION_FACTORY);
+					ProjectStage projectStage = applicationFactory.getApplication().getProjectStage();
+					boolean enabled = (projectStage != ProjectStage.Development);
+					long checkInterval = BridgeWebConfigParam.ViewResourceCheckInterval.getLongValue(portletContext);
+					viewResourceCache = new ViewResourceCache(portletContext, enabled, checkInterval);
+					portletContext.setAttribute(ATTR_VIEW_RESOURCE_CACHE, viewResourceCache);
+				}
+			}
+		}
+
+		return viewResourceCache;
+	}
+
+	/**
+	 * Removes all of the cached answers.
+	 */
+	public void clear() {
+		resourceMap.clear();
+	}
+
+	/**
+	 * Determines whether or not the resource with the specified context-relative path exists.
+	 */
+	public boolean isResourcePresent(String resourcePath) {
+
+		if (!enabled) {
+			return getResource(resourcePath) != null;
+		}
+
+		Entry entry = resourceMap.get(resourcePath);
+		long currentTime = (checkInterval > 0L) ? System.currentTimeMillis() : 0L;
+
+		if ((entry == null) || ((checkInterval > 0L) && ((currentTime - entry.checkedTime) > checkInterval))) {
+
+			entry = new Entry(getResource(resourcePath) != null, currentTime);
+			resourceMap.put(resourcePath, entry);
+		}
+
+		return entry.present;
+	}
+
+	protected URL getResource(String resourcePath) {
+
+		URL resourceURL = null;
+
+		try {
+			resourceURL = portletContext.getResource(resourcePath);
+		}
+		catch (MalformedURLException e) {
+			logger.error(e);
+		}
+
+		return resourceURL;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	private static final class Entry {
+
+		// Private Data Members
+		private final long checkedTime;
+		private final boolean present;
+
+		public Entry(boolean present, long checkedTime) {
+			this.present = present;
+			this.checkedTime = checkedTime;
+		}
+	}
+
+	/**
+	 * This class is a map of cached answers that is ordered by access, so that the least recently used answer is
+	 * evicted when the maximum number of entries is exceeded.
+	 */
+	private static final class ResourceMap extends LinkedHashMap<String, ViewResourceCache.Entry> {
+
+		// serialVersionUID
+		private static final long serialVersionUID = 5137846226386411385L;
+
+		// Private Data Members
+		private final int maxEntries;
+
+		public ResourceMap(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ViewResourceCache.Entry> eldest) {
+			return size() > maxEntries;
+		}
+	}
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.application.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.context.FacesContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.application.internal.ResourceOutputStreamRichFacesImpl.RichFacesImageResource;
+
+
+/**
+ * Verifies that the single-pass rewriting of RichFaces resources produces exactly the same bytes as the original
+ * implementation, which rescanned the entire text for each replacement.
+ *
+ * @author  Neil Griffin
+ */
+public class ResourceOutputStreamRichFacesImplTest {
+
+	private static final String PACKED_JS_TOKEN1 =
+		"this.form.attr(\"action\", originalAction + delimiter + UID + \"=\" + this.loadableItem.uid);";
+	private static final String PACKED_JS_TOKEN2 = "if (jQuery.atmosphere.requests.length > 0) {";
+	private static final String PACKED_JS_TOKEN3 = "jQuery.atmosphere.unsubscribe();";
+
+	@Test
+	public void testImageURLEquivalence() throws IOException {
+
+		StringBuilder css = new StringBuilder();
+		css.append("/* skinning.css */\n");
+
+		for (int i = 0; i < 200; i++) {
+			css.append(".rf-c").append(i).append(" { background-image: url(\"../../org.richfaces.images/img");
+			css.append(i % 7).append(".png\"); }\n");
+			css.append(".rf-d").append(i).append(" { background: url(../../grad").append(i % 3).append(".gif) ");
+			css.append("repeat-x; }\n");
+			css.append(".rf-e").append(i).append(" { cursor: url('../org.richfaces.images/cur").append(i);
+			css.append(".cur'); }\n");
+			css.append(".rf-f").append(i).append(" { list-style-image: url(org.richfaces.images/bullet.jpg2x); }\n");
+		}
+
+		css.append(".rf-g { content: \"caf\u00e9 \u4e2d\"; }\n");
+
+		assertFilterEquivalence("skinning.css", css.toString(), legacyFixRichFacesImageURLs(css.toString()));
+	}
+
+	@Test
+	public void testPackedDotJsEquivalence() throws IOException {
+
+		StringBuilder js = new StringBuilder();
+		js.append("(function($) {\n");
+
+		for (int i = 0; i < 50; i++) {
+			js.append("  var v").append(i).append(" = '\u00e9';\n");
+		}
+
+		js.append("  ").append(PACKED_JS_TOKEN1).append("\n  submit();\n");
+		js.append("  ").append(PACKED_JS_TOKEN1).append("\n");
+		js.append("  ").append(PACKED_JS_TOKEN2).append(" poll(); }\n");
+		js.append("  ").append(PACKED_JS_TOKEN3).append("\n");
+		js.append("  ").append(PACKED_JS_TOKEN3).append("\n");
+		js.append("})(jQuery);\n");
+
+		assertFilterEquivalence("packed/packed.js", js.toString(), legacyFixRichFacesPackedDotJs(js.toString()));
+	}
+
+	private void assertFilterEquivalence(String resourceName, String text, String expectedText) throws IOException {
+
+		Resource resource = new ResourceStubImpl(resourceName, null);
+		ResourceOutputStreamRichFacesImpl resourceOutputStream = new ResourceOutputStreamRichFacesImpl(resource, 16);
+		resourceOutputStream.write(text.getBytes("UTF-8"));
+		resourceOutputStream.filter(new ResourceHandlerStubImpl());
+
+		Assert.assertTrue(Arrays.equals(expectedText.getBytes("UTF-8"), resourceOutputStream.toByteArray()));
+	}
+
+	/**
+	 * This is the implementation of fixRichFacesImageURLs that preceded the single-pass rewriting.
+	 */
+	private String legacyFixRichFacesImageURLs(String cssText) {
+
+		Map<String, String> resourceURLCache = new HashMap<String, String>();
+		ResourceHandler resourceHandler = new ResourceHandlerStubImpl();
+
+		for (RichFacesImageResource richFacesImageResource : RichFacesImageResource.values()) {
+
+			boolean doneProcessingURLs = false;
+
+			while (!doneProcessingURLs) {
+
+				String pathPrefix = richFacesImageResource.getPathPrefix();
+				int urlStartPos = cssText.indexOf(pathPrefix);
+
+				if (urlStartPos > 0) {
+
+					int fileNameStartPos = urlStartPos + pathPrefix.length();
+					int dotPos = cssText.indexOf(".", fileNameStartPos);
+					int extensionFinishPos = dotPos + 1;
+
+					while ((extensionFinishPos < cssText.length()) &&
+							Character.isLetterOrDigit(cssText.charAt(extensionFinishPos))) {
+						extensionFinishPos++;
+					}
+
+					String relativePathKey = cssText.substring(urlStartPos, extensionFinishPos);
+					String imageResourceURL = resourceURLCache.get(relativePathKey);
+
+					if (imageResourceURL == null) {
+						String resourceName = cssText.substring(fileNameStartPos, extensionFinishPos);
+						String libraryName = richFacesImageResource.getLibraryName();
+						String substitutionToken = richFacesImageResource.getSubstitutionToken();
+						Resource imageResource = resourceHandler.createResource(resourceName, libraryName);
+						imageResourceURL = imageResource.getRequestPath();
+						imageResourceURL = imageResourceURL.replaceAll(libraryName, substitutionToken);
+						resourceURLCache.put(relativePathKey, imageResourceURL);
+					}
+
+					cssText = cssText.substring(0, urlStartPos) + imageResourceURL +
+						cssText.substring(extensionFinishPos);
+				}
+				else {
+					doneProcessingURLs = true;
+				}
+			}
+		}
+
+		for (RichFacesImageResource richFacesImageResource : RichFacesImageResource.values()) {
+			cssText = cssText.replace(richFacesImageResource.getSubstitutionToken(),
+					richFacesImageResource.getLibraryName());
+		}
+
+		return cssText;
+	}
+
+	/**
+	 * This is the implementation of fixRichFacesPackedDotJs that preceded the single-pass rewriting.
+	 */
+	private String legacyFixRichFacesPackedDotJs(String javaScriptText) {
+
+		int pos = javaScriptText.indexOf(PACKED_JS_TOKEN1);
+
+		if (pos > 0) {
+			javaScriptText = javaScriptText.substring(0, pos) +
+				"this.form.attr(\"action\", this.form.children(\"input[name='javax.faces.encodedURL']\").val() + delimiter + UID + \"=\" + this.loadableItem.uid);" +
+				javaScriptText.substring(pos + PACKED_JS_TOKEN1.length() + 1);
+		}
+
+		pos = javaScriptText.indexOf(PACKED_JS_TOKEN2);
+
+		if (pos > 0) {
+			javaScriptText = javaScriptText.substring(0, pos) + "if (!jQuery.atmosphere) { return; }; " +
+				javaScriptText.substring(pos);
+		}
+
+		pos = javaScriptText.indexOf(PACKED_JS_TOKEN3);
+
+		if (pos > 0) {
+			javaScriptText = javaScriptText.substring(0, pos) + "if (!jQuery.atmosphere) { return; }; " +
+				javaScriptText.substring(pos);
+		}
+
+		return javaScriptText;
+	}
+
+	private static class ResourceHandlerStubImpl extends ResourceHandlerWrapper {
+
+		@Override
+		public Resource createResource(String resourceName, String libraryName) {
+			return new ResourceStubImpl(resourceName,
+					"/portal/javax.faces.resource/" + resourceName + "?ln=" + libraryName + "&v=4_3_4");
+		}
+
+		@Override
+		public ResourceHandler getWrapped() {
+			return null;
+		}
+	}
+
+	private static class ResourceStubImpl extends Resource {
+
+		// Private Data Members
+		private String requestPath;
+
+		public ResourceStubImpl(String resourceName, String requestPath) {
+			setResourceName(resourceName);
+			this.requestPath = requestPath;
+		}
+
+		@Override
+		public boolean userAgentNeedsUpdate(FacesContext facesContext) {
+			return true;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return null;
+		}
+
+		@Override
+		public String getRequestPath() {
+			return requestPath;
+		}
+
+		@Override
+		public Map<String, String> getResponseHeaders() {
+			return null;
+		}
+
+		@Override
+		public URL getURL() {
+			return null;
+		}
+	}
+}
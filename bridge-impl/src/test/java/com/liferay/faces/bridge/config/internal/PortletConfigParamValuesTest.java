@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.config.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.portlet.PortletConfig;
+import javax.portlet.PortletContext;
+import javax.portlet.faces.BridgeException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.config.PortletConfigMockImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class PortletConfigParamValuesTest {
+
+	@Test
+	public void testInvalidValues() {
+
+		Map<String, String> initParameters = new HashMap<String, String>();
+		initParameters.put(PortletConfigParam.ResourceBufferSize.getName(), "large");
+		initParameters.put(PortletConfigParam.ManageIncongruities.getName(), "maybe");
+
+		try {
+			new BridgePortletConfigImpl(new PortletConfigImpl(initParameters));
+			Assert.fail("Malformed init-param values were not rejected");
+		}
+		catch (BridgeException e) {
+			Assert.assertTrue(e.getMessage().contains(PortletConfigParam.ResourceBufferSize.getName()));
+			Assert.assertTrue(e.getMessage().contains(PortletConfigParam.ManageIncongruities.getName()));
+		}
+	}
+
+	@Test
+	public void testValues() {
+
+		Map<String, String> initParameters = new HashMap<String, String>();
+		initParameters.put(PortletConfigParam.ManageIncongruities.getName(), "false");
+		initParameters.put(PortletConfigParam.ResourceBufferSize.getAlternateName(), " 2048 ");
+		initParameters.put(PortletConfigParam.UploadedFileMaxSize.getName(), "5000000000");
+		initParameters.put(PortletConfigParam.ViewIdRenderParameterName.getName(), "_viewId");
+
+		PortletConfig portletConfig = new BridgePortletConfigImpl(new PortletConfigImpl(initParameters));
+
+		Assert.assertFalse(PortletConfigParam.ManageIncongruities.getBooleanValue(portletConfig));
+		Assert.assertTrue(PortletConfigParam.ManageIncongruities.isConfigured(portletConfig));
+		Assert.assertEquals(2048, PortletConfigParam.ResourceBufferSize.getIntegerValue(portletConfig));
+		Assert.assertEquals(5000000000L, PortletConfigParam.UploadedFileMaxSize.getLongValue(portletConfig));
+		Assert.assertEquals("_viewId", PortletConfigParam.ViewIdRenderParameterName.getStringValue(portletConfig));
+
+		// Config params that are not configured must return their default values.
+		Assert.assertFalse(PortletConfigParam.RenderRedirectEnabled.isConfigured(portletConfig));
+		Assert.assertNull(PortletConfigParam.RenderRedirectEnabled.getConfiguredValue(portletConfig));
+		Assert.assertEquals(PortletConfigParam.RenderRedirectEnabled.getDefaultBooleanValue(),
+			PortletConfigParam.RenderRedirectEnabled.getBooleanValue(portletConfig));
+		Assert.assertEquals(PortletConfigParam.UploadedFileSizeThreshold.getDefaultIntegerValue(),
+			PortletConfigParam.UploadedFileSizeThreshold.getIntegerValue(portletConfig));
+
+		// The snapshot must be found even if the bridge's PortletConfig is wrapped again.
+		PortletConfig wrappedPortletConfig = new PortletConfigWrapperImpl(portletConfig);
+		Assert.assertSame(PortletConfigParamValues.getInstance(portletConfig),
+			PortletConfigParamValues.getInstance(wrappedPortletConfig));
+		Assert.assertEquals(2048, PortletConfigParam.ResourceBufferSize.getIntegerValue(wrappedPortletConfig));
+	}
+
+	private static class PortletConfigImpl extends PortletConfigMockImpl {
+
+		// Private Data Members
+		private Map<String, String> initParameters;
+
+		public PortletConfigImpl(Map<String, String> initParameters) {
+			this.initParameters = initParameters;
+		}
+
+		@Override
+		public String getInitParameter(String name) {
+			return initParameters.get(name);
+		}
+
+		@Override
+		public PortletContext getPortletContext() {
+
+			// The context-params are empty, so every method of the PortletContext returns null.
+			return (PortletContext) Proxy.newProxyInstance(PortletContext.class.getClassLoader(),
+					new Class[] { PortletContext.class }, new InvocationHandler() {
+
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							return null;
+						}
+					});
+		}
+
+		@Override
+		public String getPortletName() {
+			return "portlet1";
+		}
+	}
+
+	private static class PortletConfigWrapperImpl extends PortletConfigWrapper {
+
+		// Private Data Members
+		private PortletConfig wrappedPortletConfig;
+
+		public PortletConfigWrapperImpl(PortletConfig portletConfig) {
+			this.wrappedPortletConfig = portletConfig;
+		}
+
+		@Override
+		public PortletConfig getWrapped() {
+			return wrappedPortletConfig;
+		}
+	}
+}
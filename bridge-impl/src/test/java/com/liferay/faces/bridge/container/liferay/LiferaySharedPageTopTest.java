@@ -111,6 +111,56 @@ public class LiferaySharedPageTopTest {
 		totalFailed++;
 	}
 
+	@Test
+	public void testIncrementalUpdate() {
+
+		LiferaySharedPageTop liferaySharedPageTop = new LiferaySharedPageTop();
+
+		// The first portlet does not contribute any duplicates, so the value of the attribute must not be replaced.
+		StringBundler pageTop = new StringBundler();
+		pageTop.append(RESOURCES_PORTLET1);
+		Assert.assertSame(pageTop, liferaySharedPageTop.update(pageTop));
+		Assert.assertEquals(10, liferaySharedPageTop.getHeadResources().size());
+
+		// Updating again without any new contributions must not change anything either.
+		Assert.assertSame(pageTop, liferaySharedPageTop.update(pageTop));
+		Assert.assertEquals(10, liferaySharedPageTop.getHeadResources().size());
+
+		// All of the resources contributed by the second portlet are duplicates, so the value of the attribute must be
+		// rendered from the index.
+		pageTop.append(RESOURCES_PORTLET2);
+
+		StringBundler updatedPageTop = liferaySharedPageTop.update(pageTop);
+		Assert.assertNotSame(pageTop, updatedPageTop);
+		Assert.assertEquals(RESOURCES_PORTLET1, updatedPageTop.toString());
+		Assert.assertEquals(10, liferaySharedPageTop.getHeadResources().size());
+
+		// A third portlet that contributes a new resource must only cause the new resource to be indexed.
+		String newResource = "<script src=\"http://localhost:8080/new.js\" type=\"text/javascript\"></script>";
+		updatedPageTop.append(newResource);
+		Assert.assertSame(updatedPageTop, liferaySharedPageTop.update(updatedPageTop));
+		Assert.assertEquals(11, liferaySharedPageTop.getHeadResources().size());
+		Assert.assertEquals(RESOURCES_PORTLET1 + newResource, updatedPageTop.toString());
+	}
+
+	@Test
+	public void testIncrementalUpdateReplacedStringBundler() {
+
+		LiferaySharedPageTop liferaySharedPageTop = new LiferaySharedPageTop();
+		StringBundler pageTop = new StringBundler();
+		pageTop.append(RESOURCES_PORTLET2);
+		liferaySharedPageTop.update(pageTop);
+
+		// If the value of the attribute was replaced by someone else, then the index must be rebuilt from scratch.
+		StringBundler replacedPageTop = new StringBundler();
+		replacedPageTop.append(RESOURCES_PORTLET1);
+		replacedPageTop.append(RESOURCES_PORTLET2);
+
+		StringBundler updatedPageTop = liferaySharedPageTop.update(replacedPageTop);
+		Assert.assertEquals(RESOURCES_PORTLET1, updatedPageTop.toString());
+		Assert.assertEquals(10, liferaySharedPageTop.getHeadResources().size());
+	}
+
 	@Test
 	public void testMultiThreaded() {
 
@@ -167,7 +217,6 @@ public class LiferaySharedPageTopTest {
 
 			try {
 				LiferaySharedPageTop liferaySharedPageTop = new LiferaySharedPageTop(RESOURCES_BOTH_PORTLETS);
-				liferaySharedPageTop.removeDuplicates();
 
 				String resourcesResult = liferaySharedPageTop.toStringBundler().toString();
 
@@ -0,0 +1,711 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.container.liferay;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.ExternalContextWrapper;
+import javax.faces.context.FacesContext;
+import javax.faces.context.FacesContextWrapper;
+import javax.portlet.PortletMode;
+import javax.portlet.PortletRequest;
+import javax.portlet.WindowState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.container.liferay.internal.LiferayConstants;
+import com.liferay.faces.bridge.container.liferay.internal.LiferayURLGenerator;
+import com.liferay.faces.bridge.container.liferay.internal.LiferayURLGeneratorActionImpl;
+import com.liferay.faces.bridge.container.liferay.internal.LiferayURLGeneratorBaseImpl;
+import com.liferay.faces.bridge.container.liferay.internal.LiferayURLGeneratorRenderImpl;
+import com.liferay.faces.bridge.container.liferay.internal.LiferayURLGeneratorResourceImpl;
+import com.liferay.faces.bridge.internal.BridgeConstants;
+import com.liferay.faces.bridge.util.internal.URLParameter;
+import com.liferay.faces.portlet.PortletRequestMockImpl;
+import com.liferay.faces.util.lang.StringPool;
+import com.liferay.faces.util.product.ProductConstants;
+import com.liferay.faces.util.product.ProductMap;
+
+import com.liferay.portal.util.Portal;
+
+import junit.framework.Assert;
+
+
+/**
+ * The purpose of this test is to verify that the URLs generated by the {@link LiferayURLGenerator} implementations
+ * (which compile the invariant parts of the URL into a template the first time a URL is generated) are identical to the
+ * URLs generated by the previous algorithm, which built the entire URL on every call. The previous algorithm is
+ * preserved verbatim in the {@link LegacyURLGenerator} class, except that the add-default-resource lookup has been
+ * replaced with a flag.
+ *
+ * @author  Neil Griffin
+ */
+public class LiferayURLGeneratorTest {
+
+	// Private Constants
+	private static final String ACTION_URL =
+		"http://localhost:8080/web/guest/home?p_auth=AbCd1234&p_p_auth=XyZ98765&p_p_id=1_WAR_testportlet" +
+		"&p_p_lifecycle=1&p_p_state=normal&p_p_mode=view&p_p_col_id=column-1&p_p_col_count=1" +
+		"&_1_WAR_testportlet_javax.portlet.action=submit";
+	private static final String FRIENDLY_URL = "http://localhost:8080/web/guest/home" +
+		Portal.FRIENDLY_URL_SEPARATOR + "test/view?p_p_id=1_WAR_testportlet&p_p_lifecycle=0";
+	private static final int LIFERAY_BUILD_NUMBER = ProductMap.getInstance().get(ProductConstants.LIFERAY_PORTAL)
+		.getBuildId();
+	private static final String RENDER_URL =
+		"http://localhost:8080/web/guest/home?p_l_id=10180&p_p_auth=XyZ98765&p_p_id=1_WAR_testportlet" +
+		"&p_p_lifecycle=0&p_p_state=normal&p_p_state_rcv=1&p_p_mode=view&p_p_col_id=column-1&p_p_col_count=1" +
+		"&p_o_p_id=86&doAsUserId=abc123&doAsUserLanguageId=en_US&doAsGroupId=10197&refererGroupId=10197" +
+		"&refererPlid=10180&controlPanelCategory=portlet#p_1_WAR_testportlet";
+	private static final String RESOURCE_URL =
+		"http://localhost:8080/web/guest/home?p_l_id=10180&p_p_auth=XyZ98765&p_p_id=1_WAR_testportlet" +
+		"&p_p_lifecycle=2&p_p_state=normal&p_p_mode=view&p_p_cacheability=cacheLevelPage&p_p_col_id=column-1" +
+		"&p_p_col_count=1&p_p_resource_id=javax.faces.resource";
+	private static final String RESPONSE_NAMESPACE = "_1_WAR_testportlet_";
+	private static final String WSRP_RENDER_URL = "wsrp_rewrite?p_p_id=1_WAR_testportlet&p_p_lifecycle=0" +
+		"&wsrp-urlType=render&wsrp-navigationalState=abc&wsrp-secureURL=false";
+	private static final String WSRP_RESPONSE_NAMESPACE = "wsrp_rewrite_";
+
+	// Private Data Members
+	private Map<String, Object> applicationMap;
+
+	@After
+	public void cleanUp() {
+		new FacesContextMockImpl(null);
+	}
+
+	@Before
+	public void setUp() {
+
+		applicationMap = new HashMap<String, Object>();
+
+		for (String responseNamespace : new String[] { RESPONSE_NAMESPACE, WSRP_RESPONSE_NAMESPACE }) {
+			applicationMap.put(responseNamespace + LiferayConstants.P_P_STATE, WindowState.NORMAL.toString());
+			applicationMap.put(responseNamespace + LiferayConstants.P_P_MODE, PortletMode.VIEW.toString());
+			applicationMap.put(responseNamespace + LiferayConstants.P_P_COL_ID, "column-2");
+			applicationMap.put(responseNamespace + LiferayConstants.P_P_COL_COUNT, "3");
+			applicationMap.put(responseNamespace + LiferayConstants.P_P_COL_POS, "1");
+		}
+
+		new FacesContextMockImpl(new ExternalContextMockImpl(applicationMap));
+	}
+
+	@Test
+	public void testActionURL() {
+
+		for (boolean addDefaultResource : new boolean[] { true, false }) {
+
+			LiferayURLGeneratorBaseImpl liferayURLGenerator = new ActionURLGenerator(ACTION_URL, PortletMode.VIEW,
+					RESPONSE_NAMESPACE, WindowState.NORMAL, addDefaultResource);
+			LegacyURLGenerator legacyURLGenerator = new LegacyURLGenerator(ACTION_URL, PortletMode.VIEW,
+					RESPONSE_NAMESPACE, WindowState.NORMAL, LiferayConstants.LIFECYCLE_ACTION_PHASE_ID,
+					addDefaultResource);
+			assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+		}
+	}
+
+	@Test
+	public void testColumnPosition() {
+
+		// Liferay only adds the p_p_col_pos parameter when it is a positive number.
+		for (String colPos : new String[] { "0", "", "abc" }) {
+
+			applicationMap.put(RESPONSE_NAMESPACE + LiferayConstants.P_P_COL_POS, colPos);
+
+			LiferayURLGeneratorBaseImpl liferayURLGenerator = new RenderURLGenerator(RENDER_URL, null,
+					RESPONSE_NAMESPACE, null, true);
+			LegacyURLGenerator legacyURLGenerator = new LegacyURLGenerator(RENDER_URL, null, RESPONSE_NAMESPACE,
+					null, LiferayConstants.LIFECYCLE_RENDER_PHASE_ID, true);
+			assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+		}
+	}
+
+	@Test
+	public void testFriendlyURL() {
+
+		LiferayURLGeneratorBaseImpl liferayURLGenerator = new RenderURLGenerator(FRIENDLY_URL, PortletMode.VIEW,
+				RESPONSE_NAMESPACE, WindowState.NORMAL, true);
+		LegacyURLGenerator legacyURLGenerator = new LegacyURLGenerator(FRIENDLY_URL, PortletMode.VIEW,
+				RESPONSE_NAMESPACE, WindowState.NORMAL, LiferayConstants.LIFECYCLE_RENDER_PHASE_ID, true);
+		assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+		Assert.assertEquals(FRIENDLY_URL, liferayURLGenerator.generateURL(newParameterMap()));
+	}
+
+	@Test
+	public void testRenderURL() {
+
+		for (boolean addDefaultResource : new boolean[] { true, false }) {
+
+			// Initial portlet mode and window state specified by the portlet URL.
+			LiferayURLGeneratorBaseImpl liferayURLGenerator = new RenderURLGenerator(RENDER_URL, PortletMode.EDIT,
+					RESPONSE_NAMESPACE, WindowState.MAXIMIZED, addDefaultResource);
+			LegacyURLGenerator legacyURLGenerator = new LegacyURLGenerator(RENDER_URL, PortletMode.EDIT,
+					RESPONSE_NAMESPACE, WindowState.MAXIMIZED, LiferayConstants.LIFECYCLE_RENDER_PHASE_ID,
+					addDefaultResource);
+			assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+
+			// Versions of Liferay Portal that suffer from LPS-36481 must only add the p_p_auth parameter when the
+			// portlet has add-default-resource=true.
+			boolean portletAuthToken = liferayURLGenerator.generateURL(newParameterMap()).contains(
+					LiferayConstants.P_P_AUTH + StringPool.EQUAL);
+
+			if ((LIFERAY_BUILD_NUMBER < 6102) ||
+					((LIFERAY_BUILD_NUMBER > 6102) && (LIFERAY_BUILD_NUMBER < 6130))) {
+				Assert.assertEquals(addDefaultResource, portletAuthToken);
+			}
+			else {
+				Assert.assertTrue(portletAuthToken);
+			}
+
+			// Initial portlet mode and window state obtained from the application map.
+			liferayURLGenerator = new RenderURLGenerator(RENDER_URL, null, RESPONSE_NAMESPACE, null,
+					addDefaultResource);
+			legacyURLGenerator = new LegacyURLGenerator(RENDER_URL, null, RESPONSE_NAMESPACE, null,
+					LiferayConstants.LIFECYCLE_RENDER_PHASE_ID, addDefaultResource);
+			assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+		}
+	}
+
+	@Test
+	public void testResourceURL() {
+
+		for (boolean addDefaultResource : new boolean[] { true, false }) {
+
+			LiferayURLGeneratorBaseImpl liferayURLGenerator = new ResourceURLGenerator(RESOURCE_URL, RESPONSE_NAMESPACE,
+					addDefaultResource);
+			LegacyURLGenerator legacyURLGenerator = new LegacyURLGenerator(RESOURCE_URL, null, RESPONSE_NAMESPACE,
+					null, LiferayConstants.LIFECYCLE_RESOURCE_PHASE_ID, addDefaultResource);
+			assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+		}
+	}
+
+	@Test
+	public void testWSRPURL() {
+
+		LiferayURLGeneratorBaseImpl liferayURLGenerator = new RenderURLGenerator(WSRP_RENDER_URL, null,
+				WSRP_RESPONSE_NAMESPACE, null, true);
+		LegacyURLGenerator legacyURLGenerator = new LegacyURLGenerator(WSRP_RENDER_URL, null,
+				WSRP_RESPONSE_NAMESPACE, null, LiferayConstants.LIFECYCLE_RENDER_PHASE_ID, true);
+		assertSameURLs(legacyURLGenerator, liferayURLGenerator);
+	}
+
+	/**
+	 * Asserts that both generators produce the same URLs for a variety of arguments. Since the same generator instance
+	 * is used for every call, this also verifies that the compiled template does not retain arguments from a previous
+	 * call.
+	 */
+	protected void assertSameURLs(LegacyURLGenerator legacyURLGenerator,
+		LiferayURLGeneratorBaseImpl liferayURLGenerator) {
+
+
+		Map<String, String[]> emptyParameterMap = new HashMap<String, String[]>();
+		Map<String, String[]> parameterMap = newParameterMap();
+		PortletMode[] portletModes = new PortletMode[] { null, PortletMode.VIEW, PortletMode.EDIT };
+		String[] resourceIds = new String[] { null, "javax.faces.resource" };
+		WindowState[] windowStates = new WindowState[] { null, WindowState.NORMAL, WindowState.MAXIMIZED };
+
+		Assert.assertEquals(legacyURLGenerator.generateURL(emptyParameterMap, null, null, null),
+			liferayURLGenerator.generateURL(emptyParameterMap));
+		Assert.assertEquals(legacyURLGenerator.generateURL(parameterMap, null, null, null),
+			liferayURLGenerator.generateURL(parameterMap));
+
+		for (String resourceId : resourceIds) {
+			Assert.assertEquals(legacyURLGenerator.generateURL(parameterMap, null, resourceId, null),
+				liferayURLGenerator.generateURL(parameterMap, resourceId));
+		}
+
+		for (PortletMode portletMode : portletModes) {
+
+			for (WindowState windowState : windowStates) {
+
+				Assert.assertEquals(legacyURLGenerator.generateURL(parameterMap, portletMode, null, windowState),
+					liferayURLGenerator.generateURL(parameterMap, portletMode, windowState));
+
+				for (String resourceId : resourceIds) {
+					Assert.assertEquals(legacyURLGenerator.generateURL(parameterMap, portletMode, resourceId,
+							windowState),
+						liferayURLGenerator.generateURL(parameterMap, portletMode, resourceId, windowState));
+				}
+			}
+		}
+	}
+
+	protected Map<String, String[]> newParameterMap() {
+
+		Map<String, String[]> parameterMap = new LinkedHashMap<String, String[]>();
+		parameterMap.put("javax.faces.ViewState", new String[] { "-123:456" });
+		parameterMap.put("multi", new String[] { "one", "two & three", null });
+		parameterMap.put("empty", new String[] { StringPool.BLANK });
+		parameterMap.put("missing", null);
+
+		return parameterMap;
+	}
+
+	protected static class ActionURLGenerator extends LiferayURLGeneratorActionImpl {
+
+		// Private Data Members
+		private boolean addDefaultResource;
+
+		public ActionURLGenerator(String actionURL, PortletMode portletMode, String responseNamespace,
+			WindowState windowState, boolean addDefaultResource) {
+			super(actionURL, portletMode, responseNamespace, windowState);
+			this.addDefaultResource = addDefaultResource;
+		}
+
+		@Override
+		protected boolean isAddDefaultResource(PortletRequest portletRequest) {
+			return addDefaultResource;
+		}
+	}
+
+	protected static class ExternalContextMockImpl extends ExternalContextWrapper {
+
+		// Private Data Members
+		private Map<String, Object> applicationMap;
+		private PortletRequest portletRequest;
+
+		public ExternalContextMockImpl(Map<String, Object> applicationMap) {
+			this.applicationMap = applicationMap;
+			this.portletRequest = new PortletRequestMockImpl("/test-portlet");
+		}
+
+		@Override
+		public Map<String, Object> getApplicationMap() {
+			return applicationMap;
+		}
+
+		@Override
+		public Object getRequest() {
+			return portletRequest;
+		}
+
+		@Override
+		public ExternalContext getWrapped() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	protected static class FacesContextMockImpl extends FacesContextWrapper {
+
+		// Private Data Members
+		private ExternalContext externalContext;
+
+		public FacesContextMockImpl(ExternalContext externalContext) {
+			this.externalContext = externalContext;
+
+			if (externalContext == null) {
+				setCurrentInstance(null);
+			}
+			else {
+				setCurrentInstance(this);
+			}
+		}
+
+		@Override
+		public ExternalContext getExternalContext() {
+			return externalContext;
+		}
+
+		@Override
+		public FacesContext getWrapped() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * This class contains the URL generation algorithm that was used prior to the introduction of URL templates.
+	 */
+	protected static class LegacyURLGenerator {
+
+		// Private Data Members
+		private boolean addDefaultResource;
+		private String baseURL;
+		private PortletMode initialPortletMode;
+		private WindowState initialWindowState;
+		private Map<String, String> parameterMap;
+		private String portletLifecycleId;
+		private String portletURLAnchor;
+		private String prefix;
+		private String responseNamespace;
+		private List<URLParameter> wsrpParameters;
+
+		public LegacyURLGenerator(String baseURL, PortletMode portletMode, String responseNamespace,
+			WindowState windowState, String portletLifecycleId, boolean addDefaultResource) {
+
+			this.baseURL = baseURL;
+			this.initialPortletMode = portletMode;
+			this.responseNamespace = responseNamespace;
+			this.initialWindowState = windowState;
+			this.portletLifecycleId = portletLifecycleId;
+			this.addDefaultResource = addDefaultResource;
+			parse();
+		}
+
+		public String generateURL(Map<String, String[]> additionalParameterMap, PortletMode portletMode,
+			String resourceId, WindowState windowState) {
+
+			String toStringValue = null;
+
+			if (baseURL.contains(Portal.FRIENDLY_URL_SEPARATOR)) {
+				toStringValue = baseURL;
+			}
+			else {
+
+				StringBuilder url = new StringBuilder();
+				url.append(prefix);
+
+				// Possibly add the p_auth parameter.
+				boolean firstParameter = true;
+				String portalAuthToken = parameterMap.get(LiferayConstants.P_AUTH);
+
+				if (portalAuthToken != null) {
+
+					appendParameterToURL(firstParameter, LiferayConstants.P_AUTH, portalAuthToken, url);
+					firstParameter = false;
+				}
+
+				// Possibly add the p_l_id parameter.
+				String plid = parameterMap.get(LiferayConstants.P_L_ID);
+
+				if (plid != null) {
+
+					appendParameterToURL(firstParameter, LiferayConstants.P_L_ID, plid, url);
+					firstParameter = false;
+				}
+
+				// Possibly add the p_p_auth parameter.
+				String portletAuthToken = parameterMap.get(LiferayConstants.P_P_AUTH);
+
+				if (portletAuthToken != null) {
+
+					boolean addPortletAuthToken = true;
+
+					if ((LIFERAY_BUILD_NUMBER < 6102) ||
+							((LIFERAY_BUILD_NUMBER > 6102) && (LIFERAY_BUILD_NUMBER < 6130))) {
+						addPortletAuthToken = addDefaultResource;
+					}
+
+					if (addPortletAuthToken) {
+						appendParameterToURL(firstParameter, LiferayConstants.P_P_AUTH, portletAuthToken, url);
+						firstParameter = false;
+					}
+				}
+
+				// Always add the p_p_id parameter
+				String parameterValue = responseNamespace;
+
+				if (parameterValue.startsWith(StringPool.UNDERLINE)) {
+					parameterValue = parameterValue.substring(1);
+				}
+
+				if (parameterValue.endsWith(StringPool.UNDERLINE)) {
+					parameterValue = parameterValue.substring(0, parameterValue.length() - 1);
+				}
+
+				appendParameterToURL(firstParameter, LiferayConstants.P_P_ID, parameterValue, url);
+
+				firstParameter = false;
+
+				// Always add the p_p_lifecycle parameter.
+				appendParameterToURL(LiferayConstants.P_P_LIFECYCLE, portletLifecycleId, url);
+
+				// Add the p_p_state parameter.
+				FacesContext facesContext = FacesContext.getCurrentInstance();
+				Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+
+				WindowState urlWindowState = initialWindowState;
+
+				if (windowState != null) {
+					urlWindowState = windowState;
+				}
+
+				if (urlWindowState == null) {
+					parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_STATE);
+				}
+				else {
+					parameterValue = urlWindowState.toString();
+				}
+
+				appendParameterToURL(LiferayConstants.P_P_STATE, parameterValue, url);
+
+				// Possibly add the p_p_state_rcv parameter.
+				String stateRestoreCurrentView = parameterMap.get(LiferayConstants.P_P_STATE_RCV);
+
+				if (stateRestoreCurrentView != null) {
+					appendParameterToURL(LiferayConstants.P_P_STATE_RCV, stateRestoreCurrentView, url);
+				}
+
+				// Add the p_p_mode parameter.
+				PortletMode urlPortletMode = initialPortletMode;
+
+				if (portletMode != null) {
+					urlPortletMode = portletMode;
+				}
+
+				if (urlPortletMode == null) {
+					parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_MODE);
+				}
+				else {
+					parameterValue = urlPortletMode.toString();
+				}
+
+				appendParameterToURL(LiferayConstants.P_P_MODE, parameterValue, url);
+
+				// Possibly add the p_p_cacheability parameter
+				if (LiferayConstants.LIFECYCLE_RESOURCE_PHASE_ID.equals(portletLifecycleId)) {
+					String cacheability = parameterMap.get(LiferayConstants.P_P_CACHEABILITY);
+
+					if (cacheability != null) {
+						appendParameterToURL(LiferayConstants.P_P_CACHEABILITY, cacheability, url);
+					}
+				}
+
+				// Always add the p_p_col_id parameter
+				parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_ID);
+				appendParameterToURL(LiferayConstants.P_P_COL_ID, parameterValue, url);
+
+				// Possibly add the p_p_col_count parameter.
+				parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_COUNT);
+				appendParameterToURL(LiferayConstants.P_P_COL_COUNT, parameterValue, url);
+
+				// Add the p_p_col_pos parameter if it is greater than zero.
+				parameterValue = (String) applicationMap.get(responseNamespace + LiferayConstants.P_P_COL_POS);
+
+				if ((parameterValue != null) && (parameterValue.length() > 0)) {
+
+					try {
+						int colPos = Integer.parseInt(parameterValue);
+
+						if (colPos > 0) {
+							appendParameterToURL(LiferayConstants.P_P_COL_POS, parameterValue, url);
+						}
+					}
+					catch (NumberFormatException e) {
+						// ignore
+					}
+				}
+
+				// Possibly add the optional parameters.
+				String[] optionalParameterNames = new String[] {
+						LiferayConstants.P_O_P_ID, LiferayConstants.DO_AS_USER_ID,
+						LiferayConstants.DO_AS_USER_LANGUAGE_ID, LiferayConstants.DO_AS_GROUP_ID,
+						LiferayConstants.REFERER_GROUP_ID, LiferayConstants.REFERER_PLID,
+						LiferayConstants.CONTROL_PANEL_CATEGORY
+					};
+
+				for (String optionalParameterName : optionalParameterNames) {
+
+					String optionalParameterValue = parameterMap.get(optionalParameterName);
+
+					if (optionalParameterValue != null) {
+						appendParameterToURL(optionalParameterName, optionalParameterValue, url);
+					}
+				}
+
+				// Add request parameters from the request parameter map.
+				boolean namespaced = !responseNamespace.startsWith(BridgeConstants.WSRP);
+
+				Set<Map.Entry<String, String[]>> mapEntries = additionalParameterMap.entrySet();
+
+				if (mapEntries != null) {
+
+					for (Map.Entry<String, String[]> mapEntry : mapEntries) {
+						String[] parameterValues = mapEntry.getValue();
+
+						if (parameterValues != null) {
+
+							String parameterName = mapEntry.getKey();
+
+							for (String curParameterValue : parameterValues) {
+
+								if (curParameterValue != null) {
+
+									String encodedParameterValue = encode(curParameterValue);
+									appendParameterToURL(firstParameter, namespaced, parameterName,
+										encodedParameterValue, url);
+								}
+							}
+						}
+					}
+				}
+
+				// Add WSRP URL parameters
+				for (URLParameter wsrpParameter : wsrpParameters) {
+
+					appendParameterToURL(wsrpParameter.getName(), wsrpParameter.getValue(), url);
+				}
+
+				// Possibly add the p_p_resource_id parameter.
+				String urlResourceId = parameterMap.get(LiferayConstants.P_O_P_ID);
+
+				if (resourceId != null) {
+					urlResourceId = resourceId;
+				}
+
+				if (urlResourceId == null) {
+
+					if (prefix.startsWith(BridgeConstants.WSRP)) {
+						appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, BridgeConstants.WSRP, url);
+					}
+				}
+				else {
+					appendParameterToURL(LiferayConstants.P_P_RESOURCE_ID, urlResourceId, url);
+				}
+
+				// Possibly add a Portlet URL Anchor
+				if (portletURLAnchor != null) {
+					url.append(portletURLAnchor);
+				}
+
+				toStringValue = url.toString();
+			}
+
+			return toStringValue;
+		}
+
+		protected void appendParameterToURL(String parameterName, String parameterValue, StringBuilder url) {
+			appendParameterToURL(false, false, parameterName, parameterValue, url);
+		}
+
+		protected void appendParameterToURL(boolean firstParameter, String parameterName, String parameterValue,
+			StringBuilder url) {
+			appendParameterToURL(firstParameter, false, parameterName, parameterValue, url);
+		}
+
+		protected void appendParameterToURL(boolean firstParameter, boolean namespaced, String parameterName,
+			String parameterValue, StringBuilder url) {
+
+			if (!firstParameter) {
+				url.append(StringPool.AMPERSAND);
+			}
+
+			if (namespaced) {
+				url.append(responseNamespace);
+			}
+
+			url.append(parameterName);
+			url.append(StringPool.EQUAL);
+			url.append(parameterValue);
+		}
+
+		protected String encode(String value) {
+
+			String encodedValue = StringPool.BLANK;
+
+			if (value != null) {
+
+				if (value.length() == 0) {
+					encodedValue = StringPool.SPACE;
+				}
+				else {
+
+					try {
+						encodedValue = URLEncoder.encode(value, StringPool.UTF8);
+					}
+					catch (UnsupportedEncodingException e) {
+						encodedValue = StringPool.SPACE;
+					}
+				}
+			}
+
+			return encodedValue;
+		}
+
+		protected void parse() {
+
+			parameterMap = new HashMap<String, String>();
+			wsrpParameters = new ArrayList<URLParameter>();
+
+			String queryString = baseURL;
+			int queryPos = baseURL.indexOf(StringPool.QUESTION);
+
+			if (queryPos > 0) {
+				prefix = baseURL.substring(0, queryPos + 1);
+				queryString = baseURL.substring(queryPos + 1);
+			}
+
+			String[] nameValuePairs = queryString.split(BridgeConstants.REGEX_AMPERSAND_DELIMITER);
+
+			if (nameValuePairs != null) {
+
+				for (String nameValuePair : nameValuePairs) {
+
+					int equalsPos = nameValuePair.indexOf(StringPool.EQUAL);
+
+					if (equalsPos > 0) {
+
+						String name = nameValuePair.substring(0, equalsPos);
+						String value = nameValuePair.substring(equalsPos + 1);
+
+						if (nameValuePair.startsWith(BridgeConstants.WSRP)) {
+							URLParameter urlParameter = new URLParameter(name, value);
+							wsrpParameters.add(urlParameter);
+						}
+						else {
+							parameterMap.put(name, value);
+						}
+					}
+				}
+			}
+
+			int pos = baseURL.indexOf(StringPool.POUND);
+
+			if (pos > 0) {
+				portletURLAnchor = baseURL.substring(pos);
+			}
+		}
+	}
+
+	protected static class RenderURLGenerator extends LiferayURLGeneratorRenderImpl {
+
+		// Private Data Members
+		private boolean addDefaultResource;
+
+		public RenderURLGenerator(String renderURL, PortletMode portletMode, String responseNamespace,
+			WindowState windowState, boolean addDefaultResource) {
+			super(renderURL, portletMode, responseNamespace, windowState);
+			this.addDefaultResource = addDefaultResource;
+		}
+
+		@Override
+		protected boolean isAddDefaultResource(PortletRequest portletRequest) {
+			return addDefaultResource;
+		}
+	}
+
+	protected static class ResourceURLGenerator extends LiferayURLGeneratorResourceImpl {
+
+		// Private Data Members
+		private boolean addDefaultResource;
+
+		public ResourceURLGenerator(String resourceURL, String responseNamespace, boolean addDefaultResource) {
+			super(resourceURL, responseNamespace);
+			this.addDefaultResource = addDefaultResource;
+		}
+
+		@Override
+		protected boolean isAddDefaultResource(PortletRequest portletRequest) {
+			return addDefaultResource;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class RenderRedirectWriterImplTest {
+
+	@Test
+	public void testDiscard() throws IOException {
+
+		StringWriter stringWriter = new StringWriter();
+		RenderRedirectWriterImpl renderRedirectWriter = new RenderRedirectWriterImpl(stringWriter);
+		renderRedirectWriter.write(createMarkup(RenderRedirectWriterImpl.CHUNK_SIZE * 3));
+		renderRedirectWriter.discard();
+		Assert.assertEquals(0, renderRedirectWriter.getBufferedLength());
+		Assert.assertTrue(RenderRedirectWriterImpl.getPooledChunkCount() >= 3);
+
+		renderRedirectWriter.write("<p>redirected</p>");
+		renderRedirectWriter.render();
+		Assert.assertEquals("<p>redirected</p>", stringWriter.toString());
+	}
+
+	@Test
+	public void testRender() throws IOException {
+
+		StringWriter stringWriter = new StringWriter();
+		RenderRedirectWriterImpl renderRedirectWriter = new RenderRedirectWriterImpl(stringWriter);
+		StringBuilder expected = new StringBuilder();
+
+		// Write a mix of operations that cross chunk boundaries.
+		String markup = createMarkup(RenderRedirectWriterImpl.CHUNK_SIZE + 17);
+		char[] cbuf = markup.toCharArray();
+
+		for (int i = 0; i < 5; i++) {
+
+			renderRedirectWriter.write(markup);
+			expected.append(markup);
+			renderRedirectWriter.write(cbuf, 3, 1000);
+			expected.append(cbuf, 3, 1000);
+
+			// The buffered markup must not be affected by subsequent changes to the caller's array.
+			cbuf[3] = '!';
+			renderRedirectWriter.write('x');
+			expected.append('x');
+			renderRedirectWriter.write(markup, 7, RenderRedirectWriterImpl.CHUNK_SIZE);
+			expected.append(markup, 7, 7 + RenderRedirectWriterImpl.CHUNK_SIZE);
+			renderRedirectWriter.flush();
+		}
+
+		Assert.assertEquals(expected.length(), renderRedirectWriter.getBufferedLength());
+		Assert.assertEquals(0, stringWriter.getBuffer().length());
+
+		renderRedirectWriter.render();
+		Assert.assertEquals(expected.toString(), stringWriter.toString());
+		Assert.assertEquals(0, renderRedirectWriter.getBufferedLength());
+	}
+
+	private String createMarkup(int length) {
+
+		StringBuilder buf = new StringBuilder(length);
+
+		for (int i = 0; i < length; i++) {
+			buf.append((char) ('a' + (i % 26)));
+		}
+
+		return buf.toString();
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.faces.render.RenderKitFactory;
+import javax.faces.render.ResponseStateManager;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class FacesRequestParameterMapImplTest {
+
+	// Private Constants
+	private static final String NAMESPACE = "_1_WAR_portlet_";
+
+	@Test
+	public void testMultiPartParameters() {
+
+		FacesRequestParameterMapImpl facesRequestParameterMap = new FacesRequestParameterMapImpl(NAMESPACE, null,
+				new HashMap<String, String>(), RenderKitFactory.HTML_BASIC_RENDER_KIT);
+
+		// Values are added by the multipart processor with and without the namespace, and must accumulate under the
+		// namespaced name even after the index has been built.
+		facesRequestParameterMap.addValue(NAMESPACE + "form:text", "a");
+		Assert.assertEquals("a", facesRequestParameterMap.getFirst("form:text"));
+		facesRequestParameterMap.addValue("form:text", "b");
+		facesRequestParameterMap.addValue("form:checkbox", "on");
+
+		Assert.assertArrayEquals(new String[] { "a", "b" }, facesRequestParameterMap.get("form:text"));
+		Assert.assertArrayEquals(new String[] { "a", "b" }, facesRequestParameterMap.get(NAMESPACE + "form:text"));
+		Assert.assertTrue(facesRequestParameterMap.containsKey("form:checkbox"));
+		Assert.assertTrue(facesRequestParameterMap.containsKey(NAMESPACE + "form:checkbox"));
+		Assert.assertFalse(facesRequestParameterMap.containsKey("form:missing"));
+		Assert.assertEquals(2, facesRequestParameterMap.size());
+
+		Set<String> keySet = facesRequestParameterMap.keySet();
+		Assert.assertTrue(keySet.contains(NAMESPACE + "form:text"));
+		Assert.assertTrue(keySet.contains(NAMESPACE + "form:checkbox"));
+		Assert.assertTrue(keySet.contains(ResponseStateManager.RENDER_KIT_ID_PARAM));
+		Assert.assertSame(keySet, facesRequestParameterMap.keySet());
+
+		facesRequestParameterMap.remove(NAMESPACE + "form:checkbox");
+		Assert.assertFalse(facesRequestParameterMap.containsKey("form:checkbox"));
+		Assert.assertFalse(facesRequestParameterMap.keySet().contains(NAMESPACE + "form:checkbox"));
+	}
+
+	@Test
+	public void testNamespacedParameters() {
+
+		Map<String, String[]> parameterMap = new HashMap<String, String[]>();
+		parameterMap.put(NAMESPACE + "form:text", new String[] { "namespaced" });
+		parameterMap.put(NAMESPACE + "shared", new String[] { "namespaced" });
+		parameterMap.put("shared", new String[] { "raw" });
+		parameterMap.put("p_p_id", new String[] { "1_WAR_portlet" });
+
+		Map<String, String> facesViewParameterMap = new HashMap<String, String>();
+		facesViewParameterMap.put("viewParam", "value");
+
+		FacesRequestParameterMapImpl facesRequestParameterMap = new FacesRequestParameterMapImpl(parameterMap,
+				NAMESPACE, null, facesViewParameterMap, RenderKitFactory.HTML_BASIC_RENDER_KIT);
+
+		Assert.assertEquals("namespaced", facesRequestParameterMap.getFirst("form:text"));
+		Assert.assertEquals("namespaced", facesRequestParameterMap.getFirst(NAMESPACE + "form:text"));
+		Assert.assertEquals("1_WAR_portlet", facesRequestParameterMap.getFirst("p_p_id"));
+
+		// A parameter without the namespace takes precedence over a namespaced parameter with the same name.
+		Assert.assertEquals("raw", facesRequestParameterMap.getFirst("shared"));
+		Assert.assertEquals("namespaced", facesRequestParameterMap.getFirst(NAMESPACE + "shared"));
+
+		Assert.assertTrue(facesRequestParameterMap.containsKey("form:text"));
+		Assert.assertTrue(facesRequestParameterMap.containsKey("viewParam"));
+		Assert.assertFalse(facesRequestParameterMap.containsKey(ResponseStateManager.VIEW_STATE_PARAM));
+		Assert.assertFalse(facesRequestParameterMap.containsKey("javax.faces.partial.ajax"));
+
+		// The default render-kit-id is returned by getFirst(String) and keySet(), but as before, containsKey(Object)
+		// only reports it when it is actually present in the request.
+		Assert.assertEquals(RenderKitFactory.HTML_BASIC_RENDER_KIT,
+			facesRequestParameterMap.getFirst(ResponseStateManager.RENDER_KIT_ID_PARAM));
+		Assert.assertFalse(facesRequestParameterMap.containsKey(ResponseStateManager.RENDER_KIT_ID_PARAM));
+
+		// Modifications must be visible through the index.
+		facesRequestParameterMap.put("form:text", new String[] { "raw" });
+		Assert.assertEquals("raw", facesRequestParameterMap.getFirst("form:text"));
+		Assert.assertTrue(facesRequestParameterMap.keySet().contains("form:text"));
+
+		facesRequestParameterMap.clear();
+		Assert.assertNull(facesRequestParameterMap.get(NAMESPACE + "form:text"));
+		Assert.assertFalse(facesRequestParameterMap.containsKey("p_p_id"));
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class PortletSessionAttributeRegistryTest {
+
+	@Test
+	public void testSessionAttributeNames() {
+
+		PortletSessionAttributeRegistry portletSessionAttributeRegistry = new PortletSessionAttributeRegistry();
+		Assert.assertTrue(portletSessionAttributeRegistry.register("1_WAR_portlet", "backingBean"));
+
+		// Registering a name again does not change the registry, so it does not have to be stored again.
+		Assert.assertFalse(portletSessionAttributeRegistry.register("1_WAR_portlet", "backingBean"));
+		portletSessionAttributeRegistry.register("1_WAR_portlet", "com.sun.faces.application.view.activeViewMaps");
+		portletSessionAttributeRegistry.register("2_WAR_portlet", "backingBean");
+		portletSessionAttributeRegistry.register("2_WAR_portlet", "removedBean");
+		Assert.assertTrue(portletSessionAttributeRegistry.unregister("2_WAR_portlet", "removedBean"));
+		Assert.assertFalse(portletSessionAttributeRegistry.unregister("3_WAR_portlet", "unknownBean"));
+
+		Assert.assertEquals(new HashSet<String>(
+				Arrays.asList("javax.portlet.p.1_WAR_portlet?backingBean",
+					"javax.portlet.p.1_WAR_portlet?com.sun.faces.application.view.activeViewMaps",
+					"javax.portlet.p.2_WAR_portlet?backingBean")),
+			new HashSet<String>(portletSessionAttributeRegistry.getSessionAttributeNames()));
+		Assert.assertEquals(3, portletSessionAttributeRegistry.getSessionAttributeNames().size());
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.container.PortletContainer;
+import com.liferay.faces.bridge.container.PortletContainerWrapper;
+import com.liferay.faces.bridge.context.BridgeContextMockImpl;
+import com.liferay.faces.portlet.PortletRequestMockImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class RequestHeaderValuesMapTest {
+
+	@Test
+	public void testLazyHeaders() {
+
+		Map<String, String[]> headers = new HashMap<String, String[]>();
+		headers.put("Accept-Language", new String[] { "en-us;q=0.8" });
+		headers.put("Cookie", new String[] { "a=1", "b=2" });
+		headers.put("user-agent", new String[] { "Mozilla/5.0" });
+
+		HeaderPortletRequest headerPortletRequest = new HeaderPortletRequest(headers);
+		RequestHeaderValuesMap requestHeaderValuesMap = newRequestHeaderValuesMap(headerPortletRequest);
+		Assert.assertEquals(0, headerPortletRequest.getPropertiesCount());
+
+		// Only the requested headers are copied from the portlet request, and each of them only once.
+		Assert.assertArrayEquals(new String[] { "Mozilla/5.0" }, requestHeaderValuesMap.get("User-Agent"));
+		Assert.assertArrayEquals(new String[] { "Mozilla/5.0" }, requestHeaderValuesMap.get("USER-AGENT"));
+		Assert.assertArrayEquals(new String[] { "a=1,b=2" }, requestHeaderValuesMap.get("cookie"));
+		Assert.assertFalse(requestHeaderValuesMap.containsKey("Faces-Request"));
+		Assert.assertNull(requestHeaderValuesMap.get("Faces-Request"));
+		Assert.assertEquals(3, headerPortletRequest.getPropertiesCount());
+		Assert.assertFalse(headerPortletRequest.isPropertyNamesCalled());
+
+		// The "Accept-Language" header is built from the locales of the portlet request.
+		Assert.assertArrayEquals(new String[] { "en-US,fr" }, requestHeaderValuesMap.get("accept-language"));
+
+		// Synthesized headers are only built when requested.
+		Assert.assertArrayEquals(new String[] { "text/html,application/xhtml+xml" },
+			requestHeaderValuesMap.get("Accept"));
+
+		RequestHeaderMap requestHeaderMap = new RequestHeaderMap(requestHeaderValuesMap);
+		Assert.assertEquals("a=1,b=2", requestHeaderMap.get("Cookie"));
+		Assert.assertFalse(headerPortletRequest.isPropertyNamesCalled());
+
+		// Iterating over the map copies all of the headers.
+		Assert.assertEquals(4, requestHeaderMap.size());
+		Assert.assertTrue(headerPortletRequest.isPropertyNamesCalled());
+		Assert.assertEquals(requestHeaderValuesMap.keySet(), requestHeaderMap.keySet());
+		Assert.assertTrue(requestHeaderMap.keySet().contains("user-agent"));
+		Assert.assertFalse(requestHeaderMap.containsKey("Content-Type"));
+	}
+
+	@Test
+	public void testUserAgentFromPortletContainer() {
+
+		HeaderPortletRequest headerPortletRequest = new HeaderPortletRequest(new HashMap<String, String[]>());
+		RequestHeaderValuesMap requestHeaderValuesMap = newRequestHeaderValuesMap(headerPortletRequest);
+
+		Assert.assertArrayEquals(new String[] { "container" }, requestHeaderValuesMap.get("User-Agent"));
+		Assert.assertEquals(2, requestHeaderValuesMap.size());
+		Assert.assertTrue(requestHeaderValuesMap.containsKey("accept"));
+		Assert.assertTrue(requestHeaderValuesMap.containsKey("user-agent"));
+	}
+
+	protected RequestHeaderValuesMap newRequestHeaderValuesMap(HeaderPortletRequest headerPortletRequest) {
+
+		final PortletContainer portletContainer = new PortletContainerWrapper() {
+
+				@Override
+				public String[] getHeader(String name) {
+					return new String[] { "container" };
+				}
+
+				@Override
+				public PortletContainer getWrapped() {
+					return null;
+				}
+			};
+
+		return new RequestHeaderValuesMap(new BridgeContextMockImpl(null, headerPortletRequest, null) {
+
+					@Override
+					public PortletContainer getPortletContainer() {
+						return portletContainer;
+					}
+				});
+	}
+
+	protected static class HeaderPortletRequest extends PortletRequestMockImpl {
+
+		// Private Data Members
+		private Map<String, String[]> headers;
+		private int propertiesCount;
+		private boolean propertyNamesCalled;
+
+		public HeaderPortletRequest(Map<String, String[]> headers) {
+			super("/portal");
+			this.headers = headers;
+		}
+
+		@Override
+		public Enumeration<Locale> getLocales() {
+			return Collections.enumeration(Arrays.asList(Locale.US, Locale.FRENCH));
+		}
+
+		@Override
+		public Enumeration<String> getProperties(String name) {
+
+			propertiesCount++;
+
+			for (Map.Entry<String, String[]> mapEntry : headers.entrySet()) {
+
+				if (mapEntry.getKey().equalsIgnoreCase(name)) {
+					return Collections.enumeration(Arrays.asList(mapEntry.getValue()));
+				}
+			}
+
+			return Collections.enumeration(Collections.<String>emptyList());
+		}
+
+		public int getPropertiesCount() {
+			return propertiesCount;
+		}
+
+		@Override
+		public Enumeration<String> getPropertyNames() {
+
+			propertyNamesCalled = true;
+
+			return Collections.enumeration(headers.keySet());
+		}
+
+		public boolean isPropertyNamesCalled() {
+			return propertyNamesCalled;
+		}
+
+		@Override
+		public Enumeration<String> getResponseContentTypes() {
+			return Collections.enumeration(Arrays.asList("text/html", "application/xhtml+xml"));
+		}
+	}
+}
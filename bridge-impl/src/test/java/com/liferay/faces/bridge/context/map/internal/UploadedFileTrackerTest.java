@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.fileupload.FileUploadBase.FileSizeLimitExceededException;
+import org.apache.commons.fileupload.FileUploadBase.FileUploadIOException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.liferay.faces.util.model.UploadedFile;
+import com.liferay.faces.util.model.internal.UploadedFileImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class UploadedFileTrackerTest {
+
+	// Private Data Members
+	private File rootDirectory;
+
+	@After
+	public void tearDown() {
+		delete(rootDirectory);
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		rootDirectory = File.createTempFile("uploadedFileTracker", "");
+		rootDirectory.delete();
+		rootDirectory.mkdirs();
+	}
+
+	@Test
+	public void testQuotaInputStream() throws IOException {
+
+		UploadedFileTracker uploadedFileTracker = new UploadedFileTracker(rootDirectory, 1000L, 0L, 0L);
+		InputStream inputStream = new MultiPartFormDataProcessorImpl.QuotaInputStream(new ByteArrayInputStream(
+					new byte[1500]), uploadedFileTracker, "session1");
+		byte[] buffer = new byte[100];
+		long totalBytesRead = 0L;
+
+		try {
+
+			int bytesRead;
+
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				totalBytesRead += bytesRead;
+			}
+
+			Assert.fail("The quota was not enforced");
+		}
+		catch (FileUploadIOException e) {
+			Assert.assertTrue(e.getCause() instanceof FileSizeLimitExceededException);
+		}
+
+		// The upload must be aborted as soon as the quota would be exceeded, before the entire stream is read.
+		Assert.assertEquals(1000L, totalBytesRead);
+		Assert.assertEquals(1000L, uploadedFileTracker.getDirectoryUsage("session1"));
+	}
+
+	@Test
+	public void testQuotas() {
+
+		UploadedFileTracker uploadedFileTracker = new UploadedFileTracker(rootDirectory, 100L, 150L, 0L);
+
+		Assert.assertTrue(uploadedFileTracker.reserve("session1", 60L));
+		Assert.assertTrue(uploadedFileTracker.reserve("session1", 40L));
+
+		// Exceeds the per-session quota.
+		Assert.assertFalse(uploadedFileTracker.reserve("session1", 1L));
+		Assert.assertTrue(uploadedFileTracker.reserve("session2", 50L));
+
+		// Exceeds the total quota.
+		Assert.assertFalse(uploadedFileTracker.reserve("session2", 1L));
+		Assert.assertEquals(100L, uploadedFileTracker.getDirectoryUsage("session1"));
+		Assert.assertEquals(50L, uploadedFileTracker.getDirectoryUsage("session2"));
+		Assert.assertEquals(150L, uploadedFileTracker.getTotalUsage());
+
+		uploadedFileTracker.release("session1", 60L);
+		Assert.assertTrue(uploadedFileTracker.reserve("session2", 10L));
+		Assert.assertEquals(100L, uploadedFileTracker.getTotalUsage());
+	}
+
+	@Test
+	public void testReap() throws IOException {
+
+		File expiredDirectory = new File(rootDirectory, "expired");
+		File activeDirectory = new File(rootDirectory, "active");
+		File foreignDirectory = new File(rootDirectory, "foreign");
+		expiredDirectory.mkdirs();
+		activeDirectory.mkdirs();
+		foreignDirectory.mkdirs();
+
+		UploadedFileTracker uploadedFileTracker = new UploadedFileTracker(rootDirectory, 0L, 0L, 60000L);
+		uploadedFileTracker.setUploadDirectory(expiredDirectory);
+		uploadedFileTracker.setUploadDirectory(activeDirectory);
+		write(new File(expiredDirectory, "a.txt"), 10, uploadedFileTracker);
+		write(new File(activeDirectory, "b.txt"), 20, uploadedFileTracker);
+		write(new File(foreignDirectory, "c.txt"), 30, null);
+
+		long expiredTime = System.currentTimeMillis() - 120000L;
+
+		for (File file : new File[] { expiredDirectory, foreignDirectory }) {
+
+			for (File child : file.listFiles()) {
+				child.setLastModified(expiredTime);
+			}
+
+			file.setLastModified(expiredTime);
+		}
+
+		// A new instance accounts for the files that are already on disk, but only in directories that are marked as
+		// upload directories.
+		Assert.assertEquals(30L, new UploadedFileTracker(rootDirectory, 0L, 0L, 0L).getTotalUsage());
+		Assert.assertEquals(30L, uploadedFileTracker.getTotalUsage());
+
+		Assert.assertEquals(10L, uploadedFileTracker.reap());
+		Assert.assertFalse(expiredDirectory.exists());
+		Assert.assertTrue(activeDirectory.exists());
+		Assert.assertTrue(new File(foreignDirectory, "c.txt").exists());
+		Assert.assertEquals(0L, uploadedFileTracker.getDirectoryUsage("expired"));
+		Assert.assertEquals(20L, uploadedFileTracker.getTotalUsage());
+	}
+
+	@Test
+	public void testReapSkipsActiveUpload() throws IOException {
+
+		File uploadingDirectory = new File(rootDirectory, "uploading");
+		uploadingDirectory.mkdirs();
+
+		UploadedFileTracker uploadedFileTracker = new UploadedFileTracker(rootDirectory, 0L, 0L, 60000L);
+		uploadedFileTracker.setUploadDirectory(uploadingDirectory);
+		write(new File(uploadingDirectory, "a.txt"), 10, uploadedFileTracker);
+
+		long expiredTime = System.currentTimeMillis() - 120000L;
+
+		for (File child : uploadingDirectory.listFiles()) {
+			child.setLastModified(expiredTime);
+		}
+
+		uploadingDirectory.setLastModified(expiredTime);
+
+		uploadedFileTracker.beginUpload("uploading");
+		Assert.assertEquals(0L, uploadedFileTracker.reap());
+		Assert.assertTrue(uploadingDirectory.exists());
+		Assert.assertEquals(10L, uploadedFileTracker.getTotalUsage());
+
+		uploadedFileTracker.endUpload("uploading");
+		Assert.assertEquals(10L, uploadedFileTracker.reap());
+		Assert.assertFalse(uploadingDirectory.exists());
+		Assert.assertEquals(0L, uploadedFileTracker.getTotalUsage());
+	}
+
+	@Test
+	public void testReconcile() throws IOException {
+
+		File sessionDirectory = new File(rootDirectory, "session1");
+		sessionDirectory.mkdirs();
+
+		UploadedFileTracker uploadedFileTracker = new UploadedFileTracker(rootDirectory, 0L, 0L, 0L);
+		uploadedFileTracker.setUploadDirectory(sessionDirectory);
+
+		File file1 = new File(sessionDirectory, "a.txt");
+		File file2 = new File(sessionDirectory, "b.txt");
+		write(file1, 10, uploadedFileTracker);
+		write(file2, 20, uploadedFileTracker);
+		Assert.assertEquals(30L, uploadedFileTracker.getTotalUsage());
+
+		// Deleting a tracked uploaded file releases its bytes.
+		UploadedFile uploadedFile = new TrackedUploadedFile(new UploadedFileImpl(file1.getAbsolutePath(), null, null,
+					null, null, null, null, "a.txt", 10L, UploadedFile.Status.FILE_SAVED), uploadedFileTracker,
+				"session1");
+		uploadedFile.delete();
+		Assert.assertFalse(file1.exists());
+		Assert.assertEquals(20L, uploadedFileTracker.getDirectoryUsage("session1"));
+		Assert.assertEquals(20L, uploadedFileTracker.getTotalUsage());
+
+		// Deleting a file without notifying the tracker is accounted for when the usage is reconciled, but not while an
+		// upload is in progress.
+		uploadedFileTracker.beginUpload("session1");
+		uploadedFileTracker.beginUpload("session1");
+		file2.delete();
+		uploadedFileTracker.reserve("session1", 5L);
+		uploadedFileTracker.reconcile("session1");
+		Assert.assertEquals(25L, uploadedFileTracker.getTotalUsage());
+		uploadedFileTracker.endUpload("session1");
+		uploadedFileTracker.endUpload("session1");
+		uploadedFileTracker.reconcile("session1");
+		Assert.assertEquals(0L, uploadedFileTracker.getDirectoryUsage("session1"));
+		Assert.assertEquals(0L, uploadedFileTracker.getTotalUsage());
+
+		// The usage of a directory that no longer exists is discarded.
+		uploadedFileTracker.reserve("session1", 5L);
+		delete(sessionDirectory);
+		uploadedFileTracker.reconcile("session1");
+		Assert.assertEquals(0L, uploadedFileTracker.getTotalUsage());
+	}
+
+	private void delete(File file) {
+
+		File[] children = file.listFiles();
+
+		if (children != null) {
+
+			for (File child : children) {
+				delete(child);
+			}
+		}
+
+		file.delete();
+	}
+
+	private void write(File file, int length, UploadedFileTracker uploadedFileTracker) throws IOException {
+
+		FileOutputStream fileOutputStream = new FileOutputStream(file);
+		fileOutputStream.write(new byte[length]);
+		fileOutputStream.close();
+
+		if (uploadedFileTracker != null) {
+			uploadedFileTracker.reserve(file.getParentFile().getName(), length);
+		}
+	}
+}
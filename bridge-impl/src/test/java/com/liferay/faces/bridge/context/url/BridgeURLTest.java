@@ -13,9 +13,13 @@
  */
 package com.liferay.faces.bridge.context.url;
 
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map;
 
+import javax.portlet.PortletMode;
 import javax.portlet.PortletRequest;
+import javax.portlet.WindowState;
 
 import org.junit.Test;
 
@@ -23,6 +27,10 @@ import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.config.BridgeConfigMockImpl;
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.BridgeContextMockImpl;
+import com.liferay.faces.bridge.helper.internal.PortletModeHelper;
+import com.liferay.faces.bridge.helper.internal.WindowStateHelper;
+import com.liferay.faces.bridge.util.internal.URLTokenizer;
+import com.liferay.faces.bridge.util.internal.URLUtil;
 import com.liferay.faces.portlet.PortletRequestMockImpl;
 import com.liferay.faces.util.lang.StringPool;
 
@@ -89,6 +97,19 @@ public class BridgeURLTest {
 		}
 	}
 
+	@Test
+	public void testInternedPortletModesAndWindowStates() {
+
+		Assert.assertSame(PortletMode.VIEW, PortletModeHelper.getPortletMode("view"));
+		Assert.assertSame(PortletMode.EDIT, PortletModeHelper.getPortletMode("edit"));
+		Assert.assertSame(PortletModeHelper.getPortletMode("config"), PortletModeHelper.getPortletMode("config"));
+		Assert.assertEquals(new PortletMode("config"), PortletModeHelper.getPortletMode("config"));
+		Assert.assertSame(WindowState.MAXIMIZED, WindowStateHelper.getWindowState("maximized"));
+		Assert.assertSame(WindowState.NORMAL, WindowStateHelper.getWindowState("normal"));
+		Assert.assertSame(WindowStateHelper.getWindowState("pop_up"), WindowStateHelper.getWindowState("pop_up"));
+		Assert.assertEquals(new WindowState("pop_up"), WindowStateHelper.getWindowState("pop_up"));
+	}
+
 	@Test
 	public void testOpaque() {
 
@@ -101,6 +122,24 @@ public class BridgeURLTest {
 		}
 	}
 
+	@Test
+	public void testParameterMap() {
+
+		Map<String, String[]> parameterMap = URLUtil.parseParameterMapValuesArray(
+				"/foo.faces?a=1&amp;b=2&a=3&c=&d&e=4=5#fragment&f=6");
+
+		Assert.assertEquals(4, parameterMap.size());
+		Assert.assertEquals(2, parameterMap.get("a").length);
+		Assert.assertEquals("1", parameterMap.get("a")[0]);
+		Assert.assertEquals("3", parameterMap.get("a")[1]);
+		Assert.assertEquals("2", parameterMap.get("b")[0]);
+		Assert.assertEquals(StringPool.BLANK, parameterMap.get("c")[0]);
+		Assert.assertEquals(StringPool.BLANK, parameterMap.get("d")[0]);
+		Assert.assertNull(parameterMap.get("e"));
+		Assert.assertNull(parameterMap.get("f"));
+		Assert.assertTrue(URLUtil.parseParameterMapValuesArray("/foo.faces").isEmpty());
+	}
+
 	@Test
 	public void testPathRelative() {
 
@@ -114,6 +153,57 @@ public class BridgeURLTest {
 		}
 	}
 
+	@Test
+	public void testPortletScheme() {
+
+		try {
+			Assert.assertTrue(newBridgeURL("portlet:render?a=1").isPortletScheme());
+			Assert.assertTrue(newBridgeURL("portlet:resource").isPortletScheme());
+			Assert.assertFalse(newBridgeURL("portlets:render").isPortletScheme());
+			Assert.assertFalse(newBridgeURL("/portlet:render").isPortletScheme());
+		}
+		catch (URISyntaxException e) {
+			Assert.fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testURLTokenizer() {
+
+		String[] urls = new String[] {
+				"http://www.liferay.com", "http://www.liferay.com/foo/bar.png?a=1#top", "//www.liferay.com/foo",
+				"/foo/bar.gif", "foo/bar.gif", "../foo/bar%20baz.gif?a=%20", "mailto:foo@liferay.com",
+				"portlet:render?a=1", "?a=1", "#top", "", "http://www.liferay.com/foo bar", "c:/foo", "a+b.c-d:/foo",
+				"http://[::1]:8080/foo?a=1", "http://[::1/foo", "http://www.liferay.com/foo[0].png", "/foo?a[]=1",
+				"#a[b]", "mailto:[foo]@liferay.com"
+			};
+
+		for (String url : urls) {
+
+			URI uri;
+
+			try {
+				uri = new URI(url);
+			}
+			catch (URISyntaxException e) {
+				uri = URI.create(StringPool.BLANK);
+			}
+
+			URLTokenizer urlTokenizer = new URLTokenizer(url);
+			Assert.assertEquals(url, uri.isAbsolute(), urlTokenizer.isAbsolute());
+			Assert.assertEquals(url, uri.isOpaque(), urlTokenizer.isOpaque());
+			Assert.assertEquals(url, uri.getScheme(), urlTokenizer.getScheme());
+			Assert.assertEquals(url, uri.getPath(), urlTokenizer.getPath());
+		}
+
+		URLTokenizer urlTokenizer = new URLTokenizer("http://www.liferay.com/foo/bar.png?a=1#top");
+		Assert.assertEquals(4, urlTokenizer.getSchemeEnd());
+		Assert.assertEquals(22, urlTokenizer.getPathStart());
+		Assert.assertEquals(34, urlTokenizer.getPathEnd());
+		Assert.assertEquals(34, urlTokenizer.getQueryPos());
+		Assert.assertEquals(38, urlTokenizer.getFragmentPos());
+	}
+
 	@Test
 	public void testViewPath() {
 
@@ -0,0 +1,397 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.event.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.el.ELContext;
+import javax.el.ExpressionFactory;
+import javax.el.MethodExpression;
+import javax.el.ValueExpression;
+import javax.faces.application.Application;
+import javax.faces.application.ApplicationWrapper;
+import javax.faces.context.FacesContext;
+import javax.faces.context.FacesContextWrapper;
+import javax.portlet.PortletConfig;
+import javax.portlet.PortletContext;
+import javax.portlet.PortletResponse;
+import javax.portlet.StateAwareResponse;
+import javax.portlet.faces.Bridge;
+import javax.portlet.faces.BridgePublicRenderParameterHandler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.config.BridgeConfigMockImpl;
+import com.liferay.faces.bridge.config.PortletConfigMockImpl;
+import com.liferay.faces.bridge.context.BridgeContext;
+import com.liferay.faces.bridge.context.BridgeContextMockImpl;
+import com.liferay.faces.portlet.PortletRequestMockImpl;
+
+
+/**
+ * The purpose of this test is to verify that the {@link IPCPhaseListener} processes incoming and outgoing public render
+ * parameters according to Sections 5.3.2 and 5.3.3 of the Spec, and that the model EL of each public render parameter
+ * is only parsed into a {@link ValueExpression} once, regardless of the number of requests.
+ *
+ * @author  Neil Griffin
+ */
+public class IPCPhaseListenerTest {
+
+	// Private Constants
+	private static final String OTHER_PORTLET_NAME = "otherPortlet";
+	private static final String PORTLET_NAME = "testPortlet";
+
+	@Test
+	public void testIncomingPublicRenderParameters() {
+
+		IPCPhaseListener ipcPhaseListener = new IPCPhaseListener();
+		Map<String, String> modelMap = new HashMap<String, String>();
+		ExpressionFactoryMockImpl expressionFactory = new ExpressionFactoryMockImpl(modelMap);
+		FacesContext facesContext = new FacesContextMockImpl(expressionFactory);
+		List<FacesContext> handlerInvocations = new CopyOnWriteArrayList<FacesContext>();
+
+		Map<String, String[]> publicParameterMap = new HashMap<String, String[]>();
+		publicParameterMap.put("foo", new String[] { "foo1" });
+		publicParameterMap.put("bar", new String[] { "bar1", "ignored" });
+		publicParameterMap.put("baz", new String[] { "baz1" });
+
+		BridgeContext bridgeContext = newBridgeContext(PORTLET_NAME, publicParameterMap, null, handlerInvocations);
+
+		for (int i = 1; i <= 3; i++) {
+
+			publicParameterMap.put("foo", new String[] { "foo" + i });
+			ipcPhaseListener.processIncomingPublicRenderParameters(bridgeContext, facesContext);
+
+			// Parameters that are not prefixed, or that are prefixed with the name of this portlet, are injected into
+			// each of their model expressions. Parameters that are prefixed with the name of a different portlet, or
+			// that are not present in the request, are not injected.
+			Map<String, String> expectedModelMap = new HashMap<String, String>();
+			expectedModelMap.put("#{bean.foo}", "foo" + i);
+			expectedModelMap.put("#{bean.bar}", "bar1");
+			expectedModelMap.put("#{otherBean.bar}", "bar1");
+			Assert.assertEquals(expectedModelMap, modelMap);
+			Assert.assertEquals(i, handlerInvocations.size());
+			Assert.assertSame(facesContext, handlerInvocations.get(i - 1));
+		}
+
+		// The model EL of each injected parameter is only parsed the first time.
+		Assert.assertEquals(3, expressionFactory.getValueExpressionCount());
+
+		// The parameters of a different portlet are compiled separately.
+		modelMap.clear();
+		bridgeContext = newBridgeContext(OTHER_PORTLET_NAME, publicParameterMap, null, handlerInvocations);
+		ipcPhaseListener.processIncomingPublicRenderParameters(bridgeContext, facesContext);
+
+		Map<String, String> expectedModelMap = new HashMap<String, String>();
+		expectedModelMap.put("#{bean.foo}", "foo3");
+		expectedModelMap.put("#{bean.baz}", "baz1");
+		Assert.assertEquals(expectedModelMap, modelMap);
+		Assert.assertEquals(5, expressionFactory.getValueExpressionCount());
+	}
+
+	@Test
+	public void testOutgoingPublicRenderParameters() {
+
+		IPCPhaseListener ipcPhaseListener = new IPCPhaseListener();
+		Map<String, String> modelMap = new HashMap<String, String>();
+		ExpressionFactoryMockImpl expressionFactory = new ExpressionFactoryMockImpl(modelMap);
+		FacesContext facesContext = new FacesContextMockImpl(expressionFactory);
+
+		Map<String, String[]> publicParameterMap = new HashMap<String, String[]>();
+		publicParameterMap.put("foo", new String[] { "foo1" });
+		publicParameterMap.put("bar", new String[] { "bar1" });
+		publicParameterMap.put("baz", new String[] { "baz1" });
+
+		// Unchanged model value.
+		modelMap.put("#{bean.foo}", "foo1");
+
+		// Changed model values.
+		modelMap.put("#{bean.bar}", "bar2");
+		modelMap.put("#{otherBean.bar}", "bar3");
+		modelMap.put("#{bean.qux}", "qux1");
+
+		// Changed model value for a different portlet.
+		modelMap.put("#{bean.baz}", "baz2");
+
+		for (int i = 0; i < 3; i++) {
+
+			Map<String, String> renderParameterMap = new LinkedHashMap<String, String>();
+			BridgeContext bridgeContext = newBridgeContext(PORTLET_NAME, publicParameterMap, renderParameterMap,
+					null);
+			ipcPhaseListener.processOutgoingPublicRenderParameters(bridgeContext, facesContext);
+
+			// Each parameter for this portlet with a model value that differs from the request value is set in the
+			// response. When a parameter maps to more than one expression, the last expression wins. A null model value
+			// is unchanged when the parameter is not present in the request.
+			Map<String, String> expectedRenderParameterMap = new HashMap<String, String>();
+			expectedRenderParameterMap.put("bar", "bar3");
+			expectedRenderParameterMap.put("qux", "qux1");
+			Assert.assertEquals(expectedRenderParameterMap, renderParameterMap);
+		}
+
+		// The model EL of each parameter for this portlet is only parsed the first time.
+		Assert.assertEquals(5, expressionFactory.getValueExpressionCount());
+	}
+
+	protected BridgeContext newBridgeContext(final String portletName, final Map<String, String[]> publicParameterMap,
+		final Map<String, String> renderParameterMap, final List<FacesContext> handlerInvocations) {
+
+		final Map<String, String[]> publicParameterMappings = new LinkedHashMap<String, String[]>();
+		publicParameterMappings.put("foo", new String[] { "#{bean.foo}" });
+		publicParameterMappings.put(PORTLET_NAME + ":bar", new String[] { "#{bean.bar}", "#{otherBean.bar}" });
+		publicParameterMappings.put(OTHER_PORTLET_NAME + ":baz", new String[] { "#{bean.baz}" });
+		publicParameterMappings.put(PORTLET_NAME + ":qux", new String[] { "#{bean.qux}" });
+		publicParameterMappings.put("missing", new String[] { "#{bean.missing}" });
+		publicParameterMappings.put("unmapped", null);
+
+		BridgeConfigMockImpl bridgeConfig = new BridgeConfigMockImpl() {
+
+				@Override
+				public Map<String, String[]> getPublicParameterMappings() {
+					return publicParameterMappings;
+				}
+			};
+
+		PortletRequestMockImpl portletRequest = new PortletRequestMockImpl("/test-portlet") {
+
+				@Override
+				public Map<String, String[]> getPublicParameterMap() {
+					return publicParameterMap;
+				}
+			};
+
+		final PortletConfig portletConfig = new PortletConfigMockImpl() {
+
+				@Override
+				public String getPortletName() {
+					return portletName;
+				}
+			};
+
+		final String handlerAttributeName = Bridge.BRIDGE_PACKAGE_PREFIX + portletName + "." +
+			Bridge.BRIDGE_PUBLIC_RENDER_PARAMETER_HANDLER;
+		final BridgePublicRenderParameterHandler bridgePublicRenderParameterHandler =
+			new BridgePublicRenderParameterHandler() {
+
+				public void processUpdates(FacesContext facesContext) {
+					handlerInvocations.add(facesContext);
+				}
+			};
+
+		final PortletContext portletContext = (PortletContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { PortletContext.class }, new InvocationHandler() {
+
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("getAttribute".equals(method.getName()) && handlerAttributeName.equals(args[0])) {
+							return bridgePublicRenderParameterHandler;
+						}
+						else {
+							throw new UnsupportedOperationException(method.getName());
+						}
+					}
+				});
+
+		final StateAwareResponse stateAwareResponse = (StateAwareResponse) Proxy.newProxyInstance(getClass()
+				.getClassLoader(), new Class<?>[] { StateAwareResponse.class }, new InvocationHandler() {
+
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("setRenderParameter".equals(method.getName()) && (args[1] instanceof String)) {
+							renderParameterMap.put((String) args[0], (String) args[1]);
+
+							return null;
+						}
+						else {
+							throw new UnsupportedOperationException(method.getName());
+						}
+					}
+				});
+
+		return new BridgeContextMockImpl(bridgeConfig, portletRequest, null) {
+
+				@Override
+				public PortletConfig getPortletConfig() {
+					return portletConfig;
+				}
+
+				@Override
+				public PortletContext getPortletContext() {
+					return portletContext;
+				}
+
+				@Override
+				public PortletResponse getPortletResponse() {
+					return stateAwareResponse;
+				}
+			};
+	}
+
+	protected static class ApplicationMockImpl extends ApplicationWrapper {
+
+		// Private Data Members
+		private ExpressionFactory expressionFactory;
+
+		public ApplicationMockImpl(ExpressionFactory expressionFactory) {
+			this.expressionFactory = expressionFactory;
+		}
+
+		@Override
+		public ExpressionFactory getExpressionFactory() {
+			return expressionFactory;
+		}
+
+		@Override
+		public Application getWrapped() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * This class creates value expressions that read and write the entry of a model map that is keyed by the expression
+	 * string, and counts the number of value expressions that it has created.
+	 */
+	protected static class ExpressionFactoryMockImpl extends ExpressionFactory {
+
+		// Private Data Members
+		private Map<String, String> modelMap;
+		private AtomicInteger valueExpressionCount = new AtomicInteger();
+
+		public ExpressionFactoryMockImpl(Map<String, String> modelMap) {
+			this.modelMap = modelMap;
+		}
+
+		@Override
+		public Object coerceToType(Object obj, Class<?> targetType) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public MethodExpression createMethodExpression(ELContext elContext, String expression,
+			Class<?> expectedReturnType, Class<?>[] expectedParamTypes) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ValueExpression createValueExpression(Object instance, Class<?> expectedType) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ValueExpression createValueExpression(ELContext elContext, String expression, Class<?> expectedType) {
+
+			valueExpressionCount.incrementAndGet();
+
+			return new ModelValueExpression(modelMap, expression);
+		}
+
+		public int getValueExpressionCount() {
+			return valueExpressionCount.get();
+		}
+	}
+
+	protected static class FacesContextMockImpl extends FacesContextWrapper {
+
+		// Private Data Members
+		private Application application;
+
+		public FacesContextMockImpl(ExpressionFactory expressionFactory) {
+			this.application = new ApplicationMockImpl(expressionFactory);
+		}
+
+		@Override
+		public Application getApplication() {
+			return application;
+		}
+
+		@Override
+		public ELContext getELContext() {
+			return null;
+		}
+
+		@Override
+		public FacesContext getWrapped() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	protected static class ModelValueExpression extends ValueExpression {
+
+		// serialVersionUID
+		private static final long serialVersionUID = 2218396741356734619L;
+
+		// Private Data Members
+		private String expression;
+		private transient Map<String, String> modelMap;
+
+		public ModelValueExpression(Map<String, String> modelMap, String expression) {
+			this.modelMap = modelMap;
+			this.expression = expression;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof ModelValueExpression) && expression.equals(((ModelValueExpression) obj).expression);
+		}
+
+		@Override
+		public int hashCode() {
+			return expression.hashCode();
+		}
+
+		@Override
+		public Class<?> getExpectedType() {
+			return String.class;
+		}
+
+		@Override
+		public String getExpressionString() {
+			return expression;
+		}
+
+		@Override
+		public boolean isLiteralText() {
+			return false;
+		}
+
+		@Override
+		public boolean isReadOnly(ELContext elContext) {
+			return false;
+		}
+
+		@Override
+		public Class<?> getType(ELContext elContext) {
+			return String.class;
+		}
+
+		@Override
+		public Object getValue(ELContext elContext) {
+			return modelMap.get(expression);
+		}
+
+		@Override
+		public void setValue(ELContext elContext, Object value) {
+			modelMap.put(expression, (String) value);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.helper.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.portlet.PortletSession;
+import javax.portlet.faces.Bridge;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ViewHistoryHelperTest {
+
+	@Test
+	public void testSessionWrites() {
+
+		SessionInvocationHandler sessionInvocationHandler = new SessionInvocationHandler();
+		PortletSession portletSession = (PortletSession) Proxy.newProxyInstance(PortletSession.class.getClassLoader(),
+				new Class[] { PortletSession.class }, sessionInvocationHandler);
+
+		Map<String, String> defaultViewIdMap = new HashMap<String, String>();
+		defaultViewIdMap.put(PortletModeHelper.PORTLET_MODE_VIEW, "/views/view.xhtml");
+		defaultViewIdMap.put(PortletModeHelper.PORTLET_MODE_EDIT, "/views/edit.xhtml");
+
+		// The first request writes the default viewId of each portlet mode that has one, and subsequent requests do
+		// not write anything.
+		Assert.assertEquals(2, ViewHistoryHelper.initViewHistory(portletSession, defaultViewIdMap));
+		Assert.assertEquals(0, ViewHistoryHelper.initViewHistory(portletSession, defaultViewIdMap));
+		Assert.assertEquals(2, sessionInvocationHandler.setAttributeCount);
+		Assert.assertFalse(sessionInvocationHandler.attributes.containsKey(Bridge.VIEWID_HISTORY + ".help"));
+
+		// Rendering the same view over and over again must not write to the session.
+		for (int i = 0; i < 10; i++) {
+			ViewHistoryHelper.setViewHistory(portletSession, PortletModeHelper.PORTLET_MODE_VIEW, "/views/view.xhtml");
+		}
+
+		Assert.assertEquals(2, sessionInvocationHandler.setAttributeCount);
+
+		// Navigating to a different view must write to the session exactly once.
+		Assert.assertTrue(ViewHistoryHelper.setViewHistory(portletSession, PortletModeHelper.PORTLET_MODE_VIEW,
+				"/views/other.xhtml"));
+		Assert.assertFalse(ViewHistoryHelper.setViewHistory(portletSession, PortletModeHelper.PORTLET_MODE_VIEW,
+				"/views/other.xhtml"));
+		Assert.assertEquals(3, sessionInvocationHandler.setAttributeCount);
+		Assert.assertEquals("/views/other.xhtml",
+			sessionInvocationHandler.attributes.get(Bridge.VIEWID_HISTORY + ".view"));
+	}
+
+	private static class SessionInvocationHandler implements InvocationHandler {
+
+		// Private Data Members
+		private Map<String, Object> attributes = new HashMap<String, Object>();
+		private int setAttributeCount;
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			String methodName = method.getName();
+
+			if ("getAttribute".equals(methodName)) {
+				return attributes.get(args[0]);
+			}
+			else if ("setAttribute".equals(methodName)) {
+				attributes.put((String) args[0], args[1]);
+				setAttributeCount++;
+			}
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.renderkit.html_basic.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.ExternalContextWrapper;
+import javax.faces.context.FacesContext;
+import javax.faces.context.FacesContextWrapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.application.ComponentResourceFactory;
+import com.liferay.faces.util.application.internal.ComponentResourceFactoryImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class HeadRendererBridgeImplTest {
+
+	@Test
+	public void testHeadResourcePlanReusedAcrossRequests() {
+
+		Map<String, Object> applicationMap = new HashMap<String, Object>();
+		HeadRendererBridgeImpl headRendererBridgeImpl = new HeadRendererBridgeImpl();
+		ComponentResourceFactory componentResourceFactory = new ComponentResourceFactoryImpl();
+
+		// Each request creates new component instances for the resources of the view.
+		List<UIComponent> viewRootResources1 = Arrays.asList(newResource("primefaces", "primefaces.js"),
+				newResource("primefaces", "primefaces.css"));
+		HeadResourcePlan headResourcePlan1 = headRendererBridgeImpl.getHeadResourcePlan(newFacesContext(
+					applicationMap, "/views/portletViewMode.xhtml"), null, viewRootResources1, null, null,
+				componentResourceFactory);
+
+		List<UIComponent> viewRootResources2 = Arrays.asList(newResource("primefaces", "primefaces.js"),
+				newResource("primefaces", "primefaces.css"));
+		HeadResourcePlan headResourcePlan2 = headRendererBridgeImpl.getHeadResourcePlan(newFacesContext(
+					applicationMap, "/views/portletViewMode.xhtml"), null, viewRootResources2, null, null,
+				componentResourceFactory);
+
+		// The plan that was computed during the first request must be reused by the second request, and must order
+		// the components of the second request.
+		Assert.assertSame(headResourcePlan1, headResourcePlan2);
+
+		UIComponent[] resources = headResourcePlan2.getResources(null, viewRootResources2, null, null);
+		Assert.assertSame(viewRootResources2.get(1), resources[0]);
+		Assert.assertSame(viewRootResources2.get(0), resources[1]);
+
+		// A different view must not use the plan.
+		HeadResourcePlan headResourcePlan3 = headRendererBridgeImpl.getHeadResourcePlan(newFacesContext(
+					applicationMap, "/views/portletEditMode.xhtml"), null, viewRootResources2, null, null,
+				componentResourceFactory);
+		Assert.assertNotSame(headResourcePlan1, headResourcePlan3);
+
+		// Adding a resource to the view must cause a new plan to be computed and cached.
+		List<UIComponent> viewRootResources4 = Arrays.asList(newResource("primefaces", "primefaces.js"),
+				newResource("primefaces", "primefaces.css"), newResource("example", "example.js"));
+		HeadResourcePlan headResourcePlan4 = headRendererBridgeImpl.getHeadResourcePlan(newFacesContext(
+					applicationMap, "/views/portletViewMode.xhtml"), null, viewRootResources4, null, null,
+				componentResourceFactory);
+		Assert.assertNotSame(headResourcePlan1, headResourcePlan4);
+		Assert.assertEquals(3, headResourcePlan4.getResourceCount());
+		Assert.assertSame(headResourcePlan4,
+			headRendererBridgeImpl.getHeadResourcePlan(newFacesContext(applicationMap, "/views/portletViewMode.xhtml"),
+				null, viewRootResources4, null, null, componentResourceFactory));
+	}
+
+	protected FacesContext newFacesContext(Map<String, Object> applicationMap, String viewId) {
+
+		UIViewRoot uiViewRoot = new UIViewRoot();
+		uiViewRoot.setViewId(viewId);
+
+		return new FacesContextMockImpl(new ExternalContextMockImpl(applicationMap), uiViewRoot);
+	}
+
+	protected UIComponent newResource(String library, String name) {
+
+		UIOutput uiOutput = new UIOutput();
+		uiOutput.getAttributes().put("library", library);
+		uiOutput.getAttributes().put("name", name);
+
+		return uiOutput;
+	}
+
+	protected static class ExternalContextMockImpl extends ExternalContextWrapper {
+
+		// Private Data Members
+		private Map<String, Object> applicationMap;
+
+		public ExternalContextMockImpl(Map<String, Object> applicationMap) {
+			this.applicationMap = applicationMap;
+		}
+
+		@Override
+		public Map<String, Object> getApplicationMap() {
+			return applicationMap;
+		}
+
+		@Override
+		public ExternalContext getWrapped() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	protected static class FacesContextMockImpl extends FacesContextWrapper {
+
+		// Private Data Members
+		private ExternalContext externalContext;
+		private UIViewRoot uiViewRoot;
+
+		public FacesContextMockImpl(ExternalContext externalContext, UIViewRoot uiViewRoot) {
+			this.externalContext = externalContext;
+			this.uiViewRoot = uiViewRoot;
+		}
+
+		@Override
+		public ExternalContext getExternalContext() {
+			return externalContext;
+		}
+
+		@Override
+		public UIViewRoot getViewRoot() {
+			return uiViewRoot;
+		}
+
+		@Override
+		public FacesContext getWrapped() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.renderkit.html_basic.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.application.internal.ComponentResourceFactoryImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class HeadResourcePlanTest {
+
+	@Test
+	public void testPlan() {
+
+		UIComponent first = newResource(null, null);
+		UIComponent script = newResource("primefaces", "primefaces.js");
+		UIComponent styleSheet = newResource("primefaces", "primefaces.css");
+		UIComponent middle = newResource(null, null);
+		UIComponent last = newResource(null, null);
+		List<UIComponent> firstResources = Arrays.asList(first);
+		List<UIComponent> viewRootResources = new ArrayList<UIComponent>(Arrays.asList(script, styleSheet));
+		List<UIComponent> middleResources = Arrays.asList(middle);
+		List<UIComponent> lastResources = Arrays.asList(last);
+
+		HeadResourcePlan headResourcePlan = new HeadResourcePlan(firstResources, viewRootResources, middleResources,
+				lastResources, new ComponentResourceFactoryImpl());
+
+		// Stylesheets in the view root must be ordered before the middle resources, and scripts after them.
+		Assert.assertEquals(5, headResourcePlan.getResourceCount());
+
+		UIComponent[] resources = headResourcePlan.getResources(firstResources, viewRootResources, middleResources,
+				lastResources);
+		Assert.assertArrayEquals(new UIComponent[] { first, styleSheet, middle, script, last }, resources);
+		Assert.assertEquals("primefaces:primefaces.js", headResourcePlan.getComponentResource(3).getId());
+
+		// The plan must remain valid as long as resources with the same library and name are present, even if they are
+		// different component instances (as is the case for subsequent requests).
+		UIComponent script2 = newResource("primefaces", "primefaces.js");
+		UIComponent styleSheet2 = newResource("primefaces", "primefaces.css");
+		Assert.assertTrue(headResourcePlan.isValid(Arrays.asList(newResource(null, null)),
+				Arrays.asList(script2, styleSheet2), Arrays.asList(middle), Arrays.asList(last)));
+		resources = headResourcePlan.getResources(firstResources, Arrays.asList(script2, styleSheet2),
+				middleResources, lastResources);
+		Assert.assertSame(styleSheet2, resources[1]);
+		Assert.assertSame(script2, resources[3]);
+
+		// The plan must be invalidated when a resource is added to or removed from the view.
+		viewRootResources.add(newResource("example", "example.css"));
+		Assert.assertFalse(headResourcePlan.isValid(firstResources, viewRootResources, middleResources,
+				lastResources));
+		viewRootResources.remove(1);
+		viewRootResources.remove(1);
+		Assert.assertFalse(headResourcePlan.isValid(firstResources, viewRootResources, middleResources,
+				lastResources));
+		Assert.assertFalse(headResourcePlan.isValid(null, Arrays.asList(script, styleSheet), middleResources,
+				lastResources));
+		Assert.assertFalse(headResourcePlan.isValid(firstResources, Arrays.asList(styleSheet, script),
+				middleResources, lastResources));
+	}
+
+	protected UIComponent newResource(String library, String name) {
+
+		UIOutput uiOutput = new UIOutput();
+
+		if (library != null) {
+			uiOutput.getAttributes().put("library", library);
+		}
+
+		if (name != null) {
+			uiOutput.getAttributes().put("name", name);
+		}
+
+		return uiOutput;
+	}
+}
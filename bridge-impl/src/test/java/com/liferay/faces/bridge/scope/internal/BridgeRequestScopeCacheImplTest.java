@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScope;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeCacheImplTest {
+
+	@Test
+	public void testAccessOrderEviction() {
+
+		RecordingCache cache = new RecordingCache(3, 0L);
+		cache.put("a", new BridgeRequestScopeMockImpl("a"));
+		cache.put("b", new BridgeRequestScopeMockImpl("b"));
+		cache.put("c", new BridgeRequestScopeMockImpl("c"));
+
+		// Accessing "a" causes "b" to become the least recently accessed entry.
+		Assert.assertNotNull(cache.get("a"));
+
+		BridgeRequestScopeMockImpl b = (BridgeRequestScopeMockImpl) cache.get("b");
+		cache.get("a");
+		cache.get("c");
+		cache.put("d", new BridgeRequestScopeMockImpl("d"));
+
+		Assert.assertEquals(3, cache.size());
+		Assert.assertNull(cache.get("b"));
+		Assert.assertTrue(b.isReleased());
+		Assert.assertTrue(cache.containsKey("a"));
+		Assert.assertTrue(cache.containsKey("c"));
+		Assert.assertTrue(cache.containsKey("d"));
+
+		cache.put("e", new BridgeRequestScopeMockImpl("e"));
+		Assert.assertEquals("[b, a]", cache.evictedIds.toString());
+	}
+
+	@Test
+	public void testConcurrentPuts() throws InterruptedException {
+
+		final int maxSize = 50;
+		final int threadCount = 8;
+		final int putsPerThread = 2000;
+		final RecordingCache cache = new RecordingCache(maxSize, 0L);
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final List<BridgeRequestScopeMockImpl> scopes = new ArrayList<BridgeRequestScopeMockImpl>();
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int i = 0; i < threadCount; i++) {
+
+			final int threadId = i;
+
+			for (int j = 0; j < putsPerThread; j++) {
+				scopes.add(new BridgeRequestScopeMockImpl(threadId + ":" + j));
+			}
+
+			Thread thread = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						startLatch.await();
+					}
+					catch (InterruptedException e) {
+						return;
+					}
+
+					for (int j = 0; j < putsPerThread; j++) {
+						BridgeRequestScope scope = scopes.get((threadId * putsPerThread) + j);
+						cache.put(scope.getId(), scope);
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+
+		startLatch.countDown();
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Assert.assertEquals(maxSize, cache.size());
+		Assert.assertEquals((threadCount * putsPerThread) - maxSize, cache.evictedIds.size());
+
+		// Since each thread puts its own keys in order, a least-recently-used cache must have evicted a prefix of the
+		// keys put by each thread and retained the remaining suffix.
+		int[] evictedCounts = new int[threadCount];
+
+		for (String evictedId : cache.evictedIds) {
+			evictedCounts[Integer.parseInt(evictedId.split(":")[0])]++;
+		}
+
+		for (int i = 0; i < threadCount; i++) {
+
+			for (int j = 0; j < putsPerThread; j++) {
+				Assert.assertEquals(j >= evictedCounts[i], cache.containsKey(i + ":" + j));
+			}
+		}
+
+		// Every scope that was evicted must have been released, and every scope that remains must not.
+		for (BridgeRequestScopeMockImpl scope : scopes) {
+			Assert.assertEquals(!cache.containsKey(scope.getId()), scope.isReleased());
+		}
+	}
+
+	@Test
+	public void testConcurrentGetsAndPuts() throws InterruptedException {
+
+		final int maxSize = 20;
+		final int putCount = 5000;
+		final RecordingCache cache = new RecordingCache(maxSize, 0L);
+		final List<BridgeRequestScopeMockImpl> scopes = new ArrayList<BridgeRequestScopeMockImpl>();
+		final Queue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+
+		for (int i = 0; i < putCount; i++) {
+			scopes.add(new BridgeRequestScopeMockImpl(Integer.toString(i)));
+		}
+
+		Thread writer = new Thread() {
+
+			@Override
+			public void run() {
+
+				for (BridgeRequestScope scope : scopes) {
+					cache.put(scope.getId(), scope);
+				}
+			}
+		};
+
+		List<Thread> readers = new ArrayList<Thread>();
+
+		for (int i = 0; i < 4; i++) {
+
+			Thread reader = new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+
+						for (int j = 0; j < putCount; j++) {
+
+							// Reads are lock-free, so a scope that is returned might be evicted concurrently, but
+							// never before it was put.
+							BridgeRequestScope scope = cache.get(Integer.toString(j));
+
+							if ((scope != null) && !scope.getId().equals(Integer.toString(j))) {
+								throw new AssertionError("Unexpected scope id=" + scope.getId());
+							}
+						}
+					}
+					catch (Throwable t) {
+						failures.add(t);
+					}
+				}
+			};
+			readers.add(reader);
+		}
+
+		writer.start();
+
+		for (Thread reader : readers) {
+			reader.start();
+		}
+
+		writer.join();
+
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		Assert.assertTrue(failures.toString(), failures.isEmpty());
+		Assert.assertEquals(maxSize, cache.size());
+		Assert.assertEquals(putCount - maxSize, cache.evictedIds.size());
+
+		for (BridgeRequestScopeMockImpl scope : scopes) {
+			Assert.assertEquals(!cache.containsKey(scope.getId()), scope.isReleased());
+		}
+	}
+
+	@Test
+	public void testIdleTimeout() {
+
+		RecordingCache cache = new RecordingCache(-1, 1000L);
+		cache.put("a", new BridgeRequestScopeMockImpl("a"));
+		cache.now = 500L;
+		cache.put("b", new BridgeRequestScopeMockImpl("b"));
+		cache.now = 1200L;
+
+		// Entry "a" has been idle for longer than the timeout.
+		Assert.assertNull(cache.get("a"));
+		Assert.assertNotNull(cache.get("b"));
+		cache.now = 2300L;
+		cache.put("c", new BridgeRequestScopeMockImpl("c"));
+
+		// Entry "b" was last accessed at 1200 and so it is expired by the time that "c" is put.
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals("[a, b]", cache.evictedIds.toString());
+	}
+
+	@Test
+	public void testRemoveByPortletNameAndSessionId() {
+
+		RecordingCache cache = new RecordingCache(-1, 0L);
+		String[] ids = new String[] {
+				"portlet1:::session1:::1", "portlet1:::session2:::2", "portlet2:::session1:::3",
+				"portlet2:::session2:::4", "portlet1:::session1:::5"
+			};
+
+		for (String id : ids) {
+			cache.put(id, new BridgeRequestScopeMockImpl(id));
+		}
+
+		List<BridgeRequestScope> removed = cache.removeBySessionId("session1");
+		Assert.assertEquals(3, removed.size());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertTrue(cache.containsKey("portlet1:::session2:::2"));
+		Assert.assertTrue(cache.containsKey("portlet2:::session2:::4"));
+
+		removed = cache.removeByPortletName("portlet1");
+		Assert.assertEquals(1, removed.size());
+		Assert.assertEquals("portlet1:::session2:::2", removed.get(0).getId());
+		Assert.assertEquals(1, cache.size());
+
+		// Removing an entry directly must also remove it from the secondary indexes.
+		cache.remove("portlet2:::session2:::4");
+		Assert.assertTrue(cache.removeByPortletName("portlet2").isEmpty());
+		Assert.assertTrue(cache.removeBySessionId("session2").isEmpty());
+		Assert.assertTrue(cache.evictedIds.isEmpty());
+	}
+
+	@Test
+	public void testRemoveDoesNotRelease() {
+
+		RecordingCache cache = new RecordingCache(2, 0L);
+		BridgeRequestScopeMockImpl a = new BridgeRequestScopeMockImpl("a");
+		cache.put("a", a);
+		cache.put("b", new BridgeRequestScopeMockImpl("b"));
+		Assert.assertSame(a, cache.remove("a"));
+		Assert.assertFalse(a.isReleased());
+		cache.put("c", new BridgeRequestScopeMockImpl("c"));
+		Assert.assertEquals(2, cache.size());
+		Assert.assertTrue(cache.evictedIds.isEmpty());
+
+		cache.keySet().remove("b");
+		cache.put("d", new BridgeRequestScopeMockImpl("d"));
+		cache.put("e", new BridgeRequestScopeMockImpl("e"));
+		Assert.assertEquals("[c]", cache.evictedIds.toString());
+	}
+
+	private static class RecordingCache extends BridgeRequestScopeCacheImpl {
+
+		// Private Data Members
+		private Queue<String> evictedIds = new ConcurrentLinkedQueue<String>();
+		private volatile long now;
+
+		public RecordingCache(int maxSize, long idleTimeout) {
+			super(maxSize, idleTimeout);
+		}
+
+		@Override
+		protected long currentTimeMillis() {
+			return now;
+		}
+
+		@Override
+		protected void evicted(String bridgeRequestScopeId, BridgeRequestScope bridgeRequestScope) {
+			evictedIds.add(bridgeRequestScopeId);
+			super.evicted(bridgeRequestScopeId, bridgeRequestScope);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.faces.context.FacesContext;
+import javax.portlet.PortletMode;
+import javax.portlet.RenderRequest;
+import javax.portlet.faces.Bridge.PortletPhase;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeMockImpl extends BridgeRequestScopeBaseImpl {
+
+	// Private Data Members
+	private long dateCreated;
+	private String id;
+	private volatile boolean released;
+
+	public BridgeRequestScopeMockImpl(String id) {
+		this.id = id;
+		this.dateCreated = System.currentTimeMillis();
+	}
+
+	@Override
+	public void release() {
+		super.release();
+		released = true;
+	}
+
+	public void removeExcludedAttributes(RenderRequest renderRequest) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void restoreState(FacesContext facesContext) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void saveState(FacesContext facesContext) {
+		throw new UnsupportedOperationException();
+	}
+
+	public PortletPhase getBeganInPhase() {
+		throw new UnsupportedOperationException();
+	}
+
+	public long getDateCreated() {
+		return dateCreated;
+	}
+
+	public boolean isFacesLifecycleExecuted() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setFacesLifecycleExecuted(boolean facesLifecycleExecuted) {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setIdPrefix(String idPrefix) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isNavigationOccurred() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setNavigationOccurred(boolean navigationOccurred) {
+		throw new UnsupportedOperationException();
+	}
+
+	public PortletMode getPortletMode() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setPortletMode(PortletMode portletMode) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isPortletModeChanged() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setPortletModeChanged(boolean portletModeChanged) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Map<String, String> getPreservedActionParameterMap() {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getPreservedViewStateParam() {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isRedirectOccurred() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setRedirectOccurred(boolean redirectOccurred) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isReleased() {
+		return released;
+	}
+
+	public Set<String> getRemovedAttributeNames() {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.servlet;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.http.HttpSession;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.config.internal.BridgeWebConfigParam;
+import com.liferay.faces.bridge.context.map.internal.PortletSessionAttributeRegistry;
+import com.liferay.faces.bridge.servlet.internal.SessionDestroyedMetrics;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeSessionListenerTest {
+
+	@Test
+	public void testExecutorTeardown() throws InterruptedException {
+
+		Map<String, String> initParameterMap = new HashMap<String, String>();
+		initParameterMap.put(BridgeWebConfigParam.SessionDestroyedThreads.getName(), "1");
+		initParameterMap.put(BridgeWebConfigParam.SessionDestroyedQueueSize.getName(), " 1 ");
+
+		ServletContext servletContext = newServletContext(initParameterMap);
+		BridgeSessionListener bridgeSessionListener = new BridgeSessionListener();
+		bridgeSessionListener.contextInitialized(new ServletContextEvent(servletContext));
+
+		// Occupy the only background thread so that the next task waits in the queue and the one after that is
+		// rejected.
+		final CountDownLatch startedLatch = new CountDownLatch(1);
+		final CountDownLatch releaseLatch = new CountDownLatch(1);
+		final List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+		bridgeSessionListener.runPreDestroyTask(new Runnable() {
+
+				public void run() {
+
+					startedLatch.countDown();
+
+					try {
+						releaseLatch.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+
+					threads.add(Thread.currentThread());
+				}
+			});
+		Assert.assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+		bridgeSessionListener.runPreDestroyTask(new ThreadRecorder(threads));
+		bridgeSessionListener.runPreDestroyTask(new ThreadRecorder(threads));
+
+		// The rejected task is run by the thread that expires the session.
+		Assert.assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+
+		SessionDestroyedMetrics sessionDestroyedMetrics = (SessionDestroyedMetrics) servletContext.getAttribute(
+				SessionDestroyedMetrics.ATTR_NAME);
+		Assert.assertEquals(1L, sessionDestroyedMetrics.getRejectedTaskCount());
+
+		// Shutting down the context waits for the background thread to run the pending tasks.
+		releaseLatch.countDown();
+		bridgeSessionListener.contextDestroyed(new ServletContextEvent(servletContext));
+		Assert.assertEquals(3, threads.size());
+
+		for (Thread thread : threads.subList(1, 3)) {
+			Assert.assertNotSame(Thread.currentThread(), thread);
+		}
+	}
+
+	@Test
+	public void testPortletScopeAttributeNames() {
+
+		// Attributes that were set directly via PortletSession.setAttribute(String, Object) are not registered, so the
+		// names in the session must be listed in addition to the names in the registry.
+		PortletSessionAttributeRegistry portletSessionAttributeRegistry = new PortletSessionAttributeRegistry();
+		portletSessionAttributeRegistry.register("w1", "registered");
+		portletSessionAttributeRegistry.register("w2", "notEnumerated");
+
+		Map<String, Object> attributeMap = new LinkedHashMap<String, Object>();
+		attributeMap.put("javax.portlet.p.w1?registered", "value1");
+		attributeMap.put("javax.portlet.p.w1?unregistered", "value2");
+		attributeMap.put("otherAttribute", "value3");
+		attributeMap.put(PortletSessionAttributeRegistry.ATTR_NAME, portletSessionAttributeRegistry);
+
+		List<String> portletScopeAttributeNames = new BridgeSessionListener().getPortletScopeAttributeNames(
+				newHttpSession(attributeMap));
+		Assert.assertEquals(Arrays.asList("javax.portlet.p.w1?registered", "javax.portlet.p.w1?unregistered",
+				"javax.portlet.p.w2?notEnumerated"), portletScopeAttributeNames);
+
+		// Sessions without a registry are handled by listing the names in the session.
+		attributeMap.remove(PortletSessionAttributeRegistry.ATTR_NAME);
+		portletScopeAttributeNames = new BridgeSessionListener().getPortletScopeAttributeNames(newHttpSession(
+					attributeMap));
+		Assert.assertEquals(Arrays.asList("javax.portlet.p.w1?registered", "javax.portlet.p.w1?unregistered"),
+			portletScopeAttributeNames);
+	}
+
+	@Test
+	public void testSynchronousTeardown() {
+
+		ServletContext servletContext = newServletContext(new HashMap<String, String>());
+		BridgeSessionListener bridgeSessionListener = new BridgeSessionListener();
+		bridgeSessionListener.contextInitialized(new ServletContextEvent(servletContext));
+
+		List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+		bridgeSessionListener.runPreDestroyTask(new ThreadRecorder(threads));
+		bridgeSessionListener.runPreDestroyTask(new ThreadRecorder(threads));
+		Assert.assertEquals(2, threads.size());
+
+		for (Thread thread : threads) {
+			Assert.assertSame(Thread.currentThread(), thread);
+		}
+
+		bridgeSessionListener.contextDestroyed(new ServletContextEvent(servletContext));
+
+		SessionDestroyedMetrics sessionDestroyedMetrics = (SessionDestroyedMetrics) servletContext.getAttribute(
+				SessionDestroyedMetrics.ATTR_NAME);
+		Assert.assertEquals(0L, sessionDestroyedMetrics.getRejectedTaskCount());
+	}
+
+	protected HttpSession newHttpSession(final Map<String, Object> attributeMap) {
+
+		InvocationHandler invocationHandler = new InvocationHandler() {
+
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+					String methodName = method.getName();
+
+					if ("getAttribute".equals(methodName)) {
+						return attributeMap.get(args[0]);
+					}
+					else if ("getAttributeNames".equals(methodName)) {
+						return Collections.enumeration(attributeMap.keySet());
+					}
+
+					return null;
+				}
+			};
+
+		return (HttpSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { HttpSession.class },
+				invocationHandler);
+	}
+
+	protected ServletContext newServletContext(final Map<String, String> initParameterMap) {
+
+		final Map<String, Object> attributeMap = new HashMap<String, Object>();
+
+		InvocationHandler invocationHandler = new InvocationHandler() {
+
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+					String methodName = method.getName();
+
+					if ("getAttribute".equals(methodName)) {
+						return attributeMap.get(args[0]);
+					}
+					else if ("getAttributeNames".equals(methodName)) {
+						return Collections.enumeration(attributeMap.keySet());
+					}
+					else if ("getContextPath".equals(methodName)) {
+						return "/test";
+					}
+					else if ("getInitParameter".equals(methodName)) {
+						return initParameterMap.get(args[0]);
+					}
+					else if ("setAttribute".equals(methodName)) {
+						attributeMap.put((String) args[0], args[1]);
+					}
+
+					return null;
+				}
+			};
+
+		return (ServletContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { ServletContext.class }, invocationHandler);
+	}
+
+	protected static class ThreadRecorder implements Runnable {
+
+		// Private Data Members
+		private List<Thread> threads;
+
+		public ThreadRecorder(List<Thread> threads) {
+			this.threads = threads;
+		}
+
+		public void run() {
+			threads.add(Thread.currentThread());
+		}
+	}
+}
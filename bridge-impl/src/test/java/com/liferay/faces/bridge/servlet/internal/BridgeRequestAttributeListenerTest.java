@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.servlet.internal;
+
+import java.lang.reflect.Method;
+
+import javax.portlet.faces.annotation.BridgeRequestScopeAttributeAdded;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestAttributeListenerTest {
+
+	@Test
+	public void testAnnotatedMethodCache() throws Exception {
+
+		BridgeRequestAttributeListener bridgeRequestAttributeListener = new BridgeRequestAttributeListener();
+		Method[] annotatedMethods = bridgeRequestAttributeListener.getAnnotatedMethods(AnnotatedBean.class);
+		Assert.assertEquals(1, annotatedMethods.length);
+		Assert.assertEquals(AnnotatedBean.class.getMethod("attributeAdded"), annotatedMethods[0]);
+		Assert.assertEquals(0, bridgeRequestAttributeListener.getAnnotatedMethods(String.class).length);
+
+		// The cached methods must survive garbage collection, since nothing else refers to them.
+		int annotatedMethodsHashCode = System.identityHashCode(annotatedMethods);
+		annotatedMethods = null;
+		System.gc();
+
+		Assert.assertEquals(annotatedMethodsHashCode,
+			System.identityHashCode(bridgeRequestAttributeListener.getAnnotatedMethods(AnnotatedBean.class)));
+	}
+
+	public static class AnnotatedBean {
+
+		@BridgeRequestScopeAttributeAdded
+		public void attributeAdded() {
+			// no-op
+		}
+
+		public void notAnnotated() {
+			// no-op
+		}
+	}
+}
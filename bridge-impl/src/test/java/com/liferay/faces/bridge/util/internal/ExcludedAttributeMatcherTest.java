@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.util.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ExcludedAttributeMatcherTest {
+
+	// Private Constants
+	private static final List<String> EXCLUDED_ATTRIBUTE_NAMES = Arrays.asList("com.foo.bar", "com.foo.wildcard.*",
+			"org.example.*", "noDot*", "net.exact*", "*");
+
+	@Test
+	public void testExcluded() {
+
+		ExcludedAttributeMatcher matcher = new ExcludedAttributeMatcher(EXCLUDED_ATTRIBUTE_NAMES);
+
+		Assert.assertTrue(matcher.isExcluded("com.foo.bar"));
+		Assert.assertTrue(matcher.isExcluded("com.foo.wildcard.baz"));
+		Assert.assertTrue(matcher.isExcluded("org.example.baz"));
+		Assert.assertTrue(matcher.isExcluded("noDot*"));
+		Assert.assertTrue(matcher.isExcluded("net.anything"));
+		Assert.assertFalse(matcher.isExcluded("com.foo.barbaz"));
+		Assert.assertFalse(matcher.isExcluded("com.foo.wildcard.baz.qux"));
+		Assert.assertFalse(matcher.isExcluded("com.foo.wildcard"));
+		Assert.assertFalse(matcher.isExcluded("org.examples.baz"));
+		Assert.assertFalse(matcher.isExcluded("noDotAtAll"));
+		Assert.assertFalse(matcher.isExcluded(null));
+		Assert.assertFalse(new ExcludedAttributeMatcher(null).isExcluded("com.foo.bar"));
+	}
+
+	@Test
+	public void testEquivalentToListScan() {
+
+		ExcludedAttributeMatcher matcher = new ExcludedAttributeMatcher(EXCLUDED_ATTRIBUTE_NAMES);
+		List<String> attributeNames = new ArrayList<String>();
+		String[] prefixes = new String[] {
+				"", ".", "com", "com.foo", "com.foo.wildcard", "com.foo.wildcard.x", "org.example", "org", "noDot", "net", "*"
+			};
+
+		for (String prefix : prefixes) {
+
+			for (int i = 0; i < 50; i++) {
+				attributeNames.add(prefix + "." + i);
+				attributeNames.add(prefix + i);
+				attributeNames.add(prefix + "." + i + "*");
+			}
+		}
+
+		attributeNames.addAll(EXCLUDED_ATTRIBUTE_NAMES);
+
+		for (String attributeName : attributeNames) {
+			Assert.assertEquals(attributeName, isExcludedByListScan(attributeName), matcher.isExcluded(attributeName));
+		}
+	}
+
+	@Test
+	public void testNamespaceMatch() {
+
+		Assert.assertTrue(ExcludedAttributeMatcher.isNamespaceMatch("javax.faces.foo", "javax.faces"));
+		Assert.assertTrue(ExcludedAttributeMatcher.isNamespaceMatch("javax", "javax"));
+		Assert.assertTrue(ExcludedAttributeMatcher.isNamespaceMatch(".javax", ".javax"));
+		Assert.assertFalse(ExcludedAttributeMatcher.isNamespaceMatch("javax.faces.foo.bar", "javax.faces"));
+		Assert.assertFalse(ExcludedAttributeMatcher.isNamespaceMatch("javax.facesfoo", "javax.faces"));
+		Assert.assertFalse(ExcludedAttributeMatcher.isNamespaceMatch("javax.faces", "javax.faces"));
+	}
+
+	/**
+	 * Reference implementation of the linear scan that was formerly performed by {@link
+	 * com.liferay.faces.bridge.scope.internal.BridgeRequestScopeImpl}.
+	 */
+	private boolean isExcludedByListScan(String attributeName) {
+
+		for (String excludedAttribute : EXCLUDED_ATTRIBUTE_NAMES) {
+
+			if (attributeName.equals(excludedAttribute)) {
+				return true;
+			}
+			else if (excludedAttribute.endsWith("*")) {
+
+				String wildcardNamespace = excludedAttribute;
+				int dotPos = wildcardNamespace.lastIndexOf(".");
+
+				if (dotPos > 0) {
+					wildcardNamespace = wildcardNamespace.substring(0, dotPos);
+				}
+
+				String attributeNamespace = attributeName;
+				dotPos = attributeNamespace.lastIndexOf(".");
+
+				if (dotPos > 0) {
+					attributeNamespace = attributeNamespace.substring(0, dotPos);
+				}
+
+				if (wildcardNamespace.equals(attributeNamespace)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+}
@@ -18,11 +18,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,12 +34,21 @@ import javax.faces.application.Resource;
 import javax.faces.application.ResourceHandler;
 import javax.faces.context.FacesContext;
 
+import com.liferay.faces.util.application.CachedResource;
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 import com.liferay.faces.util.render.ContentTypes;
+import com.liferay.faces.util.render.HttpHeaders;
 
 
 /**
+ * This class represents the concatenation of the contents of the module paths that are requested by the YUI loader.
+ * The request path of this resource contains a fingerprint of the resource library (see {@link
+ * #getLibraryFingerprint()}) so that responses to requests that contain the current fingerprint can be cached by
+ * browsers for a year. Since the contents might contain URLs that were encoded for the current session, they must not
+ * be cached by shared caches such as proxies.
+ *
  * @author  Neil Griffin
  */
 public class ComboResource extends Resource {
@@ -47,9 +60,16 @@ public class ComboResource extends Resource {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(ComboResource.class);
 
+	// Protected Constants
+	protected static final String REQUEST_PARAM_FINGERPRINT = "t";
+
 	// Private Constants
+	private static final String CACHE_CONTROL_ONE_YEAR_VALUE = "private, max-age=31536000";
 	private static final String RESOURCE_PATH_BASE = "META-INF/resources/liferay-faces-reslib/";
 
+	// Private Static Data Members
+	private static volatile String libraryFingerprint;
+
 	// Private Data Members
 	private List<String> modulePaths;
 	private String requestPath;
@@ -59,9 +79,64 @@ public class ComboResource extends Resource {
 		setResourceName(RESOURCE_NAME);
 	}
 
+	/**
+	 * Returns a fingerprint of the resource library that changes whenever the JAR (or directory) that contains the
+	 * library modules changes. Since the fingerprint is part of the request path, the contents of a combo request that
+	 * contains the current fingerprint never change.
+	 */
+	protected static String getLibraryFingerprint() {
+
+		if (libraryFingerprint == null) {
+
+			StringBuilder buf = new StringBuilder();
+
+			try {
+				Enumeration<URL> libraryURLs = ComboResource.class.getClassLoader().getResources(RESOURCE_PATH_BASE);
+
+				while (libraryURLs.hasMoreElements()) {
+
+					URL libraryURL = libraryURLs.nextElement();
+					URLConnection urlConnection = libraryURL.openConnection();
+					buf.append(libraryURL.toExternalForm());
+					buf.append(StringPool.SPACE);
+					buf.append(urlConnection.getLastModified());
+					buf.append(StringPool.NEW_LINE);
+				}
+			}
+			catch (IOException e) {
+				logger.error(e);
+			}
+
+			try {
+				byte[] digest = CachedResource.digest(buf.toString().getBytes(StringPool.UTF8));
+				libraryFingerprint = CachedResource.toHexString(digest).substring(0, 16);
+			}
+			catch (UnsupportedEncodingException e) {
+				logger.error(e);
+				libraryFingerprint = Long.toHexString(System.currentTimeMillis());
+			}
+		}
+
+		return libraryFingerprint;
+	}
+
+	/**
+	 * Returns <code>false</code> if the request contains the current library fingerprint and the user-agent is asking
+	 * whether its cached copy is still valid, since the contents for a given fingerprint never change.
+	 */
 	@Override
 	public boolean userAgentNeedsUpdate(FacesContext facesContext) {
-		return true;
+
+		boolean needsUpdate = true;
+
+		if (isFingerprintCurrent(facesContext)) {
+
+			Map<String, String> requestHeaderMap = facesContext.getExternalContext().getRequestHeaderMap();
+			needsUpdate = !requestHeaderMap.containsKey(HttpHeaders.IF_MODIFIED_SINCE) &&
+				!requestHeaderMap.containsKey(HttpHeaders.IF_NONE_MATCH);
+		}
+
+		return needsUpdate;
 	}
 
 	protected void writeModuleBytes(String modulePath, OutputStream outputStream) throws IOException {
@@ -127,6 +202,13 @@ public class ComboResource extends Resource {
 		return contentType;
 	}
 
+	protected boolean isFingerprintCurrent(FacesContext facesContext) {
+
+		Map<String, String> requestParameterMap = facesContext.getExternalContext().getRequestParameterMap();
+
+		return getLibraryFingerprint().equals(requestParameterMap.get(REQUEST_PARAM_FINGERPRINT));
+	}
+
 	@Override
 	public InputStream getInputStream() throws IOException {
 
@@ -155,7 +237,8 @@ public class ComboResource extends Resource {
 			ResourceHandler resourceHandlerChain = facesContext.getApplication().getResourceHandler();
 			Resource dummyResource = resourceHandlerChain.createResource(DUMMY_RESOURCE_NAME, getLibraryName());
 			String dummyResourceRequestPath = dummyResource.getRequestPath();
-			requestPath = dummyResourceRequestPath.replace(DUMMY_RESOURCE_NAME, RESOURCE_NAME);
+			requestPath = dummyResourceRequestPath.replace(DUMMY_RESOURCE_NAME, RESOURCE_NAME) + StringPool.AMPERSAND +
+				REQUEST_PARAM_FINGERPRINT + StringPool.EQUAL + getLibraryFingerprint();
 		}
 
 		return requestPath;
@@ -163,7 +246,16 @@ public class ComboResource extends Resource {
 
 	@Override
 	public Map<String, String> getResponseHeaders() {
-		return null;
+
+		Map<String, String> responseHeaders = null;
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+
+		if ((facesContext != null) && isFingerprintCurrent(facesContext)) {
+			responseHeaders = new HashMap<String, String>();
+			responseHeaders.put(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_ONE_YEAR_VALUE);
+		}
+
+		return responseHeaders;
 	}
 
 	@Override
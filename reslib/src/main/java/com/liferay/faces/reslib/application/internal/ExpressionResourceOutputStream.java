@@ -14,6 +14,7 @@
 package com.liferay.faces.reslib.application.internal;
 
 import java.io.IOException;
+import java.io.Writer;
 
 import javax.faces.application.Resource;
 import javax.faces.application.ResourceHandler;
@@ -21,58 +22,63 @@ import javax.faces.context.FacesContext;
 
 import com.liferay.faces.util.io.Filterable;
 import com.liferay.faces.util.io.ResourceOutputStream;
+import com.liferay.faces.util.io.TokenHandler;
+import com.liferay.faces.util.io.TokenRewriter;
 import com.liferay.faces.util.lang.StringPool;
 
 
 /**
+ * This class expands the #{resource['libraryName:resourceName']} expressions that are found in the contents of a
+ * resource in a single pass.
+ *
  * @author  Neil Griffin
  */
-public class ExpressionResourceOutputStream extends ResourceOutputStream implements Filterable {
+public class ExpressionResourceOutputStream extends ResourceOutputStream implements Filterable, TokenHandler {
 
 	// Private Constants
+	private static final int MAX_LOOKAHEAD = 1024;
 	private static final String RESOURCE_TOKEN_BEGIN = "#{resource['";
 	private static final String RESOURCE_TOKEN_END = "']}";
+	private static final TokenRewriter TOKEN_REWRITER = new TokenRewriter(new String[] { RESOURCE_TOKEN_BEGIN },
+			MAX_LOOKAHEAD);
 
 	public ExpressionResourceOutputStream(Resource resource, int size) {
 		super(resource, size);
 	}
 
 	public void filter() throws IOException {
+		rewrite(TOKEN_REWRITER, this, StringPool.UTF8);
+	}
 
-		String text = toString();
+	public int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException {
 
-		int startPos = text.indexOf(RESOURCE_TOKEN_BEGIN);
+		String text = lookahead.toString();
+		int finishPos = text.indexOf(RESOURCE_TOKEN_END);
 
-		while (startPos > 0) {
-			int finishPos = text.indexOf(RESOURCE_TOKEN_END, startPos);
+		if (finishPos > 0) {
+			String resourcePair = text.substring(0, finishPos);
 
-			if (finishPos > 0) {
-				String resourcePair = text.substring(startPos + RESOURCE_TOKEN_BEGIN.length(), finishPos);
+			if (resourcePair.indexOf(StringPool.COLON) > 0) {
+				String[] resourceTokens = resourcePair.split(StringPool.COLON);
+				String libraryName = resourceTokens[0];
+				String resourceName = resourceTokens[1];
+				FacesContext facesContext = FacesContext.getCurrentInstance();
+				ResourceHandler resourceHandlerChain = facesContext.getApplication().getResourceHandler();
+				Resource resource = resourceHandlerChain.createResource(resourceName, libraryName);
 
-				if (resourcePair.indexOf(StringPool.COLON) > 0) {
-					String[] resourceTokens = resourcePair.split(StringPool.COLON);
-					String libraryName = resourceTokens[0];
-					String resourceName = resourceTokens[1];
-					FacesContext facesContext = FacesContext.getCurrentInstance();
-					ResourceHandler resourceHandlerChain = facesContext.getApplication().getResourceHandler();
-					Resource resource = resourceHandlerChain.createResource(resourceName, libraryName);
+				if (resource != null) {
+					String requestPath = resource.getRequestPath();
 
-					if (resource != null) {
-						String requestPath = resource.getRequestPath();
+					if (requestPath != null) {
+						String resourceURL = facesContext.getExternalContext().encodeResourceURL(requestPath);
+						writer.write(resourceURL);
 
-						if (requestPath != null) {
-							String resourceURL = facesContext.getExternalContext().encodeResourceURL(requestPath);
-							text = text.substring(0, startPos) + resourceURL +
-								text.substring(finishPos + RESOURCE_TOKEN_END.length());
-						}
+						return finishPos + RESOURCE_TOKEN_END.length();
 					}
 				}
 			}
-
-			startPos = text.indexOf(RESOURCE_TOKEN_BEGIN);
 		}
 
-		reset();
-		write(text.getBytes());
+		return -1;
 	}
 }
@@ -69,6 +69,9 @@ public class ResLibResourceHandler extends ResourceHandlerWrapperBase {
 		PROTECTED_PARAMTERS.add("t");
 	}
 
+	// Private Data Members
+	private String[] comboAllowedFileExtensions;
+
 	public ResLibResourceHandler(ResourceHandler resourceHandler) {
 		super(resourceHandler);
 	}
@@ -166,8 +169,15 @@ public class ResLibResourceHandler extends ResourceHandlerWrapperBase {
 	}
 
 	protected boolean validateModulePathExtensions(ExternalContext externalContext, List<String> modulePaths) {
-		String[] comboAllowedFileExtensions = ResLibConfigParam.ComboAllowedFileExtensions.getStringValue(
-				externalContext).split(StringPool.COMMA);
+
+		// Since the value of the init-param cannot change while the application is running, split it only once.
+		String[] comboAllowedFileExtensions = this.comboAllowedFileExtensions;
+
+		if (comboAllowedFileExtensions == null) {
+			comboAllowedFileExtensions = ResLibConfigParam.ComboAllowedFileExtensions.getStringValue(externalContext)
+				.split(StringPool.COMMA);
+			this.comboAllowedFileExtensions = comboAllowedFileExtensions;
+		}
 
 		boolean modulePathExtensionsValid = true;
 
@@ -250,6 +260,26 @@ public class ResLibResourceHandler extends ResourceHandlerWrapperBase {
 		return resourceName;
 	}
 
+	/**
+	 * The contents of liferay.js and combo resources are not cached, since {@link ExpressionResourceOutputStream}
+	 * encodes the URLs of the expanded expressions for the current request (which might append a jsessionid, for
+	 * example). Script module resources are not cached either, since they all have the same resource name and the key
+	 * of the superclass would therefore not distinguish between their module paths.
+	 */
+	@Override
+	protected String getResourceCacheKey(FacesContext facesContext, Resource resource) {
+
+		String resourceName = resource.getResourceName();
+
+		if (LIFERAY_JS.equals(resourceName) || (resource instanceof ComboResource) ||
+				(resource instanceof ScriptResource)) {
+			return null;
+		}
+		else {
+			return super.getResourceCacheKey(facesContext, resource);
+		}
+	}
+
 	@Override
 	protected ResourceOutputStream getResourceOutputStream(Resource resource, int size) {
 
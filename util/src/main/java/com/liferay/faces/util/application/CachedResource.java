@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * This class represents the contents of a {@link javax.faces.application.Resource} that has been cached by the {@link
+ * ResourceCache}. The contents are kept in raw form and, when smaller, in pre-compressed gzip form. Each instance also
+ * carries a strong entity tag (ETag) that is derived from a digest of the raw contents. Since the raw and compressed
+ * forms are different representations of the resource, the compressed form has an ETag of its own.
+ *
+ * @author  Neil Griffin
+ */
+public class CachedResource {
+
+	// Private Constants
+	private static final String GZIP_ETAG_SUFFIX = "-gz";
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	// Private Data Members
+	private byte[] content;
+	private String eTag;
+	private byte[] gzippedContent;
+	private String gzippedETag;
+	private long lastModified;
+
+	public CachedResource(byte[] content, long lastModified) {
+		this(content, gzip(content), "\"" + toHexString(digest(content)) + "\"", lastModified);
+	}
+
+	private CachedResource(byte[] content, byte[] gzippedContent, String eTag, long lastModified) {
+		this.content = content;
+		this.gzippedContent = gzippedContent;
+		this.eTag = eTag;
+		this.gzippedETag = eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * Returns the MD5 digest of the specified bytes.
+	 */
+	public static byte[] digest(byte[] bytes) {
+
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+
+			return messageDigest.digest(bytes);
+		}
+		catch (NoSuchAlgorithmException e) {
+
+			// Every implementation of the Java platform is required to support MD5.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the gzip compressed form of the specified bytes, or <code>null</code> if compression does not make them
+	 * any smaller.
+	 */
+	public static byte[] gzip(byte[] bytes) {
+
+		byte[] gzippedBytes = null;
+
+		try {
+			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 2);
+			GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream);
+			gzipOutputStream.write(bytes);
+			gzipOutputStream.close();
+
+			if (byteArrayOutputStream.size() < bytes.length) {
+				gzippedBytes = byteArrayOutputStream.toByteArray();
+			}
+		}
+		catch (IOException e) {
+			// ignore -- not possible with a ByteArrayOutputStream
+		}
+
+		return gzippedBytes;
+	}
+
+	public static String toHexString(byte[] bytes) {
+
+		char[] chars = new char[bytes.length * 2];
+
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+			chars[(i * 2) + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * Reads an instance that was previously written with the {@link #write(DataOutputStream)} method.
+	 */
+	protected static CachedResource read(DataInputStream dataInputStream) throws IOException {
+
+		long lastModified = dataInputStream.readLong();
+		String eTag = dataInputStream.readUTF();
+		byte[] content = new byte[dataInputStream.readInt()];
+		dataInputStream.readFully(content);
+
+		byte[] gzippedContent = null;
+		int gzippedLength = dataInputStream.readInt();
+
+		if (gzippedLength >= 0) {
+			gzippedContent = new byte[gzippedLength];
+			dataInputStream.readFully(gzippedContent);
+		}
+
+		return new CachedResource(content, gzippedContent, eTag, lastModified);
+	}
+
+	/**
+	 * Writes this instance so that it can later be read with the {@link #read(DataInputStream)} method.
+	 */
+	protected void write(DataOutputStream dataOutputStream) throws IOException {
+
+		dataOutputStream.writeLong(lastModified);
+		dataOutputStream.writeUTF(eTag);
+		dataOutputStream.writeInt(content.length);
+		dataOutputStream.write(content);
+
+		if (gzippedContent == null) {
+			dataOutputStream.writeInt(-1);
+		}
+		else {
+			dataOutputStream.writeInt(gzippedContent.length);
+			dataOutputStream.write(gzippedContent);
+		}
+	}
+
+	/**
+	 * Returns the raw (uncompressed) contents of the resource.
+	 */
+	public byte[] getContent() {
+		return content;
+	}
+
+	/**
+	 * Returns the strong entity tag (ETag), including the surrounding double-quotes.
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * Returns the gzip compressed contents of the resource, or <code>null</code> if compression would not make the
+	 * contents any smaller.
+	 */
+	public byte[] getGzippedContent() {
+		return gzippedContent;
+	}
+
+	/**
+	 * Returns the strong entity tag (ETag) of the gzip compressed contents, including the surrounding double-quotes.
+	 */
+	public String getGzippedETag() {
+		return gzippedETag;
+	}
+
+	/**
+	 * Returns the date in which the resource was last modified, measured in UTC milliseconds from the epoch.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Returns the number of bytes of memory that are occupied by the raw and compressed contents.
+	 */
+	public long getSize() {
+
+		long size = content.length;
+
+		if (gzippedContent != null) {
+			size += gzippedContent.length;
+		}
+
+		return size;
+	}
+}
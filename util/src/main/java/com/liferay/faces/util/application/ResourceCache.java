@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.faces.application.ProjectStage;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import com.liferay.faces.util.config.WebConfigParam;
+import com.liferay.faces.util.lang.StringPool;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class provides a bounded cache of {@link CachedResource} instances. Entries are kept in memory in
+ * least-recently-used order until the configured maximum number of bytes is exceeded. If an on-disk cache directory
+ * is configured, then entries that are evicted from memory are written to disk (which is bounded as well) and promoted
+ * back into memory when they are requested again. Since the directory might be shared by several applications, the
+ * application-scoped instance writes its entries to a subdirectory that is named after the context path of the
+ * application.
+ *
+ * @author  Neil Griffin
+ */
+public class ResourceCache {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(ResourceCache.class);
+
+	// Private Constants
+	private static final String ATTR_RESOURCE_CACHE = ResourceCache.class.getName();
+	private static final String CONTEXT_DIR_NAME_ROOT = "_root";
+	private static final String HEX_DIGITS = "0123456789abcdef";
+	private static final String FILE_EXTENSION = ".cache";
+	private static final String FILE_PREFIX = "liferay-faces-resource-";
+	private static final int FILE_FORMAT_VERSION = 1;
+
+	// Private Data Members
+	private File diskDir;
+	private Map<String, DiskEntry> diskMap;
+	private long diskSize;
+	private final Object lock = new Object();
+	private long maxDiskSize;
+	private long maxMemorySize;
+	private Map<String, CachedResource> memoryMap;
+	private long memorySize;
+
+	/**
+	 * @param  maxMemorySize  The maximum number of bytes that can be held in memory.
+	 * @param  diskDir        The directory to which entries evicted from memory are written, or <code>null</code> if
+	 *                        the on-disk cache is disabled. The directory must not be used by another instance, since
+	 *                        entries that were written by a previous instance are deleted.
+	 * @param  maxDiskSize    The maximum number of bytes that can be held on disk.
+	 */
+	public ResourceCache(long maxMemorySize, File diskDir, long maxDiskSize) {
+
+		this.maxMemorySize = maxMemorySize;
+		this.maxDiskSize = maxDiskSize;
+		this.memoryMap = new LinkedHashMap<String, CachedResource>(16, 0.75f, true);
+		this.diskMap = new LinkedHashMap<String, DiskEntry>(16, 0.75f, true);
+
+		if ((diskDir != null) && (diskDir.isDirectory() || diskDir.mkdirs())) {
+
+			this.diskDir = diskDir;
+
+			// Entries that were written by a previous instance of the application might be stale, so delete them. Files
+			// that were not created by this class are left alone.
+			File[] staleFiles = diskDir.listFiles();
+
+			if (staleFiles != null) {
+
+				for (File staleFile : staleFiles) {
+
+					if (staleFile.getName().startsWith(FILE_PREFIX)) {
+						staleFile.delete();
+					}
+				}
+			}
+		}
+		else if (diskDir != null) {
+			logger.error("Unable to use directory=[{0}] for the on-disk resource cache", diskDir.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Returns the application-scoped instance of the resource cache, or <code>null</code> if resource caching is
+	 * disabled or the JSF ProjectStage is Development.
+	 */
+	public static ResourceCache getInstance(FacesContext facesContext) {
+
+		ResourceCache resourceCache = null;
+		ExternalContext externalContext = facesContext.getExternalContext();
+
+		if (WebConfigParam.ResourceCacheEnabled.getBooleanValue(externalContext) &&
+				!facesContext.isProjectStage(ProjectStage.Development)) {
+
+			Map<String, Object> applicationMap = externalContext.getApplicationMap();
+			resourceCache = (ResourceCache) applicationMap.get(ATTR_RESOURCE_CACHE);
+
+			if (resourceCache == null) {
+
+				synchronized (ResourceCache.class) {
+
+					resourceCache = (ResourceCache) applicationMap.get(ATTR_RESOURCE_CACHE);
+
+					if (resourceCache == null) {
+
+						long maxMemorySize = WebConfigParam.ResourceCacheMaxSize.getLongValue(externalContext);
+						String diskDirName = WebConfigParam.ResourceCacheDir.getStringValue(externalContext);
+						File diskDir = null;
+
+						if ((diskDirName != null) && (diskDirName.trim().length() > 0)) {
+
+							String contextPath = externalContext.getRequestContextPath();
+							diskDir = new File(diskDirName.trim(), getContextDirName(contextPath));
+						}
+
+						long maxDiskSize = WebConfigParam.ResourceCacheDirMaxSize.getLongValue(externalContext);
+						resourceCache = new ResourceCache(maxMemorySize, diskDir, maxDiskSize);
+						applicationMap.put(ATTR_RESOURCE_CACHE, resourceCache);
+					}
+				}
+			}
+		}
+
+		return resourceCache;
+	}
+
+	/**
+	 * Returns the name of the subdirectory of the on-disk cache directory for the application with the specified
+	 * context path. Characters other than letters, digits, and hyphens are escaped as an underscore followed by two hex
+	 * digits, so that different context paths always result in different names.
+	 */
+	protected static String getContextDirName(String contextPath) {
+
+		if ((contextPath == null) || (contextPath.length() == 0) || StringPool.FORWARD_SLASH.equals(contextPath)) {
+			return CONTEXT_DIR_NAME_ROOT;
+		}
+
+		if (contextPath.startsWith(StringPool.FORWARD_SLASH)) {
+			contextPath = contextPath.substring(1);
+		}
+
+		StringBuilder buf = new StringBuilder(contextPath.length());
+
+		try {
+
+			for (byte b : contextPath.getBytes(StringPool.UTF8)) {
+
+				if (((b >= 'a') && (b <= 'z')) || ((b >= 'A') && (b <= 'Z')) || ((b >= '0') && (b <= '9')) ||
+						(b == '-')) {
+					buf.append((char) b);
+				}
+				else {
+					buf.append('_');
+					buf.append(HEX_DIGITS.charAt((b >> 4) & 0xF));
+					buf.append(HEX_DIGITS.charAt(b & 0xF));
+				}
+			}
+		}
+		catch (UnsupportedEncodingException e) {
+
+			// Every implementation of the Java platform is required to support UTF-8.
+			throw new IllegalStateException(e);
+		}
+
+		return buf.toString();
+	}
+
+	public void clear() {
+
+		List<DiskEntry> diskEntries;
+
+		synchronized (lock) {
+			memoryMap.clear();
+			memorySize = 0L;
+			diskEntries = new ArrayList<DiskEntry>(diskMap.values());
+			diskMap.clear();
+			diskSize = 0L;
+		}
+
+		for (DiskEntry diskEntry : diskEntries) {
+			diskEntry.file.delete();
+		}
+	}
+
+	/**
+	 * Returns the cached resource associated with the specified key, or <code>null</code> if there is none.
+	 */
+	public CachedResource get(String key) {
+
+		CachedResource cachedResource;
+		DiskEntry diskEntry = null;
+
+		synchronized (lock) {
+			cachedResource = memoryMap.get(key);
+
+			if (cachedResource == null) {
+				diskEntry = diskMap.remove(key);
+
+				if (diskEntry != null) {
+					diskSize -= diskEntry.size;
+				}
+			}
+		}
+
+		// If the entry was found on disk, then read it and promote it back into memory.
+		if (diskEntry != null) {
+
+			cachedResource = readFile(diskEntry.file, key);
+			diskEntry.file.delete();
+
+			if (cachedResource != null) {
+				putInMemory(key, cachedResource);
+			}
+		}
+
+		return cachedResource;
+	}
+
+	/**
+	 * Creates a cached resource for the specified contents and associates it with the specified key.
+	 *
+	 * @param   key           The key, which must identify the resource by library, name, locale, and version.
+	 * @param   content       The raw contents of the resource.
+	 * @param   lastModified  The date in which the resource was last modified.
+	 *
+	 * @return  The cached resource.
+	 */
+	public CachedResource put(String key, byte[] content, long lastModified) {
+
+		CachedResource cachedResource = new CachedResource(content, lastModified);
+		putInMemory(key, cachedResource);
+
+		return cachedResource;
+	}
+
+	protected void putInMemory(String key, CachedResource cachedResource) {
+
+		List<String> evictedKeys = null;
+		List<CachedResource> evictedResources = null;
+
+		synchronized (lock) {
+
+			CachedResource oldCachedResource = memoryMap.put(key, cachedResource);
+			memorySize += cachedResource.getSize();
+
+			if (oldCachedResource != null) {
+				memorySize -= oldCachedResource.getSize();
+			}
+
+			// Since the map is maintained in access order, the iterator returns the least recently used entries first.
+			Iterator<Map.Entry<String, CachedResource>> iterator = memoryMap.entrySet().iterator();
+
+			while ((memorySize > maxMemorySize) && iterator.hasNext()) {
+
+				Map.Entry<String, CachedResource> mapEntry = iterator.next();
+				CachedResource evictedResource = mapEntry.getValue();
+				iterator.remove();
+				memorySize -= evictedResource.getSize();
+
+				if (diskDir != null) {
+
+					if (evictedKeys == null) {
+						evictedKeys = new ArrayList<String>();
+						evictedResources = new ArrayList<CachedResource>();
+					}
+
+					evictedKeys.add(mapEntry.getKey());
+					evictedResources.add(evictedResource);
+				}
+			}
+		}
+
+		if (evictedKeys != null) {
+
+			for (int i = 0; i < evictedKeys.size(); i++) {
+				putOnDisk(evictedKeys.get(i), evictedResources.get(i));
+			}
+		}
+	}
+
+	protected void putOnDisk(String key, CachedResource cachedResource) {
+
+		long size = cachedResource.getSize();
+
+		if (size <= maxDiskSize) {
+
+			File file = writeFile(key, cachedResource);
+
+			if (file != null) {
+
+				List<DiskEntry> evictedEntries = new ArrayList<DiskEntry>();
+
+				synchronized (lock) {
+
+					DiskEntry oldDiskEntry = diskMap.put(key, new DiskEntry(file, size));
+					diskSize += size;
+
+					if (oldDiskEntry != null) {
+						diskSize -= oldDiskEntry.size;
+					}
+
+					Iterator<DiskEntry> iterator = diskMap.values().iterator();
+
+					while ((diskSize > maxDiskSize) && iterator.hasNext()) {
+						DiskEntry evictedEntry = iterator.next();
+						iterator.remove();
+						diskSize -= evictedEntry.size;
+						evictedEntries.add(evictedEntry);
+					}
+				}
+
+				for (DiskEntry evictedEntry : evictedEntries) {
+
+					// The file name is derived from the key, so the file may have been rewritten for the same key.
+					if (!evictedEntry.file.equals(file)) {
+						evictedEntry.file.delete();
+					}
+				}
+			}
+		}
+	}
+
+	protected CachedResource readFile(File file, String key) {
+
+		CachedResource cachedResource = null;
+		DataInputStream dataInputStream = null;
+
+		try {
+			dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+			if ((dataInputStream.readInt() == FILE_FORMAT_VERSION) && key.equals(dataInputStream.readUTF())) {
+				cachedResource = CachedResource.read(dataInputStream);
+			}
+		}
+		catch (IOException e) {
+			logger.error("Unable to read resource cache file=[{0}] error=[{1}]", file.getAbsolutePath(),
+				e.getMessage());
+		}
+		finally {
+
+			if (dataInputStream != null) {
+
+				try {
+					dataInputStream.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+
+		return cachedResource;
+	}
+
+	protected File writeFile(String key, CachedResource cachedResource) {
+
+		File file = null;
+		File tempFile = null;
+		DataOutputStream dataOutputStream = null;
+
+		try {
+			String fileName = getFileName(key);
+			tempFile = File.createTempFile(fileName, null, diskDir);
+			dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			dataOutputStream.writeInt(FILE_FORMAT_VERSION);
+			dataOutputStream.writeUTF(key);
+			cachedResource.write(dataOutputStream);
+			dataOutputStream.close();
+			dataOutputStream = null;
+
+			// Rename the temporary file so that a partially written file can never be read.
+			file = new File(diskDir, fileName + FILE_EXTENSION);
+
+			if (file.exists()) {
+				file.delete();
+			}
+
+			if (!tempFile.renameTo(file)) {
+				file = null;
+			}
+		}
+		catch (IOException e) {
+			logger.error("Unable to write resource cache file for key=[{0}] error=[{1}]", key, e.getMessage());
+		}
+		finally {
+
+			if (dataOutputStream != null) {
+
+				try {
+					dataOutputStream.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+
+			if ((file == null) && (tempFile != null)) {
+				tempFile.delete();
+			}
+		}
+
+		return file;
+	}
+
+	/**
+	 * Returns the number of bytes that are currently held in the on-disk cache.
+	 */
+	public long getDiskSize() {
+
+		synchronized (lock) {
+			return diskSize;
+		}
+	}
+
+	protected String getFileName(String key) {
+
+		try {
+			return FILE_PREFIX + CachedResource.toHexString(CachedResource.digest(key.getBytes(StringPool.UTF8)));
+		}
+		catch (UnsupportedEncodingException e) {
+
+			// Every implementation of the Java platform is required to support UTF-8.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes that are currently held in the in-memory cache.
+	 */
+	public long getMemorySize() {
+
+		synchronized (lock) {
+			return memorySize;
+		}
+	}
+
+	private static final class DiskEntry {
+
+		// Private Data Members
+		private final File file;
+		private final long size;
+
+		public DiskEntry(File file, long size) {
+			this.file = file;
+			this.size = size;
+		}
+	}
+}
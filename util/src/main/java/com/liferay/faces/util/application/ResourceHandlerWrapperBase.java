@@ -13,14 +13,23 @@
  */
 package com.liferay.faces.util.application;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
 
 import javax.faces.application.Resource;
 import javax.faces.application.ResourceHandler;
@@ -29,15 +38,24 @@ import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.servlet.http.HttpServletResponse;
 
+import com.liferay.faces.util.io.ByteBufferPool;
 import com.liferay.faces.util.io.Filterable;
 import com.liferay.faces.util.io.ResourceOutputStream;
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
+import com.liferay.faces.util.render.HttpHeaders;
 
 
 /**
  * This is an abstract class provides base functionality for a {@link ResourceHandler} that can write the contents of a
- * {@link Resource} to the underlying response.
+ * {@link Resource} to the underlying response. When the {@link ResourceCache} is enabled, the contents of resources
+ * that have a cache key (see {@link #getResourceCacheKey(FacesContext, Resource)}) are cached on the server, served
+ * with a strong ETag, served in gzip form when the user-agent accepts it, and answered with HTTP 304 (Not Modified)
+ * when the If-None-Match or If-Modified-Since request headers indicate that the user-agent already has the current
+ * version. The contents of other resources that are not {@link Filterable} and have a known length (see {@link
+ * #getContentLength(FacesContext, Resource)}) are streamed directly to the response without being buffered, and
+ * single byte-ranges requested via the Range and If-Range request headers are honored.
  *
  * @author  Neil Griffin
  */
@@ -49,6 +67,17 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(ResourceHandlerWrapperBase.class);
 
+	// Private Constants
+	private static final String BYTES = "bytes";
+	private static final String GZIP = "gzip";
+	private static final String HTTP_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+	private static final String REQUEST_PARAM_LOCALE = "loc";
+	private static final String REQUEST_PARAM_VERSION = "v";
+	private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+	// Private Static Data Members
+	private static final ByteBufferPool byteBufferPool = new ByteBufferPool(32);
+
 	// Private Data Members
 	private ResourceHandler wrappedResourceHandler;
 
@@ -62,8 +91,9 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 		String resourceName = resource.getResourceName();
 		String libraryName = resource.getLibraryName();
 		boolean needsUpdate = resource.userAgentNeedsUpdate(facesContext);
+		boolean ableToSetHttpStatusCode = isAbleToSetHttpStatusCode(facesContext);
 
-		if (!isAbleToSetHttpStatusCode(facesContext)) {
+		if (!ableToSetHttpStatusCode) {
 
 			if (!needsUpdate) {
 				needsUpdate = true;
@@ -73,14 +103,38 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 			}
 		}
 
+		// If the contents of the resource are present in the server-side cache, then write the cached contents to
+		// the response rather than reading the resource again.
+		ResourceCache resourceCache = null;
+		String resourceCacheKey = null;
+		CachedResource cachedResource = null;
+
 		if (needsUpdate) {
+
+			resourceCache = getResourceCache(facesContext);
+
+			if (resourceCache != null) {
+				resourceCacheKey = getResourceCacheKey(facesContext, resource);
+
+				if (resourceCacheKey != null) {
+					cachedResource = resourceCache.get(resourceCacheKey);
+				}
+			}
+		}
+
+		if (cachedResource != null) {
+
+			Map<String, String> responseHeaderMap = setResponseHeaders(externalContext, resource);
+			handleCachedResource(facesContext, resource, cachedResource, responseHeaderMap, ableToSetHttpStatusCode);
+		}
+		else if (needsUpdate) {
 			logger.trace("Handling - Resource was either modified or has not yet been downloaded.");
 
 			ReadableByteChannel readableByteChannel = null;
 			WritableByteChannel writableByteChannel = null;
 			InputStream inputStream = null;
 			int bufferSize = getBufferSize(facesContext);
-			ByteBuffer byteBuffer = ByteBuffer.allocate(bufferSize);
+			ByteBuffer byteBuffer = null;
 
 			try {
 
@@ -90,41 +144,30 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 				if (inputStream != null) {
 
 					// Set the response headers by copying them from the resource.
-					Map<String, String> responseHeaderMap = resource.getResponseHeaders();
-
-					if (responseHeaderMap != null) {
-						Iterator<Map.Entry<String, String>> itr = responseHeaderMap.entrySet().iterator();
-
-						while (itr.hasNext()) {
-							Map.Entry<String, String> mapEntry = itr.next();
-							String name = mapEntry.getKey();
-							String value = mapEntry.getValue();
-							externalContext.setResponseHeader(name, value);
-
-							if (logger.isDebugEnabled()) {
-
-								// Surround with isDebugEnabled check in order to avoid unnecessary creation
-								// of object array.
-								logger.debug("Handling - COPIED resource header name=[{0}] value=[{1}]",
-									new Object[] { name, value });
-							}
-						}
-					}
-
-					// Set the response Content-Type header.
+					Map<String, String> responseHeaderMap = setResponseHeaders(externalContext, resource);
 					String responseContentType = resource.getContentType();
-					logger.trace("Handling - responseContentType=[{0}]", responseContentType);
-
-					if (responseContentType != null) {
-						externalContext.setResponseContentType(responseContentType);
-					}
 
 					// Rather than write the input stream directly to the response, write it to an
 					// buffered output stream so that the length can be calculated for the
 					// Content-Length header. See: http://issues.liferay.com/browse/FACES-1207
 					ResourceOutputStream resourceOutputStream = getResourceOutputStream(resource, bufferSize);
 
+					// If the contents of the resource are not going to be cached or filtered, and the length is known
+					// up front, then stream the contents directly to the response rather than buffering them.
+					if ((resourceCacheKey == null) && !(resourceOutputStream instanceof Filterable)) {
+
+						long contentLength = getContentLength(facesContext, resource);
+
+						if (contentLength >= 0L) {
+							handleStreamedResource(facesContext, resource, inputStream, contentLength,
+								responseHeaderMap, ableToSetHttpStatusCode);
+
+							return;
+						}
+					}
+
 					int responseContentLength = 0;
+					byteBuffer = byteBufferPool.acquire(bufferSize);
 					readableByteChannel = Channels.newChannel(inputStream);
 					writableByteChannel = Channels.newChannel(resourceOutputStream);
 
@@ -165,6 +208,23 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 						filterable.filter();
 					}
 
+					// If the contents of the resource can be cached, then cache them and write the cached contents to
+					// the response. Note that the contents of a filtered resource might depend on the current request,
+					// so they are only cached if the subclass indicates that it is safe to do so.
+					if ((resourceCacheKey != null) &&
+							(!(resourceOutputStream instanceof Filterable) ||
+								isFilteredContentCacheable(facesContext, resource))) {
+
+						long lastModified = getLastModified(responseHeaderMap);
+						cachedResource = resourceCache.put(resourceCacheKey, resourceOutputStream.toByteArray(),
+								lastModified);
+						resourceOutputStream.close();
+						handleCachedResource(facesContext, resource, cachedResource, responseHeaderMap,
+							ableToSetHttpStatusCode);
+
+						return;
+					}
+
 					responseContentLength = resourceOutputStream.size();
 
 					// Now that we know how big the file is, set the response Content-Length header and the status.
@@ -217,6 +277,8 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 				if (inputStream != null) {
 					inputStream.close();
 				}
+
+				byteBufferPool.release(byteBuffer);
 			}
 		}
 		else {
@@ -233,14 +295,587 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 		}
 	}
 
+	/**
+	 * Writes the contents of the specified cached resource to the response. If the request headers indicate that the
+	 * user-agent already has the current version, then the HTTP status code is set to 304 (Not Modified) instead.
+	 * Otherwise, the gzip form of the contents is written if the user-agent accepts it.
+	 */
+	protected void handleCachedResource(FacesContext facesContext, Resource resource, CachedResource cachedResource,
+		Map<String, String> responseHeaderMap, boolean ableToSetHttpStatusCode) throws IOException {
+
+		ExternalContext externalContext = facesContext.getExternalContext();
+		String resourceName = resource.getResourceName();
+		String libraryName = resource.getLibraryName();
+
+		Map<String, String> requestHeaderMap = externalContext.getRequestHeaderMap();
+		byte[] content = cachedResource.getContent();
+		byte[] gzippedContent = cachedResource.getGzippedContent();
+		String eTag = cachedResource.getETag();
+		boolean gzipped = false;
+
+		// Since the gzip and identity forms of the contents are different representations of the resource, each of
+		// them has its own ETag.
+		if (gzippedContent != null) {
+
+			externalContext.setResponseHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+			if (isGzipAccepted(requestHeaderMap)) {
+				content = gzippedContent;
+				eTag = cachedResource.getGzippedETag();
+				gzipped = true;
+			}
+		}
+
+		externalContext.setResponseHeader(HttpHeaders.ETAG, eTag);
+
+		if ((responseHeaderMap == null) || !responseHeaderMap.containsKey(HttpHeaders.LAST_MODIFIED)) {
+			externalContext.setResponseHeader(HttpHeaders.LAST_MODIFIED,
+				formatHttpDate(cachedResource.getLastModified()));
+		}
+
+		if (ableToSetHttpStatusCode && isNotModified(requestHeaderMap, eTag, cachedResource.getLastModified())) {
+
+			externalContext.setResponseStatus(HttpServletResponse.SC_NOT_MODIFIED);
+
+			if (logger.isDebugEnabled()) {
+
+				// Surround with isDebugEnabled check in order to avoid unnecessary creation of object array.
+				logger.debug("HANDLED (SC_NOT_MODIFIED) resourceName=[{0}], libraryName[{1}], eTag=[{2}]",
+					new Object[] { resourceName, libraryName, eTag });
+			}
+		}
+		else {
+
+			if (gzipped) {
+				externalContext.setResponseHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+			}
+
+			String responseContentType = resource.getContentType();
+
+			if (responseContentType != null) {
+				externalContext.setResponseContentType(responseContentType);
+			}
+
+			externalContext.setResponseContentLength(content.length);
+			externalContext.setResponseStatus(HttpServletResponse.SC_OK);
+			externalContext.setResponseBufferSize(content.length);
+			externalContext.getResponseOutputStream().write(content);
+
+			if (logger.isDebugEnabled()) {
+				logger.debug(
+					"HANDLED (SC_OK) from cache resourceName=[{0}], libraryName[{1}], responseContentType=[{2}], responseContentLength=[{3}]",
+					new Object[] { resourceName, libraryName, responseContentType, content.length });
+			}
+		}
+	}
+
+	/**
+	 * Streams the contents of the specified resource to the response without buffering them. If the request contains a
+	 * Range header that specifies a single satisfiable byte-range (and the If-Range header, if present, matches the
+	 * Last-Modified or ETag response header) then only that range is written with the HTTP status code set to 206
+	 * (Partial Content).
+	 */
+	protected void handleStreamedResource(FacesContext facesContext, Resource resource, InputStream inputStream,
+		long contentLength, Map<String, String> responseHeaderMap, boolean ableToSetHttpStatusCode)
+		throws IOException {
+
+		ExternalContext externalContext = facesContext.getExternalContext();
+		String resourceName = resource.getResourceName();
+		String libraryName = resource.getLibraryName();
+		long firstBytePos = 0L;
+		long lastBytePos = contentLength - 1L;
+		int responseStatus = HttpServletResponse.SC_OK;
+
+		if (ableToSetHttpStatusCode) {
+
+			externalContext.setResponseHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+
+			Map<String, String> requestHeaderMap = externalContext.getRequestHeaderMap();
+			String range = requestHeaderMap.get(HttpHeaders.RANGE);
+
+			if ((range != null) && isIfRangeMatch(requestHeaderMap.get(HttpHeaders.IF_RANGE), responseHeaderMap)) {
+
+				long[] byteRange = parseRange(range, contentLength);
+
+				if (byteRange == UNSATISFIABLE_RANGE) {
+
+					externalContext.setResponseHeader(HttpHeaders.CONTENT_RANGE,
+						BYTES + " */" + Long.toString(contentLength));
+					externalContext.setResponseContentLength(0);
+					externalContext.setResponseStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					logger.debug("HANDLED (SC_REQUESTED_RANGE_NOT_SATISFIABLE) resourceName=[{0}], range=[{1}]",
+						resourceName, range);
+
+					return;
+				}
+				else if (byteRange != null) {
+
+					firstBytePos = byteRange[0];
+					lastBytePos = byteRange[1];
+					responseStatus = HttpServletResponse.SC_PARTIAL_CONTENT;
+					externalContext.setResponseHeader(HttpHeaders.CONTENT_RANGE,
+						BYTES + StringPool.SPACE + firstBytePos + StringPool.DASH + lastBytePos + StringPool.FORWARD_SLASH +
+						contentLength);
+				}
+			}
+		}
+
+		long responseContentLength = lastBytePos - firstBytePos + 1L;
+
+		if (responseContentLength <= Integer.MAX_VALUE) {
+			externalContext.setResponseContentLength((int) responseContentLength);
+		}
+		else {
+			externalContext.setResponseHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(responseContentLength));
+		}
+
+		externalContext.setResponseStatus(responseStatus);
+
+		// Skip the bytes that precede the requested range.
+		long bytesToSkip = firstBytePos;
+
+		while (bytesToSkip > 0L) {
+
+			long bytesSkipped = inputStream.skip(bytesToSkip);
+
+			if (bytesSkipped <= 0L) {
+
+				if (inputStream.read() == -1) {
+					break;
+				}
+
+				bytesSkipped = 1L;
+			}
+
+			bytesToSkip -= bytesSkipped;
+		}
+
+		// Copy the requested range to the response, reusing a pooled buffer.
+		ReadableByteChannel readableByteChannel = Channels.newChannel(inputStream);
+		WritableByteChannel writableByteChannel = Channels.newChannel(externalContext.getResponseOutputStream());
+		ByteBuffer byteBuffer = byteBufferPool.acquire(getBufferSize(facesContext));
+		long bytesRemaining = responseContentLength;
+
+		try {
+
+			while (bytesRemaining > 0L) {
+
+				byteBuffer.clear();
+
+				if (bytesRemaining < byteBuffer.capacity()) {
+					byteBuffer.limit((int) bytesRemaining);
+				}
+
+				int bytesRead = readableByteChannel.read(byteBuffer);
+
+				if (bytesRead == -1) {
+					break;
+				}
+
+				byteBuffer.flip();
+
+				while (byteBuffer.hasRemaining()) {
+					writableByteChannel.write(byteBuffer);
+				}
+
+				bytesRemaining -= bytesRead;
+			}
+		}
+		finally {
+			byteBufferPool.release(byteBuffer);
+		}
+
+		if (bytesRemaining > 0L) {
+			logger.warn("Resource resourceName=[{0}] ended {1} bytes before its expected length of {2} bytes",
+				resourceName, bytesRemaining, contentLength);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(
+				"HANDLED (streamed) resourceName=[{0}], libraryName[{1}], responseStatus=[{2}], responseContentLength=[{3}]",
+				new Object[] { resourceName, libraryName, responseStatus, responseContentLength });
+		}
+	}
+
 	protected int getBufferSize(FacesContext facesContext) {
 		return DEFAULT_BUFFER_SIZE;
 	}
 
+	/**
+	 * Returns the length (in bytes) of the contents of the specified resource, or -1 if the length cannot be determined
+	 * up front. The default implementation uses the Content-Length header of the resource if present, and otherwise
+	 * the length of the file or JAR entry that is referenced by {@link Resource#getURL()}. Since JSF implementations
+	 * may evaluate EL expressions within JavaScript and CSS resources as they are read, -1 is always returned for them.
+	 */
+	protected long getContentLength(FacesContext facesContext, Resource resource) {
+
+		long contentLength = -1L;
+
+		if (!isScriptOrStyleSheet(resource.getContentType())) {
+
+			Map<String, String> responseHeaderMap = resource.getResponseHeaders();
+
+			if ((responseHeaderMap != null) && responseHeaderMap.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+
+				try {
+					contentLength = Long.parseLong(responseHeaderMap.get(HttpHeaders.CONTENT_LENGTH).trim());
+				}
+				catch (NumberFormatException e) {
+					logger.trace("Unable to parse Content-Length of resourceName=[{0}]", resource.getResourceName());
+				}
+			}
+			else {
+
+				URL url = resource.getURL();
+
+				if (url != null) {
+
+					String protocol = url.getProtocol();
+
+					try {
+
+						if ("file".equals(protocol)) {
+
+							File file = new File(url.toURI());
+
+							if (file.isFile()) {
+								contentLength = file.length();
+							}
+						}
+						else if ("jar".equals(protocol)) {
+
+							URLConnection urlConnection = url.openConnection();
+							contentLength = urlConnection.getContentLength();
+						}
+					}
+					catch (IOException e) {
+						logger.trace("Unable to determine the length of url=[{0}]: {1}", url, e.getMessage());
+					}
+					catch (URISyntaxException e) {
+						logger.trace("Unable to determine the length of url=[{0}]: {1}", url, e.getMessage());
+					}
+				}
+			}
+		}
+
+		return contentLength;
+	}
+
 	protected boolean isAbleToSetHttpStatusCode(FacesContext facesContext) {
 		return true;
 	}
 
+	/**
+	 * Determines whether or not the filtered contents of the specified resource can be placed in the {@link
+	 * ResourceCache}. The default implementation returns <code>false</code> since the output of a {@link Filterable}
+	 * stream might depend on the current request. Subclasses whose filters only depend on the application can {@link
+	 * Override} this method.
+	 */
+	protected boolean isFilteredContentCacheable(FacesContext facesContext, Resource resource) {
+		return false;
+	}
+
+	/**
+	 * Returns the {@link ResourceCache} that is to be used for caching the contents of resources, or <code>null</code>
+	 * if caching is disabled. The default implementation returns the value of {@link
+	 * ResourceCache#getInstance(FacesContext)}.
+	 */
+	protected ResourceCache getResourceCache(FacesContext facesContext) {
+		return ResourceCache.getInstance(facesContext);
+	}
+
+	/**
+	 * Returns the key that uniquely identifies the contents of the specified resource in the {@link ResourceCache}, or
+	 * <code>null</code> if the contents are not to be cached. The default implementation only returns a key for
+	 * JavaScript resources, consisting of the library name, resource name, locale, and version. CSS resources are not
+	 * cached since the JSF implementation evaluates the #{resource[...]} expressions that they contain, and the
+	 * resulting URLs are encoded for the current request. Subclasses that serve resources whose contents depend on
+	 * other request parameters must {@link Override} this method.
+	 */
+	protected String getResourceCacheKey(FacesContext facesContext, Resource resource) {
+
+		String resourceCacheKey = null;
+		String contentType = resource.getContentType();
+
+		if (isScript(contentType)) {
+
+			Map<String, String> requestParameterMap = facesContext.getExternalContext().getRequestParameterMap();
+			StringBuilder buf = new StringBuilder();
+			buf.append(resource.getLibraryName());
+			buf.append(StringPool.FORWARD_SLASH);
+			buf.append(resource.getResourceName());
+			buf.append(StringPool.QUESTION);
+			buf.append(REQUEST_PARAM_LOCALE);
+			buf.append(StringPool.EQUAL);
+			buf.append(requestParameterMap.get(REQUEST_PARAM_LOCALE));
+			buf.append(StringPool.AMPERSAND);
+			buf.append(REQUEST_PARAM_VERSION);
+			buf.append(StringPool.EQUAL);
+			buf.append(requestParameterMap.get(REQUEST_PARAM_VERSION));
+			resourceCacheKey = buf.toString();
+		}
+
+		return resourceCacheKey;
+	}
+
+	/**
+	 * Parses the value of the specified Range request header. Returns <code>null</code> if the header is to be ignored
+	 * (because it is syntactically invalid or requests multiple ranges), an empty array if none of the requested
+	 * bytes exist, or otherwise an array containing the positions of the first and last bytes.
+	 */
+	static long[] parseRange(String range, long contentLength) {
+
+		range = range.trim();
+
+		if (!range.startsWith(BYTES + StringPool.EQUAL) || (range.indexOf(StringPool.COMMA) >= 0)) {
+			return null;
+		}
+
+		String byteRangeSpec = range.substring(BYTES.length() + 1).trim();
+		int dashPos = byteRangeSpec.indexOf(StringPool.DASH);
+
+		if (dashPos < 0) {
+			return null;
+		}
+
+		String firstBytePosToken = byteRangeSpec.substring(0, dashPos).trim();
+		String lastBytePosToken = byteRangeSpec.substring(dashPos + 1).trim();
+		long firstBytePos;
+		long lastBytePos;
+
+		try {
+
+			if (firstBytePosToken.length() == 0) {
+
+				// A suffix-byte-range-spec such as "bytes=-500" requests the last 500 bytes.
+				long suffixLength = Long.parseLong(lastBytePosToken);
+
+				if (suffixLength <= 0L) {
+					return UNSATISFIABLE_RANGE;
+				}
+
+				firstBytePos = Math.max(0L, contentLength - suffixLength);
+				lastBytePos = contentLength - 1L;
+			}
+			else {
+
+				firstBytePos = Long.parseLong(firstBytePosToken);
+
+				if (lastBytePosToken.length() == 0) {
+					lastBytePos = contentLength - 1L;
+				}
+				else {
+
+					lastBytePos = Long.parseLong(lastBytePosToken);
+
+					if (lastBytePos < firstBytePos) {
+						return null;
+					}
+
+					lastBytePos = Math.min(lastBytePos, contentLength - 1L);
+				}
+			}
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+
+		if ((firstBytePos < 0L) || (firstBytePos >= contentLength)) {
+			return UNSATISFIABLE_RANGE;
+		}
+
+		return new long[] { firstBytePos, lastBytePos };
+	}
+
+	private static String formatHttpDate(long time) {
+
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.US);
+		simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+		return simpleDateFormat.format(new Date(time));
+	}
+
+	private static long parseHttpDate(String value) {
+
+		long time = -1L;
+
+		if (value != null) {
+
+			SimpleDateFormat simpleDateFormat = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.US);
+			simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+			try {
+				time = simpleDateFormat.parse(value.trim()).getTime();
+			}
+			catch (ParseException e) {
+				logger.trace("Unable to parse HTTP date=[{0}]", value);
+			}
+		}
+
+		return time;
+	}
+
+	private long getLastModified(Map<String, String> responseHeaderMap) {
+
+		long lastModified = -1L;
+
+		if (responseHeaderMap != null) {
+			lastModified = parseHttpDate(responseHeaderMap.get(HttpHeaders.LAST_MODIFIED));
+		}
+
+		if (lastModified == -1L) {
+
+			// HTTP dates have a precision of one second.
+			lastModified = (System.currentTimeMillis() / 1000L) * 1000L;
+		}
+
+		return lastModified;
+	}
+
+	private boolean isGzipAccepted(Map<String, String> requestHeaderMap) {
+
+		String acceptEncoding = requestHeaderMap.get(HttpHeaders.ACCEPT_ENCODING);
+
+		if (acceptEncoding != null) {
+
+			for (String coding : acceptEncoding.split(StringPool.COMMA)) {
+
+				String[] codingParts = coding.split(StringPool.SEMICOLON);
+				String codingName = codingParts[0].trim();
+
+				if (GZIP.equalsIgnoreCase(codingName) || StringPool.STAR.equals(codingName)) {
+
+					boolean accepted = true;
+
+					for (int i = 1; i < codingParts.length; i++) {
+
+						String codingParam = codingParts[i].trim();
+
+						if (codingParam.startsWith("q=")) {
+
+							try {
+								accepted = (Float.parseFloat(codingParam.substring(2)) > 0.0f);
+							}
+							catch (NumberFormatException e) {
+								accepted = false;
+							}
+						}
+					}
+
+					return accepted;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private boolean isIfRangeMatch(String ifRange, Map<String, String> responseHeaderMap) {
+
+		boolean match = false;
+
+		if (ifRange == null) {
+			match = true;
+		}
+		else if (responseHeaderMap != null) {
+
+			ifRange = ifRange.trim();
+
+			if (ifRange.startsWith(StringPool.QUOTE) || ifRange.startsWith("W/")) {
+
+				// Note that the strong comparison function is used for If-Range, so weak entity tags never match.
+				String eTag = responseHeaderMap.get(HttpHeaders.ETAG);
+				match = (eTag != null) && !eTag.startsWith("W/") && eTag.equals(ifRange);
+			}
+			else {
+
+				long lastModified = parseHttpDate(responseHeaderMap.get(HttpHeaders.LAST_MODIFIED));
+				long ifRangeDate = parseHttpDate(ifRange);
+				match = (lastModified != -1L) && ((lastModified / 1000L) == (ifRangeDate / 1000L));
+			}
+		}
+
+		return match;
+	}
+
+	private boolean isNotModified(Map<String, String> requestHeaderMap, String eTag, long lastModified) {
+
+		boolean notModified = false;
+		String ifNoneMatch = requestHeaderMap.get(HttpHeaders.IF_NONE_MATCH);
+
+		// According to RFC 7232, the If-Modified-Since header must be ignored if the If-None-Match header is present.
+		if (ifNoneMatch != null) {
+
+			for (String entityTag : ifNoneMatch.split(StringPool.COMMA)) {
+
+				entityTag = entityTag.trim();
+
+				// Note that the weak comparison function is used for If-None-Match.
+				if (entityTag.startsWith("W/")) {
+					entityTag = entityTag.substring(2);
+				}
+
+				if (StringPool.STAR.equals(entityTag) || eTag.equals(entityTag)) {
+					notModified = true;
+
+					break;
+				}
+			}
+		}
+		else {
+
+			long ifModifiedSince = parseHttpDate(requestHeaderMap.get(HttpHeaders.IF_MODIFIED_SINCE));
+
+			if (ifModifiedSince != -1L) {
+				notModified = ((lastModified / 1000L) <= (ifModifiedSince / 1000L));
+			}
+		}
+
+		return notModified;
+	}
+
+	private boolean isScript(String contentType) {
+		return (contentType != null) && (contentType.indexOf("javascript") > 0);
+	}
+
+	private boolean isScriptOrStyleSheet(String contentType) {
+		return (contentType != null) && (contentType.startsWith("text/css") || isScript(contentType));
+	}
+
+	private Map<String, String> setResponseHeaders(ExternalContext externalContext, Resource resource) {
+
+		// Set the response headers by copying them from the resource.
+		Map<String, String> responseHeaderMap = resource.getResponseHeaders();
+
+		if (responseHeaderMap != null) {
+			Iterator<Map.Entry<String, String>> itr = responseHeaderMap.entrySet().iterator();
+
+			while (itr.hasNext()) {
+				Map.Entry<String, String> mapEntry = itr.next();
+				String name = mapEntry.getKey();
+				String value = mapEntry.getValue();
+				externalContext.setResponseHeader(name, value);
+
+				if (logger.isDebugEnabled()) {
+
+					// Surround with isDebugEnabled check in order to avoid unnecessary creation of object array.
+					logger.debug("Handling - COPIED resource header name=[{0}] value=[{1}]",
+						new Object[] { name, value });
+				}
+			}
+		}
+
+		// Set the response Content-Type header.
+		String responseContentType = resource.getContentType();
+		logger.trace("Handling - responseContentType=[{0}]", responseContentType);
+
+		if (responseContentType != null) {
+			externalContext.setResponseContentType(responseContentType);
+		}
+
+		return responseHeaderMap;
+	}
+
 	/**
 	 * This is a factory-style method that returns a {@link ResourceOutputStream} for the specified {@link Resource}.
 	 * The default implementation in this class simply returns an instance of {@link ResourceOutputStream}. Subclasses
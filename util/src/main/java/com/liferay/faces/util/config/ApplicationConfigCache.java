@@ -0,0 +1,519 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.liferay.faces.util.lang.StringPool;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class persists the {@link FacesConfig} and {@link WebConfig} that are discovered at startup to a file, so that
+ * subsequent restarts can avoid parsing all of the descriptors in the classpath when none of them have changed. The
+ * cache file is keyed by a fingerprint of the path, size, and last-modified time of each jar that contains a
+ * descriptor, and of the contents of all other descriptors. If the cache file is missing, stale, or corrupt, then
+ * {@link #read(byte[], String)} returns <code>null</code> so that the caller can fall back to a fresh scan.
+ *
+ * @author  Neil Griffin
+ */
+public class ApplicationConfigCache {
+
+	// Public Constants
+	public static final String FILE_NAME = "liferay-faces-util-config.cache";
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(ApplicationConfigCache.class);
+
+	// Private Constants
+	private static final String[] CLASSPATH_DESCRIPTOR_PATHS = new String[] {
+			"META-INF/web-fragment.xml", "com/sun/faces/jsf-ri-runtime.xml", "META-INF/faces-config.xml"
+		};
+	private static final int FILE_FORMAT_VERSION = 1;
+	private static final String JAR_PROTOCOL = "jar";
+	private static final String JAR_SEPARATOR = "!/";
+	private static final String[] WEB_INF_DESCRIPTOR_PATHS = new String[] {
+			"/WEB-INF/web.xml", "/WEB-INF/liferay-web.xml", "/WEB-INF/faces-config.xml"
+		};
+
+	// Private Data Members
+	private File file;
+
+	public ApplicationConfigCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns a fingerprint of all of the descriptors that are scanned at startup. Jars are identified by their path,
+	 * size, and last-modified time so that their contents do not need to be read. All other descriptors (such as those
+	 * found in WEB-INF or in an exploded directory in the classpath) are identified by a digest of their contents.
+	 */
+	public byte[] newFingerprint(ClassLoader classLoader, ResourceReader resourceReader, boolean resolveEntities)
+		throws IOException {
+
+		MessageDigest messageDigest = newMessageDigest();
+		updateDigest(messageDigest, Integer.toString(FILE_FORMAT_VERSION));
+		updateDigest(messageDigest, Boolean.toString(resolveEntities));
+
+		for (String classpathDescriptorPath : CLASSPATH_DESCRIPTOR_PATHS) {
+
+			updateDigest(messageDigest, classpathDescriptorPath);
+
+			Enumeration<URL> urls = classLoader.getResources(classpathDescriptorPath);
+
+			if (urls != null) {
+
+				while (urls.hasMoreElements()) {
+
+					URL url = urls.nextElement();
+					updateDigest(messageDigest, url.toString());
+
+					File jarFile = getJarFile(url);
+
+					if (jarFile == null) {
+						updateDigest(messageDigest, url.openStream());
+					}
+					else {
+						updateDigest(messageDigest, Long.toString(jarFile.length()));
+						updateDigest(messageDigest, Long.toString(jarFile.lastModified()));
+					}
+				}
+			}
+		}
+
+		for (String webInfDescriptorPath : WEB_INF_DESCRIPTOR_PATHS) {
+
+			updateDigest(messageDigest, webInfDescriptorPath);
+
+			InputStream inputStream = resourceReader.getResourceAsStream(webInfDescriptorPath);
+
+			if (inputStream != null) {
+				updateDigest(messageDigest, inputStream);
+			}
+		}
+
+		return messageDigest.digest();
+	}
+
+	/**
+	 * Returns the cached application configuration, or <code>null</code> if the cache file does not exist, does not
+	 * match the specified fingerprint, or cannot be read.
+	 */
+	public ApplicationConfig read(byte[] fingerprint, String contextPath) {
+
+		ApplicationConfig applicationConfig = null;
+
+		if (file.isFile()) {
+
+			DataInputStream dataInputStream = null;
+
+			try {
+				dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+				if (dataInputStream.readInt() == FILE_FORMAT_VERSION) {
+
+					byte[] cachedFingerprint = new byte[dataInputStream.readInt()];
+					dataInputStream.readFully(cachedFingerprint);
+
+					if (Arrays.equals(fingerprint, cachedFingerprint)) {
+						WebConfig webConfig = readWebConfig(dataInputStream);
+						FacesConfig facesConfig = readFacesConfig(dataInputStream);
+						applicationConfig = new ApplicationConfigImpl(contextPath, facesConfig, webConfig);
+					}
+					else {
+						logger.debug("Ignoring stale application config cache file=[{0}]", file.getAbsolutePath());
+					}
+				}
+			}
+			catch (Exception e) {
+
+				// A corrupt cache file is not fatal, since the descriptors can simply be scanned again.
+				logger.error("Unable to read application config cache file=[{0}] error=[{1}]", file.getAbsolutePath(),
+					e.getMessage());
+			}
+			finally {
+
+				if (dataInputStream != null) {
+
+					try {
+						dataInputStream.close();
+					}
+					catch (IOException e) {
+						// ignore
+					}
+				}
+			}
+		}
+
+		return applicationConfig;
+	}
+
+	/**
+	 * Writes the specified application configuration to the cache file so that it is associated with the specified
+	 * fingerprint.
+	 *
+	 * @return  <code>true</code> if the cache file was written, otherwise <code>false</code>.
+	 */
+	public boolean write(byte[] fingerprint, ApplicationConfig applicationConfig) {
+
+		boolean written = false;
+		File tempFile = null;
+		DataOutputStream dataOutputStream = null;
+
+		try {
+			tempFile = File.createTempFile(FILE_NAME, null, file.getParentFile());
+			dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			dataOutputStream.writeInt(FILE_FORMAT_VERSION);
+			dataOutputStream.writeInt(fingerprint.length);
+			dataOutputStream.write(fingerprint);
+			writeWebConfig(dataOutputStream, applicationConfig.getWebConfig());
+			writeFacesConfig(dataOutputStream, applicationConfig.getFacesConfig());
+			dataOutputStream.close();
+			dataOutputStream = null;
+
+			// Rename the temporary file so that a partially written file can never be read.
+			if (file.exists()) {
+				file.delete();
+			}
+
+			written = tempFile.renameTo(file);
+		}
+		catch (IOException e) {
+			logger.error("Unable to write application config cache file=[{0}] error=[{1}]", file.getAbsolutePath(),
+				e.getMessage());
+		}
+		finally {
+
+			if (dataOutputStream != null) {
+
+				try {
+					dataOutputStream.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+
+			if (!written && (tempFile != null)) {
+				tempFile.delete();
+			}
+		}
+
+		return written;
+	}
+
+	protected MessageDigest newMessageDigest() {
+
+		try {
+			return MessageDigest.getInstance("MD5");
+		}
+		catch (NoSuchAlgorithmException e) {
+
+			// Every implementation of the Java platform is required to support MD5.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	protected List<ConfiguredElement> readConfiguredElements(DataInputStream dataInputStream) throws IOException {
+
+		int size = dataInputStream.readInt();
+		List<ConfiguredElement> configuredElements = new ArrayList<ConfiguredElement>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredElements.add(new ConfiguredElementImpl(readString(dataInputStream),
+					readString(dataInputStream)));
+		}
+
+		return configuredElements;
+	}
+
+	protected List<ConfiguredServletMapping> readConfiguredServletMappings(DataInputStream dataInputStream)
+		throws IOException {
+
+		int size = dataInputStream.readInt();
+		List<ConfiguredServletMapping> configuredServletMappings = new ArrayList<ConfiguredServletMapping>(size);
+
+		for (int i = 0; i < size; i++) {
+
+			// Note: The remaining properties of the servlet-mapping are derived from the urlPattern.
+			configuredServletMappings.add(new ConfiguredServletMappingImpl(readString(dataInputStream),
+					readString(dataInputStream)));
+		}
+
+		return configuredServletMappings;
+	}
+
+	protected FacesConfig readFacesConfig(DataInputStream dataInputStream) throws IOException {
+
+		List<ConfiguredElement> configuredApplicationExtensions = readConfiguredElements(dataInputStream);
+		List<ConfiguredElement> configuredFactoryExtensions = readConfiguredElements(dataInputStream);
+		List<ConfiguredServletMapping> configuredFacesServletMappings = readConfiguredServletMappings(
+				dataInputStream);
+
+		int size = dataInputStream.readInt();
+		List<ConfiguredManagedBean> configuredManagedBeans = new ArrayList<ConfiguredManagedBean>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredManagedBeans.add(new ConfiguredManagedBeanImpl(readString(dataInputStream),
+					readString(dataInputStream), readString(dataInputStream)));
+		}
+
+		size = dataInputStream.readInt();
+
+		List<String> configuredSuffixes = new ArrayList<String>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredSuffixes.add(readString(dataInputStream));
+		}
+
+		size = dataInputStream.readInt();
+
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			new ArrayList<ConfiguredSystemEventListener>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredSystemEventListeners.add(new ConfiguredSystemEventListenerImpl(readString(dataInputStream),
+					readString(dataInputStream), readString(dataInputStream)));
+		}
+
+		return new FacesConfigImpl(configuredApplicationExtensions, configuredFactoryExtensions,
+				configuredFacesServletMappings, configuredManagedBeans, configuredSuffixes,
+				configuredSystemEventListeners);
+	}
+
+	protected String readString(DataInputStream dataInputStream) throws IOException {
+
+		String value = null;
+
+		if (dataInputStream.readBoolean()) {
+			value = dataInputStream.readUTF();
+		}
+
+		return value;
+	}
+
+	protected WebConfig readWebConfig(DataInputStream dataInputStream) throws IOException {
+
+		int size = dataInputStream.readInt();
+		Map<String, String> configuredContextParams = new HashMap<String, String>();
+
+		for (int i = 0; i < size; i++) {
+			configuredContextParams.put(readString(dataInputStream), readString(dataInputStream));
+		}
+
+		size = dataInputStream.readInt();
+
+		List<ConfiguredServlet> configuredServlets = new ArrayList<ConfiguredServlet>(size);
+
+		for (int i = 0; i < size; i++) {
+
+			String servletName = readString(dataInputStream);
+			String servletClass = readString(dataInputStream);
+			MultiPartConfig multiPartConfig = null;
+
+			if (dataInputStream.readBoolean()) {
+				multiPartConfig = new MultiPartConfigImpl(readString(dataInputStream), dataInputStream.readLong());
+			}
+
+			configuredServlets.add(new ConfiguredServletImpl(servletName, servletClass, multiPartConfig));
+		}
+
+		List<ConfiguredServletMapping> configuredServletMappings = readConfiguredServletMappings(dataInputStream);
+
+		return new WebConfigImpl(configuredContextParams, configuredServlets, configuredServletMappings);
+	}
+
+	protected void updateDigest(MessageDigest messageDigest, String value) {
+
+		try {
+			messageDigest.update(value.getBytes(StringPool.UTF8));
+			messageDigest.update((byte) 0);
+		}
+		catch (UnsupportedEncodingException e) {
+
+			// Every implementation of the Java platform is required to support UTF-8.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	protected void updateDigest(MessageDigest messageDigest, InputStream inputStream) throws IOException {
+
+		try {
+			byte[] buffer = new byte[4096];
+			int bytesRead;
+
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				messageDigest.update(buffer, 0, bytesRead);
+			}
+
+			messageDigest.update((byte) 0);
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	protected void writeConfiguredElements(DataOutputStream dataOutputStream,
+		List<ConfiguredElement> configuredElements) throws IOException {
+
+		dataOutputStream.writeInt(configuredElements.size());
+
+		for (ConfiguredElement configuredElement : configuredElements) {
+			writeString(dataOutputStream, configuredElement.getName());
+			writeString(dataOutputStream, configuredElement.getValue());
+		}
+	}
+
+	protected void writeConfiguredServletMappings(DataOutputStream dataOutputStream,
+		List<ConfiguredServletMapping> configuredServletMappings) throws IOException {
+
+		dataOutputStream.writeInt(configuredServletMappings.size());
+
+		for (ConfiguredServletMapping configuredServletMapping : configuredServletMappings) {
+			writeString(dataOutputStream, configuredServletMapping.getServletName());
+			writeString(dataOutputStream, configuredServletMapping.getUrlPattern());
+		}
+	}
+
+	protected void writeFacesConfig(DataOutputStream dataOutputStream, FacesConfig facesConfig) throws IOException {
+
+		writeConfiguredElements(dataOutputStream, facesConfig.getConfiguredApplicationExtensions());
+		writeConfiguredElements(dataOutputStream, facesConfig.getConfiguredFactoryExtensions());
+		writeConfiguredServletMappings(dataOutputStream, facesConfig.getConfiguredFacesServletMappings());
+
+		List<ConfiguredManagedBean> configuredManagedBeans = facesConfig.getConfiguredManagedBeans();
+		dataOutputStream.writeInt(configuredManagedBeans.size());
+
+		for (ConfiguredManagedBean configuredManagedBean : configuredManagedBeans) {
+			writeString(dataOutputStream, configuredManagedBean.getManagedBeanClass());
+			writeString(dataOutputStream, configuredManagedBean.getManagedBeanName());
+			writeString(dataOutputStream, configuredManagedBean.getManagedBeanScope());
+		}
+
+		List<String> configuredSuffixes = facesConfig.getConfiguredSuffixes();
+		dataOutputStream.writeInt(configuredSuffixes.size());
+
+		for (String configuredSuffix : configuredSuffixes) {
+			writeString(dataOutputStream, configuredSuffix);
+		}
+
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			facesConfig.getConfiguredSystemEventListeners();
+		dataOutputStream.writeInt(configuredSystemEventListeners.size());
+
+		for (ConfiguredSystemEventListener configuredSystemEventListener : configuredSystemEventListeners) {
+			writeString(dataOutputStream, configuredSystemEventListener.getSourceClass());
+			writeString(dataOutputStream, configuredSystemEventListener.getSystemEventClass());
+			writeString(dataOutputStream, configuredSystemEventListener.getSystemEventListenerClass());
+		}
+	}
+
+	protected void writeString(DataOutputStream dataOutputStream, String value) throws IOException {
+
+		dataOutputStream.writeBoolean(value != null);
+
+		if (value != null) {
+			dataOutputStream.writeUTF(value);
+		}
+	}
+
+	protected void writeWebConfig(DataOutputStream dataOutputStream, WebConfig webConfig) throws IOException {
+
+		Map<String, String> configuredContextParams = webConfig.getConfiguredContextParams();
+		dataOutputStream.writeInt(configuredContextParams.size());
+
+		for (Map.Entry<String, String> mapEntry : configuredContextParams.entrySet()) {
+			writeString(dataOutputStream, mapEntry.getKey());
+			writeString(dataOutputStream, mapEntry.getValue());
+		}
+
+		List<ConfiguredServlet> configuredServlets = webConfig.getConfiguredServlets();
+		dataOutputStream.writeInt(configuredServlets.size());
+
+		for (ConfiguredServlet configuredServlet : configuredServlets) {
+
+			writeString(dataOutputStream, configuredServlet.getServletName());
+			writeString(dataOutputStream, configuredServlet.getServletClass());
+
+			MultiPartConfig multiPartConfig = configuredServlet.getMultiPartConfig();
+			dataOutputStream.writeBoolean(multiPartConfig != null);
+
+			if (multiPartConfig != null) {
+				writeString(dataOutputStream, multiPartConfig.getLocation());
+				dataOutputStream.writeLong(multiPartConfig.getMaxFileSize());
+			}
+		}
+
+		writeConfiguredServletMappings(dataOutputStream, webConfig.getConfiguredServletMappings());
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the jar file that contains the resource with the specified URL, or <code>null</code> if the resource is
+	 * not contained in a jar file on the local filesystem.
+	 */
+	protected File getJarFile(URL url) {
+
+		File jarFile = null;
+
+		// Example: jar:file:/Servers/tomcat/webapps/portlet/WEB-INF/lib/foo.jar!/META-INF/faces-config.xml
+		if (JAR_PROTOCOL.equals(url.getProtocol())) {
+
+			String path = url.getPath();
+			int pos = path.indexOf(JAR_SEPARATOR);
+
+			if (pos > 0) {
+
+				try {
+					URL jarURL = new URL(path.substring(0, pos));
+
+					if ("file".equals(jarURL.getProtocol())) {
+						jarFile = new File(jarURL.toURI());
+					}
+				}
+				catch (Exception e) {
+					logger.debug("Unable to determine jar file for url=[{0}]", url);
+				}
+			}
+		}
+
+		if ((jarFile != null) && !jarFile.isFile()) {
+			jarFile = null;
+		}
+
+		return jarFile;
+	}
+}
@@ -33,12 +33,25 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 	private static final Logger logger = LoggerFactory.getLogger(ApplicationConfigInitializerImpl.class);
 
 	// Private Data Members
+	private ApplicationConfigCache applicationConfigCache;
 	private String contextPath;
 	private boolean resolveEntities;
 
 	public ApplicationConfigInitializerImpl(String contextPath, boolean resolveEntities) {
+		this(contextPath, resolveEntities, null);
+	}
+
+	/**
+	 * @param  contextPath             The context path of the web application.
+	 * @param  resolveEntities         Flag indicating whether or not XML entities should be resolved.
+	 * @param  applicationConfigCache  The cache from which the configuration is loaded (and to which it is written)
+	 *                                 instead of scanning the descriptors, or <code>null</code> if caching is disabled.
+	 */
+	public ApplicationConfigInitializerImpl(String contextPath, boolean resolveEntities,
+		ApplicationConfigCache applicationConfigCache) {
 		this.contextPath = contextPath;
 		this.resolveEntities = resolveEntities;
+		this.applicationConfigCache = applicationConfigCache;
 	}
 
 	public ApplicationConfig initialize() throws IOException {
@@ -49,6 +62,28 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 		// Obtain a ResourceReader that is compatible with a startup ExternalContext
 		ResourceReader resourceReader = newResourceReader();
 
+		// If none of the descriptors have changed since the cache was written, then there is no need to scan them.
+		byte[] fingerprint = null;
+
+		if (applicationConfigCache != null) {
+
+			try {
+				fingerprint = applicationConfigCache.newFingerprint(classLoader, resourceReader, resolveEntities);
+
+				ApplicationConfig applicationConfig = applicationConfigCache.read(fingerprint, contextPath);
+
+				if (applicationConfig != null) {
+					logger.debug("Loaded application config from cache file=[{0}]", applicationConfigCache.getFile());
+
+					return applicationConfig;
+				}
+			}
+			catch (IOException e) {
+				logger.error(e);
+				fingerprint = null;
+			}
+		}
+
 		// Obtain a SAX Parser Factory.
 		SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
 		saxParserFactory.setValidating(false);
@@ -69,7 +104,13 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 					resolveEntities, webConfig);
 			FacesConfig facesConfig = facesConfigScanner.scan();
 
-			return new ApplicationConfigImpl(contextPath, facesConfig, webConfig);
+			ApplicationConfig applicationConfig = new ApplicationConfigImpl(contextPath, facesConfig, webConfig);
+
+			if (fingerprint != null) {
+				applicationConfigCache.write(fingerprint, applicationConfig);
+			}
+
+			return applicationConfig;
 		}
 		catch (Exception e) {
 
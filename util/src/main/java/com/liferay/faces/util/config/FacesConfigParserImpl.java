@@ -23,6 +23,7 @@ import javax.xml.parsers.SAXParser;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 import com.liferay.faces.util.xml.SAXHandlerBase;
@@ -54,6 +55,7 @@ public class FacesConfigParserImpl extends SAXHandlerBase implements FacesConfig
 	private List<ConfiguredManagedBean> configuredManagedBeans;
 	private List<String> configuredSuffixes;
 	private List<ConfiguredSystemEventListener> configuredSystemEventListeners;
+	private String facesConfigName;
 	private String managedBeanClass;
 	private String managedBeanName;
 	private boolean parsingApplicationExtension;
@@ -61,6 +63,7 @@ public class FacesConfigParserImpl extends SAXHandlerBase implements FacesConfig
 	private boolean parsingManagedBeanClass;
 	private boolean parsingManagedBeanName;
 	private boolean parsingManagedBeanScope;
+	private boolean parsingName;
 	private boolean parsingSourceClass;
 	private boolean parsingSystemEventClass;
 	private boolean parsingSystemEventListener;
@@ -169,6 +172,16 @@ public class FacesConfigParserImpl extends SAXHandlerBase implements FacesConfig
 			configuredSystemEventListeners.add(configuredSystemEventListener);
 			parsingSystemEventListener = false;
 		}
+		else if (parsingName) {
+
+			String name = content.toString().trim();
+
+			if (name.length() > 0) {
+				facesConfigName = name;
+			}
+
+			parsingName = false;
+		}
 		else {
 			super.endElement(uri, localName, elementName);
 		}
@@ -178,6 +191,8 @@ public class FacesConfigParserImpl extends SAXHandlerBase implements FacesConfig
 
 	public FacesConfig parse(InputStream inputStream, FacesConfig facesConfig) throws IOException {
 
+		this.facesConfigName = null;
+
 		List<ConfiguredElement> configuredApplicationExtensions = facesConfig.getConfiguredApplicationExtensions();
 		this.configuredApplicationExtensions = new ArrayList<ConfiguredElement>(configuredApplicationExtensions);
 
@@ -249,11 +264,24 @@ public class FacesConfigParserImpl extends SAXHandlerBase implements FacesConfig
 		else if (localName.equals(SYSTEM_EVENT_LISTENER_CLASS)) {
 			parsingSystemEventListenerClass = true;
 		}
+		else if (localName.equals(StringPool.NAME) && (facesConfigName == null) && !parsingApplicationExtension &&
+				!parsingFactoryExtension) {
+			parsingName = true;
+		}
 		else {
 			super.startElement(uri, localName, elementName, attributes);
 		}
 	}
 
+	/**
+	 * Returns the value of the first non-empty &lt;name&gt; element that was encountered by the most recent call to
+	 * {@link #parse(InputStream, FacesConfig)}, or <code>null</code> if the element was omitted. This makes it possible
+	 * to determine the ordering of a descriptor without having to parse it a second time.
+	 */
+	public String getFacesConfigName() {
+		return facesConfigName;
+	}
+
 	protected SAXParser getSAXParser() {
 		return saxParser;
 	}
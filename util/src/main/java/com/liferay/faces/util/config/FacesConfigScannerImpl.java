@@ -20,14 +20,25 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.faces.application.ViewHandler;
 import javax.faces.webapp.FacesServlet;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 
+import org.xml.sax.SAXException;
+
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
+import com.liferay.faces.util.xml.SAXParserFactory;
 
 
 /**
@@ -133,167 +144,278 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 		}
 
 		FacesConfig facesConfig = new FacesConfigImpl(facesServletMappings, configuredSuffixes);
+		ExecutorService executorService = null;
 
 		try {
 
-			// First, parse the Mojarra configuration found in the classpath.
+			// First, discover the Mojarra configuration found in the classpath.
 			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 			Enumeration<URL> mojarraConfigURLs = classLoader.getResources(MOJARRA_CONFIG_PATH);
+			URL mojarraConfigURL = null;
 
 			if (mojarraConfigURLs != null) {
 
-				boolean processedMojarraConfig = false;
-
 				while (mojarraConfigURLs.hasMoreElements()) {
 
-					URL mojarraConfigURL = mojarraConfigURLs.nextElement();
+					URL url = mojarraConfigURLs.nextElement();
 
-					if (processedMojarraConfig) {
-						logger.debug("Skipping Mojarra config: [{0}]", mojarraConfigURL);
+					if (mojarraConfigURL == null) {
+						mojarraConfigURL = url;
 					}
 					else {
+						logger.debug("Skipping Mojarra config: [{0}]", url);
+					}
+				}
+			}
 
-						logger.debug("Processing Mojarra config: [{0}]", mojarraConfigURL);
+			List<FacesConfigParseTask> facesConfigParseTasks = new ArrayList<FacesConfigParseTask>();
 
-						FacesConfigParser mojarraConfigParser = new FacesConfigParserImpl(saxParser, resolveEntities);
+			if (mojarraConfigURL != null) {
+				facesConfigParseTasks.add(new FacesConfigParseTask(mojarraConfigURL,
+						new FacesConfigImpl(facesServletMappings, configuredSuffixes)));
+			}
 
-						InputStream inputStream = mojarraConfigURL.openStream();
+			// Next, discover all of the META-INF/faces-config.xml files found in the classpath. Each one is parsed
+			// exactly once, since the parser records the <name> element that is needed in order to determine the
+			// ordering while it gathers the content of the descriptor.
+			Enumeration<URL> facesConfigURLs = classLoader.getResources(FACES_CONFIG_META_INF_PATH);
 
-						try {
-							facesConfig = mojarraConfigParser.parse(inputStream, facesConfig);
-						}
-						catch (IOException e) {
-							logger.error(e);
-						}
+			if (facesConfigURLs != null) {
 
-						try {
-							inputStream.close();
-						}
-						catch (IOException e) {
-							logger.error(e);
-						}
+				while (facesConfigURLs.hasMoreElements()) {
 
-						processedMojarraConfig = true;
-					}
+					URL facesConfigURL = facesConfigURLs.nextElement();
+					facesConfigParseTasks.add(new FacesConfigParseTask(facesConfigURL,
+							new FacesConfigImpl(facesServletMappings, configuredSuffixes)));
 				}
 			}
 
-			FacesConfigDescriptorParser facesConfigDescriptorParser = newFacesConfigDescriptorParser();
-			FacesConfigParser facesConfigParser = newFacesConfigParser();
+			// Since the descriptors are independent of each other, parse them in parallel with a bounded number of
+			// threads. Each task has its own SAXParser since neither the parser nor the handler is thread-safe.
+			List<FutureTask<FacesConfig>> futureTasks = new ArrayList<FutureTask<FacesConfig>>();
+			executorService = newExecutorService(facesConfigParseTasks.size());
 
-			// Next, parse all of the META-INF/faces-config.xml files found in the classpath.
-			Enumeration<URL> facesConfigURLs = classLoader.getResources(FACES_CONFIG_META_INF_PATH);
+			for (FacesConfigParseTask facesConfigParseTask : facesConfigParseTasks) {
 
-			List<FacesConfigDescriptor> facesConfigDescriptors = new ArrayList<FacesConfigDescriptor>();
+				FutureTask<FacesConfig> futureTask = new FutureTask<FacesConfig>(facesConfigParseTask);
+				futureTasks.add(futureTask);
 
-			if (facesConfigURLs != null) {
+				if (executorService != null) {
+					executorService.execute(futureTask);
+				}
+				else {
+					futureTask.run();
+				}
+			}
 
-				// Build up a semi-sorted list of faces-config.xml descriptor files, ensuring that
-				// liferay-faces-bridge-impl.jar!META-INF/faces-config.xml is ordered first and that
-				// liferay-faces-util.jar!META-INF/faces-config.xml is ordered second.
-				// (Note that the JSF 2.0 <ordering> element is not yet supported.)
-				while (facesConfigURLs.hasMoreElements()) {
+			// In the meantime, parse the WEB-INF/faces-config.xml descriptor in the calling thread, since the
+			// ResourceReader is not necessarily thread-safe.
+			FacesConfig webInfFacesConfig = null;
+			InputStream inputStream = resourceReader.getResourceAsStream(FACES_CONFIG_WEB_INF_PATH);
 
-					URL facesConfigURL = facesConfigURLs.nextElement();
+			if (inputStream != null) {
 
-					logger.debug("Pre-processing faces-config: [{0}]", facesConfigURL);
+				logger.debug("Processing faces-config: [{0}]", FACES_CONFIG_WEB_INF_PATH);
 
-					InputStream inputStream = facesConfigURL.openStream();
+				FacesConfigParser facesConfigParser = newFacesConfigParser(saxParser);
 
-					FacesConfigDescriptor facesConfigDescriptor = facesConfigDescriptorParser.parse(inputStream,
-							facesConfigURL);
+				try {
+					webInfFacesConfig = facesConfigParser.parse(inputStream,
+							new FacesConfigImpl(facesServletMappings, configuredSuffixes));
+				}
+				catch (IOException e) {
+					logger.error(e);
+				}
 
-					// If the name is not set, then the <name> element was omitted. In JSF 2.x the <name> element is
-					// optional, and it JSF 1.x <name> element is not permitted by the XML Schema. Regardless, use the
-					// URL as the name in order to uniquely identify the configuration.
-					String facesConfigName = facesConfigDescriptor.getName();
+				try {
+					inputStream.close();
+				}
+				catch (IOException e) {
+					logger.error(e);
+				}
+			}
 
-					if (facesConfigName == null) {
+			// Merge the parsed descriptors in a deterministic order, regardless of the order in which the parsing
+			// completed. The Mojarra configuration comes first, followed by a semi-sorted list of the META-INF
+			// descriptors that ensures that liferay-faces-bridge-impl.jar!META-INF/faces-config.xml is ordered first
+			// and that liferay-faces-util.jar!META-INF/faces-config.xml is ordered second. (Note that the JSF 2.0
+			// <ordering> element is not yet supported.)
+			List<FacesConfig> facesConfigs = new ArrayList<FacesConfig>();
+			List<FacesConfig> orderedFacesConfigs = new ArrayList<FacesConfig>();
 
-						// Example #1 (JRebel ClassLoader URL):
-						// file:/Projects/liferay-faces/bridge-impl/target/classes/META-INF/faces-config.xml
-						// Example #2 (Typical ClassLoader URL):
-						// jar:file:/Servers/liferay-portal/tomcat/webapps/WEB-INF/lib/liferay-faces-bridge-impl.jar!/META-INF/faces-config.xml
-						facesConfigName = facesConfigURL.toString();
-					}
+			for (int i = 0; i < facesConfigParseTasks.size(); i++) {
 
-					if (LIFERAY_FACES_BRIDGE.equals(facesConfigName) ||
-							((facesConfigName.indexOf("liferay-faces") >= 0) &&
-								(facesConfigName.indexOf("bridge-impl") > 0))) {
-						facesConfigDescriptors.add(0, facesConfigDescriptor);
-					}
-					else if (LIFERAY_FACES_UTIL.equals(facesConfigName)){
-						facesConfigDescriptors.add(1, facesConfigDescriptor);
-					}
-					else {
-						facesConfigDescriptors.add(facesConfigDescriptor);
-					}
+				FacesConfigParseTask facesConfigParseTask = facesConfigParseTasks.get(i);
+				URL facesConfigURL = facesConfigParseTask.getURL();
+				FacesConfig parsedFacesConfig = null;
 
-					facesConfigName = null;
+				try {
+					parsedFacesConfig = futureTasks.get(i).get();
+				}
+				catch (ExecutionException e) {
+					logger.error("Unable to parse faces-config: [{0}] error=[{1}]", facesConfigURL,
+						e.getCause().getMessage());
+				}
+				catch (InterruptedException e) {
+
+					// If the calling thread was interrupted while waiting, then restore the interrupt status and
+					// parse the descriptor in the calling thread rather than discarding the entire configuration.
+					// Since the interrupt status is restored, the same will happen for the remaining descriptors.
+					Thread.currentThread().interrupt();
+					futureTasks.get(i).cancel(true);
 
 					try {
-						inputStream.close();
+						parsedFacesConfig = facesConfigParseTask.call();
 					}
-					catch (IOException e) {
-						logger.error(e);
+					catch (Exception e1) {
+						logger.error("Unable to parse faces-config: [{0}] error=[{1}]", facesConfigURL,
+							e1.getMessage());
 					}
 				}
 
-				for (FacesConfigDescriptor facesConfigDescriptor : facesConfigDescriptors) {
+				// If the descriptor could not be parsed, then skip it rather than discarding the entire configuration.
+				if (parsedFacesConfig == null) {
+					continue;
+				}
 
-					URL facesConfigURL = facesConfigDescriptor.getURL();
-					logger.debug("Post-processing faces-config: [{0}]", facesConfigURL);
+				if (facesConfigURL == mojarraConfigURL) {
+					facesConfigs.add(parsedFacesConfig);
 
-					InputStream inputStream = facesConfigURL.openStream();
+					continue;
+				}
 
-					try {
-						facesConfig = facesConfigParser.parse(inputStream, facesConfig);
-					}
-					catch (IOException e) {
-						logger.error(e);
-					}
+				// If the name is not set, then the <name> element was omitted. In JSF 2.x the <name> element is
+				// optional, and it JSF 1.x <name> element is not permitted by the XML Schema. Regardless, use the URL
+				// as the name in order to uniquely identify the configuration.
+				String facesConfigName = facesConfigParseTask.getFacesConfigName();
 
-					try {
-						inputStream.close();
-					}
-					catch (Exception e) {
-						logger.error(e);
-					}
+				if (facesConfigName == null) {
 
-					try {
-						saxParser.reset();
-					}
-					catch (Exception e) {
-						logger.error(e);
-					}
+					// Example #1 (JRebel ClassLoader URL):
+					// file:/Projects/liferay-faces/bridge-impl/target/classes/META-INF/faces-config.xml
+					// Example #2 (Typical ClassLoader URL):
+					// jar:file:/Servers/liferay-portal/tomcat/webapps/WEB-INF/lib/liferay-faces-bridge-impl.jar!/META-INF/faces-config.xml
+					facesConfigName = facesConfigURL.toString();
+				}
+
+				if (LIFERAY_FACES_BRIDGE.equals(facesConfigName) ||
+						((facesConfigName.indexOf("liferay-faces") >= 0) &&
+							(facesConfigName.indexOf("bridge-impl") > 0))) {
+					orderedFacesConfigs.add(0, parsedFacesConfig);
+				}
+				else if (LIFERAY_FACES_UTIL.equals(facesConfigName)) {
+					orderedFacesConfigs.add(Math.min(1, orderedFacesConfigs.size()), parsedFacesConfig);
+				}
+				else {
+					orderedFacesConfigs.add(parsedFacesConfig);
 				}
 			}
 
-			// Second, parse the WEB-INF/faces-config.xml descriptor. Any entries made here will take
-			// precedence over those found previously.
-			InputStream inputStream = resourceReader.getResourceAsStream(FACES_CONFIG_WEB_INF_PATH);
+			facesConfigs.addAll(orderedFacesConfigs);
 
-			if (inputStream != null) {
-				logger.debug("Processing faces-config: [{0}]", FACES_CONFIG_WEB_INF_PATH);
-				facesConfig = facesConfigParser.parse(inputStream, facesConfig);
-				inputStream.close();
+			// Last, append the WEB-INF/faces-config.xml descriptor. Any entries made here will take precedence over
+			// those found previously.
+			if (webInfFacesConfig != null) {
+				facesConfigs.add(webInfFacesConfig);
 			}
+
+			facesConfig = merge(facesConfig, facesConfigs);
 		}
 		catch (Exception e) {
 			logger.error(e.getMessage(), e);
 		}
+		finally {
+
+			if (executorService != null) {
+				executorService.shutdownNow();
+			}
+		}
 
 		return facesConfig;
 	}
 
+	/**
+	 * Returns a new FacesConfig that contains the entries of the specified FacesConfig, followed by the entries of each
+	 * of the specified list of FacesConfig instances in order.
+	 */
+	protected FacesConfig merge(FacesConfig facesConfig, List<FacesConfig> facesConfigs) {
+
+		List<ConfiguredElement> configuredApplicationExtensions = new ArrayList<ConfiguredElement>(
+				facesConfig.getConfiguredApplicationExtensions());
+		List<ConfiguredElement> configuredFactoryExtensions = new ArrayList<ConfiguredElement>(
+				facesConfig.getConfiguredFactoryExtensions());
+		List<ConfiguredManagedBean> configuredManagedBeans = new ArrayList<ConfiguredManagedBean>(
+				facesConfig.getConfiguredManagedBeans());
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			new ArrayList<ConfiguredSystemEventListener>(facesConfig.getConfiguredSystemEventListeners());
+
+		for (FacesConfig curFacesConfig : facesConfigs) {
+			configuredApplicationExtensions.addAll(curFacesConfig.getConfiguredApplicationExtensions());
+			configuredFactoryExtensions.addAll(curFacesConfig.getConfiguredFactoryExtensions());
+			configuredManagedBeans.addAll(curFacesConfig.getConfiguredManagedBeans());
+			configuredSystemEventListeners.addAll(curFacesConfig.getConfiguredSystemEventListeners());
+		}
+
+		// Note: The configured FacesServlet mappings and suffixes are not "discovered" by the parser, so they are
+		// shared rather than merged.
+		return new FacesConfigImpl(configuredApplicationExtensions, configuredFactoryExtensions,
+				facesConfig.getConfiguredFacesServletMappings(), configuredManagedBeans,
+				facesConfig.getConfiguredSuffixes(), configuredSystemEventListeners);
+	}
+
+	/**
+	 * @deprecated  The {@link #scan()} method no longer pre-parses the META-INF/faces-config.xml descriptors, since
+	 *              {@link FacesConfigParserImpl#getFacesConfigName()} provides the name that is needed for ordering.
+	 */
+	@Deprecated
 	protected FacesConfigDescriptorParser newFacesConfigDescriptorParser() {
 		return new FacesConfigDescriptorParserImpl(saxParser, resolveEntities);
 	}
 
 	protected FacesConfigParser newFacesConfigParser() {
+		return newFacesConfigParser(saxParser);
+	}
+
+	/**
+	 * Returns a new parser that uses the specified SAXParser. Since the META-INF/faces-config.xml descriptors are
+	 * parsed in parallel, each of them is parsed with its own SAXParser. If the returned parser is a {@link
+	 * FacesConfigParserImpl}, then the value of the &lt;name&gt; element is used for ordering the descriptors.
+	 * Otherwise, the URL of the descriptor is used.
+	 */
+	protected FacesConfigParser newFacesConfigParser(SAXParser saxParser) {
 		return new FacesConfigParserImpl(saxParser, resolveEntities);
 	}
 
+	/**
+	 * Returns a new executor service for parsing the specified number of META-INF/faces-config.xml descriptors in
+	 * parallel, or <code>null</code> if they are to be parsed in the calling thread. The number of threads is bounded
+	 * by the number of available processors.
+	 */
+	protected ExecutorService newExecutorService(int totalDescriptors) {
+
+		ExecutorService executorService = null;
+		int totalThreads = Math.min(totalDescriptors, Runtime.getRuntime().availableProcessors());
+
+		if (totalThreads > 1) {
+			executorService = Executors.newFixedThreadPool(totalThreads, new ParserThreadFactory());
+		}
+
+		return executorService;
+	}
+
+	/**
+	 * Returns a new SAXParser with the same configuration as the one that was specified in the constructor. This is
+	 * necessary when parsing descriptors in parallel, since a SAXParser is not thread-safe.
+	 */
+	protected SAXParser newSAXParser() throws ParserConfigurationException, SAXException {
+
+		SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+		saxParserFactory.setNamespaceAware(saxParser.isNamespaceAware());
+		saxParserFactory.setValidating(saxParser.isValidating());
+
+		return saxParserFactory.newSAXParser();
+	}
+
 	protected ResourceReader getResourceReader() {
 		return resourceReader;
 	}
@@ -309,4 +431,71 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 	protected WebConfig getWebConfig() {
 		return webConfig;
 	}
+
+	private class FacesConfigParseTask implements Callable<FacesConfig> {
+
+		// Private Data Members
+		private FacesConfig facesConfig;
+		private String facesConfigName;
+		private URL url;
+
+		public FacesConfigParseTask(URL url, FacesConfig facesConfig) {
+			this.url = url;
+			this.facesConfig = facesConfig;
+		}
+
+		public FacesConfig call() throws Exception {
+
+			logger.debug("Processing faces-config: [{0}]", url);
+
+			FacesConfigParser facesConfigParser = newFacesConfigParser(newSAXParser());
+			InputStream inputStream = url.openStream();
+
+			try {
+				FacesConfig parsedFacesConfig = facesConfigParser.parse(inputStream, facesConfig);
+
+				if (facesConfigParser instanceof FacesConfigParserImpl) {
+					facesConfigName = ((FacesConfigParserImpl) facesConfigParser).getFacesConfigName();
+				}
+
+				return parsedFacesConfig;
+			}
+			finally {
+
+				try {
+					inputStream.close();
+				}
+				catch (IOException e) {
+					logger.error(e);
+				}
+			}
+		}
+
+		/**
+		 * Returns the value of the &lt;name&gt; element of the descriptor. Must only be called after the task has
+		 * completed.
+		 */
+		public String getFacesConfigName() {
+			return facesConfigName;
+		}
+
+		public URL getURL() {
+			return url;
+		}
+	}
+
+	private static class ParserThreadFactory implements ThreadFactory {
+
+		// Private Data Members
+		private AtomicInteger threadCount = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable,
+					FacesConfigScannerImpl.class.getSimpleName() + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
 }
@@ -23,6 +23,36 @@ import com.liferay.faces.util.helper.BooleanHelper;
  */
 public enum WebConfigParam implements ConfigParam<ExternalContext> {
 
+	/**
+	 * Boolean indicating whether or not the configuration that is discovered by scanning the web.xml, web-fragment.xml,
+	 * and faces-config.xml descriptors at startup should be cached in a file within the work directory of the web
+	 * application, so that the descriptors do not have to be parsed again when the application is restarted without
+	 * any changes. Default value is true.
+	 */
+	ConfigCacheEnabled("com.liferay.faces.util.configCacheEnabled", null, true),
+
+	/**
+	 * Absolute path to a directory (folder) in which resources that are evicted from the in-memory resource cache
+	 * should be written to. Each application writes to its own subdirectory, which is named after its context path, so
+	 * the directory can be shared by several applications. Default value is an empty string, which indicates that the
+	 * on-disk cache is disabled.
+	 */
+	ResourceCacheDir("com.liferay.faces.util.resourceCacheDir", ""),
+
+	/** Maximum number of bytes that the on-disk resource cache can hold. Default is 52428800 bytes (50MB). */
+	ResourceCacheDirMaxSize("com.liferay.faces.util.resourceCacheDirMaxSize", 52428800L),
+
+	/**
+	 * Boolean indicating whether or not the contents of resources should be cached on the server, in memory and
+	 * optionally on disk (see {@link #ResourceCacheDir}). By default only JavaScript resources are cached, since the
+	 * contents of CSS resources and filtered resources might depend on the current request. Default value is true. Note
+	 * that resources are never cached when the JSF ProjectStage is Development.
+	 */
+	ResourceCacheEnabled("com.liferay.faces.util.resourceCacheEnabled", null, true),
+
+	/** Maximum number of bytes that the in-memory resource cache can hold. Default is 10485760 bytes (10MB). */
+	ResourceCacheMaxSize("com.liferay.faces.util.resourceCacheMaxSize", 10485760L),
+
 	/** Boolean indicating whether or not XML entities should be resolved */
 	ResolveXMLEntities("com.liferay.faces.util.resolveXMLEntities", "com.liferay.faces.bridge.resolveXMLEntities",
 		false),
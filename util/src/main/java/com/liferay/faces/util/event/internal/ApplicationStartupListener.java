@@ -13,6 +13,7 @@
  */
 package com.liferay.faces.util.event.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.EventObject;
 import java.util.List;
@@ -24,6 +25,7 @@ import javax.faces.context.FacesContext;
 import javax.faces.event.AbortProcessingException;
 
 import com.liferay.faces.util.config.ApplicationConfig;
+import com.liferay.faces.util.config.ApplicationConfigCache;
 import com.liferay.faces.util.config.ApplicationConfigInitializer;
 import com.liferay.faces.util.config.ApplicationConfigInitializerImpl;
 import com.liferay.faces.util.config.ConfiguredElement;
@@ -37,6 +39,9 @@ import com.liferay.faces.util.factory.FactoryExtensionFinder;
  */
 public class ApplicationStartupListener extends ApplicationStartupListenerCompat_2_2 {
 
+	// Private Constants
+	private static final String SERVLET_CONTEXT_TEMPDIR = "javax.servlet.context.tempdir";
+
 	@Override
 	public void processSystemEvent(EventObject systemEvent) throws AbortProcessingException {
 
@@ -51,9 +56,20 @@ public class ApplicationStartupListener extends ApplicationStartupListenerCompat
 
 			boolean resolveEntities = WebConfigParam.ResolveXMLEntities.getBooleanValue(externalContext);
 
+			// If possible, cache the application configuration in the work directory that the servlet container
+			// provides for the web application.
+			ApplicationConfigCache applicationConfigCache = null;
+			Object workDir = applicationMap.get(SERVLET_CONTEXT_TEMPDIR);
+
+			if (WebConfigParam.ConfigCacheEnabled.getBooleanValue(externalContext) && (workDir instanceof File) &&
+					((File) workDir).isDirectory()) {
+				applicationConfigCache = new ApplicationConfigCache(new File((File) workDir,
+							ApplicationConfigCache.FILE_NAME));
+			}
+
 			String contextPath = getApplicationContextPath(externalContext);
 			ApplicationConfigInitializer applicationConfigInitializer = new ApplicationConfigInitializerImpl(
-					contextPath, resolveEntities);
+					contextPath, resolveEntities, applicationConfigCache);
 
 			try {
 				applicationConfig = applicationConfigInitializer.initialize();
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * This class provides a thread-safe pool of direct {@link ByteBuffer} instances so that the cost of allocating a
+ * direct buffer is not incurred every time the contents of a resource are copied to the response.
+ *
+ * @author  Neil Griffin
+ */
+public class ByteBufferPool {
+
+	// Private Data Members
+	private int maxPooledBuffers;
+	private AtomicInteger pooledBufferCount;
+	private Queue<ByteBuffer> pooledBuffers;
+
+	public ByteBufferPool(int maxPooledBuffers) {
+		this.maxPooledBuffers = maxPooledBuffers;
+		this.pooledBufferCount = new AtomicInteger();
+		this.pooledBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+	}
+
+	/**
+	 * Returns a cleared buffer that has a capacity of at least the specified number of bytes. The buffer should be
+	 * returned to the pool with {@link #release(ByteBuffer)} when it is no longer needed.
+	 */
+	public ByteBuffer acquire(int capacity) {
+
+		ByteBuffer byteBuffer = pooledBuffers.poll();
+
+		if (byteBuffer != null) {
+			pooledBufferCount.decrementAndGet();
+
+			// Buffers that are too small are discarded so that the pool gradually adapts to the requested capacity.
+			if (byteBuffer.capacity() < capacity) {
+				byteBuffer = null;
+			}
+		}
+
+		if (byteBuffer == null) {
+			byteBuffer = ByteBuffer.allocateDirect(capacity);
+		}
+		else {
+			byteBuffer.clear();
+		}
+
+		return byteBuffer;
+	}
+
+	/**
+	 * Returns the specified buffer to the pool. If the pool is already full, then the buffer is discarded.
+	 */
+	public void release(ByteBuffer byteBuffer) {
+
+		if ((byteBuffer != null) && (pooledBufferCount.incrementAndGet() <= maxPooledBuffers)) {
+			pooledBuffers.offer(byteBuffer);
+		}
+		else if (byteBuffer != null) {
+			pooledBufferCount.decrementAndGet();
+		}
+	}
+
+	public int getPooledBufferCount() {
+		return pooledBufferCount.get();
+	}
+}
@@ -14,6 +14,7 @@
 package com.liferay.faces.util.io;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 
 import javax.faces.application.Resource;
 
@@ -33,6 +34,19 @@ public class ResourceOutputStream extends ByteArrayOutputStream {
 		this.resource = resource;
 	}
 
+	/**
+	 * Rewrites the buffered contents of this stream in a single pass with the specified {@link TokenRewriter}. This
+	 * method is intended to be called by subclasses that implement {@link Filterable}.
+	 */
+	protected void rewrite(TokenRewriter tokenRewriter, TokenHandler tokenHandler, String charsetName)
+		throws IOException {
+
+		ByteArrayOutputStream rewrittenOutputStream = new ByteArrayOutputStream(count);
+		tokenRewriter.rewrite(buf, 0, count, charsetName, rewrittenOutputStream, tokenHandler);
+		reset();
+		rewrittenOutputStream.writeTo(this);
+	}
+
 	public Resource getResource() {
 		return resource;
 	}
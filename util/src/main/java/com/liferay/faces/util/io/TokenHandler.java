@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * This interface is implemented by classes that rewrite the tokens that are found by a {@link TokenRewriter}.
+ *
+ * @author  Neil Griffin
+ */
+public interface TokenHandler {
+
+	/**
+	 * Called when one of the tokens of the {@link TokenRewriter} is found.
+	 *
+	 * @param   tokenIndex  The index of the token that was found.
+	 * @param   lookahead   The characters that follow the token, limited to the maximum lookahead of the rewriter (or
+	 *                      fewer if the end of the text is reached).
+	 * @param   writer      The writer to which the replacement text is to be written.
+	 *
+	 * @return  The number of lookahead characters that were consumed by the replacement text, or -1 if the token was
+	 *          not replaced (in which case nothing must have been written and the token is written unchanged).
+	 */
+	int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException;
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+
+/**
+ * This class provides a single-pass streaming rewriter for text resources such as CSS and JavaScript. The text is read
+ * through a fixed-size character window and each occurrence of one of the tokens (in order of precedence when several
+ * tokens match at the same position) is passed to a {@link TokenHandler} along with the characters that follow it, so
+ * that the token can be replaced without rescanning or copying the entire text.
+ *
+ * <p>Instances of this class are immutable and therefore thread-safe.</p>
+ *
+ * @author  Neil Griffin
+ */
+public class TokenRewriter {
+
+	// Public Constants
+	public static final int DEFAULT_WINDOW_SIZE = 8192;
+
+	// Private Data Members
+	private boolean[] asciiFirstChars;
+	private char[] firstChars;
+	private int maxLookahead;
+	private int maxTokenLength;
+	private char[][] tokens;
+	private int windowSize;
+
+	public TokenRewriter(String[] tokens, int maxLookahead) {
+		this(tokens, maxLookahead, DEFAULT_WINDOW_SIZE);
+	}
+
+	public TokenRewriter(String[] tokens, int maxLookahead, int windowSize) {
+
+		this.tokens = new char[tokens.length][];
+		this.asciiFirstChars = new boolean[128];
+
+		StringBuilder firstCharBuf = new StringBuilder();
+
+		for (int i = 0; i < tokens.length; i++) {
+
+			if (tokens[i].length() == 0) {
+				throw new IllegalArgumentException("Tokens must not be empty");
+			}
+
+			this.tokens[i] = tokens[i].toCharArray();
+			this.maxTokenLength = Math.max(maxTokenLength, tokens[i].length());
+
+			char firstChar = tokens[i].charAt(0);
+
+			if (firstChar < 128) {
+				asciiFirstChars[firstChar] = true;
+			}
+			else {
+				firstCharBuf.append(firstChar);
+			}
+		}
+
+		this.firstChars = firstCharBuf.toString().toCharArray();
+		Arrays.sort(this.firstChars);
+		this.maxLookahead = maxLookahead;
+
+		// The window must be able to hold the longest token and its lookahead at least twice over so that each refill
+		// makes progress.
+		this.windowSize = Math.max(windowSize, (maxTokenLength + maxLookahead) * 2);
+	}
+
+	/**
+	 * Reads the text from the specified reader and writes it to the specified writer, replacing tokens according to
+	 * the specified token handler.
+	 */
+	public void rewrite(Reader reader, Writer writer, TokenHandler tokenHandler) throws IOException {
+
+		char[] window = new char[windowSize];
+		int keep = maxTokenLength + maxLookahead;
+		int end = 0;
+		int pos = 0;
+		int pendingPos = 0;
+		boolean endOfText = false;
+
+		while (true) {
+
+			// If the window does not contain enough characters for matching a token and its lookahead, then write the
+			// pending characters, shift the remainder to the beginning of the window, and fill the window again.
+			if (!endOfText && ((end - pos) < keep)) {
+
+				writer.write(window, pendingPos, pos - pendingPos);
+				System.arraycopy(window, pos, window, 0, end - pos);
+				end -= pos;
+				pos = 0;
+				pendingPos = 0;
+
+				while (!endOfText && (end < window.length)) {
+
+					int charsRead = reader.read(window, end, window.length - end);
+
+					if (charsRead == -1) {
+						endOfText = true;
+					}
+					else {
+						end += charsRead;
+					}
+				}
+			}
+
+			if (pos >= end) {
+				break;
+			}
+
+			int tokenIndex = -1;
+
+			if (isFirstChar(window[pos])) {
+				tokenIndex = getTokenIndex(window, pos, end);
+			}
+
+			if (tokenIndex >= 0) {
+
+				int lookaheadPos = pos + tokens[tokenIndex].length;
+				int lookaheadLength = Math.min(end - lookaheadPos, maxLookahead);
+				writer.write(window, pendingPos, pos - pendingPos);
+				pendingPos = pos;
+
+				int consumed = tokenHandler.handleToken(tokenIndex,
+						CharBuffer.wrap(window, lookaheadPos, lookaheadLength), writer);
+
+				if (consumed >= 0) {
+					pos = lookaheadPos + Math.min(consumed, lookaheadLength);
+					pendingPos = pos;
+				}
+				else {
+					pos++;
+				}
+			}
+			else {
+				pos++;
+			}
+		}
+
+		writer.write(window, pendingPos, pos - pendingPos);
+	}
+
+	/**
+	 * Decodes the specified bytes with the specified charset, rewrites the text, and writes the encoded result to the
+	 * specified output stream.
+	 */
+	public void rewrite(byte[] bytes, int offset, int length, String charsetName, OutputStream outputStream,
+		TokenHandler tokenHandler) throws IOException {
+
+		Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes, offset, length), charsetName);
+		Writer writer = new OutputStreamWriter(outputStream, charsetName);
+		rewrite(reader, writer, tokenHandler);
+		writer.flush();
+	}
+
+	private boolean isFirstChar(char ch) {
+
+		if (ch < 128) {
+			return asciiFirstChars[ch];
+		}
+		else {
+			return (firstChars.length > 0) && (Arrays.binarySearch(firstChars, ch) >= 0);
+		}
+	}
+
+	private int getTokenIndex(char[] window, int pos, int end) {
+
+		for (int i = 0; i < tokens.length; i++) {
+
+			char[] token = tokens[i];
+
+			if ((pos + token.length) <= end) {
+
+				boolean match = true;
+
+				for (int j = 0; j < token.length; j++) {
+
+					if (window[pos + j] != token[j]) {
+						match = false;
+
+						break;
+					}
+				}
+
+				if (match) {
+					return i;
+				}
+			}
+		}
+
+		return -1;
+	}
+}
@@ -13,18 +13,33 @@
  */
 package com.liferay.faces.util.map;
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 
 /**
+ * This class provides a {@link Map} view of an underlying set of properties. The collections returned by {@link
+ * #entrySet()}, {@link #keySet()}, and {@link #values()} are created only once and are backed by the underlying
+ * properties, so that they remain correct even if the properties are modified without this map (for example, when an
+ * attribute is set directly on the underlying request).
+ *
  * @author  Neil Griffin
  */
 public abstract class AbstractPropertyMap<V> implements Map<String, V> {
 
+	// Private Data Members
+	private Set<Map.Entry<String, V>> entrySet;
+	private Set<String> keySet;
+	private Collection<V> values;
+
 	public void clear() {
 		Enumeration<String> propertyNames = getPropertyNames();
 
@@ -82,17 +97,9 @@ public abstract class AbstractPropertyMap<V> implements Map<String, V> {
 	}
 
 	public Set<Map.Entry<String, V>> entrySet() {
-		Set<Map.Entry<String, V>> entrySet = null;
-		Enumeration<String> propertyNames = getPropertyNames();
 
-		if (propertyNames != null) {
-			entrySet = new PropertyMapEntrySet<V>();
-
-			while (propertyNames.hasMoreElements()) {
-				String name = propertyNames.nextElement();
-				AbstractPropertyMapEntry<V> propertyMapEntry = createPropertyMapEntry(name);
-				entrySet.add(propertyMapEntry);
-			}
+		if (entrySet == null) {
+			entrySet = new EntrySet();
 		}
 
 		return entrySet;
@@ -110,16 +117,9 @@ public abstract class AbstractPropertyMap<V> implements Map<String, V> {
 	}
 
 	public Set<String> keySet() {
-		Set<String> keySet = null;
-		Enumeration<String> propertyNames = getPropertyNames();
-
-		if (propertyNames != null) {
-			keySet = new HashSet<String>();
 
-			while (propertyNames.hasMoreElements()) {
-				String propertyName = propertyNames.nextElement();
-				keySet.add(propertyName);
-			}
+		if (keySet == null) {
+			keySet = new KeySet();
 		}
 
 		return keySet;
@@ -174,17 +174,9 @@ public abstract class AbstractPropertyMap<V> implements Map<String, V> {
 	}
 
 	public Collection<V> values() {
-		Collection<V> values = null;
-		Enumeration<String> propertyNames = getPropertyNames();
-
-		if (propertyNames != null) {
-			values = new HashSet<V>();
 
-			while (propertyNames.hasMoreElements()) {
-				String propertyName = propertyNames.nextElement();
-				V value = getProperty(propertyName);
-				values.add(value);
-			}
+		if (values == null) {
+			values = new Values();
 		}
 
 		return values;
@@ -205,4 +197,185 @@ public abstract class AbstractPropertyMap<V> implements Map<String, V> {
 
 		return ((propertyNames == null) || !propertyNames.hasMoreElements());
 	}
+
+	protected class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+		// Private Data Members
+		private AbstractPropertyMapEntry<V> currentEntry;
+		private PropertyNameIterator propertyNameIterator = new PropertyNameIterator();
+
+		public boolean hasNext() {
+			return propertyNameIterator.hasNext();
+		}
+
+		public Map.Entry<String, V> next() {
+
+			currentEntry = createPropertyMapEntry(propertyNameIterator.next());
+
+			return currentEntry;
+		}
+
+		public void remove() {
+
+			if (currentEntry == null) {
+				throw new IllegalStateException();
+			}
+
+			currentEntry.remove();
+			currentEntry = null;
+		}
+	}
+
+	protected class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+
+		@Override
+		public void clear() {
+			AbstractPropertyMap.this.clear();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return AbstractPropertyMap.this.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return AbstractPropertyMap.this.isEmpty();
+		}
+	}
+
+	protected class KeySet extends AbstractSet<String> {
+
+		@Override
+		public void clear() {
+			AbstractPropertyMap.this.clear();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsKey(o);
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new PropertyNameIterator();
+		}
+
+		@Override
+		public boolean remove(Object o) {
+
+			boolean found = containsKey(o);
+
+			if (found) {
+				AbstractPropertyMap.this.remove(o);
+			}
+
+			return found;
+		}
+
+		@Override
+		public int size() {
+			return AbstractPropertyMap.this.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return AbstractPropertyMap.this.isEmpty();
+		}
+	}
+
+	/**
+	 * This class iterates over the names of the properties that were present when the iterator was created, so that
+	 * properties can be removed during the iteration.
+	 */
+	protected class PropertyNameIterator implements Iterator<String> {
+
+		// Private Data Members
+		private String currentPropertyName;
+		private int index;
+		private List<String> propertyNames;
+
+		public PropertyNameIterator() {
+
+			this.propertyNames = new ArrayList<String>();
+
+			Enumeration<String> propertyNameEnumeration = getPropertyNames();
+
+			if (propertyNameEnumeration != null) {
+
+				while (propertyNameEnumeration.hasMoreElements()) {
+					propertyNames.add(propertyNameEnumeration.nextElement());
+				}
+			}
+		}
+
+		public boolean hasNext() {
+			return index < propertyNames.size();
+		}
+
+		public String next() {
+
+			if (index >= propertyNames.size()) {
+				throw new NoSuchElementException();
+			}
+
+			currentPropertyName = propertyNames.get(index++);
+
+			return currentPropertyName;
+		}
+
+		public void remove() {
+
+			if (currentPropertyName == null) {
+				throw new IllegalStateException();
+			}
+
+			AbstractPropertyMap.this.remove(currentPropertyName);
+			currentPropertyName = null;
+		}
+	}
+
+	protected class Values extends AbstractCollection<V> {
+
+		@Override
+		public void clear() {
+			AbstractPropertyMap.this.clear();
+		}
+
+		@Override
+		public Iterator<V> iterator() {
+
+			final PropertyNameIterator propertyNameIterator = new PropertyNameIterator();
+
+			return new Iterator<V>() {
+
+					public boolean hasNext() {
+						return propertyNameIterator.hasNext();
+					}
+
+					public V next() {
+						return getProperty(propertyNameIterator.next());
+					}
+
+					public void remove() {
+						propertyNameIterator.remove();
+					}
+				};
+		}
+
+		@Override
+		public int size() {
+			return AbstractPropertyMap.this.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return AbstractPropertyMap.this.isEmpty();
+		}
+	}
 }
@@ -22,12 +22,34 @@ public interface HttpHeaders {
 
 	public static final String ACCEPT_ENCODING = "Accept-Encoding";
 
+	public static final String ACCEPT_RANGES = "Accept-Ranges";
+
 	public static final String CACHE_CONTROL = "Cache-Control";
 
 	public static final String CACHE_CONTROL_NO_CACHE_VALUE = "private, no-cache, no-store, must-revalidate";
 
 	public static final String CONTENT_DISPOSITION = "Content-Disposition";
 
+	public static final String CONTENT_ENCODING = "Content-Encoding";
+
+	public static final String CONTENT_LENGTH = "Content-Length";
+
+	public static final String CONTENT_RANGE = "Content-Range";
+
+	public static final String ETAG = "ETag";
+
+	public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+	public static final String IF_NONE_MATCH = "If-None-Match";
+
+	public static final String IF_RANGE = "If-Range";
+
+	public static final String LAST_MODIFIED = "Last-Modified";
+
+	public static final String RANGE = "Range";
+
 	public static final String USER_AGENT = "User-Agent";
 
+	public static final String VARY = "Vary";
+
 }
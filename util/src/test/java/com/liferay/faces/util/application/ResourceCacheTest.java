@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ResourceCacheTest {
+
+	@Test
+	public void testCachedResource() throws IOException {
+
+		byte[] content = newContent('a', 4096);
+		CachedResource cachedResource = new CachedResource(content, 1000L);
+
+		Assert.assertSame(content, cachedResource.getContent());
+		Assert.assertEquals(1000L, cachedResource.getLastModified());
+		Assert.assertTrue(cachedResource.getETag().startsWith("\""));
+		Assert.assertTrue(cachedResource.getETag().endsWith("\""));
+		Assert.assertEquals(cachedResource.getETag(), new CachedResource(newContent('a', 4096), 0L).getETag());
+		Assert.assertFalse(cachedResource.getETag().equals(new CachedResource(newContent('b', 4096), 0L).getETag()));
+		Assert.assertNotNull(cachedResource.getGzippedContent());
+		Assert.assertTrue(Arrays.equals(content, gunzip(cachedResource.getGzippedContent())));
+
+		// The gzip form is a different representation, so it must not share the ETag of the raw form.
+		Assert.assertFalse(cachedResource.getETag().equals(cachedResource.getGzippedETag()));
+		Assert.assertTrue(cachedResource.getGzippedETag().endsWith("-gz\""));
+
+		// Content that does not get smaller when compressed is not kept in gzip form.
+		Assert.assertNull(new CachedResource(new byte[] { 1 }, 0L).getGzippedContent());
+	}
+
+	@Test
+	public void testContextDirName() {
+
+		Assert.assertEquals("_root", ResourceCache.getContextDirName(""));
+		Assert.assertEquals("_root", ResourceCache.getContextDirName("/"));
+		Assert.assertEquals("my-portlet", ResourceCache.getContextDirName("/my-portlet"));
+		Assert.assertEquals("a_2fb", ResourceCache.getContextDirName("/a/b"));
+
+		// Applications that share the on-disk cache directory must never share a subdirectory.
+		Assert.assertEquals("my_5fportlet", ResourceCache.getContextDirName("/my_portlet"));
+		Assert.assertEquals("my_2eportlet", ResourceCache.getContextDirName("/my.portlet"));
+		Assert.assertEquals("_5froot", ResourceCache.getContextDirName("/_root"));
+	}
+
+	@Test
+	public void testDiskCache() throws IOException {
+
+		File diskDir = File.createTempFile("resourceCache", "");
+		diskDir.delete();
+		diskDir.mkdirs();
+
+		try {
+
+			// Files that belong to other applications must survive the deletion of stale entries.
+			File foreignFile = new File(diskDir, "foreign.cache");
+			foreignFile.createNewFile();
+
+			ResourceCache resourceCache = new ResourceCache(10000L, diskDir, 1000000L);
+			Assert.assertTrue(foreignFile.delete());
+			CachedResource a = resourceCache.put("a", newContent('a', 6000), 1000L);
+			resourceCache.put("b", newContent('b', 6000), 2000L);
+
+			// Entry "a" was evicted from memory and written to disk.
+			Assert.assertEquals(1, diskDir.listFiles().length);
+			Assert.assertTrue(resourceCache.getDiskSize() > 0L);
+
+			// Entry "a" is read from disk and promoted back into memory, which evicts "b" to disk.
+			CachedResource promoted = resourceCache.get("a");
+			Assert.assertNotNull(promoted);
+			Assert.assertEquals(a.getETag(), promoted.getETag());
+			Assert.assertEquals(1000L, promoted.getLastModified());
+			Assert.assertTrue(Arrays.equals(a.getContent(), promoted.getContent()));
+			Assert.assertTrue(Arrays.equals(a.getGzippedContent(), promoted.getGzippedContent()));
+			Assert.assertNotNull(resourceCache.get("b"));
+
+			resourceCache.clear();
+			Assert.assertNull(resourceCache.get("a"));
+			Assert.assertEquals(0, diskDir.listFiles().length);
+		}
+		finally {
+
+			File[] files = diskDir.listFiles();
+
+			if (files != null) {
+
+				for (File file : files) {
+					file.delete();
+				}
+			}
+
+			diskDir.delete();
+		}
+	}
+
+	@Test
+	public void testMemoryEviction() {
+
+		ResourceCache resourceCache = new ResourceCache(10000L, null, 0L);
+		resourceCache.put("a", newContent('a', 4000), 0L);
+		resourceCache.put("b", newContent('b', 4000), 0L);
+
+		// Accessing "a" causes "b" to become the least recently used entry.
+		Assert.assertNotNull(resourceCache.get("a"));
+		resourceCache.put("c", new byte[4000], 0L);
+
+		Assert.assertNotNull(resourceCache.get("a"));
+		Assert.assertNull(resourceCache.get("b"));
+		Assert.assertNotNull(resourceCache.get("c"));
+		Assert.assertTrue(resourceCache.getMemorySize() <= 10000L);
+	}
+
+	private byte[] gunzip(byte[] bytes) throws IOException {
+
+		InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int bytesRead;
+
+		while ((bytesRead = inputStream.read(buffer)) != -1) {
+			byteArrayOutputStream.write(buffer, 0, bytesRead);
+		}
+
+		inputStream.close();
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	private byte[] newContent(char c, int length) {
+
+		byte[] content = new byte[length];
+		Arrays.fill(content, (byte) c);
+
+		return content;
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.io.ByteBufferPool;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ResourceHandlerWrapperBaseTest {
+
+	@Test
+	public void testByteBufferPool() {
+
+		ByteBufferPool byteBufferPool = new ByteBufferPool(1);
+		ByteBuffer byteBuffer1 = byteBufferPool.acquire(1024);
+		ByteBuffer byteBuffer2 = byteBufferPool.acquire(1024);
+		Assert.assertTrue(byteBuffer1.isDirect());
+		Assert.assertNotSame(byteBuffer1, byteBuffer2);
+
+		byteBuffer1.put((byte) 1);
+		byteBufferPool.release(byteBuffer1);
+		byteBufferPool.release(byteBuffer2);
+		Assert.assertEquals(1, byteBufferPool.getPooledBufferCount());
+
+		// A pooled buffer is handed out again in a cleared state.
+		ByteBuffer byteBuffer3 = byteBufferPool.acquire(512);
+		Assert.assertSame(byteBuffer1, byteBuffer3);
+		Assert.assertEquals(0, byteBuffer3.position());
+		Assert.assertEquals(byteBuffer3.capacity(), byteBuffer3.limit());
+
+		// A pooled buffer that is too small is discarded.
+		byteBufferPool.release(byteBuffer3);
+		Assert.assertNotSame(byteBuffer3, byteBufferPool.acquire(2048));
+		Assert.assertEquals(0, byteBufferPool.getPooledBufferCount());
+	}
+
+	@Test
+	public void testParseRange() {
+
+		assertRange(0L, 499L, ResourceHandlerWrapperBase.parseRange("bytes=0-499", 1000L));
+		assertRange(500L, 999L, ResourceHandlerWrapperBase.parseRange("bytes=500-", 1000L));
+		assertRange(900L, 999L, ResourceHandlerWrapperBase.parseRange("bytes=-100", 1000L));
+		assertRange(0L, 999L, ResourceHandlerWrapperBase.parseRange("bytes=-5000", 1000L));
+		assertRange(500L, 999L, ResourceHandlerWrapperBase.parseRange("bytes=500-5000", 1000L));
+		assertRange(3L, 3L, ResourceHandlerWrapperBase.parseRange("bytes=3-3", 1000L));
+
+		// Ranges that are to be ignored.
+		Assert.assertNull(ResourceHandlerWrapperBase.parseRange("bytes=0-1,5-6", 1000L));
+		Assert.assertNull(ResourceHandlerWrapperBase.parseRange("bytes=5-1", 1000L));
+		Assert.assertNull(ResourceHandlerWrapperBase.parseRange("bytes=a-b", 1000L));
+		Assert.assertNull(ResourceHandlerWrapperBase.parseRange("items=0-1", 1000L));
+		Assert.assertNull(ResourceHandlerWrapperBase.parseRange("bytes=5", 1000L));
+
+		// Ranges that cannot be satisfied.
+		Assert.assertEquals(0, ResourceHandlerWrapperBase.parseRange("bytes=1000-", 1000L).length);
+		Assert.assertEquals(0, ResourceHandlerWrapperBase.parseRange("bytes=-0", 1000L).length);
+		Assert.assertEquals(0, ResourceHandlerWrapperBase.parseRange("bytes=0-", 0L).length);
+	}
+
+	private void assertRange(long expectedFirstBytePos, long expectedLastBytePos, long[] byteRange) {
+
+		Assert.assertNotNull(byteRange);
+		Assert.assertEquals(2, byteRange.length);
+		Assert.assertEquals(expectedFirstBytePos, byteRange[0]);
+		Assert.assertEquals(expectedLastBytePos, byteRange[1]);
+	}
+}
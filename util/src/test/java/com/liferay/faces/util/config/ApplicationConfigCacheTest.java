@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import javax.xml.parsers.SAXParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ApplicationConfigCacheTest {
+
+	// Private Constants
+	private static final String FACES_CONFIG = "<?xml version=\"1.0\"?>" +
+		"<faces-config xmlns=\"http://java.sun.com/xml/ns/javaee\" version=\"2.0\">" +
+		"<application><application-extension><foo>bar</foo></application-extension></application>" +
+		"<factory><factory-extension><foo-factory>com.example.FooFactoryImpl</foo-factory></factory-extension>" +
+		"</factory><managed-bean><managed-bean-name>{0}</managed-bean-name>" +
+		"<managed-bean-class>java.lang.Object</managed-bean-class>" +
+		"<managed-bean-scope>request</managed-bean-scope></managed-bean><system-event-listener>" +
+		"<system-event-listener-class>com.example.Listener</system-event-listener-class>" +
+		"<system-event-class>javax.faces.event.PostConstructApplicationEvent</system-event-class>" +
+		"</system-event-listener></faces-config>";
+	private static final String WEB_XML = "<?xml version=\"1.0\"?>" +
+		"<web-app xmlns=\"http://java.sun.com/xml/ns/javaee\" version=\"3.0\"><servlet>" +
+		"<servlet-name>Faces Servlet</servlet-name><servlet-class>javax.faces.webapp.FacesServlet</servlet-class>" +
+		"<multipart-config><location>/tmp</location><max-file-size>1024</max-file-size></multipart-config>" +
+		"</servlet><servlet-mapping><servlet-name>Faces Servlet</servlet-name><url-pattern>/faces/*</url-pattern>" +
+		"</servlet-mapping><servlet-mapping><servlet-name>Faces Servlet</servlet-name>" +
+		"<url-pattern>*.faces</url-pattern></servlet-mapping></web-app>";
+
+	@Test
+	public void testCache() throws Exception {
+
+		File tempDir = File.createTempFile("applicationConfigCache", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+
+		Thread currentThread = Thread.currentThread();
+		ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+
+		try {
+
+			// Setup a classpath that contains a jar as well as an exploded directory.
+			File jarFile = new File(tempDir, "foo.jar");
+			JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jarFile));
+			jarOutputStream.putNextEntry(new ZipEntry("META-INF/faces-config.xml"));
+			jarOutputStream.write(FACES_CONFIG.replace("{0}", "jarBean").getBytes());
+			jarOutputStream.closeEntry();
+			jarOutputStream.close();
+
+			File classesDir = new File(tempDir, "classes");
+			File metaInfDir = new File(classesDir, "META-INF");
+			metaInfDir.mkdirs();
+
+			File explodedFacesConfig = new File(metaInfDir, "faces-config.xml");
+			writeFile(explodedFacesConfig, FACES_CONFIG.replace("{0}", "classesBean"));
+
+			currentThread.setContextClassLoader(new URLClassLoader(
+					new URL[] { jarFile.toURI().toURL(), classesDir.toURI().toURL() }, null));
+
+			File cacheFile = new File(tempDir, ApplicationConfigCache.FILE_NAME);
+			ApplicationConfigCache applicationConfigCache = new ApplicationConfigCache(cacheFile);
+			TestApplicationConfigInitializer applicationConfigInitializer = new TestApplicationConfigInitializer(
+					applicationConfigCache);
+
+			// The first time, the descriptors are scanned and the cache file is written.
+			ApplicationConfig scannedApplicationConfig = applicationConfigInitializer.initialize();
+			Assert.assertEquals(1, applicationConfigInitializer.getTotalScans());
+			Assert.assertTrue(cacheFile.isFile());
+			Assert.assertEquals(2, scannedApplicationConfig.getFacesConfig().getConfiguredManagedBeans().size());
+
+			// The second time, the configuration is loaded from the cache file and is equivalent to a fresh scan.
+			ApplicationConfig cachedApplicationConfig = applicationConfigInitializer.initialize();
+			Assert.assertEquals(1, applicationConfigInitializer.getTotalScans());
+			Assert.assertEquals("/test", cachedApplicationConfig.getContextPath());
+			Assert.assertEquals(describe(scannedApplicationConfig), describe(cachedApplicationConfig));
+
+			// A descriptor that changes in an exploded directory causes the cache to become stale.
+			writeFile(explodedFacesConfig, FACES_CONFIG.replace("{0}", "changedBean"));
+
+			ApplicationConfig rescannedApplicationConfig = applicationConfigInitializer.initialize();
+			Assert.assertEquals(2, applicationConfigInitializer.getTotalScans());
+			Assert.assertEquals("changedBean",
+				rescannedApplicationConfig.getFacesConfig().getConfiguredManagedBeans().get(1).getManagedBeanName());
+
+			// A jar that changes causes the cache to become stale.
+			Assert.assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10000L));
+			applicationConfigInitializer.initialize();
+			Assert.assertEquals(3, applicationConfigInitializer.getTotalScans());
+			applicationConfigInitializer.initialize();
+			Assert.assertEquals(3, applicationConfigInitializer.getTotalScans());
+
+			// A corrupt cache file is ignored and replaced by a fresh scan.
+			writeFile(cacheFile, "corrupt");
+
+			byte[] fingerprint = applicationConfigCache.newFingerprint(currentThread.getContextClassLoader(),
+					applicationConfigInitializer.newResourceReader(), false);
+			Assert.assertNull(applicationConfigCache.read(fingerprint, "/test"));
+			Assert.assertEquals(describe(rescannedApplicationConfig),
+				describe(applicationConfigInitializer.initialize()));
+			Assert.assertEquals(4, applicationConfigInitializer.getTotalScans());
+			Assert.assertNotNull(applicationConfigCache.read(fingerprint, "/test"));
+		}
+		finally {
+			currentThread.setContextClassLoader(contextClassLoader);
+			delete(tempDir);
+		}
+	}
+
+	protected void delete(File file) {
+
+		File[] files = file.listFiles();
+
+		if (files != null) {
+
+			for (File child : files) {
+				delete(child);
+			}
+		}
+
+		file.delete();
+	}
+
+	protected List<String> describe(ApplicationConfig applicationConfig) {
+
+		List<String> description = new ArrayList<String>();
+		WebConfig webConfig = applicationConfig.getWebConfig();
+		description.add(webConfig.getConfiguredContextParams().toString());
+
+		for (ConfiguredServlet configuredServlet : webConfig.getConfiguredServlets()) {
+
+			MultiPartConfig multiPartConfig = configuredServlet.getMultiPartConfig();
+			description.add(configuredServlet.getServletName() + "," + configuredServlet.getServletClass() + "," +
+				multiPartConfig.getLocation() + "," + multiPartConfig.getMaxFileSize());
+		}
+
+		describe(description, webConfig.getConfiguredServletMappings());
+
+		FacesConfig facesConfig = applicationConfig.getFacesConfig();
+
+		for (ConfiguredElement configuredElement : facesConfig.getConfiguredApplicationExtensions()) {
+			description.add(configuredElement.getName() + "=" + configuredElement.getValue());
+		}
+
+		for (ConfiguredElement configuredElement : facesConfig.getConfiguredFactoryExtensions()) {
+			description.add(configuredElement.getName() + "=" + configuredElement.getValue());
+		}
+
+		describe(description, facesConfig.getConfiguredFacesServletMappings());
+
+		for (ConfiguredManagedBean configuredManagedBean : facesConfig.getConfiguredManagedBeans()) {
+			description.add(configuredManagedBean.getManagedBeanName() + "," +
+				configuredManagedBean.getManagedBeanClass() + "," + configuredManagedBean.getManagedBeanScope());
+		}
+
+		description.add(facesConfig.getConfiguredSuffixes().toString());
+
+		for (ConfiguredSystemEventListener listener : facesConfig.getConfiguredSystemEventListeners()) {
+			description.add(listener.getSourceClass() + "," + listener.getSystemEventClass() + "," +
+				listener.getSystemEventListenerClass());
+		}
+
+		return description;
+	}
+
+	protected void describe(List<String> description, List<ConfiguredServletMapping> configuredServletMappings) {
+
+		for (ConfiguredServletMapping configuredServletMapping : configuredServletMappings) {
+			description.add(configuredServletMapping.getServletName() + "," +
+				configuredServletMapping.getUrlPattern() + "," + configuredServletMapping.isExtensionMapped() + "," +
+				configuredServletMapping.getExtension() + "," + configuredServletMapping.isPathMapped() + "," +
+				configuredServletMapping.getServletPath());
+		}
+	}
+
+	protected void writeFile(File file, String content) throws IOException {
+
+		FileOutputStream fileOutputStream = new FileOutputStream(file);
+
+		try {
+			fileOutputStream.write(content.getBytes());
+		}
+		finally {
+			fileOutputStream.close();
+		}
+	}
+
+	private static class TestApplicationConfigInitializer extends ApplicationConfigInitializerImpl {
+
+		// Private Data Members
+		private int totalScans;
+
+		public TestApplicationConfigInitializer(ApplicationConfigCache applicationConfigCache) {
+			super("/test", false, applicationConfigCache);
+		}
+
+		@Override
+		protected ResourceReader newResourceReader() {
+
+			return new ResourceReader() {
+
+					public InputStream getResourceAsStream(String path) {
+
+						InputStream inputStream = null;
+
+						if ("/WEB-INF/web.xml".equals(path)) {
+							inputStream = new ByteArrayInputStream(WEB_XML.getBytes());
+						}
+
+						return inputStream;
+					}
+				};
+		}
+
+		@Override
+		protected WebConfigScanner newWebConfigScanner(ClassLoader classLoader, ResourceReader resourceReader,
+			SAXParser saxParser, boolean resolveEntities) {
+
+			totalScans++;
+
+			return super.newWebConfigScanner(classLoader, resourceReader, saxParser, resolveEntities);
+		}
+
+		public int getTotalScans() {
+			return totalScans;
+		}
+	}
+}
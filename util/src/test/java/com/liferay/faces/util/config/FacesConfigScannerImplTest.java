@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import javax.xml.parsers.SAXParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.xml.SAXParserFactory;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class FacesConfigScannerImplTest {
+
+	// Private Constants
+	private static final int TOTAL_SYNTHETIC_JARS = 24;
+
+	@Test
+	public void testScan() throws Exception {
+		assertScan(false);
+	}
+
+	@Test
+	public void testScanInterrupted() throws Exception {
+
+		// If the calling thread is interrupted while waiting for the parallel tasks, then the descriptors must still be
+		// parsed and merged, and the interrupt status must be preserved.
+		assertScan(true);
+	}
+
+	protected void assertScan(final boolean interrupted) throws Exception {
+
+		File jarDir = File.createTempFile("facesConfigScanner", "");
+		jarDir.delete();
+		jarDir.mkdirs();
+
+		final Thread currentThread = Thread.currentThread();
+		ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+
+		try {
+
+			// The order of the jars determines the order in which the class loader enumerates the descriptors.
+			List<URL> jarURLs = new ArrayList<URL>();
+			jarURLs.add(newJar(jarDir, "jsf-impl", "com/sun/faces/jsf-ri-runtime.xml",
+					newFacesConfig(null, "mojarra")));
+			jarURLs.add(newJar(jarDir, "util", "META-INF/faces-config.xml",
+					newFacesConfig("LiferayFacesUtil", "util")));
+			jarURLs.add(newJar(jarDir, "unnamed", "META-INF/faces-config.xml", newFacesConfig(null, "unnamed")));
+			jarURLs.add(newJar(jarDir, "bridge", "META-INF/faces-config.xml",
+					newFacesConfig("LiferayFacesBridge", "bridge")));
+
+			for (int i = 0; i < TOTAL_SYNTHETIC_JARS; i++) {
+				jarURLs.add(newJar(jarDir, "synthetic" + i, "META-INF/faces-config.xml",
+						newFacesConfig("Synthetic" + i, "synthetic" + i)));
+			}
+
+			currentThread.setContextClassLoader(new URLClassLoader(jarURLs.toArray(new URL[jarURLs.size()]), null));
+
+			SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+			saxParserFactory.setValidating(false);
+			saxParserFactory.setNamespaceAware(true);
+
+			SAXParser saxParser = saxParserFactory.newSAXParser();
+			ResourceReader resourceReader = new ResourceReader() {
+
+					public InputStream getResourceAsStream(String path) {
+						return new ByteArrayInputStream(newFacesConfig(null, "webInf"));
+					}
+				};
+
+			// Every descriptor (including WEB-INF/faces-config.xml) must be parsed by a parser that is obtained from
+			// the factory method, and the META-INF descriptors must each be parsed with their own SAXParser.
+			final List<SAXParser> saxParsers = Collections.synchronizedList(new ArrayList<SAXParser>());
+			FacesConfigScanner facesConfigScanner = new FacesConfigScannerImpl(null, resourceReader, saxParser, false,
+					new WebConfigImpl()) {
+
+					@Override
+					protected ExecutorService newExecutorService(int totalDescriptors) {
+
+						// Parse in parallel regardless of the number of available processors.
+						return Executors.newFixedThreadPool(4);
+					}
+
+					@Override
+					protected FacesConfigParser newFacesConfigParser(SAXParser saxParser) {
+
+						saxParsers.add(saxParser);
+
+						// Slow down the parallel tasks so that the calling thread is still waiting for them when it is
+						// interrupted.
+						if (interrupted && (Thread.currentThread() != currentThread)) {
+
+							try {
+								Thread.sleep(50L);
+							}
+							catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+						}
+
+						return super.newFacesConfigParser(saxParser);
+					}
+				};
+
+			if (interrupted) {
+				currentThread.interrupt();
+			}
+
+			FacesConfig facesConfig;
+
+			try {
+				facesConfig = facesConfigScanner.scan();
+			}
+			finally {
+				Assert.assertEquals(interrupted, Thread.interrupted());
+			}
+
+			if (!interrupted) {
+				Set<SAXParser> distinctSAXParsers = new HashSet<SAXParser>(saxParsers);
+				Assert.assertEquals(jarURLs.size() + 1, saxParsers.size());
+				Assert.assertEquals(saxParsers.size(), distinctSAXParsers.size());
+				Assert.assertTrue(distinctSAXParsers.contains(saxParser));
+			}
+
+			// The Mojarra configuration is first, followed by the bridge, util, and remaining META-INF descriptors in
+			// the order in which they were enumerated, followed by WEB-INF/faces-config.xml.
+			List<String> expectedManagedBeanNames = new ArrayList<String>();
+			expectedManagedBeanNames.add("mojarra");
+			expectedManagedBeanNames.add("bridge");
+			expectedManagedBeanNames.add("util");
+			expectedManagedBeanNames.add("unnamed");
+
+			for (int i = 0; i < TOTAL_SYNTHETIC_JARS; i++) {
+				expectedManagedBeanNames.add("synthetic" + i);
+			}
+
+			expectedManagedBeanNames.add("webInf");
+
+			List<String> managedBeanNames = new ArrayList<String>();
+
+			for (ConfiguredManagedBean configuredManagedBean : facesConfig.getConfiguredManagedBeans()) {
+				managedBeanNames.add(configuredManagedBean.getManagedBeanName());
+			}
+
+			Assert.assertEquals(expectedManagedBeanNames, managedBeanNames);
+			Assert.assertEquals(1, facesConfig.getConfiguredApplicationExtensions().size());
+			Assert.assertEquals("LiferayFacesBridge",
+				facesConfig.getConfiguredApplicationExtensions().get(0).getValue());
+		}
+		finally {
+			currentThread.setContextClassLoader(contextClassLoader);
+
+			File[] files = jarDir.listFiles();
+
+			if (files != null) {
+
+				for (File file : files) {
+					file.delete();
+				}
+			}
+
+			jarDir.delete();
+		}
+	}
+
+	protected byte[] newFacesConfig(String name, String managedBeanName) {
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("<?xml version=\"1.0\"?>");
+		buf.append("<faces-config xmlns=\"http://java.sun.com/xml/ns/javaee\" version=\"2.0\">");
+
+		if (name != null) {
+			buf.append("<name>");
+			buf.append(name);
+			buf.append("</name>");
+		}
+
+		// A <name> element within an extension must not be mistaken for the name of the descriptor.
+		if ("unnamed".equals(managedBeanName)) {
+			buf.append("<application><application-extension><name>LiferayFacesBridge</name>");
+			buf.append("</application-extension></application>");
+		}
+
+		buf.append("<managed-bean><managed-bean-name>");
+		buf.append(managedBeanName);
+		buf.append("</managed-bean-name><managed-bean-class>java.lang.Object</managed-bean-class>");
+		buf.append("<managed-bean-scope>request</managed-bean-scope></managed-bean></faces-config>");
+
+		return buf.toString().getBytes();
+	}
+
+	protected URL newJar(File jarDir, String jarName, String entryName, byte[] content) throws IOException {
+
+		File jarFile = new File(jarDir, jarName + ".jar");
+		JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jarFile));
+
+		try {
+			jarOutputStream.putNextEntry(new ZipEntry(entryName));
+			jarOutputStream.write(content);
+			jarOutputStream.closeEntry();
+		}
+		finally {
+			jarOutputStream.close();
+		}
+
+		return jarFile.toURI().toURL();
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class TokenRewriterTest {
+
+	@Test
+	public void testLookahead() throws IOException {
+
+		// Replace "url(name)" with "url(/images/name)" by consuming the lookahead up to the closing parenthesis.
+		TokenRewriter tokenRewriter = new TokenRewriter(new String[] { "url(" }, 64, 16);
+		TokenHandler tokenHandler = new TokenHandler() {
+
+				public int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException {
+
+					String text = lookahead.toString();
+					int closePos = text.indexOf(')');
+
+					if (closePos < 0) {
+						return -1;
+					}
+
+					writer.write("url(/images/" + text.substring(0, closePos));
+
+					return closePos;
+				}
+			};
+
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+
+		for (int i = 0; i < 100; i++) {
+			input.append(".c").append(i).append(" { background: url(img").append(i).append(".png); }\n");
+			expected.append(".c").append(i).append(" { background: url(/images/img").append(i).append(".png); }\n");
+		}
+
+		// A token without a closing parenthesis is written unchanged.
+		input.append("url(");
+		expected.append("url(");
+
+		Assert.assertEquals(expected.toString(), rewrite(tokenRewriter, input.toString(), tokenHandler));
+	}
+
+	@Test
+	public void testPrecedenceAndCharset() throws IOException {
+
+		TokenRewriter tokenRewriter = new TokenRewriter(new String[] { "../../x/", "../../", "\u00e9\u00e9" }, 0);
+		TokenHandler tokenHandler = new TokenHandler() {
+
+				public int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException {
+					writer.write("[" + tokenIndex + "]");
+
+					return 0;
+				}
+			};
+
+		String input = "a ../../x/b ../../c \u00e9\u00e9\u00e9 \u4e2d";
+		String expected = "a [0]b [1]c [2]\u00e9 \u4e2d";
+		Assert.assertEquals(expected, rewrite(tokenRewriter, input, tokenHandler));
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		byte[] bytes = input.getBytes("UTF-8");
+		tokenRewriter.rewrite(bytes, 0, bytes.length, "UTF-8", byteArrayOutputStream, tokenHandler);
+		Assert.assertEquals(expected, new String(byteArrayOutputStream.toByteArray(), "UTF-8"));
+	}
+
+	@Test
+	public void testReplaceEquivalence() throws IOException {
+
+		// Compare against String.replace for random text and a variety of window sizes so that tokens frequently
+		// straddle the boundaries of the window.
+		final String[] tokens = new String[] { "abc", "b", "cab" };
+		final String[] replacements = new String[] { "X", "YY", "" };
+		Random random = new Random(42L);
+
+		for (int windowSize = 1; windowSize < 40; windowSize++) {
+
+			TokenRewriter tokenRewriter = new TokenRewriter(tokens, 0, windowSize);
+			TokenHandler tokenHandler = new TokenHandler() {
+
+					public int handleToken(int tokenIndex, CharSequence lookahead, Writer writer) throws IOException {
+						writer.write(replacements[tokenIndex]);
+
+						return 0;
+					}
+				};
+
+			StringBuilder input = new StringBuilder();
+
+			for (int i = 0; i < 500; i++) {
+				input.append((char) ('a' + random.nextInt(4)));
+			}
+
+			Assert.assertEquals(replaceLeftmost(input.toString(), tokens, replacements),
+				rewrite(tokenRewriter, input.toString(), tokenHandler));
+		}
+	}
+
+	private String replaceLeftmost(String text, String[] tokens, String[] replacements) {
+
+		StringBuilder buf = new StringBuilder();
+		int pos = 0;
+
+		while (pos < text.length()) {
+
+			boolean replaced = false;
+
+			for (int i = 0; i < tokens.length; i++) {
+
+				if (text.startsWith(tokens[i], pos)) {
+					buf.append(replacements[i]);
+					pos += tokens[i].length();
+					replaced = true;
+
+					break;
+				}
+			}
+
+			if (!replaced) {
+				buf.append(text.charAt(pos));
+				pos++;
+			}
+		}
+
+		return buf.toString();
+	}
+
+	private String rewrite(TokenRewriter tokenRewriter, String text, TokenHandler tokenHandler) throws IOException {
+
+		StringWriter stringWriter = new StringWriter();
+		tokenRewriter.rewrite(new StringReader(text), stringWriter, tokenHandler);
+
+		return stringWriter.toString();
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2000-2014 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.map;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class AbstractPropertyMapTest {
+
+	@Test
+	public void testViews() {
+
+		Map<String, Object> attributes = new HashMap<String, Object>();
+		attributes.put("a", "1");
+
+		AttributeMap attributeMap = new AttributeMap(attributes);
+		Set<String> keySet = attributeMap.keySet();
+		Set<Map.Entry<String, Object>> entrySet = attributeMap.entrySet();
+		Assert.assertSame(keySet, attributeMap.keySet());
+		Assert.assertSame(entrySet, attributeMap.entrySet());
+		Assert.assertSame(attributeMap.values(), attributeMap.values());
+
+		// Attributes that are set directly on the underlying attributes must be visible through the views.
+		attributes.put("b", "2");
+		Assert.assertEquals(2, keySet.size());
+		Assert.assertTrue(keySet.contains("b"));
+		Assert.assertTrue(attributeMap.values().contains("2"));
+		Assert.assertEquals(2, entrySet.size());
+
+		attributeMap.put("c", "3");
+		Assert.assertTrue(keySet.contains("c"));
+
+		// Attributes can be removed while iterating.
+		Iterator<String> iterator = keySet.iterator();
+
+		while (iterator.hasNext()) {
+
+			if (!"a".equals(iterator.next())) {
+				iterator.remove();
+			}
+		}
+
+		Assert.assertEquals(Collections.singleton("a"), keySet);
+		Assert.assertEquals(Collections.<String, Object>singletonMap("a", "1"), attributes);
+
+		for (Map.Entry<String, Object> mapEntry : entrySet) {
+			Assert.assertEquals("a", mapEntry.getKey());
+			Assert.assertEquals("1", mapEntry.getValue());
+		}
+
+		keySet.clear();
+		Assert.assertTrue(attributeMap.isEmpty());
+		Assert.assertFalse(entrySet.iterator().hasNext());
+	}
+
+	protected static class AttributeMap extends AbstractPropertyMap<Object> {
+
+		// Private Data Members
+		private Map<String, Object> attributes;
+
+		public AttributeMap(Map<String, Object> attributes) {
+			this.attributes = attributes;
+		}
+
+		@Override
+		protected AbstractPropertyMapEntry<Object> createPropertyMapEntry(final String name) {
+
+			return new AbstractPropertyMapEntry<Object>(name) {
+
+					public Object getValue() {
+						return attributes.get(name);
+					}
+
+					public Object setValue(Object value) {
+						return attributes.put(name, value);
+					}
+				};
+		}
+
+		@Override
+		protected void removeProperty(String name) {
+			attributes.remove(name);
+		}
+
+		@Override
+		protected Object getProperty(String name) {
+			return attributes.get(name);
+		}
+
+		@Override
+		protected void setProperty(String name, Object value) {
+			attributes.put(name, value);
+		}
+
+		@Override
+		protected Enumeration<String> getPropertyNames() {
+			return Collections.enumeration(attributes.keySet());
+		}
+	}
+}